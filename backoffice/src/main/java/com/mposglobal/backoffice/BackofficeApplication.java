@@ -2,6 +2,7 @@ package com.mposglobal.backoffice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Info;
@@ -22,6 +23,7 @@ import io.swagger.v3.oas.annotations.info.Info;
 	    )
 	)
 @SpringBootApplication
+@EnableScheduling
 public class BackofficeApplication {
 
 	/**
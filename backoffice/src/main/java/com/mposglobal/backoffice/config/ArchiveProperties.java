@@ -0,0 +1,83 @@
+package com.mposglobal.backoffice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Propiedades del archivado de filas desactivadas ({@code app.archive.*}).
+ * <p>
+ * Cada ejecución recorre {@code Productos}, {@code Categorias} y {@code Usuarios} por ID en
+ * transacciones de hasta {@code chunkSize} filas, con una pausa de {@code pause} entre ellas,
+ * y mueve a las tablas {@code *_Archivo} las filas desactivadas hace más de {@code retention}.
+ * </p>
+ */
+@ConfigurationProperties(prefix = "app.archive")
+public class ArchiveProperties {
+
+    /**
+     * Activa el archivado programado ({@code POST /admin/archive/run} funciona igual).
+     */
+    private boolean enabled = true;
+
+    /**
+     * Antigüedad mínima de la desactivación para archivar una fila.
+     */
+    private Duration retention = Duration.ofDays(180);
+
+    /**
+     * Filas revisadas por transacción.
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Pausa entre transacciones, para dejar pasar la carga transaccional.
+     */
+    private Duration pause = Duration.ofMillis(200);
+
+    /**
+     * Tiempo máximo de una transacción; si espera bloqueos más que esto se revierte y se
+     * reintenta en la siguiente ejecución.
+     */
+    private Duration chunkTimeout = Duration.ofSeconds(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public Duration getPause() {
+        return pause;
+    }
+
+    public void setPause(Duration pause) {
+        this.pause = pause;
+    }
+
+    public Duration getChunkTimeout() {
+        return chunkTimeout;
+    }
+
+    public void setChunkTimeout(Duration chunkTimeout) {
+        this.chunkTimeout = chunkTimeout;
+    }
+}
@@ -0,0 +1,110 @@
+package com.mposglobal.backoffice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Propiedades de la auditoría de cambios ({@code app.audit.*}).
+ * <p>
+ * Los registros pasan por una cola en memoria de {@code queueCapacity} entradas que un hilo
+ * vacía en lotes de hasta {@code batchSize}. Si la cola sigue llena después de
+ * {@code offerTimeout} (la base está lenta o caída), el registro se agrega al archivo
+ * {@code spillFile}, que se vuelve a insertar cuando la cola se vacía.
+ * </p>
+ */
+@ConfigurationProperties(prefix = "app.audit")
+public class AuditProperties {
+
+    /**
+     * Activa la auditoría; desactivada, los cambios no se registran.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Capacidad de la cola en memoria.
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * Máximo de registros por inserción en lote.
+     */
+    private int batchSize = 200;
+
+    /**
+     * Espera máxima de quien registra un cambio cuando la cola está llena.
+     */
+    private Duration offerTimeout = Duration.ofMillis(20);
+
+    /**
+     * Espera máxima del hilo escritor por un registro antes de revisar el archivo de desborde.
+     */
+    private Duration flushInterval = Duration.ofMillis(500);
+
+    /**
+     * Pausa del hilo escritor después de una inserción fallida.
+     */
+    private Duration retryDelay = Duration.ofSeconds(5);
+
+    /**
+     * Archivo local de desborde (una línea JSON por registro).
+     */
+    private Path spillFile = Path.of(System.getProperty("java.io.tmpdir"), "backoffice-audit-spill.jsonl");
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getOfferTimeout() {
+        return offerTimeout;
+    }
+
+    public void setOfferTimeout(Duration offerTimeout) {
+        this.offerTimeout = offerTimeout;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public Duration getRetryDelay() {
+        return retryDelay;
+    }
+
+    public void setRetryDelay(Duration retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+
+    public Path getSpillFile() {
+        return spillFile;
+    }
+
+    public void setSpillFile(Path spillFile) {
+        this.spillFile = spillFile;
+    }
+}
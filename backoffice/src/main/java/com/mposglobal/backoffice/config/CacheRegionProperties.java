@@ -0,0 +1,63 @@
+package com.mposglobal.backoffice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Propiedades de las regiones de la caché de segundo nivel de Hibernate ({@code app.cache.*}).
+ * <p>
+ * Cada región declarada aquí se crea en el {@code CacheManager} JCache al arrancar; Hibernate
+ * está configurado para fallar si una entidad o consulta cacheable usa una región no declarada.
+ * </p>
+ */
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheRegionProperties {
+
+    /**
+     * Regiones por nombre (por ejemplo {@code categorias} o {@code default-query-results-region}).
+     */
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    public Map<String, Region> getRegions() {
+        return regions;
+    }
+
+    public void setRegions(Map<String, Region> regions) {
+        this.regions = regions;
+    }
+
+    /**
+     * Tamaño y expiración de una región.
+     */
+    public static class Region {
+
+        /**
+         * Máximo de entradas en memoria (heap).
+         */
+        private long maxEntries = 1000;
+
+        /**
+         * Tiempo de vida de cada entrada; vacío para no expirar.
+         */
+        private Duration ttl;
+
+        public long getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(long maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
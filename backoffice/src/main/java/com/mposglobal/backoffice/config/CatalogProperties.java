@@ -0,0 +1,95 @@
+package com.mposglobal.backoffice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Propiedades del catálogo en memoria ({@code app.catalog.*}).
+ */
+@ConfigurationProperties(prefix = "app.catalog")
+public class CatalogProperties {
+
+    /**
+     * Cuándo se aplica un cambio confirmado al catálogo en memoria.
+     */
+    public enum Consistency {
+        /**
+         * En el hilo de la escritura, después del commit y antes de responder: quien escribe
+         * lee su propio cambio.
+         */
+        SYNC,
+        /**
+         * En un hilo aparte, en orden de commit: la escritura responde antes y las lecturas
+         * pueden ver la versión anterior durante unos milisegundos.
+         */
+        ASYNC
+    }
+
+    /**
+     * Dónde se guardan los productos del catálogo.
+     */
+    public enum Storage {
+        /**
+         * Objetos inmutables en el heap; adecuado hasta unos cientos de miles de productos.
+         */
+        HEAP,
+        /**
+         * Columnas de ancho fijo en buffers directos; el heap no crece con el catálogo y el
+         * listado se serializa directamente desde ellas.
+         */
+        OFF_HEAP
+    }
+
+    /**
+     * Activa el catálogo en memoria; desactivado, las lecturas van a la base.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Modo de aplicación de los cambios.
+     */
+    private Consistency consistency = Consistency.SYNC;
+
+    /**
+     * Almacenamiento de los productos.
+     */
+    private Storage storage = Storage.HEAP;
+
+    /**
+     * Intervalo de la comparación de sumas de control contra la base.
+     */
+    private Duration verifyInterval = Duration.ofMinutes(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Consistency getConsistency() {
+        return consistency;
+    }
+
+    public void setConsistency(Consistency consistency) {
+        this.consistency = consistency;
+    }
+
+    public Storage getStorage() {
+        return storage;
+    }
+
+    public void setStorage(Storage storage) {
+        this.storage = storage;
+    }
+
+    public Duration getVerifyInterval() {
+        return verifyInterval;
+    }
+
+    public void setVerifyInterval(Duration verifyInterval) {
+        this.verifyInterval = verifyInterval;
+    }
+}
@@ -0,0 +1,65 @@
+package com.mposglobal.backoffice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Propiedades de la agrupación de lecturas concurrentes idénticas ({@code app.coalescing.*}).
+ * <p>
+ * El tiempo de espera es el máximo que una solicitud agrupada espera el resultado de la que
+ * ejecuta la consulta; se puede ajustar por nombre de consulta en {@code timeouts}.
+ * </p>
+ */
+@ConfigurationProperties(prefix = "app.coalescing")
+public class CoalescingProperties {
+
+    /**
+     * Activa la agrupación; desactivada, cada solicitud ejecuta su propia consulta.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Tiempo de espera por defecto de las solicitudes agrupadas.
+     */
+    private Duration timeout = Duration.ofSeconds(5);
+
+    /**
+     * Tiempos de espera por nombre de consulta (por ejemplo {@code products}).
+     */
+    private Map<String, Duration> timeouts = new HashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public Map<String, Duration> getTimeouts() {
+        return timeouts;
+    }
+
+    public void setTimeouts(Map<String, Duration> timeouts) {
+        this.timeouts = timeouts;
+    }
+
+    /**
+     * @param name El nombre de la consulta.
+     * @return El tiempo de espera configurado para esa consulta, o el de por defecto.
+     */
+    public Duration timeoutFor(String name) {
+        return timeouts.getOrDefault(name, timeout);
+    }
+}
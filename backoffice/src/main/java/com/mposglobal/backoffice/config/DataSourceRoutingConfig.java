@@ -0,0 +1,93 @@
+package com.mposglobal.backoffice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+import java.util.List;
+
+/**
+ * Configuración del enrutamiento de lecturas hacia réplicas.
+ * <p>
+ * Solo se activa con {@code app.datasource.routing.enabled=true}. Reemplaza el DataSource
+ * autoconfigurado por Spring Boot con un {@link ReplicaRoutingDataSource} envuelto en un
+ * {@link LazyConnectionDataSourceProxy}, que difiere la obtención de la conexión física
+ * hasta la primera sentencia para que el enrutamiento conozca la bandera de solo lectura.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+public class DataSourceRoutingConfig {
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    /**
+     * Crea los pools del primario ({@code spring.datasource.*}, incluidos los ajustes
+     * {@code spring.datasource.hikari.*}) y de cada réplica, y el DataSource que enruta entre ellos.
+     *
+     * @param primaryProperties Propiedades estándar del DataSource primario.
+     * @param routing Propiedades de las réplicas y de la política de enrutamiento.
+     * @param env Entorno para enlazar la configuración de Hikari.
+     * @return El DataSource de enrutamiento (se cierra con el contexto).
+     */
+    @Bean
+    ReplicaRoutingDataSource routingDataSource(DataSourceProperties primaryProperties,
+                                               ReplicaRoutingProperties routing, Environment env) {
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class).build();
+        Binder.get(env).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        List<DataSource> replicas = routing.getReplicas().stream().map(r -> {
+            HikariDataSource ds = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(r.getUrl())
+                    .username(r.getUsername())
+                    .password(r.getPassword())
+                    .driverClassName(r.getDriverClassName())
+                    .build();
+            ds.setReadOnly(true);
+            return (DataSource) ds;
+        }).toList();
+
+        routingDataSource = new ReplicaRoutingDataSource(primary, replicas,
+                routing.getReadYourWritesWindow(), routing.getHealthCheckTimeout());
+        return routingDataSource;
+    }
+
+    /**
+     * DataSource principal de la aplicación (JPA, JDBC e inicialización de esquema).
+     *
+     * @param routingDataSource El DataSource de enrutamiento.
+     * @return Un proxy que obtiene la conexión física en la primera sentencia.
+     */
+    @Bean
+    @Primary
+    DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Chequeo periódico de salud de las réplicas.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.routing.health-check-interval:10s}")
+    void checkReplicaHealth() {
+        if (routingDataSource != null) {
+            routingDataSource.checkHealth();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.mposglobal.backoffice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Propiedades del outbox de eventos del catálogo ({@code app.outbox.*}).
+ * <p>
+ * Cada cambio de producto o categoría deja una fila en {@code Outbox} dentro de su transacción.
+ * El relay lee las pendientes en lotes de {@code batchSize}, las entrega a los suscriptores y las
+ * marca procesadas; las procesadas hace más de {@code retention} se borran en tramos de
+ * {@code compactionChunk} filas.
+ * </p>
+ */
+@ConfigurationProperties(prefix = "app.outbox")
+public class OutboxProperties {
+
+    /**
+     * Activa el relay; desactivado, los eventos se siguen escribiendo y quedan pendientes.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Filas leídas y entregadas por lote.
+     */
+    private int batchSize = 100;
+
+    /**
+     * Tiempo que se conservan las filas ya procesadas.
+     */
+    private Duration retention = Duration.ofDays(1);
+
+    /**
+     * Filas borradas por sentencia en la compactación.
+     */
+    private int compactionChunk = 1000;
+
+    /**
+     * Archivo JSON Lines donde se agregan los eventos entregados; sin valor no hay archivo.
+     */
+    private Path fileSink;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+
+    public int getCompactionChunk() {
+        return compactionChunk;
+    }
+
+    public void setCompactionChunk(int compactionChunk) {
+        this.compactionChunk = compactionChunk;
+    }
+
+    public Path getFileSink() {
+        return fileSink;
+    }
+
+    public void setFileSink(Path fileSink) {
+        this.fileSink = fileSink;
+    }
+}
@@ -0,0 +1,171 @@
+package com.mposglobal.backoffice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Propiedades de la limitación de tasa de solicitudes ({@code app.ratelimit.*}).
+ * <p>
+ * Cada límite es un token bucket: {@code capacity} solicitudes de ráfaga que se recargan a
+ * razón de {@code per-second} por segundo. Se aplica siempre el límite por dirección remota y,
+ * para solicitudes autenticadas, la primera regla cuyo rol, método y ruta coincidan (o
+ * {@code default-limit} si ninguna coincide), con un bucket por usuario y regla.
+ * </p>
+ */
+@ConfigurationProperties(prefix = "app.ratelimit")
+public class RateLimitProperties {
+
+    /**
+     * Activa la limitación de tasa.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Tiempo sin actividad tras el cual un bucket lleno se descarta de memoria.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * Límite por dirección remota, autenticada o no.
+     */
+    private Limit perAddress = new Limit(200, 50);
+
+    /**
+     * Límite por usuario cuando ninguna regla coincide.
+     */
+    private Limit defaultLimit = new Limit(100, 20);
+
+    /**
+     * Reglas por rol y ruta, evaluadas en orden.
+     */
+    private List<Rule> rules = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public Limit getPerAddress() {
+        return perAddress;
+    }
+
+    public void setPerAddress(Limit perAddress) {
+        this.perAddress = perAddress;
+    }
+
+    public Limit getDefaultLimit() {
+        return defaultLimit;
+    }
+
+    public void setDefaultLimit(Limit defaultLimit) {
+        this.defaultLimit = defaultLimit;
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public void setRules(List<Rule> rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Parámetros de un token bucket.
+     */
+    public static class Limit {
+
+        /**
+         * Solicitudes que se pueden hacer de golpe con el bucket lleno.
+         */
+        private int capacity;
+
+        /**
+         * Solicitudes por segundo sostenidas (velocidad de recarga).
+         */
+        private double perSecond;
+
+        public Limit() {
+            // vacio
+        }
+
+        public Limit(int capacity, double perSecond) {
+            this.capacity = capacity;
+            this.perSecond = perSecond;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public double getPerSecond() {
+            return perSecond;
+        }
+
+        public void setPerSecond(double perSecond) {
+            this.perSecond = perSecond;
+        }
+    }
+
+    /**
+     * Límite aplicado a un rol sobre un conjunto de rutas.
+     */
+    public static class Rule extends Limit {
+
+        /**
+         * Rol al que aplica ({@code ADMIN}, {@code USER}) o {@code *} para cualquiera.
+         */
+        private String role = "*";
+
+        /**
+         * Método HTTP al que aplica; vacío para cualquiera.
+         */
+        private String method;
+
+        /**
+         * Patrón de ruta, por ejemplo {@code /products/**}.
+         */
+        private String path = "/**";
+
+        public String getRole() {
+            return role;
+        }
+
+        public void setRole(String role) {
+            this.role = role;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+    }
+}
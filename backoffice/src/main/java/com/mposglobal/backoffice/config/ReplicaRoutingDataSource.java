@@ -0,0 +1,188 @@
+package com.mposglobal.backoffice.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource que enruta las transacciones de solo lectura hacia réplicas.
+ * <p>
+ * Las transacciones marcadas con {@code @Transactional(readOnly = true)} se reparten en
+ * round-robin entre las réplicas sanas; todo lo demás va al primario. La decisión se toma al
+ * obtener la conexión física, por lo que este DataSource debe usarse detrás de un
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: así la conexión
+ * se pide cuando la transacción ya publicó su bandera de solo lectura.
+ * </p>
+ * <p>
+ * Reglas adicionales:
+ * </p>
+ * <ul>
+ *   <li><b>Conmutación por salud:</b> {@link #checkHealth()} valida cada réplica; las que fallan
+ *   salen de la rotación hasta que vuelvan a responder. Sin réplicas sanas se lee del primario.</li>
+ *   <li><b>Lectura de las propias escrituras:</b> cuando un usuario autenticado confirma una
+ *   transacción de escritura, sus lecturas van al primario durante la ventana configurada,
+ *   contada desde el commit, para que no vea datos anteriores a su propio cambio por el retraso
+ *   de replicación (una transacción más larga que la ventana no la consume antes de terminar).</li>
+ * </ul>
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    /**
+     * Clave de búsqueda del DataSource primario.
+     */
+    public static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final long readYourWritesNanos;
+    private final int healthCheckTimeoutSeconds;
+
+    private final Map<String, Long> lastWriteByUser = new ConcurrentHashMap<>();
+    private final AtomicInteger roundRobin = new AtomicInteger();
+    private volatile List<String> healthyReplicas;
+
+    /**
+     * Construye el DataSource de enrutamiento.
+     *
+     * @param primary El DataSource primario (lectura/escritura).
+     * @param replicas Las réplicas de solo lectura, en orden.
+     * @param readYourWritesWindow Ventana de lectura de las propias escrituras.
+     * @param healthCheckTimeout Tiempo máximo de validación de una réplica.
+     */
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                                    Duration readYourWritesWindow, Duration healthCheckTimeout) {
+        this.primary = primary;
+        this.replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.put("replica-" + i, replicas.get(i));
+        }
+        this.readYourWritesNanos = readYourWritesWindow.toNanos();
+        this.healthCheckTimeoutSeconds = (int) Math.max(1, healthCheckTimeout.toSeconds());
+        this.healthyReplicas = List.copyOf(this.replicas.keySet());
+
+        Map<Object, Object> targets = new HashMap<>(this.replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Determina el DataSource de la conexión que se está obteniendo.
+     *
+     * @return {@link #PRIMARY} o la clave de una réplica sana.
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String user = currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (user != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                markWriteOnCommit(user);
+            }
+            return PRIMARY;
+        }
+        if (user != null && wroteRecently(user)) {
+            return PRIMARY;
+        }
+        List<String> healthy = healthyReplicas;
+        if (healthy.isEmpty()) {
+            return PRIMARY;
+        }
+        return healthy.get(Math.floorMod(roundRobin.getAndIncrement(), healthy.size()));
+    }
+
+    /**
+     * Valida cada réplica y actualiza la rotación; también purga las marcas de escritura vencidas.
+     * Se invoca periódicamente desde la configuración.
+     */
+    public void checkHealth() {
+        List<String> healthy = new ArrayList<>(replicas.size());
+        replicas.forEach((key, ds) -> {
+            try (Connection con = ds.getConnection()) {
+                if (con.isValid(healthCheckTimeoutSeconds)) {
+                    healthy.add(key);
+                }
+            } catch (Exception e) {
+                // réplica fuera de la rotación hasta el próximo chequeo exitoso
+            }
+        });
+        healthyReplicas = List.copyOf(healthy);
+
+        long now = System.nanoTime();
+        lastWriteByUser.values().removeIf(t -> now - t > readYourWritesNanos);
+    }
+
+    /**
+     * @return Las claves de las réplicas actualmente en rotación.
+     */
+    public List<String> getHealthyReplicas() {
+        return healthyReplicas;
+    }
+
+    /**
+     * Cierra los pools del primario y de las réplicas que sean cerrables.
+     */
+    @Override
+    public void close() {
+        closeQuietly(primary);
+        replicas.values().forEach(ReplicaRoutingDataSource::closeQuietly);
+    }
+
+    // -------------------------------------------------------------------------
+    // Utilidades internas
+    // -------------------------------------------------------------------------
+
+    /**
+     * Marca la escritura del usuario cuando la transacción confirma; sin sincronización activa
+     * (no debería ocurrir detrás del proxy perezoso) se marca en el momento.
+     */
+    private void markWriteOnCommit(String user) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            lastWriteByUser.put(user, System.nanoTime());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastWriteByUser.put(user, System.nanoTime());
+            }
+        });
+    }
+
+    private boolean wroteRecently(String user) {
+        Long last = lastWriteByUser.get(user);
+        return last != null && System.nanoTime() - last <= readYourWritesNanos;
+    }
+
+    private static String currentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)
+                ? auth.getName() : null;
+    }
+
+    private static void closeQuietly(DataSource ds) {
+        if (ds instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                // se está apagando la aplicación
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.mposglobal.backoffice.config;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * Configuración de la caché de segundo nivel de Hibernate sobre JCache con Ehcache en proceso.
+ * <p>
+ * Crea el {@link CacheManager} a partir de {@link CacheRegionProperties}, de modo que tamaños y
+ * tiempos de vida se ajustan en {@code application.properties} sin un XML de Ehcache, y se lo
+ * entrega a Hibernate. Las entidades opt-in (como {@code Category}) y las consultas marcadas
+ * como cacheables dejan de ir a la base mientras sus datos no cambien; cualquier escritura por
+ * Hibernate, incluidas las actualizaciones masivas JPQL, invalida la región correspondiente.
+ * </p>
+ */
+@Configuration
+@EnableConfigurationProperties(CacheRegionProperties.class)
+public class SecondLevelCacheConfig {
+
+    /**
+     * Crea el administrador de cachés con una caché por región configurada.
+     *
+     * @param properties Las regiones con su tamaño y tiempo de vida.
+     * @return El {@code CacheManager} JCache que usará Hibernate.
+     */
+    @Bean(destroyMethod = "close")
+    CacheManager hibernateCacheManager(CacheRegionProperties properties) {
+        // URI único: cada contexto de Spring (por ejemplo, en las pruebas) tiene su propio administrador;
+        // se pasa una configuración vacía para que Ehcache no intente leer un XML desde ese URI
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching
+                .getCachingProvider(EhcacheCachingProvider.class.getName());
+        CacheManager manager = provider.getCacheManager(URI.create("urn:backoffice-l2:" + UUID.randomUUID()),
+                new DefaultConfiguration(getClass().getClassLoader()));
+
+        properties.getRegions().forEach((name, region) -> manager.createCache(name,
+                Eh107Configuration.fromEhcacheCacheConfiguration(CacheConfigurationBuilder
+                        .newCacheConfigurationBuilder(Object.class, Object.class,
+                                ResourcePoolsBuilder.heap(region.getMaxEntries()))
+                        .withExpiry(region.getTtl() == null
+                                ? ExpiryPolicyBuilder.noExpiration()
+                                : ExpiryPolicyBuilder.timeToLiveExpiration(region.getTtl())))));
+        return manager;
+    }
+
+    /**
+     * Entrega el {@code CacheManager} a Hibernate en lugar de dejar que cree uno propio.
+     *
+     * @param hibernateCacheManager El administrador de cachés configurado.
+     * @return El personalizador de propiedades de Hibernate.
+     */
+    @Bean
+    HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return props -> props.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
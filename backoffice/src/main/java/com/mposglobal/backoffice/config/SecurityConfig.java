@@ -1,31 +1,43 @@
 package com.mposglobal.backoffice.config;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import com.mposglobal.backoffice.filter.RateLimitFilter;
+import com.mposglobal.backoffice.filter.TokenBucketRateLimiter;
+
 /**
  * Clase de configuración principal para Spring Security.
  * <p>
  * Define la cadena de filtros de seguridad, incluyendo la deshabilitación de CSRF,
  * la configuración de las reglas de autorización basadas en roles (Role-Based Access Control - RBAC)
- * y la integración del filtro de autenticación JWT.
+ * y la integración del filtro de autenticación JWT y de limitación de tasa.
  * </p>
  */
 @Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class SecurityConfig {
 	
   private final JwtProvider jwtProvider;
+  private final TokenBucketRateLimiter rateLimiter;
+  private final RateLimitProperties rateLimitProperties;
   
   /**
-   * Constructor para inyectar el proveedor de JWT.
+   * Constructor para inyectar el proveedor de JWT y la configuración de limitación de tasa.
    *
    * @param jwtProvider El componente encargado de generar y validar tokens JWT.
+   * @param rateLimiter El registro de token buckets.
+   * @param rateLimitProperties Los límites por rol, ruta y dirección remota.
    */
-  	public SecurityConfig(JwtProvider jwtProvider) {
+  	public SecurityConfig(JwtProvider jwtProvider, TokenBucketRateLimiter rateLimiter,
+  	                      RateLimitProperties rateLimitProperties) {
 	  this.jwtProvider = jwtProvider;
+	  this.rateLimiter = rateLimiter;
+	  this.rateLimitProperties = rateLimitProperties;
   	}
 	
   	/**
@@ -35,6 +47,7 @@ public class SecurityConfig {
      * 2. Configura las reglas de autorización de acceso a las rutas.
      * 3. Define manejadores personalizados para excepciones de autenticación/autorización.
      * 4. Añade el filtro JWT personalizado antes del filtro de autenticación estándar de Spring.
+     * 5. Añade el filtro de limitación de tasa justo después del filtro JWT.
      * </p>
      *
      * @param http Objeto HttpSecurity para configurar las reglas de seguridad.
@@ -52,8 +65,10 @@ public class SecurityConfig {
 	    
 	    .authorizeHttpRequests(auth -> auth
 	        .requestMatchers("/auth/**", "/swagger-ui.html/**", "/swagger-ui/**", "/v3/api-docs/**").permitAll()
+	        .requestMatchers("/actuator/health").permitAll()
+	        .requestMatchers("/actuator/**", "/admin/**").hasAnyRole("ADMIN")
 	        .requestMatchers("/users/**").hasAnyRole("ADMIN")
-	        .requestMatchers("/categories/**","/products/**").hasAnyRole("ADMIN","USER")
+	        .requestMatchers("/categories/**","/products/**","/batch/**").hasAnyRole("ADMIN","USER")
 	        .anyRequest().authenticated()
 	    )
 	    
@@ -64,7 +79,8 @@ public class SecurityConfig {
 	    )
 	    
 	    
-	    .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+	    .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+	    .addFilterAfter(new RateLimitFilter(rateLimiter, rateLimitProperties), JwtAuthFilter.class);
 	
 	    return http.build();
 	  }
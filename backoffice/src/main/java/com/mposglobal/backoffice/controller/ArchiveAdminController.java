@@ -0,0 +1,61 @@
+package com.mposglobal.backoffice.controller;
+
+import org.springframework.web.bind.annotation.*;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import com.mposglobal.backoffice.repository.ArchiveRepository.Progress;
+import com.mposglobal.backoffice.service.ArchiveService;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador REST de administración del archivado de filas desactivadas.
+ */
+@RestController
+@RequestMapping("/admin/archive")
+@Tag(name = "Administración", description = "Diagnóstico interno de la aplicación.")
+public class ArchiveAdminController {
+
+    private final ArchiveService archive;
+
+    /**
+     * Constructor para inyección de dependencia del servicio de archivado.
+     * @param archive El servicio de archivado.
+     */
+    public ArchiveAdminController(ArchiveService archive) {
+        this.archive = archive;
+    }
+
+    /**
+     * Obtiene el avance del archivado de cada tabla.
+     *
+     * @return El avance por tabla.
+     */
+    @GetMapping
+    @Operation(summary = "Avance del archivado de filas desactivadas")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Avance obtenido con éxito")
+    })
+    public List<Progress> status() {
+        return archive.status();
+    }
+
+    /**
+     * Ejecuta el archivado en el momento, sin esperar a la ejecución programada.
+     *
+     * @return Las filas archivadas por tabla.
+     */
+    @PostMapping("/run")
+    @Operation(summary = "Ejecuta el archivado de filas desactivadas")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Archivado ejecutado con éxito")
+    })
+    public Map<String, Long> run() {
+        return archive.run();
+    }
+}
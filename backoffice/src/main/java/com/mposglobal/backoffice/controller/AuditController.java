@@ -0,0 +1,64 @@
+package com.mposglobal.backoffice.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import com.mposglobal.backoffice.dto.AuditResponse;
+import com.mposglobal.backoffice.service.AuditService;
+import com.mposglobal.backoffice.util.Constant;
+
+import java.util.List;
+
+/**
+ * Controlador REST de consulta de la auditoría de cambios (solo ADMIN).
+ */
+@RestController
+@RequestMapping("/admin/audit")
+@Tag(name = "Administración", description = "Diagnóstico interno de la aplicación.")
+public class AuditController {
+
+    private final AuditService service;
+
+    /**
+     * Constructor para inyección de dependencia del servicio de auditoría.
+     * @param service El servicio de auditoría.
+     */
+    public AuditController(AuditService service) {
+        this.service = service;
+    }
+
+    /**
+     * Obtiene una página de registros de auditoría, del más reciente al más antiguo.
+     * Si hay una página siguiente, su cursor viene en el encabezado {@code X-Next-Cursor}.
+     *
+     * @param before El último ID recibido (cursor); omitido para la primera página.
+     * @param size El tamaño de página (por defecto 50, máximo {@code MAX_PAGE_SIZE}).
+     * @param entidad {@code USUARIO}, {@code CATEGORIA} o {@code PRODUCTO}; opcional.
+     * @param entidadId El ID del registro; opcional, requiere {@code entidad}.
+     * @param usuario El usuario que hizo los cambios; opcional.
+     * @return Una {@link List} de {@link AuditResponse} con la página solicitada.
+     */
+    @Operation(summary = "Obtiene una página de la auditoría de cambios",
+               description = "Paginación por keyset con el encabezado X-Next-Cursor (enviarlo como before); filtros por entidad, entidadId y usuario.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lista obtenida con éxito")
+    })
+    @GetMapping
+    public ResponseEntity<List<AuditResponse>> page(@RequestParam(required = false) Long before,
+                                                    @RequestParam(defaultValue = "50") int size,
+                                                    @RequestParam(required = false) String entidad,
+                                                    @RequestParam(required = false) Long entidadId,
+                                                    @RequestParam(required = false) String usuario) {
+        AuditService.AuditPage page = service.findPage(before, size, entidad, entidadId, usuario);
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            ok.header(Constant.HEADER_NEXT_CURSOR, page.nextCursor().toString());
+        }
+        return ok.body(page.items());
+    }
+}
@@ -1,5 +1,7 @@
 package com.mposglobal.backoffice.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
@@ -13,8 +15,10 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import com.mposglobal.backoffice.config.JwtProvider;
 import com.mposglobal.backoffice.dto.AuthResponse;
 import com.mposglobal.backoffice.dto.LoginRequest;
-import com.mposglobal.backoffice.entity.User;
 import com.mposglobal.backoffice.exceptions.LoginException;
+import com.mposglobal.backoffice.service.LoginAttemptService;
+import com.mposglobal.backoffice.service.UserCredentialCache;
+import com.mposglobal.backoffice.service.UserCredentialCache.Credentials;
 import com.mposglobal.backoffice.service.UserService;
 import com.mposglobal.backoffice.util.Constant;
 
@@ -31,23 +35,35 @@ import com.mposglobal.backoffice.util.Constant;
 public class AuthController {
   private final UserService userService;
   private final JwtProvider jwtProvider;
+  private final LoginAttemptService loginAttempts;
+  private final UserCredentialCache credentials;
   private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
 
   /**
    * Constructor para inyección de dependencias de servicios.
    *
-   * @param userService El servicio de usuarios para la búsqueda y actualización.
+   * @param userService El servicio de usuarios para la actualización del último ingreso.
    * @param jwtProvider El proveedor de JWT para la generación de tokens.
+   * @param loginAttempts El servicio de control de intentos fallidos.
+   * @param credentials La caché de credenciales por nombre de usuario.
    */
-  public AuthController(UserService userService, JwtProvider jwtProvider) {
+  public AuthController(UserService userService, JwtProvider jwtProvider, LoginAttemptService loginAttempts,
+                        UserCredentialCache credentials) {
     this.userService = userService;
     this.jwtProvider = jwtProvider;
+    this.loginAttempts = loginAttempts;
+    this.credentials = credentials;
   }
 
   /**
    * Procesa la solicitud de inicio de sesión, verifica las credenciales y emite un token JWT.
+   * <p>
+   * Si el usuario o la dirección remota están bloqueados por fallos recientes, el intento se
+   * rechaza con 429 antes de consultar la base de datos y de ejecutar BCrypt.
+   * </p>
    *
    * @param req El DTO LoginRequest con el nombre de usuario y la contraseña en texto plano.
+   * @param http La solicitud HTTP, de la que se toma la dirección remota.
    * @return El DTO AuthResponse que contiene el token JWT, el nombre de usuario y el nivel de acceso.
    */
   @PostMapping("/login")
@@ -57,21 +73,31 @@ public class AuthController {
       @ApiResponse(responseCode = "200",
                    description = "Autenticación exitosa. Token JWT emitido.",
                    content = @Content(mediaType = "application/json",
-                                      schema = @Schema(implementation = AuthResponse.class)))
+                                      schema = @Schema(implementation = AuthResponse.class))),
+      @ApiResponse(responseCode = "429",
+                   description = "Demasiados intentos fallidos; reintentar después de Retry-After segundos.")
   })
-  public AuthResponse login(@RequestBody LoginRequest req) {
-      User u = userService.findByUsername(req.getUsername())
-                .orElseThrow(() -> new LoginException(Constant.ERROR_USER_INVALID));
+  public AuthResponse login(@RequestBody LoginRequest req, HttpServletRequest http) {
+      String address = http.getRemoteAddr();
+      loginAttempts.checkAllowed(req.getUsername(), address);
+
+      Credentials u = credentials.find(req.getUsername()).orElse(null);
+      if (u == null) {
+          loginAttempts.onFailure(req.getUsername(), address);
+          throw new LoginException(Constant.ERROR_USER_INVALID);
+      }
 
-      
-      if (!encoder.matches(req.getPassword(), u.getClave()) || !Constant.ACTIVO.equals(u.getEstado())) {
+      if (!loginAttempts.verify(() -> encoder.matches(req.getPassword(), u.clave()))
+              || !Constant.ACTIVO.equals(u.estado())) {
+          loginAttempts.onFailure(req.getUsername(), address);
           throw new LoginException(Constant.ERROR_CRED_INVALID);
       }
-      Long userId = u.getId();
+      loginAttempts.onSuccess(req.getUsername());
+      Long userId = u.id();
 
       userService.updateLastLoginDate(userId);
 
-      String token = jwtProvider.generateToken(u.getUsername(), u.getNivelAcceso());
-      return new AuthResponse(token, u.getUsername(), u.getNivelAcceso());
+      String token = jwtProvider.generateToken(u.username(), u.nivelAcceso());
+      return new AuthResponse(token, u.username(), u.nivelAcceso());
   }
 }
@@ -0,0 +1,64 @@
+package com.mposglobal.backoffice.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import com.mposglobal.backoffice.dto.BatchRequest;
+import com.mposglobal.backoffice.dto.BatchResult;
+import com.mposglobal.backoffice.service.BatchService;
+
+import java.util.List;
+
+/**
+ * Controlador REST para ejecutar varias operaciones en una sola llamada.
+ * Reduce los viajes de red del backoffice cuando una pantalla crea una categoría, sus
+ * productos y desactiva otros de una sola vez.
+ */
+@RestController
+@RequestMapping("/batch")
+@Tag(name = "Lotes", description = "Ejecución de varias operaciones sobre productos, categorías y usuarios en una sola solicitud.")
+public class BatchController {
+
+    private final BatchService service;
+
+    /**
+     * Constructor para inyección de dependencia del servicio de lotes.
+     * @param service El servicio de lotes.
+     */
+    public BatchController(BatchService service) {
+        this.service = service;
+    }
+
+    /**
+     * Ejecuta un lote de operaciones en orden.
+     * <p>
+     * La respuesta siempre es 200 con un resultado por operación; el código de cada una está
+     * en su campo {@code status}.
+     * </p>
+     *
+     * @param request El lote con las operaciones y el modo (atómico o no).
+     * @return Los resultados por operación, en el mismo orden.
+     */
+    @PostMapping
+    @Operation(summary = "Ejecuta un lote de operaciones",
+               description = "Operaciones create, update, patch y deactivate sobre products, categories y users. "
+                       + "Con atomic=true (por defecto) todo se ejecuta en una transacción. "
+                       + "Use \"$n\" en id o en el cuerpo para referirse al ID creado por la operación n.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200",
+                     description = "Lote procesado; revise el status de cada operación",
+                     content = @Content(mediaType = "application/json",
+                                        array = @ArraySchema(schema = @Schema(implementation = BatchResult.class))))
+    })
+    public ResponseEntity<List<BatchResult>> execute(@RequestBody BatchRequest request) {
+        return ResponseEntity.ok(service.execute(request));
+    }
+}
@@ -0,0 +1,45 @@
+package com.mposglobal.backoffice.controller;
+
+import org.springframework.web.bind.annotation.*;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import com.mposglobal.backoffice.service.CacheStatsService;
+
+import java.util.Map;
+
+/**
+ * Controlador REST de administración para consultar el estado de la caché de segundo nivel.
+ */
+@RestController
+@RequestMapping("/admin/cache")
+@Tag(name = "Administración", description = "Diagnóstico interno de la aplicación.")
+public class CacheStatsController {
+
+    private final CacheStatsService service;
+
+    /**
+     * Constructor para inyección de dependencia del servicio de estadísticas.
+     * @param service El servicio de estadísticas de caché.
+     */
+    public CacheStatsController(CacheStatsService service) {
+        this.service = service;
+    }
+
+    /**
+     * Obtiene las estadísticas por región de la caché de segundo nivel de Hibernate.
+     *
+     * @return Un mapa región → aciertos, fallos, inserciones y elementos en memoria.
+     */
+    @GetMapping
+    @Operation(summary = "Estadísticas de la caché de segundo nivel por región")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Estadísticas obtenidas con éxito")
+    })
+    public Map<String, Map<String, Long>> stats() {
+        return service.regionStats();
+    }
+}
@@ -0,0 +1,60 @@
+package com.mposglobal.backoffice.controller;
+
+import org.springframework.web.bind.annotation.*;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import com.mposglobal.backoffice.service.CatalogStore;
+
+import java.util.Map;
+
+/**
+ * Controlador REST de administración del catálogo en memoria.
+ */
+@RestController
+@RequestMapping("/admin/catalog")
+@Tag(name = "Administración", description = "Diagnóstico interno de la aplicación.")
+public class CatalogAdminController {
+
+    private final CatalogStore catalog;
+
+    /**
+     * Constructor para inyección de dependencia del catálogo en memoria.
+     * @param catalog El catálogo en memoria.
+     */
+    public CatalogAdminController(CatalogStore catalog) {
+        this.catalog = catalog;
+    }
+
+    /**
+     * Obtiene la generación del catálogo y compara sus sumas de control con las de la base.
+     *
+     * @return El estado del catálogo.
+     */
+    @GetMapping
+    @Operation(summary = "Estado del catálogo en memoria y comparación con la base")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Estado obtenido con éxito")
+    })
+    public Map<String, Object> status() {
+        return catalog.status();
+    }
+
+    /**
+     * Recarga el catálogo completo desde la base.
+     *
+     * @return El estado del catálogo después de la recarga.
+     */
+    @PostMapping("/reload")
+    @Operation(summary = "Recarga completa del catálogo en memoria")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Catálogo recargado con éxito")
+    })
+    public Map<String, Object> reload() {
+        catalog.reload();
+        return catalog.status();
+    }
+}
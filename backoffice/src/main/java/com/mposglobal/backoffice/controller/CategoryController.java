@@ -1,11 +1,19 @@
 package com.mposglobal.backoffice.controller;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import com.mposglobal.backoffice.dto.CategoryRequest;
 import com.mposglobal.backoffice.dto.CategoryResponse;
+import com.mposglobal.backoffice.dto.PriceHistoryResponse;
+import com.mposglobal.backoffice.dto.ProductResponse;
+import com.mposglobal.backoffice.service.CatalogStore;
 import com.mposglobal.backoffice.service.CategoryService;
+import com.mposglobal.backoffice.service.PriceHistoryService;
+import com.mposglobal.backoffice.service.ProductService;
+import com.mposglobal.backoffice.util.Constant;
+import com.mposglobal.backoffice.util.ETagUtil;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -27,17 +35,28 @@ import java.util.Map;
 public class CategoryController {
 
     private final CategoryService service;
+    private final CatalogStore catalog;
+    private final ProductService productService;
+    private final PriceHistoryService priceHistory;
 
     /**
      * Constructor para inyección de dependencia del servicio de categorías.
      * @param service El servicio de categorías.
+     * @param catalog El catálogo en memoria.
+     * @param productService El servicio de productos (listado por categoría sin catálogo).
+     * @param priceHistory El servicio del historial de precios.
      */
-    public CategoryController(CategoryService service) {
+    public CategoryController(CategoryService service, CatalogStore catalog, ProductService productService,
+                              PriceHistoryService priceHistory) {
         this.service = service;
+        this.catalog = catalog;
+        this.productService = productService;
+        this.priceHistory = priceHistory;
     }
 
     /**
      * Obtiene una lista de todas las categorías que se encuentran en estado 'ACTIVO'.
+     * Se sirve del catálogo en memoria cuando está cargado.
      *
      * @return Una lista de objetos Category activos.
      */
@@ -51,14 +70,130 @@ public class CategoryController {
         @ApiResponse(responseCode = "500", description = "Error interno del servidor")
     })
     public List<CategoryResponse> all() {
-        return service.findAllActive();
+        return catalog.isReady() ? catalog.activeCategories() : service.findAllActive();
+    }
+
+    /**
+     * Obtiene una categoría por su ID, activa o no.
+     *
+     * @param id El ID de la categoría.
+     * @param includeArchived {@code true} para buscar también entre las categorías archivadas.
+     * @return La categoría, con su versión en el encabezado {@code ETag}.
+     */
+    @GetMapping("/{id}")
+    @Operation(summary = "Obtener una categoría por ID")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", 
+                     description = "Categoría obtenida con éxito",
+                     content = @Content(mediaType = "application/json", 
+                                        schema = @Schema(implementation = CategoryResponse.class)))
+    })
+    public ResponseEntity<CategoryResponse> one(@PathVariable Long id,
+                                                @RequestParam(defaultValue = "false") boolean includeArchived) {
+        CategoryResponse found = catalog.isReady() ? catalog.category(id) : null;
+        if (found == null) {
+            found = service.findById(id, includeArchived);
+        }
+        return ResponseEntity.ok().eTag(ETagUtil.of(found.getVersion())).body(found);
+    }
+
+    /**
+     * Obtiene los productos activos de una categoría, ordenados por ID.
+     * Se sirve del índice categoría → productos del catálogo en memoria cuando está cargado.
+     *
+     * @param id El ID de la categoría.
+     * @return Los productos activos de la categoría.
+     */
+    @GetMapping("/{id}/products")
+    @Operation(summary = "Obtener los productos activos de una categoría")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", 
+                     description = "Lista obtenida con éxito",
+                     content = @Content(mediaType = "application/json", 
+                                        schema = @Schema(implementation = ProductResponse.class)))
+    })
+    public List<ProductResponse> products(@PathVariable Long id) {
+        boolean fromCatalog = catalog.isReady();
+        if (!fromCatalog || catalog.category(id) == null) {
+            service.findById(id); // responde el error de categoría inexistente
+        }
+        return fromCatalog ? catalog.activeProductsByCategory(id) : productService.findActiveByCategory(id);
+    }
+
+    /**
+     * Obtiene una categoría y todo su subárbol (subcategorías a cualquier profundidad).
+     *
+     * @param id El ID de la raíz del subárbol.
+     * @return La categoría seguida de sus descendientes, por profundidad y luego por ID.
+     */
+    @GetMapping("/{id}/tree")
+    @Operation(summary = "Obtener una categoría y todas sus subcategorías")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", 
+                     description = "Subárbol obtenido con éxito",
+                     content = @Content(mediaType = "application/json", 
+                                        schema = @Schema(implementation = CategoryResponse.class)))
+    })
+    public List<CategoryResponse> tree(@PathVariable Long id) {
+        return service.findSubtree(id);
+    }
+
+    /**
+     * Obtiene una página de los productos activos de una categoría y de todas sus subcategorías,
+     * ordenados por ID.
+     *
+     * @param id El ID de la raíz del subárbol.
+     * @param after El cursor de la página anterior; omitir para la primera.
+     * @param size El tamaño de página (máximo 500).
+     * @return La página solicitada; el cursor de la siguiente va en {@code X-Next-Cursor}.
+     */
+    @GetMapping("/{id}/tree/products")
+    @Operation(summary = "Obtener los productos activos de un subárbol de categorías",
+               description = "Paginación por keyset con el encabezado X-Next-Cursor.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", 
+                     description = "Lista obtenida con éxito",
+                     content = @Content(mediaType = "application/json", 
+                                        schema = @Schema(implementation = ProductResponse.class)))
+    })
+    public ResponseEntity<List<ProductResponse>> treeProducts(@PathVariable Long id,
+                                                              @RequestParam(required = false) Long after,
+                                                              @RequestParam(defaultValue = "50") int size) {
+        ProductService.ProductPage page = productService.findActiveInSubtree(id, after, size);
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            ok.header(Constant.HEADER_NEXT_CURSOR, page.nextCursor().toString());
+        }
+        return ok.body(page.items());
+    }
+
+    /**
+     * Obtiene los precios vigentes en un instante de todos los productos que entonces
+     * pertenecían a la categoría.
+     *
+     * @param id El ID de la categoría.
+     * @param at El instante, {@code yyyy-MM-dd} (al final de ese día) o {@code yyyy-MM-ddTHH:mm:ss}
+     *           (hora de Panamá); opcional (ahora).
+     * @return Una entrada del historial por producto, ordenadas por ID de producto.
+     */
+    @GetMapping("/{id}/prices")
+    @Operation(summary = "Obtener los precios de una categoría en una fecha")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", 
+                     description = "Precios obtenidos con éxito",
+                     content = @Content(mediaType = "application/json", 
+                                        schema = @Schema(implementation = PriceHistoryResponse.class)))
+    })
+    public List<PriceHistoryResponse> prices(@PathVariable Long id, @RequestParam(required = false) String at) {
+        return priceHistory.findCategoryAt(id, at);
     }
 
     /**
      * Crea una nueva categoría.
      *
      * @param request Los datos de la nueva categoría (nombre y opcionalmente estado).
-     * @return La categoría creada, incluyendo el ID y las fechas de creación/actualización.
+     * @return La categoría creada, incluyendo el ID y las fechas de creación/actualización,
+     *         con su versión en el encabezado {@code ETag}.
      */
     @PostMapping
     @Operation(summary = "Crea una nueva categoría")
@@ -68,27 +203,69 @@ public class CategoryController {
                      content = @Content(mediaType = "application/json", 
                                         schema = @Schema(implementation = CategoryResponse.class)))
     })
-    public CategoryResponse create(@RequestBody CategoryRequest c) {
-        return service.create(c);
+    public ResponseEntity<CategoryResponse> create(@RequestBody CategoryRequest c) {
+        CategoryResponse created = service.create(c);
+        return ResponseEntity.ok().eTag(ETagUtil.of(created.getVersion())).body(created);
     }
 
     /**
      * Actualiza una categoría existente basándose en su ID.
+     * <p>
+     * Si se envía el encabezado {@code If-Match} con el {@code ETag} leído, la actualización
+     * solo se aplica cuando la categoría no fue modificada desde entonces. Sin {@code padre} en el
+     * cuerpo se conserva el padre actual; {@code "padre": null} la deja como raíz.
+     * </p>
      *
      * @param id El ID de la categoría a actualizar.
+     * @param ifMatch El {@code ETag} (versión) esperado; opcional.
      * @param request Los nuevos datos de la categoría.
-     * @return La categoría actualizada.
+     * @return La categoría actualizada, con su nueva versión en el {@code ETag}.
      */
     @PutMapping("/{id}")
-    @Operation(summary = "Actualiza una categoría existente")
+    @Operation(summary = "Actualiza una categoría existente",
+               description = "Acepta el encabezado If-Match con el ETag de la categoría para evitar sobrescribir cambios concurrentes. "
+                           + "Sin padre en el cuerpo se conserva el actual; padre: null la deja como raíz.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", 
                      description = "Categoría actualizada con éxito",
                      content = @Content(mediaType = "application/json", 
-                                        schema = @Schema(implementation = CategoryResponse.class)))
+                                        schema = @Schema(implementation = CategoryResponse.class))),
+        @ApiResponse(responseCode = "412", description = "La categoría fue modificada por otro usuario (If-Match no coincide)")
+    })
+    public ResponseEntity<CategoryResponse> update(@PathVariable Long id,
+                                                   @RequestHeader(value = "If-Match", required = false) String ifMatch,
+                                                   @RequestBody CategoryRequest c) {
+        CategoryResponse updated = service.update(id, c, ETagUtil.parseIfMatch(ifMatch, () -> service.findVersion(id)));
+        return ResponseEntity.ok().eTag(ETagUtil.of(updated.getVersion())).body(updated);
+    }
+
+    /**
+     * Modifica parcialmente una categoría con un documento JSON Merge Patch (RFC 7396).
+     * <p>
+     * Solo se envían los campos que cambian (nombre); únicamente esas columnas se escriben
+     * en la base. Acepta {@code If-Match} igual que el {@code PUT}.
+     * </p>
+     *
+     * @param id El ID de la categoría a modificar.
+     * @param ifMatch El {@code ETag} (versión) esperado; opcional.
+     * @param patch Los campos a modificar.
+     * @return La categoría modificada, con su nueva versión en el {@code ETag}.
+     */
+    @PatchMapping(value = "/{id}", consumes = {Constant.MEDIA_MERGE_PATCH, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Modifica parcialmente una categoría",
+               description = "Cuerpo JSON Merge Patch con solo los campos a cambiar: nombre.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", 
+                     description = "Categoría modificada con éxito",
+                     content = @Content(mediaType = "application/json", 
+                                        schema = @Schema(implementation = CategoryResponse.class))),
+        @ApiResponse(responseCode = "412", description = "La categoría fue modificada por otro usuario (If-Match no coincide)")
     })
-    public CategoryResponse update(@PathVariable Long id, @RequestBody CategoryRequest c) {
-        return service.update(id, c);
+    public ResponseEntity<CategoryResponse> patch(@PathVariable Long id,
+                                                  @RequestHeader(value = "If-Match", required = false) String ifMatch,
+                                                  @RequestBody Map<String, Object> patch) {
+        CategoryResponse patched = service.patch(id, patch, ETagUtil.parseIfMatch(ifMatch, () -> service.findVersion(id)));
+        return ResponseEntity.ok().eTag(ETagUtil.of(patched.getVersion())).body(patched);
     }
 
     /**
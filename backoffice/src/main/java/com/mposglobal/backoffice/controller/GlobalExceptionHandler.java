@@ -2,10 +2,18 @@ package com.mposglobal.backoffice.controller;
 
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import com.mposglobal.backoffice.exceptions.CoalescingTimeoutException;
+import com.mposglobal.backoffice.exceptions.IndexNotReadyException;
+import com.mposglobal.backoffice.exceptions.LoginThrottledException;
+import com.mposglobal.backoffice.exceptions.PreconditionFailedException;
 import com.mposglobal.backoffice.util.Constant;
 
 /**
@@ -19,6 +27,87 @@ import com.mposglobal.backoffice.util.Constant;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 	
+	/**
+     * Maneja el fallo de una actualización condicional ({@code If-Match}) cuya versión
+     * ya no coincide con la del registro.
+     *
+     * @param ex La excepción de precondición fallida.
+     * @return Una respuesta HTTP 412 (Precondition Failed) con el mensaje de error.
+     */
+	@ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<Map<String, String>> handlePreconditionFailed(PreconditionFailedException ex) {
+        
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(Map.of(Constant.ERROR, ex.getMessage()));
+    }
+	
+	/**
+     * Maneja los intentos de inicio de sesión rechazados por exceso de fallos recientes.
+     *
+     * @param ex La excepción con el tiempo de espera sugerido.
+     * @return Una respuesta HTTP 429 (Too Many Requests) con {@code Retry-After} y el mensaje de error.
+     */
+	@ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<Map<String, String>> handleLoginThrottled(LoginThrottledException ex) {
+        
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(Map.of(Constant.ERROR, ex.getMessage()));
+    }
+	
+	/**
+     * Maneja las lecturas agrupadas que no recibieron a tiempo el resultado de la consulta en curso.
+     *
+     * @param ex La excepción de tiempo de espera agotado.
+     * @return Una respuesta HTTP 503 (Service Unavailable) con {@code Retry-After} y el mensaje de error.
+     */
+	@ExceptionHandler(CoalescingTimeoutException.class)
+    public ResponseEntity<Map<String, String>> handleCoalescingTimeout(CoalescingTimeoutException ex) {
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of(Constant.ERROR, ex.getMessage()));
+    }
+	
+	/**
+     * Maneja las consultas a un índice en memoria que todavía no terminó su primera carga.
+     *
+     * @param ex La excepción de índice no disponible.
+     * @return Una respuesta HTTP 503 (Service Unavailable) con {@code Retry-After} y el mensaje de error.
+     */
+	@ExceptionHandler(IndexNotReadyException.class)
+    public ResponseEntity<Map<String, String>> handleIndexNotReady(IndexNotReadyException ex) {
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(Map.of(Constant.ERROR, ex.getMessage()));
+    }
+	
+	/**
+     * Maneja las comprobaciones de rol hechas dentro de un servicio (por ejemplo, la búsqueda
+     * de usuarios), con la misma respuesta que las reglas de {@code SecurityConfig}.
+     *
+     * @param ex La excepción de acceso denegado.
+     * @return Una respuesta HTTP 401 (Unauthorized) con el mensaje de error.
+     */
+	@ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<Map<String, String>> handleAccessDenied(AccessDeniedException ex) {
+        
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(Constant.ERROR, ex.getMessage()));
+    }
+	
+	/**
+     * Maneja los conflictos de concurrencia optimista detectados por Hibernate al guardar
+     * un registro cuya versión cambió entre la lectura y la escritura (sin {@code If-Match}).
+     *
+     * @param ex La excepción de bloqueo optimista.
+     * @return Una respuesta HTTP 409 (Conflict) con el mensaje de error.
+     */
+	@ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> handleOptimisticLock(ObjectOptimisticLockingFailureException ex) {
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(Constant.ERROR, Constant.ERROR_CONFLICT));
+    }
+	
 	/**
      * Maneja todas las excepciones no capturadas de manera específica (tanto checked como unchecked).
      * <p>
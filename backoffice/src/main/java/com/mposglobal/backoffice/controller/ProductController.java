@@ -1,7 +1,11 @@
 package com.mposglobal.backoffice.controller;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,9 +14,19 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import com.mposglobal.backoffice.dto.PriceHistoryResponse;
 import com.mposglobal.backoffice.dto.ProductRequest;
 import com.mposglobal.backoffice.dto.ProductResponse;
+import com.mposglobal.backoffice.service.BarcodeService;
+import com.mposglobal.backoffice.service.CatalogStore;
+import com.mposglobal.backoffice.service.PriceHistoryService;
+import com.mposglobal.backoffice.service.ProductSearchService;
 import com.mposglobal.backoffice.service.ProductService;
+import com.mposglobal.backoffice.service.RelatedProductsService;
+import com.mposglobal.backoffice.service.RequestCoalescer;
+import com.mposglobal.backoffice.service.SuggestService;
+import com.mposglobal.backoffice.util.Constant;
+import com.mposglobal.backoffice.util.ETagUtil;
 
 import java.util.List;
 import java.util.Map;
@@ -27,19 +41,49 @@ import java.util.Map;
 public class ProductController {
 
     private final ProductService service;
+    private final RequestCoalescer coalescer;
+    private final CatalogStore catalog;
+    private final ObjectMapper mapper;
+    private final PriceHistoryService priceHistory;
+    private final BarcodeService barcodes;
+    private final SuggestService suggest;
+    private final ProductSearchService search;
+    private final RelatedProductsService related;
 
     /**
      * Constructor para inyección de dependencia del servicio de productos.
      * @param service El servicio de productos.
+     * @param coalescer El agrupador de lecturas concurrentes idénticas.
+     * @param catalog El catálogo en memoria.
+     * @param mapper El {@code ObjectMapper} de la aplicación.
+     * @param priceHistory El servicio del historial de precios.
+     * @param barcodes El servicio de búsqueda por código de barras.
+     * @param suggest El servicio de autocompletado.
+     * @param search El servicio de búsqueda tolerante a errores de tipeo.
+     * @param related El servicio de productos parecidos por tags.
      */
-    public ProductController(ProductService service) {
+    public ProductController(ProductService service, RequestCoalescer coalescer, CatalogStore catalog,
+                             ObjectMapper mapper, PriceHistoryService priceHistory, BarcodeService barcodes,
+                             SuggestService suggest, ProductSearchService search,
+                             RelatedProductsService related) {
         this.service = service;
+        this.coalescer = coalescer;
+        this.catalog = catalog;
+        this.mapper = mapper;
+        this.priceHistory = priceHistory;
+        this.barcodes = barcodes;
+        this.suggest = suggest;
+        this.search = search;
+        this.related = related;
     }
 
 // -------------------------------------------------------------------------
     
     /**
      * Obtiene una lista de todos los productos que se encuentran en estado 'ACTIVO'.
+     * Se sirve del catálogo en memoria; con el almacenamiento fuera del heap el JSON se escribe
+     * directamente desde él. Mientras el catálogo no está cargado, las solicitudes simultáneas
+     * comparten una sola consulta a la base.
      *
      * @return Una lista de DTOs ProductResponse activos.
      */
@@ -52,8 +96,181 @@ public class ProductController {
                                         // Schema para el DTO de respuesta
                                         schema = @Schema(implementation = ProductResponse.class)))
     })
-    public List<ProductResponse> all() {
-        return service.findAllActive();
+    public ResponseEntity<StreamingResponseBody> all() {
+        StreamingResponseBody body;
+        if (catalog.streamsProducts()) {
+            body = catalog::writeActiveProductsJson;
+        } else {
+            // La lista se obtiene aquí, en el hilo de la solicitud; solo la escritura es diferida
+            List<ProductResponse> products = catalog.isReady()
+                    ? catalog.activeProducts()
+                    : coalescer.execute("products", service::findAllActive);
+            body = out -> mapper.writeValue(out, products);
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Sugiere productos activos mientras se escribe su nombre, para los selectores de producto.
+     * Cada palabra escrita debe ser el comienzo de una palabra del nombre o de los tags, sin
+     * importar acentos ni mayúsculas; los productos más recientes aparecen primero.
+     *
+     * @param q El texto escrito.
+     * @param limit La cantidad de sugerencias (por defecto 10, máximo {@code MAX_SUGGEST_LIMIT}).
+     * @return Los productos sugeridos.
+     */
+    @GetMapping("/suggest")
+    @Operation(summary = "Sugerir productos activos por el comienzo de su nombre o tags")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", 
+                     description = "Sugerencias obtenidas con éxito",
+                     content = @Content(mediaType = "application/json", 
+                                        schema = @Schema(implementation = ProductResponse.class)))
+    })
+    public List<ProductResponse> suggest(@RequestParam String q,
+                                         @RequestParam(defaultValue = "10") int limit) {
+        return suggest.suggest(q, limit);
+    }
+
+    /**
+     * Busca productos activos por nombre y tags tolerando errores de tipeo ("Smartfone" encuentra
+     * "Smartphone"). Las palabras más raras del catálogo y las coincidencias exactas pesan más.
+     *
+     * @param q El texto escrito.
+     * @param limit La cantidad de resultados (por defecto 10, máximo {@code MAX_SUGGEST_LIMIT}).
+     * @return Los productos, del más parecido al menos parecido.
+     */
+    @GetMapping("/search")
+    @Operation(summary = "Buscar productos activos tolerando errores de tipeo")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", 
+                     description = "Resultados obtenidos con éxito",
+                     content = @Content(mediaType = "application/json", 
+                                        schema = @Schema(implementation = ProductResponse.class)))
+    })
+    public List<ProductResponse> search(@RequestParam String q,
+                                        @RequestParam(defaultValue = "10") int limit) {
+        return search.search(q, limit);
+    }
+
+    /**
+     * Obtiene un producto por su ID.
+     * Los productos activos se sirven del catálogo en memoria; los desactivados se leen de la base.
+     *
+     * @param id El ID del producto.
+     * @param includeArchived {@code true} para buscar también entre los productos archivados.
+     * @return El DTO ProductResponse, con su versión en el encabezado {@code ETag}.
+     */
+    @GetMapping("/{id}")
+    @Operation(summary = "Obtener un producto por ID")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", 
+                     description = "Producto obtenido con éxito",
+                     content = @Content(mediaType = "application/json", 
+                                        schema = @Schema(implementation = ProductResponse.class)))
+    })
+    public ResponseEntity<ProductResponse> one(@PathVariable Long id,
+                                               @RequestParam(defaultValue = "false") boolean includeArchived) {
+        ProductResponse found = catalog.isReady() ? catalog.product(id) : null;
+        if (found == null) {
+            found = service.findById(id, includeArchived);
+        }
+        return ResponseEntity.ok().eTag(ETagUtil.of(found.getVersion())).body(found);
+    }
+
+    /**
+     * Obtiene el historial de precios de un producto en un rango de fechas.
+     * <p>
+     * Las fechas aceptan {@code yyyy-MM-dd} o {@code yyyy-MM-ddTHH:mm:ss} (hora de Panamá). La
+     * primera entrada es la vigente al inicio del rango, así se conoce el precio en {@code from}
+     * aunque no haya cambiado ese día.
+     * </p>
+     *
+     * @param id El ID del producto.
+     * @param from Inicio del rango; opcional (todo el historial).
+     * @param to Fin del rango, inclusive; opcional (ahora).
+     * @return Las entradas del historial en orden cronológico.
+     */
+    @GetMapping("/{id}/prices")
+    @Operation(summary = "Obtener el historial de precios de un producto")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", 
+                     description = "Historial obtenido con éxito",
+                     content = @Content(mediaType = "application/json", 
+                                        schema = @Schema(implementation = PriceHistoryResponse.class)))
+    })
+    public List<PriceHistoryResponse> prices(@PathVariable Long id,
+                                             @RequestParam(required = false) String from,
+                                             @RequestParam(required = false) String to) {
+        return priceHistory.findRange(id, from, to);
+    }
+
+    /**
+     * Obtiene los productos activos cuyos tags más se parecen a los de un producto activo
+     * (similitud de Jaccard). Se resuelve en memoria comparando solo los candidatos de los baldes
+     * LSH del producto, no todo el catálogo.
+     *
+     * @param id El ID del producto.
+     * @param k La cantidad de resultados (por defecto 10, máximo {@code MAX_SUGGEST_LIMIT}).
+     * @return Los productos, del más parecido al menos parecido.
+     */
+    @GetMapping("/{id}/related")
+    @Operation(summary = "Obtener los productos activos con tags más parecidos a los de un producto")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", 
+                     description = "Productos obtenidos con éxito",
+                     content = @Content(mediaType = "application/json", 
+                                        schema = @Schema(implementation = ProductResponse.class)))
+    })
+    public List<ProductResponse> related(@PathVariable Long id,
+                                         @RequestParam(defaultValue = "10") int k) {
+        return related.related(id, k);
+    }
+
+    /**
+     * Obtiene los códigos de barras de un producto.
+     *
+     * @param id El ID del producto.
+     * @return Los códigos normalizados a 14 dígitos (GTIN-14), ordenados.
+     */
+    @GetMapping("/{id}/barcodes")
+    @Operation(summary = "Obtener los códigos de barras de un producto")
+    public List<String> barcodes(@PathVariable Long id) {
+        return service.findBarcodes(id);
+    }
+
+    /**
+     * Busca el producto activo de un código de barras, tal como lo envía el escáner de la caja.
+     * Se resuelve en memoria, sin consultar la base.
+     *
+     * @param code El código (EAN-8, UPC-A, EAN-13 o GTIN-14).
+     * @return El DTO ProductResponse, con su versión en el encabezado {@code ETag}.
+     */
+    @GetMapping("/by-barcode/{code}")
+    @Operation(summary = "Obtener un producto activo por código de barras")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", 
+                     description = "Producto obtenido con éxito",
+                     content = @Content(mediaType = "application/json", 
+                                        schema = @Schema(implementation = ProductResponse.class)))
+    })
+    public ResponseEntity<ProductResponse> byBarcode(@PathVariable String code) {
+        ProductResponse found = barcodes.find(code);
+        return ResponseEntity.ok().eTag(ETagUtil.of(found.getVersion())).body(found);
+    }
+
+    /**
+     * Busca los productos de una canasta completa en una sola solicitud.
+     * Es un {@code POST} porque la lista de códigos no cabe cómodamente en la URL.
+     *
+     * @param codes Los códigos leídos (hasta {@value Constant#MAX_BARCODE_LOOKUP}).
+     * @return El producto de cada código, o {@code null} si el código es inválido o no tiene producto activo.
+     */
+    @PostMapping("/by-barcode")
+    @Operation(summary = "Obtener los productos activos de varios códigos de barras",
+               description = "Cuerpo: lista de códigos. Los códigos inválidos o sin producto activo se devuelven con null.")
+    public Map<String, ProductResponse> byBarcodes(@RequestBody List<String> codes) {
+        return barcodes.findAll(codes);
     }
 
     /**
@@ -61,7 +278,7 @@ public class ProductController {
      * Nota: El estado inicial se setea como 'ACTIVO' en el controlador o servicio.
      *
      * @param request El DTO ProductRequest con los datos del nuevo producto.
-     * @return El DTO ProductResponse del producto creado.
+     * @return El DTO ProductResponse del producto creado, con su versión en el encabezado {@code ETag}.
      */
     @PostMapping
     @Operation(summary = "Crea un nuevo producto")
@@ -71,28 +288,68 @@ public class ProductController {
                      content = @Content(mediaType = "application/json", 
                                         schema = @Schema(implementation = ProductResponse.class)))
     })
-    public ProductResponse create(@RequestBody ProductRequest p) {
+    public ResponseEntity<ProductResponse> create(@RequestBody ProductRequest p) {
         
-        return service.create(p);
+        ProductResponse created = service.create(p);
+        return ResponseEntity.ok().eTag(ETagUtil.of(created.getVersion())).body(created);
     }
 
     /**
      * Actualiza un producto existente basándose en su ID.
+     * <p>
+     * Si se envía el encabezado {@code If-Match} con el {@code ETag} leído, la actualización
+     * solo se aplica cuando el producto no fue modificado desde entonces.
+     * </p>
      *
      * @param id El ID del producto a actualizar.
+     * @param ifMatch El {@code ETag} (versión) esperado; opcional.
      * @param request El DTO ProductRequest con los campos a modificar.
-     * @return El DTO ProductResponse del producto actualizado.
+     * @return El DTO ProductResponse del producto actualizado, con su nueva versión en el {@code ETag}.
      */
     @PutMapping("/{id}")
-    @Operation(summary = "Actualiza un producto existente")
+    @Operation(summary = "Actualiza un producto existente",
+               description = "Acepta el encabezado If-Match con el ETag del producto para evitar sobrescribir cambios concurrentes.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", 
                      description = "Producto actualizado con éxito",
                      content = @Content(mediaType = "application/json", 
-                                        schema = @Schema(implementation = ProductResponse.class)))
+                                        schema = @Schema(implementation = ProductResponse.class))),
+        @ApiResponse(responseCode = "412", description = "El producto fue modificado por otro usuario (If-Match no coincide)")
+    })
+    public ResponseEntity<ProductResponse> update(@PathVariable Long id,
+                                                  @RequestHeader(value = "If-Match", required = false) String ifMatch,
+                                                  @RequestBody ProductRequest p) {
+        ProductResponse updated = service.update(id, p, ETagUtil.parseIfMatch(ifMatch, () -> service.findVersion(id)));
+        return ResponseEntity.ok().eTag(ETagUtil.of(updated.getVersion())).body(updated);
+    }
+
+    /**
+     * Modifica parcialmente un producto con un documento JSON Merge Patch (RFC 7396).
+     * <p>
+     * Solo se envían los campos que cambian (nombre, categoria, costo, precio, tags, codigosBarra); únicamente esas columnas se escriben
+     * en la base. Acepta {@code If-Match} igual que el {@code PUT}.
+     * </p>
+     *
+     * @param id El ID del producto a modificar.
+     * @param ifMatch El {@code ETag} (versión) esperado; opcional.
+     * @param patch Los campos a modificar.
+     * @return El producto modificado, con su nueva versión en el {@code ETag}.
+     */
+    @PatchMapping(value = "/{id}", consumes = {Constant.MEDIA_MERGE_PATCH, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Modifica parcialmente un producto",
+               description = "Cuerpo JSON Merge Patch con solo los campos a cambiar: nombre, categoria, costo, precio, tags, codigosBarra.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", 
+                     description = "Producto modificado con éxito",
+                     content = @Content(mediaType = "application/json", 
+                                        schema = @Schema(implementation = ProductResponse.class))),
+        @ApiResponse(responseCode = "412", description = "El producto fue modificado por otro usuario (If-Match no coincide)")
     })
-    public ProductResponse update(@PathVariable Long id, @RequestBody ProductRequest p) {
-        return service.update(id, p);
+    public ResponseEntity<ProductResponse> patch(@PathVariable Long id,
+                                                 @RequestHeader(value = "If-Match", required = false) String ifMatch,
+                                                 @RequestBody Map<String, Object> patch) {
+        ProductResponse patched = service.patch(id, patch, ETagUtil.parseIfMatch(ifMatch, () -> service.findVersion(id)));
+        return ResponseEntity.ok().eTag(ETagUtil.of(patched.getVersion())).body(patched);
     }
 
     /**
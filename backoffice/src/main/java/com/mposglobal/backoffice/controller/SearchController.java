@@ -0,0 +1,59 @@
+package com.mposglobal.backoffice.controller;
+
+import org.springframework.web.bind.annotation.*;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import com.mposglobal.backoffice.service.GlobalSearchService;
+
+/**
+ * Controlador REST de la búsqueda global del backoffice (usuarios, categorías y productos).
+ */
+@RestController
+@RequestMapping("/search")
+@Tag(name = "Búsqueda", description = "Búsqueda por texto en usuarios, categorías y productos.")
+public class SearchController {
+
+    private final GlobalSearchService service;
+
+    /**
+     * Constructor para inyección de dependencia del servicio de búsqueda global.
+     * @param service El servicio de búsqueda global.
+     */
+    public SearchController(GlobalSearchService service) {
+        this.service = service;
+    }
+
+    /**
+     * Busca usuarios, categorías y productos activos que tengan, por cada palabra del texto,
+     * alguna palabra que empiece así. Los resultados vienen agrupados por tipo, del más reciente
+     * al más antiguo; los usuarios solo aparecen para el rol ADMIN.
+     * <p>
+     * Sin {@code tipo} se devuelve la primera página de cada grupo. Para seguir un grupo se envía
+     * su {@code nextCursor} como {@code before} junto con su {@code tipo}.
+     * </p>
+     *
+     * @param q El texto a buscar.
+     * @param tipo {@code USUARIO}, {@code CATEGORIA} o {@code PRODUCTO}; opcional.
+     * @param before El {@code nextCursor} del grupo; opcional, requiere {@code tipo}.
+     * @param size El tamaño de página de cada grupo (por defecto 10, máximo {@code MAX_PAGE_SIZE}).
+     * @return Los resultados agrupados por tipo, cada grupo con su cursor.
+     */
+    @Operation(summary = "Busca en usuarios, categorías y productos",
+               description = "Resultados agrupados por tipo; cada grupo se pagina con su nextCursor (enviarlo como before junto con tipo). Los usuarios requieren rol ADMIN.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Resultados obtenidos con éxito"),
+        @ApiResponse(responseCode = "401", description = "Se pidieron usuarios sin rol ADMIN"),
+        @ApiResponse(responseCode = "503", description = "El índice de búsqueda todavía se está cargando")
+    })
+    @GetMapping
+    public GlobalSearchService.SearchResults search(@RequestParam String q,
+                                                    @RequestParam(required = false) String tipo,
+                                                    @RequestParam(required = false) Long before,
+                                                    @RequestParam(defaultValue = "10") int size) {
+        return service.search(q, tipo, before, size);
+    }
+}
@@ -1,11 +1,15 @@
 package com.mposglobal.backoffice.controller;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import com.mposglobal.backoffice.dto.UserRequest;
 import com.mposglobal.backoffice.dto.UserResponse;
+import com.mposglobal.backoffice.service.RequestCoalescer;
 import com.mposglobal.backoffice.service.UserService;
+import com.mposglobal.backoffice.util.Constant;
+import com.mposglobal.backoffice.util.ETagUtil;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -29,28 +33,55 @@ import java.util.Map;
 public class UserController {
 
     private final UserService service;
+    private final RequestCoalescer coalescer;
 
     /**
      * Constructor para inyección de dependencias (DI).
      *
      * @param service El servicio de lógica de negocio para la entidad Usuario.
+     * @param coalescer El agrupador de lecturas concurrentes idénticas.
      */
-    public UserController(UserService service) {
+    public UserController(UserService service, RequestCoalescer coalescer) {
         this.service = service;
+        this.coalescer = coalescer;
     }
 
     /**
-     * Recupera una lista de todos los usuarios marcados como activos en la base de datos.
+     * Recupera una página de usuarios, por defecto los activos.
+     * <p>
+     * La paginación es por keyset: el encabezado {@code X-Next-Cursor} trae el valor a enviar
+     * en {@code after} para la página siguiente y no se envía en la última página. Las solicitudes
+     * simultáneas con los mismos parámetros comparten una sola consulta a la base.
+     * </p>
      *
-     * @return Una {@link List} de {@link UserResponse} que representan a los usuarios activos.
+     * @param after El cursor de la página anterior; omitir para la primera.
+     * @param size El tamaño de página (máximo 500).
+     * @param estado El estado a filtrar ({@code ACTIVO} por defecto, o {@code DESACTIVADO}).
+     * @param nivelAcceso El nivel de acceso a filtrar ({@code ADMIN} o {@code USER}); opcional.
+     * @param q Prefijo de username o nombre completo, sin distinguir mayúsculas; opcional.
+     * @param includeArchived {@code true} para incluir los usuarios archivados (auditorías).
+     * @return Una {@link List} de {@link UserResponse} con la página solicitada.
      */
-    @Operation(summary = "Obtiene la lista de todos los usuarios activos")
+    @Operation(summary = "Obtiene una página de usuarios activos",
+               description = "Paginación por keyset con el encabezado X-Next-Cursor; filtros por estado y nivelAcceso, búsqueda por prefijo (q) e includeArchived para sumar los usuarios archivados.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Lista obtenida con éxito")
     })
     @GetMapping
-    public List<UserResponse> all() {
-        return service.findAll();
+    public ResponseEntity<List<UserResponse>> all(@RequestParam(required = false) Long after,
+                                                  @RequestParam(defaultValue = "50") int size,
+                                                  @RequestParam(required = false) String estado,
+                                                  @RequestParam(required = false) String nivelAcceso,
+                                                  @RequestParam(required = false) String q,
+                                                  @RequestParam(defaultValue = "false") boolean includeArchived) {
+        UserService.UserPage page = coalescer.execute("users",
+                () -> service.findPage(after, size, estado, nivelAcceso, q, includeArchived),
+                after, size, estado, nivelAcceso, q, includeArchived);
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            ok.header(Constant.HEADER_NEXT_CURSOR, page.nextCursor().toString());
+        }
+        return ok.body(page.items());
     }
 
     /**
@@ -58,7 +89,7 @@ public class UserController {
      * La contraseña se cifra internamente.
      *
      * @param u Los datos de la solicitud para la creación del usuario.
-     * @return Un {@link UserResponse} del usuario creado, incluyendo su ID.
+     * @return Un {@link UserResponse} del usuario creado, incluyendo su ID, con su versión en el {@code ETag}.
      */
     @Operation(summary = "Crea un nuevo usuario en el sistema", 
             description = "La contraseña (clave) debe ser enviada en texto plano y será cifrada por el servicio.")
@@ -71,31 +102,67 @@ public class UserController {
 	     )
 	 })
     @PostMapping
-    public UserResponse create(@RequestBody UserRequest u) {
-        return service.create(u);
+    public ResponseEntity<UserResponse> create(@RequestBody UserRequest u) {
+        UserResponse created = service.create(u);
+        return ResponseEntity.ok().eTag(ETagUtil.of(created.getVersion())).body(created);
     }
 
     /**
      * Actualiza la información de un usuario específico.
      *
      * @param id El ID del usuario a actualizar, tomado del path de la URL.
+     * @param ifMatch El {@code ETag} (versión) esperado; opcional.
      * @param u  Los nuevos datos del usuario, tomados del cuerpo de la solicitud.
-     * @return Un {@link UserResponse} del usuario actualizado.
+     * @return Un {@link UserResponse} del usuario actualizado, con su nueva versión en el {@code ETag}.
      */
     @Operation(summary = "Actualiza la información de un usuario existente", 
-            description = "Usa el 'username' del path para identificar el registro. Los datos del cuerpo reemplazarán los existentes.")
+            description = "Usa el 'username' del path para identificar el registro. Los datos del cuerpo reemplazarán los existentes. Acepta If-Match con el ETag del usuario.")
 	 @ApiResponses(value = {
 	     // Éxito: HTTP 200 OK
 	     @ApiResponse(
 	         responseCode = "200", 
 	         description = "Usuario actualizado con éxito",
 	         content = @Content(schema = @Schema(implementation = UserResponse.class))
-	     )
+	     ),
+	     // Conflicto: HTTP 412 si el If-Match no coincide con la versión actual
+	     @ApiResponse(responseCode = "412", description = "El usuario fue modificado por otro administrador (If-Match no coincide)")
 	 })
     @PutMapping("/{id}")
-    public UserResponse update(@PathVariable Long id, @RequestBody UserRequest u) {
+    public ResponseEntity<UserResponse> update(@PathVariable Long id,
+                                               @RequestHeader(value = "If-Match", required = false) String ifMatch,
+                                               @RequestBody UserRequest u) {
         u.setId(id);
-        return service.update(u);
+        UserResponse updated = service.update(u, ETagUtil.parseIfMatch(ifMatch, () -> service.findVersion(id)));
+        return ResponseEntity.ok().eTag(ETagUtil.of(updated.getVersion())).body(updated);
+    }
+
+    /**
+     * Modifica parcialmente un usuario con un documento JSON Merge Patch (RFC 7396).
+     * <p>
+     * Solo se envían los campos que cambian (nombreCompleto, username, clave, nivelAcceso); únicamente esas columnas se escriben
+     * en la base. Acepta {@code If-Match} igual que el {@code PUT}.
+     * </p>
+     *
+     * @param id El ID del usuario a modificar.
+     * @param ifMatch El {@code ETag} (versión) esperado; opcional.
+     * @param patch Los campos a modificar.
+     * @return El usuario modificado, con su nueva versión en el {@code ETag}.
+     */
+    @PatchMapping(value = "/{id}", consumes = {Constant.MEDIA_MERGE_PATCH, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Modifica parcialmente un usuario",
+               description = "Cuerpo JSON Merge Patch con solo los campos a cambiar: nombreCompleto, username, clave, nivelAcceso.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", 
+                     description = "Usuario modificado con éxito",
+                     content = @Content(mediaType = "application/json", 
+                                        schema = @Schema(implementation = UserResponse.class))),
+        @ApiResponse(responseCode = "412", description = "El usuario fue modificado por otro usuario (If-Match no coincide)")
+    })
+    public ResponseEntity<UserResponse> patch(@PathVariable Long id,
+                                              @RequestHeader(value = "If-Match", required = false) String ifMatch,
+                                              @RequestBody Map<String, Object> patch) {
+        UserResponse patched = service.patch(id, patch, ETagUtil.parseIfMatch(ifMatch, () -> service.findVersion(id)));
+        return ResponseEntity.ok().eTag(ETagUtil.of(patched.getVersion())).body(patched);
     }
 
     /**
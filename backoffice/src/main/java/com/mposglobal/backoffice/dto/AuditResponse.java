@@ -0,0 +1,152 @@
+package com.mposglobal.backoffice.dto;
+
+import java.util.Date;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+/**
+ * Data Transfer Object (DTO) para un registro de auditoría.
+ * <p>
+ * {@code cambios} es un objeto con un atributo por campo modificado, de la forma
+ * {@code {"antes": ..., "despues": ...}}; en un alta {@code antes} es {@code null}. Solo
+ * aparecen los campos cuyo valor cambió.
+ * </p>
+ */
+public class AuditResponse {
+
+    /**
+     * ID del registro de auditoría (cursor de paginación).
+     */
+    private Long id;
+
+    /**
+     * Tipo de registro modificado: {@code USUARIO}, {@code CATEGORIA} o {@code PRODUCTO}.
+     */
+    private String entidad;
+
+    /**
+     * ID del registro modificado.
+     */
+    private Long entidadId;
+
+    /**
+     * Acción: {@code CREAR}, {@code ACTUALIZAR} o {@code DESACTIVAR}.
+     */
+    private String accion;
+
+    /**
+     * Usuario autenticado que hizo el cambio.
+     */
+    private String usuario;
+
+    /**
+     * Campos modificados (JSON, se envía tal cual).
+     */
+    @JsonRawValue
+    private String cambios;
+
+    /**
+     * Instante del cambio.
+     */
+    @JsonFormat(pattern = "dd/MM/yyyy HH:mm:ss", timezone = "America/Panama")
+    private Date fecha;
+
+    /**
+     * @return El ID del registro de auditoría.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * @param id El ID del registro de auditoría.
+     */
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * @return El tipo de registro modificado.
+     */
+    public String getEntidad() {
+        return entidad;
+    }
+
+    /**
+     * @param entidad El tipo de registro modificado.
+     */
+    public void setEntidad(String entidad) {
+        this.entidad = entidad;
+    }
+
+    /**
+     * @return El ID del registro modificado.
+     */
+    public Long getEntidadId() {
+        return entidadId;
+    }
+
+    /**
+     * @param entidadId El ID del registro modificado.
+     */
+    public void setEntidadId(Long entidadId) {
+        this.entidadId = entidadId;
+    }
+
+    /**
+     * @return La acción.
+     */
+    public String getAccion() {
+        return accion;
+    }
+
+    /**
+     * @param accion La acción.
+     */
+    public void setAccion(String accion) {
+        this.accion = accion;
+    }
+
+    /**
+     * @return El usuario que hizo el cambio.
+     */
+    public String getUsuario() {
+        return usuario;
+    }
+
+    /**
+     * @param usuario El usuario que hizo el cambio.
+     */
+    public void setUsuario(String usuario) {
+        this.usuario = usuario;
+    }
+
+    /**
+     * @return Los campos modificados en JSON.
+     */
+    public String getCambios() {
+        return cambios;
+    }
+
+    /**
+     * @param cambios Los campos modificados en JSON.
+     */
+    public void setCambios(String cambios) {
+        this.cambios = cambios;
+    }
+
+    /**
+     * @return El instante del cambio.
+     */
+    public Date getFecha() {
+        return fecha;
+    }
+
+    /**
+     * @param fecha El instante del cambio.
+     */
+    public void setFecha(Date fecha) {
+        this.fecha = fecha;
+    }
+}
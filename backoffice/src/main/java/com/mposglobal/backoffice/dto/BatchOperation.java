@@ -0,0 +1,118 @@
+package com.mposglobal.backoffice.dto;
+
+import java.util.Map;
+
+/**
+ * Data Transfer Object (DTO) para una operación dentro de un lote ({@code POST /batch}).
+ * <p>
+ * Equivale a una llamada individual a la API: {@code resource} y {@code action} indican el
+ * endpoint, {@code id} el registro y {@code body} el cuerpo que se enviaría. En {@code id} y en
+ * los valores de {@code body} se puede usar la referencia {@code "$n"} para tomar el ID
+ * generado por la operación {@code n} (base 0) del mismo lote, por ejemplo para crear una
+ * categoría y luego sus productos.
+ * </p>
+ */
+public class BatchOperation {
+
+    /**
+     * El recurso: {@code products}, {@code categories} o {@code users}.
+     */
+    private String resource;
+
+    /**
+     * La acción: {@code create}, {@code update}, {@code patch} o {@code deactivate}.
+     */
+    private String action;
+
+    /**
+     * El ID del registro (o una referencia {@code "$n"}); no aplica a {@code create}.
+     */
+    private String id;
+
+    /**
+     * La versión esperada, equivalente al encabezado {@code If-Match}; opcional.
+     */
+    private Long version;
+
+    /**
+     * El cuerpo de la operación, con el mismo formato que el endpoint individual.
+     */
+    private Map<String, Object> body;
+
+    /**
+     * Constructor vacío requerido para la deserialización JSON (Jackson) de la solicitud HTTP.
+     */
+    public BatchOperation() {
+        // vacio
+    }
+
+    /**
+     * @return El recurso de la operación.
+     */
+    public String getResource() {
+        return resource;
+    }
+
+    /**
+     * @param resource El recurso de la operación.
+     */
+    public void setResource(String resource) {
+        this.resource = resource;
+    }
+
+    /**
+     * @return La acción de la operación.
+     */
+    public String getAction() {
+        return action;
+    }
+
+    /**
+     * @param action La acción de la operación.
+     */
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    /**
+     * @return El ID del registro o una referencia {@code "$n"}.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @param id El ID del registro o una referencia {@code "$n"}.
+     */
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * @return La versión esperada, o {@code null}.
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * @param version La versión esperada, o {@code null}.
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    /**
+     * @return El cuerpo de la operación.
+     */
+    public Map<String, Object> getBody() {
+        return body;
+    }
+
+    /**
+     * @param body El cuerpo de la operación.
+     */
+    public void setBody(Map<String, Object> body) {
+        this.body = body;
+    }
+}
@@ -0,0 +1,61 @@
+package com.mposglobal.backoffice.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) para la solicitud del endpoint {@code POST /batch}.
+ * <p>
+ * Agrupa una lista ordenada de operaciones sobre productos, categorías y usuarios que se
+ * ejecutan en una sola llamada HTTP.
+ * </p>
+ */
+public class BatchRequest {
+
+    /**
+     * Si es {@code true} (por defecto) todas las operaciones se ejecutan en una sola transacción
+     * y cualquier falla revierte el lote completo. Si es {@code false} cada operación se confirma
+     * por separado y las fallidas no afectan a las demás.
+     */
+    private boolean atomic = true;
+
+    /**
+     * Las operaciones a ejecutar, en orden.
+     */
+    private List<BatchOperation> operations = new ArrayList<>();
+
+    /**
+     * Constructor vacío requerido para la deserialización JSON (Jackson) de la solicitud HTTP.
+     */
+    public BatchRequest() {
+        // vacio
+    }
+
+    /**
+     * @return {@code true} si el lote es todo-o-nada.
+     */
+    public boolean isAtomic() {
+        return atomic;
+    }
+
+    /**
+     * @param atomic {@code true} para ejecutar el lote como todo-o-nada.
+     */
+    public void setAtomic(boolean atomic) {
+        this.atomic = atomic;
+    }
+
+    /**
+     * @return Las operaciones a ejecutar, en orden.
+     */
+    public List<BatchOperation> getOperations() {
+        return operations;
+    }
+
+    /**
+     * @param operations Las operaciones a ejecutar, en orden.
+     */
+    public void setOperations(List<BatchOperation> operations) {
+        this.operations = operations;
+    }
+}
@@ -0,0 +1,98 @@
+package com.mposglobal.backoffice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Data Transfer Object (DTO) con el resultado de una operación de un lote ({@code POST /batch}).
+ * <p>
+ * {@code status} usa los mismos códigos HTTP que devolvería el endpoint individual
+ * (200, 400, 401, 409, 412). En un lote atómico que falla, las demás operaciones se reportan
+ * con 424 (Failed Dependency): las anteriores fueron revertidas y las posteriores no se ejecutaron.
+ * </p>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchResult {
+
+    private int index;
+    private int status;
+    private Object body;
+    private String error;
+
+    /**
+     * Constructor vacío requerido para la serialización JSON (Jackson).
+     */
+    public BatchResult() {
+        // vacio
+    }
+
+    /**
+     * Crea un resultado.
+     *
+     * @param index La posición de la operación en el lote (base 0).
+     * @param status El código HTTP equivalente.
+     * @param body La respuesta de la operación, o {@code null}.
+     * @param error El mensaje de error, o {@code null}.
+     */
+    public BatchResult(int index, int status, Object body, String error) {
+        this.index = index;
+        this.status = status;
+        this.body = body;
+        this.error = error;
+    }
+
+    /**
+     * @return La posición de la operación en el lote (base 0).
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @param index La posición de la operación en el lote (base 0).
+     */
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    /**
+     * @return El código HTTP equivalente.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * @param status El código HTTP equivalente.
+     */
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    /**
+     * @return La respuesta de la operación (el mismo DTO del endpoint individual).
+     */
+    public Object getBody() {
+        return body;
+    }
+
+    /**
+     * @param body La respuesta de la operación.
+     */
+    public void setBody(Object body) {
+        this.body = body;
+    }
+
+    /**
+     * @return El mensaje de error, si la operación falló.
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @param error El mensaje de error.
+     */
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -15,6 +15,17 @@ public class CategoryRequest {
      */
     private String nombre;   
 
+    /**
+     * El ID de la categoría padre; opcional ({@code null} para una categoría raíz).
+     */
+    private Long padre;
+
+    /**
+     * Indica si la solicitud trae {@code padre}, aunque sea {@code null}: Jackson solo llama a
+     * {@link #setPadre(Long)} cuando el campo está en el JSON.
+     */
+    private boolean padrePresente;
+
     /**
      * Constructor vacío requerido para la deserialización JSON (Jackson) de la solicitud HTTP.
      */
@@ -40,4 +51,32 @@ public class CategoryRequest {
         this.nombre = nombre;
     }
 
+    /**
+     * Obtiene el ID de la categoría padre.
+     *
+     * @return El ID del padre, o {@code null} para una categoría raíz.
+     */
+    public Long getPadre() {
+        return padre;
+    }
+
+    /**
+     * Establece el ID de la categoría padre.
+     *
+     * @param padre El ID del padre, o {@code null} para una categoría raíz.
+     */
+    public void setPadre(Long padre) {
+        this.padre = padre;
+        this.padrePresente = true;
+    }
+
+    /**
+     * Indica si la solicitud trae el padre; una actualización sin él conserva el padre actual.
+     *
+     * @return {@code true} si se estableció {@code padre}, aunque sea {@code null}.
+     */
+    public boolean hasPadre() {
+        return padrePresente;
+    }
+
 }
@@ -45,6 +45,21 @@ public class CategoryResponse {
      */
     @JsonFormat(pattern = "dd/MM/yyyy", timezone = "America/Panama")
     private Date fechaActualizacion;
+
+    /**
+     * Versión del registro; es el mismo valor que se envía en el encabezado {@code ETag}.
+     */
+    private Long version;
+
+    /**
+     * ID de la categoría padre, o {@code null} si es una categoría raíz.
+     */
+    private Long padre;
+
+    /**
+     * Estado considerando los ancestros: "DESACTIVADO" si la categoría o alguno de ellos lo está.
+     */
+    private String estadoEfectivo;
     
     // El constructor vacío por defecto es implícito o se asume si no hay otros constructores.
 
@@ -131,4 +146,52 @@ public class CategoryResponse {
     public void setFechaActualizacion(Date fechaActualizacion) {
         this.fechaActualizacion = fechaActualizacion;
     }
+
+    /**
+     * Obtiene la versión del registro.
+     * @return La versión.
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Establece la versión del registro.
+     * @param version La versión.
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    /**
+     * Obtiene el ID de la categoría padre.
+     * @return El ID del padre, o {@code null} si es raíz.
+     */
+    public Long getPadre() {
+        return padre;
+    }
+
+    /**
+     * Establece el ID de la categoría padre.
+     * @param padre El ID del padre.
+     */
+    public void setPadre(Long padre) {
+        this.padre = padre;
+    }
+
+    /**
+     * Obtiene el estado efectivo de la categoría.
+     * @return El estado efectivo.
+     */
+    public String getEstadoEfectivo() {
+        return estadoEfectivo;
+    }
+
+    /**
+     * Establece el estado efectivo de la categoría.
+     * @param estadoEfectivo El estado efectivo.
+     */
+    public void setEstadoEfectivo(String estadoEfectivo) {
+        this.estadoEfectivo = estadoEfectivo;
+    }
 }
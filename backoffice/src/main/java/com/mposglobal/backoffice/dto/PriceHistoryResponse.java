@@ -0,0 +1,130 @@
+package com.mposglobal.backoffice.dto;
+
+import java.util.Date;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+/**
+ * Data Transfer Object (DTO) para una entrada del historial de precios de un producto.
+ * <p>
+ * Cada entrada indica el costo, el precio y la categoría vigentes desde un instante hasta la
+ * entrada siguiente del mismo producto.
+ * </p>
+ */
+public class PriceHistoryResponse {
+
+    /**
+     * ID del producto.
+     */
+    private Long productoId;
+
+    /**
+     * ID de la categoría del producto durante la vigencia.
+     */
+    private Long categoriaId;
+
+    /**
+     * Costo vigente.
+     */
+    private Double costo;
+
+    /**
+     * Precio de venta vigente.
+     */
+    private Double precio;
+
+    /**
+     * Instante desde el que rigen estos valores.
+     */
+    @JsonFormat(pattern = "dd/MM/yyyy HH:mm:ss", timezone = "America/Panama")
+    private Date vigenteDesde;
+
+    /**
+     * Usuario que hizo el cambio ({@code null} para los precios iniciales cargados por script).
+     */
+    private String usuario;
+
+    /**
+     * @return El ID del producto.
+     */
+    public Long getProductoId() {
+        return productoId;
+    }
+
+    /**
+     * @param productoId El ID del producto.
+     */
+    public void setProductoId(Long productoId) {
+        this.productoId = productoId;
+    }
+
+    /**
+     * @return El ID de la categoría durante la vigencia.
+     */
+    public Long getCategoriaId() {
+        return categoriaId;
+    }
+
+    /**
+     * @param categoriaId El ID de la categoría durante la vigencia.
+     */
+    public void setCategoriaId(Long categoriaId) {
+        this.categoriaId = categoriaId;
+    }
+
+    /**
+     * @return El costo vigente.
+     */
+    public Double getCosto() {
+        return costo;
+    }
+
+    /**
+     * @param costo El costo vigente.
+     */
+    public void setCosto(Double costo) {
+        this.costo = costo;
+    }
+
+    /**
+     * @return El precio vigente.
+     */
+    public Double getPrecio() {
+        return precio;
+    }
+
+    /**
+     * @param precio El precio vigente.
+     */
+    public void setPrecio(Double precio) {
+        this.precio = precio;
+    }
+
+    /**
+     * @return El inicio de la vigencia.
+     */
+    public Date getVigenteDesde() {
+        return vigenteDesde;
+    }
+
+    /**
+     * @param vigenteDesde El inicio de la vigencia.
+     */
+    public void setVigenteDesde(Date vigenteDesde) {
+        this.vigenteDesde = vigenteDesde;
+    }
+
+    /**
+     * @return El usuario que hizo el cambio.
+     */
+    public String getUsuario() {
+        return usuario;
+    }
+
+    /**
+     * @param usuario El usuario que hizo el cambio.
+     */
+    public void setUsuario(String usuario) {
+        this.usuario = usuario;
+    }
+}
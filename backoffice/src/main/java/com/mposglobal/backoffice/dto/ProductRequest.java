@@ -1,5 +1,7 @@
 package com.mposglobal.backoffice.dto;
 
+import java.util.List;
+
 /**
  * Data Transfer Object (DTO) para solicitudes de creación o actualización de productos.
  * <p>
@@ -35,6 +37,12 @@ public class ProductRequest {
      */
     private String tags;
     
+    /**
+     * Los códigos de barras GTIN del producto. Opcional: si no se envía, en una actualización
+     * se conservan los actuales; una lista vacía los quita todos.
+     */
+    private List<String> codigosBarra;
+    
     // El constructor vacío por defecto es implícito o se asume si no hay otros constructores.
 
     // -------------------------------------------------------------------------
@@ -120,5 +128,21 @@ public class ProductRequest {
     public void setTags(String tags) {
         this.tags = tags;
     }
+    
+    /**
+     * Obtiene los códigos de barras del producto.
+     * @return Los códigos, o {@code null} si no se enviaron.
+     */
+    public List<String> getCodigosBarra() {
+        return codigosBarra;
+    }
+    
+    /**
+     * Establece los códigos de barras del producto.
+     * @param codigosBarra Los códigos de barras.
+     */
+    public void setCodigosBarra(List<String> codigosBarra) {
+        this.codigosBarra = codigosBarra;
+    }
  
 }
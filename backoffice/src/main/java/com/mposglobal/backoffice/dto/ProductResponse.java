@@ -67,6 +67,11 @@ public class ProductResponse {
      */
     @JsonFormat(pattern = "dd/MM/yyyy", timezone = "America/Panama")
     private Date fechaActualizacion;
+
+    /**
+     * Versión del registro; es el mismo valor que se envía en el encabezado {@code ETag}.
+     */
+	private Long version;
 	
     // -------------------------------------------------------------------------
     // Getters y Setters
@@ -215,4 +220,20 @@ public class ProductResponse {
 	public void setFechaActualizacion(Date fechaActualizacion) {
 		this.fechaActualizacion = fechaActualizacion;
 	}
+
+    /**
+     * Obtiene la versión del registro.
+     * @return La versión.
+     */
+	public Long getVersion() {
+		return version;
+	}
+
+    /**
+     * Establece la versión del registro.
+     * @param version La versión.
+     */
+	public void setVersion(Long version) {
+		this.version = version;
+	}
 }
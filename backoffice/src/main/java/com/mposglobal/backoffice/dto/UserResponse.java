@@ -51,6 +51,43 @@ public class UserResponse {
      * Estado lógico del usuario (ej. "ACTIVO" o "DESACTIVADO").
      */
 	private String estado; 
+
+    /**
+     * Versión del registro; es el mismo valor que se envía en el encabezado {@code ETag}.
+     */
+	private Long version;
+
+	/**
+	 * Constructor vacío requerido para la serialización JSON (Jackson) y el mapeo desde la entidad.
+	 */
+	public UserResponse() {
+		// vacio
+	}
+
+	/**
+	 * Constructor completo, usado por las consultas de proyección de {@code UserRepository}
+	 * ({@code select new ...}) para no materializar entidades.
+	 *
+	 * @param id El ID del usuario.
+	 * @param nombreCompleto El nombre completo.
+	 * @param username El nombre de usuario.
+	 * @param fechaCreacion La fecha de creación.
+	 * @param fechaUltimoIngreso La fecha del último ingreso.
+	 * @param nivelAcceso El nivel de acceso.
+	 * @param estado El estado.
+	 * @param version La versión del registro.
+	 */
+	public UserResponse(Long id, String nombreCompleto, String username, Date fechaCreacion,
+			Date fechaUltimoIngreso, String nivelAcceso, String estado, Long version) {
+		this.id = id;
+		this.nombreCompleto = nombreCompleto;
+		this.username = username;
+		this.fechaCreacion = fechaCreacion;
+		this.fechaUltimoIngreso = fechaUltimoIngreso;
+		this.nivelAcceso = nivelAcceso;
+		this.estado = estado;
+		this.version = version;
+	}
 	
     // -------------------------------------------------------------------------
     // Getters y Setters
@@ -166,5 +203,21 @@ public class UserResponse {
      */
 	public void setEstado(String estado) {
 		this.estado = estado;
-	}	
+	}
+
+    /**
+     * Obtiene la versión del registro.
+     * @return La versión.
+     */
+	public Long getVersion() {
+		return version;
+	}
+
+    /**
+     * Establece la versión del registro.
+     * @param version La versión.
+     */
+	public void setVersion(Long version) {
+		this.version = version;
+	}
 }
@@ -2,6 +2,10 @@ package com.mposglobal.backoffice.entity;
 
 import jakarta.persistence.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+
 import java.util.Date;
 
 /**
@@ -12,6 +16,9 @@ import java.util.Date;
  * </p>
  */
 @Entity
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "categorias")
 @Table(name = "Categorias")
 public class Category {
 
@@ -50,6 +57,28 @@ public class Category {
     @Column(name = "estado", nullable = false)
     private String estado; // ACTIVO / DESACTIVADO
 
+    /**
+     * Versión del registro para el control de concurrencia optimista. Se incrementa en cada
+     * actualización y se expone al cliente como {@code ETag}.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    /**
+     * ID de la categoría padre en la jerarquía (departamento, pasillo, estante), o {@code null}
+     * si es una categoría raíz. Los caminos completos se guardan en {@code CategoriasJerarquia}.
+     */
+    @Column(name = "padreId")
+    private Long padreId;
+
+    /**
+     * Estado efectivo: "DESACTIVADO" si la categoría o alguno de sus ancestros está desactivado.
+     * Lo mantiene {@code CategoryService} al desactivar, reactivar o mover una categoría.
+     */
+    @Column(name = "estadoEfectivo", nullable = false)
+    private String estadoEfectivo;
+
     // -------------------------------------------------------------------------
     // Getters y Setters
     // -------------------------------------------------------------------------
@@ -134,6 +163,54 @@ public class Category {
         this.estado = estado;
     }
 
+    /**
+     * Obtiene la versión del registro (control de concurrencia optimista).
+     * @return La versión.
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Establece la versión del registro.
+     * @param version La versión.
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    /**
+     * Obtiene el ID de la categoría padre.
+     * @return El ID del padre, o {@code null} si es raíz.
+     */
+    public Long getPadreId() {
+        return padreId;
+    }
+
+    /**
+     * Establece el ID de la categoría padre.
+     * @param padreId El ID del padre, o {@code null} para una categoría raíz.
+     */
+    public void setPadreId(Long padreId) {
+        this.padreId = padreId;
+    }
+
+    /**
+     * Obtiene el estado efectivo de la categoría (considerando sus ancestros).
+     * @return El estado efectivo.
+     */
+    public String getEstadoEfectivo() {
+        return estadoEfectivo;
+    }
+
+    /**
+     * Establece el estado efectivo de la categoría.
+     * @param estadoEfectivo El estado efectivo.
+     */
+    public void setEstadoEfectivo(String estadoEfectivo) {
+        this.estadoEfectivo = estadoEfectivo;
+    }
+
     /**
      * Genera una representación en cadena de la entidad Category, útil para fines de logging y depuración.
      * @return Una cadena que contiene los valores de los campos de la categoría.
@@ -141,6 +218,7 @@ public class Category {
     @Override
     public String toString() {
         return "Category [id=" + id + ", nombre=" + nombre + ", fechaCreacion=" + fechaCreacion + ", fechaActualizacion="
-                + fechaActualizacion + ", estado=" + estado + "]";
+                + fechaActualizacion + ", estado=" + estado + ", version=" + version + ", padreId=" + padreId
+                + ", estadoEfectivo=" + estadoEfectivo + "]";
     }
 }
@@ -0,0 +1,29 @@
+package com.mposglobal.backoffice.entity;
+
+import com.mposglobal.backoffice.util.Money;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Mapea {@link Money} (centavos en un {@code long}) a las columnas {@code DECIMAL(10,2)}.
+ * <p>
+ * El valor viaja al controlador JDBC como {@code BigDecimal} en ambos sentidos, así que no pasa
+ * por {@code double} y no hay redondeo entre la base y la entidad.
+ * </p>
+ */
+@Converter
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money attribute) {
+        return attribute == null ? null : attribute.toBigDecimal();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal dbData) {
+        return Money.of(dbData);
+    }
+}
@@ -2,6 +2,10 @@ package com.mposglobal.backoffice.entity;
 
 import jakarta.persistence.*;
 
+import org.hibernate.annotations.DynamicUpdate;
+
+import com.mposglobal.backoffice.util.Money;
+
 import java.util.Date;
 
 /**
@@ -12,6 +16,7 @@ import java.util.Date;
  * </p>
  */
 @Entity
+@DynamicUpdate
 @Table(name = "Productos")
 public class Product {
 
@@ -40,16 +45,18 @@ public class Product {
     private Category categoria;
     
     /**
-     * El costo de adquisición del producto. Campo requerido.
+     * El costo de adquisición del producto, en centavos ({@code DECIMAL(10,2)}). Campo requerido.
      */
     @Column(name = "costo", nullable = false)
-    private Double costo;
+    @Convert(converter = MoneyConverter.class)
+    private Money costo;
     
     /**
-     * El precio de venta al público. Campo requerido.
+     * El precio de venta al público, en centavos ({@code DECIMAL(10,2)}). Campo requerido.
      */
     @Column(name = "precio", nullable = false)
-    private Double precio;
+    @Convert(converter = MoneyConverter.class)
+    private Money precio;
     
     /**
      * Etiquetas o palabras clave asociadas al producto, almacenadas como una cadena de texto.
@@ -78,6 +85,14 @@ public class Product {
     @Column(name = "estado", nullable = false)
     private String estado; // ACTIVO / DESACTIVADO
 
+    /**
+     * Versión del registro para el control de concurrencia optimista. Se incrementa en cada
+     * actualización y se expone al cliente como {@code ETag}.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // -------------------------------------------------------------------------
     // Getters y Setters
     // -------------------------------------------------------------------------
@@ -134,7 +149,7 @@ public class Product {
      * Obtiene el costo del producto.
      * @return El costo.
      */
-    public Double getCosto() {
+    public Money getCosto() {
         return costo;
     }
 
@@ -142,7 +157,7 @@ public class Product {
      * Establece el costo del producto.
      * @param costo El costo.
      */
-    public void setCosto(Double costo) {
+    public void setCosto(Money costo) {
         this.costo = costo;
     }
 
@@ -150,7 +165,7 @@ public class Product {
      * Obtiene el precio de venta del producto.
      * @return El precio.
      */
-    public Double getPrecio() {
+    public Money getPrecio() {
         return precio;
     }
 
@@ -158,7 +173,7 @@ public class Product {
      * Establece el precio de venta del producto.
      * @param precio El precio.
      */
-    public void setPrecio(Double precio) {
+    public void setPrecio(Money precio) {
         this.precio = precio;
     }
 
@@ -226,6 +241,22 @@ public class Product {
         this.estado = estado;
     }
 
+    /**
+     * Obtiene la versión del registro (control de concurrencia optimista).
+     * @return La versión.
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Establece la versión del registro.
+     * @param version La versión.
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     /**
      * Genera una representación en cadena de la entidad Product, útil para fines de logging y depuración.
      * @return Una cadena que contiene los valores de los campos del producto.
@@ -234,6 +265,6 @@ public class Product {
     public String toString() {
         return "Product [id=" + id + ", nombre=" + nombre + ", categoria=" + categoria + ", costo=" + costo + ", precio="
                 + precio + ", tags=" + tags + ", fechaCreacion=" + fechaCreacion + ", fechaActualizacion="
-                + fechaActualizacion + ", estado=" + estado + "]";
+                + fechaActualizacion + ", estado=" + estado + ", version=" + version + "]";
     }
 }
@@ -2,6 +2,8 @@ package com.mposglobal.backoffice.entity;
 
 import jakarta.persistence.*;
 
+import org.hibernate.annotations.DynamicUpdate;
+
 import java.util.Date;
 
 /**
@@ -12,6 +14,7 @@ import java.util.Date;
  * </p>
  */
 @Entity
+@DynamicUpdate
 @Table(name = "Usuarios")
 public class User {
     
@@ -56,6 +59,14 @@ public class User {
     @Temporal(TemporalType.DATE)
     private Date fechaUltimoIngreso;
     
+    /**
+     * Fecha y hora de la última desactivación; el archivado mueve los usuarios desactivados
+     * hace más del período de retención.
+     */
+    @Column(name = "fechaDesactivacion")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date fechaDesactivacion;
+    
     /**
      * El nivel de acceso o rol del usuario para la autorización (ej. "USER" o "ADMIN"). Campo requerido.
      */
@@ -68,6 +79,27 @@ public class User {
     @Column(name = "estado", nullable = false)
     private String estado; // "ACTIVO" or "DESACTIVADO"
 
+    /**
+     * Versión del registro para el control de concurrencia optimista. Se incrementa en cada
+     * actualización y se expone al cliente como {@code ETag}.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    /**
+     * Username en minúsculas, calculado por la base (columna calculada indexada). Solo se usa
+     * en las consultas de búsqueda por prefijo; nunca se escribe desde la aplicación.
+     */
+    @Column(name = "usernameBusqueda", insertable = false, updatable = false)
+    private String usernameBusqueda;
+
+    /**
+     * Nombre completo en minúsculas, calculado por la base (columna calculada indexada).
+     */
+    @Column(name = "nombreBusqueda", insertable = false, updatable = false)
+    private String nombreBusqueda;
+
     // -------------------------------------------------------------------------
     // Getters y Setters
     // -------------------------------------------------------------------------
@@ -168,6 +200,22 @@ public class User {
         this.fechaUltimoIngreso = fechaUltimoIngreso;
     }
 
+    /**
+     * Obtiene la fecha de la última desactivación del usuario.
+     * @return La fecha de desactivación, o {@code null} si nunca se desactivó.
+     */
+    public Date getFechaDesactivacion() {
+        return fechaDesactivacion;
+    }
+
+    /**
+     * Establece la fecha de la última desactivación del usuario.
+     * @param fechaDesactivacion La fecha de desactivación.
+     */
+    public void setFechaDesactivacion(Date fechaDesactivacion) {
+        this.fechaDesactivacion = fechaDesactivacion;
+    }
+
     /**
      * Obtiene el nivel de acceso (rol) del usuario.
      * @return El nivel de acceso.
@@ -200,6 +248,22 @@ public class User {
         this.estado = estado;
     }
 
+    /**
+     * Obtiene la versión del registro (control de concurrencia optimista).
+     * @return La versión.
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Establece la versión del registro.
+     * @param version La versión.
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     /**
      * Genera una representación en cadena de la entidad User, útil para fines de logging y depuración.
      * @return Una cadena que contiene los valores de los campos del usuario.
@@ -208,6 +272,6 @@ public class User {
     public String toString() {
         return "User [id=" + id + ", nombreCompleto=" + nombreCompleto + ", username=" + username + ", clave=" + clave
                 + ", fechaCreacion=" + fechaCreacion + ", fechaUltimoIngreso=" + fechaUltimoIngreso + ", nivelAcceso="
-                + nivelAcceso + ", estado=" + estado + "]";
+                + nivelAcceso + ", estado=" + estado + ", version=" + version + "]";
     }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.mposglobal.backoffice.event;
+
+/**
+ * Evento publicado por {@code ProductService} y {@code CategoryService} cuando un producto o
+ * una categoría se crea, modifica o desactiva.
+ * <p>
+ * Se publica dentro de la transacción; el catálogo en memoria lo procesa después del commit
+ * con {@code @TransactionalEventListener}, de modo que un cambio revertido nunca se publica.
+ * </p>
+ *
+ * @param type El tipo de registro afectado.
+ * @param id El ID del registro afectado.
+ */
+public record CatalogChangedEvent(Type type, Long id) {
+
+    /**
+     * Tipos de registro del catálogo.
+     */
+    public enum Type {
+        PRODUCT,
+        CATEGORY
+    }
+
+    /**
+     * @param id El ID del producto afectado.
+     * @return El evento de cambio de producto.
+     */
+    public static CatalogChangedEvent product(Long id) {
+        return new CatalogChangedEvent(Type.PRODUCT, id);
+    }
+
+    /**
+     * @param id El ID de la categoría afectada.
+     * @return El evento de cambio de categoría.
+     */
+    public static CatalogChangedEvent category(Long id) {
+        return new CatalogChangedEvent(Type.CATEGORY, id);
+    }
+}
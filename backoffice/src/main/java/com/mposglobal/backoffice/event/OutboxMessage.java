@@ -0,0 +1,19 @@
+package com.mposglobal.backoffice.event;
+
+/**
+ * Evento del catálogo leído del outbox y entregado a los {@link OutboxSubscriber}.
+ * <p>
+ * La entrega es "al menos una vez": un mismo {@code id} puede llegar más de una vez (por ejemplo
+ * si el proceso se detiene entre la entrega y la marca de procesado), así que los suscriptores
+ * deben descartar los IDs que ya vieron.
+ * </p>
+ *
+ * * @param id El ID de la fila del outbox; crece con el orden de escritura.
+ * @param tipo El tipo de registro ({@code PRODUCTO} o {@code CATEGORIA}).
+ * @param entidadId El ID del registro.
+ * @param accion La acción ({@code CREAR}, {@code ACTUALIZAR}, {@code DESACTIVAR}).
+ * @param datos El estado del registro después del cambio, en JSON.
+ * @param fecha El instante del cambio en milisegundos.
+ */
+public record OutboxMessage(long id, String tipo, long entidadId, String accion, String datos, long fecha) {
+}
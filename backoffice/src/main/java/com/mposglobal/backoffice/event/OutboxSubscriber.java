@@ -0,0 +1,19 @@
+package com.mposglobal.backoffice.event;
+
+import java.util.List;
+
+/**
+ * Destino de los eventos del outbox. Todo bean que implemente esta interfaz recibe los lotes
+ * que entrega el relay, en orden de {@code id}.
+ */
+public interface OutboxSubscriber {
+
+    /**
+     * Procesa un lote de eventos. Si lanza una excepción el lote no se marca procesado y se
+     * vuelve a entregar completo en el siguiente ciclo del relay, también a los suscriptores que
+     * ya lo habían recibido.
+     *
+     * @param messages Los eventos, en orden de {@code id}.
+     */
+    void deliver(List<OutboxMessage> messages);
+}
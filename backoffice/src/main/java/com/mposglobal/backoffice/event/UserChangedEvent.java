@@ -0,0 +1,14 @@
+package com.mposglobal.backoffice.event;
+
+/**
+ * Evento publicado por {@code UserService} cuando un usuario se crea, modifica o desactiva.
+ * <p>
+ * Se publica dentro de la transacción; los oyentes que mantienen copias en memoria
+ * (por ejemplo, la caché de credenciales del login) lo procesan después del commit con
+ * {@code @TransactionalEventListener}, para no invalidar antes de que el cambio sea visible.
+ * </p>
+ *
+ * @param id El ID del usuario afectado.
+ */
+public record UserChangedEvent(Long id) {
+}
@@ -0,0 +1,33 @@
+package com.mposglobal.backoffice.exceptions;
+
+/**
+ * Excepción que indica que una lectura agrupada no recibió a tiempo el resultado de la
+ * consulta en curso que estaba esperando.
+ * <p>
+ * El manejador global la traduce a una respuesta HTTP 503 (Service Unavailable) con
+ * {@code Retry-After}: la base está respondiendo lento y reintentar de inmediato solo
+ * agregaría carga.
+ * </p>
+ *
+ * @version 1.0
+ * @see java.lang.RuntimeException
+ */
+public class CoalescingTimeoutException extends RuntimeException {
+
+	/**
+     * El ID de versión de serialización predeterminado.
+     */
+	private static final long serialVersionUID = -2385521040937361524L;
+
+	/**
+	 * Construye una nueva {@code CoalescingTimeoutException} con el mensaje de detalle
+	 * especificado.
+	 *
+	 * @param message el mensaje de detalle. Este mensaje se guarda para
+	 * su posterior recuperación por el método {@link Throwable#getMessage()}.
+	 */
+	public CoalescingTimeoutException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,32 @@
+package com.mposglobal.backoffice.exceptions;
+
+/**
+ * Excepción que indica que un índice en memoria todavía no terminó su primera carga y no puede
+ * responder la consulta.
+ * <p>
+ * El manejador global la traduce a una respuesta HTTP 503 (Service Unavailable) con
+ * {@code Retry-After}: la carga termina a los pocos segundos del arranque.
+ * </p>
+ *
+ * @version 1.0
+ * @see java.lang.RuntimeException
+ */
+public class IndexNotReadyException extends RuntimeException {
+
+	/**
+     * El ID de versión de serialización predeterminado.
+     */
+	private static final long serialVersionUID = 6170433958219466021L;
+
+	/**
+	 * Construye una nueva {@code IndexNotReadyException} con el mensaje de detalle
+	 * especificado.
+	 *
+	 * @param message el mensaje de detalle. Este mensaje se guarda para
+	 * su posterior recuperación por el método {@link Throwable#getMessage()}.
+	 */
+	public IndexNotReadyException(String message) {
+		super(message);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.mposglobal.backoffice.exceptions;
+
+/**
+ * Excepción que indica que un intento de inicio de sesión fue rechazado sin verificar la
+ * clave, porque el usuario o la dirección remota acumulan demasiados fallos recientes.
+ * <p>
+ * El manejador global la traduce a una respuesta HTTP 429 (Too Many Requests) con el
+ * encabezado {@code Retry-After}.
+ * </p>
+ *
+ * @version 1.0
+ * @see LoginException
+ */
+public class LoginThrottledException extends LoginException {
+
+	/**
+     * El ID de versión de serialización predeterminado.
+     */
+	private static final long serialVersionUID = 2917358806212496741L;
+
+	/**
+	 * Segundos que el cliente debe esperar antes de reintentar.
+	 */
+	private final long retryAfterSeconds;
+
+	/**
+	 * Construye una nueva {@code LoginThrottledException}.
+	 *
+	 * @param message el mensaje de detalle.
+	 * @param retryAfterSeconds los segundos que el cliente debe esperar antes de reintentar.
+	 */
+	public LoginThrottledException(String message, long retryAfterSeconds) {
+		super(message);
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	/**
+	 * @return Los segundos que el cliente debe esperar antes de reintentar.
+	 */
+	public long getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+
+}
@@ -0,0 +1,33 @@
+package com.mposglobal.backoffice.exceptions;
+
+/**
+ * Excepción que indica que la versión enviada por el cliente en el encabezado
+ * {@code If-Match} no coincide con la versión actual del recurso.
+ * <p>
+ * El manejador global la traduce a una respuesta HTTP 412 (Precondition Failed), indicando
+ * al cliente que otro usuario modificó el registro y que debe volver a leerlo antes de
+ * reintentar la actualización.
+ * </p>
+ *
+ * @version 1.0
+ * @see java.lang.RuntimeException
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+	/**
+     * El ID de versión de serialización predeterminado.
+     */
+	private static final long serialVersionUID = 4719225356811760254L;
+
+	/**
+	 * Construye una nueva {@code PreconditionFailedException} con el mensaje de detalle
+	 * especificado.
+	 *
+	 * @param message el mensaje de detalle. Este mensaje se guarda para
+	 * su posterior recuperación por el método {@link Throwable#getMessage()}.
+	 */
+	public PreconditionFailedException(String message) {
+		super(message);
+	}
+
+}
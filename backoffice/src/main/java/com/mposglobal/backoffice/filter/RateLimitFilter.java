@@ -0,0 +1,130 @@
+package com.mposglobal.backoffice.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import com.mposglobal.backoffice.config.RateLimitProperties;
+import com.mposglobal.backoffice.filter.TokenBucketRateLimiter.Rate;
+import com.mposglobal.backoffice.util.Constant;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Filtro de limitación de tasa por usuario y por dirección remota.
+ * <p>
+ * Se registra en la cadena de Spring Security inmediatamente después de {@code JwtAuthFilter},
+ * de modo que ya conoce el usuario y su rol. Cada solicitud consume un token del bucket de su
+ * dirección remota y, si está autenticada, del bucket del usuario para la regla de ruta que
+ * corresponda a su rol. Si alguno está vacío responde 429 con {@code Retry-After} sin llegar a
+ * los controladores ni a la base de datos.
+ * </p>
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final TokenBucketRateLimiter limiter;
+    private final boolean enabled;
+    private final Rate perAddress;
+    private final Rate defaultRate;
+    private final List<CompiledRule> rules;
+
+    /**
+     * Constructor que precompila las reglas configuradas.
+     *
+     * @param limiter El registro de buckets.
+     * @param properties Las propiedades de limitación de tasa.
+     */
+    public RateLimitFilter(TokenBucketRateLimiter limiter, RateLimitProperties properties) {
+        this.limiter = limiter;
+        this.enabled = properties.isEnabled();
+        this.perAddress = Rate.of(properties.getPerAddress());
+        this.defaultRate = Rate.of(properties.getDefaultLimit());
+        List<RateLimitProperties.Rule> configured = properties.getRules();
+        this.rules = IntStream.range(0, configured.size())
+                .mapToObj(i -> new CompiledRule(i, "ROLE_" + configured.get(i).getRole(), configured.get(i).getMethod(),
+                        PathPatternParser.defaultInstance.parse(configured.get(i).getPath()), Rate.of(configured.get(i))))
+                .toList();
+    }
+
+    /**
+     * Aplica los límites y, si la solicitud está dentro de ellos, continúa la cadena.
+     *
+     * @param request La solicitud HTTP.
+     * @param response La respuesta HTTP.
+     * @param chain La cadena de filtros.
+     * @throws ServletException Si ocurre un error de servlet.
+     * @throws IOException Si ocurre un error de I/O.
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long wait = limiter.tryAcquire("a:" + request.getRemoteAddr(), perAddress);
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (wait == 0 && auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)) {
+            PathContainer path = PathContainer.parsePath(request.getRequestURI());
+            CompiledRule rule = match(auth, request.getMethod(), path);
+            wait = rule == null
+                    ? limiter.tryAcquire("u:" + auth.getName(), defaultRate)
+                    : limiter.tryAcquire("u:" + auth.getName() + "#" + rule.index(), rule.rate());
+        }
+
+        if (wait > 0) {
+            long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999L));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+            response.setContentType("application/json;charset=UTF-8");
+            response.getWriter().write("{\"error\":\"" + Constant.ERROR_RATE_LIMIT + "\"}");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private CompiledRule match(Authentication auth, String method, PathContainer path) {
+        for (CompiledRule rule : rules) {
+            if ((rule.method() == null || rule.method().isEmpty() || rule.method().equalsIgnoreCase(method))
+                    && hasRole(auth, rule.authority())
+                    && rule.pattern().matches(path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasRole(Authentication auth, String authority) {
+        if ("ROLE_*".equals(authority)) {
+            return true;
+        }
+        for (GrantedAuthority granted : auth.getAuthorities()) {
+            if (authority.equals(granted.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Regla con el patrón de ruta ya analizado y la tasa precalculada.
+     */
+    private record CompiledRule(int index, String authority, String method, PathPattern pattern, Rate rate) {
+    }
+}
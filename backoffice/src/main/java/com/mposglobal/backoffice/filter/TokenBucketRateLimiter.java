@@ -0,0 +1,116 @@
+package com.mposglobal.backoffice.filter;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.mposglobal.backoffice.config.RateLimitProperties;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registro de token buckets sin bloqueos, indexados por clave (usuario, dirección remota).
+ * <p>
+ * Cada bucket se implementa con el algoritmo GCRA (Generic Cell Rate Algorithm), equivalente a
+ * un token bucket pero con un único {@code long} de estado: el "tiempo teórico de llegada"
+ * ({@code tat}). Consumir un token es leer {@code tat}, calcular el nuevo valor y publicarlo con
+ * un compare-and-set; no hay candados, temporizadores de recarga ni hilos por bucket.
+ * </p>
+ * <p>
+ * La búsqueda del bucket es un {@code get} sobre {@link ConcurrentHashMap}, que no bloquea; solo
+ * la primera solicitud de una clave nueva pasa por {@code computeIfAbsent}. Los buckets que
+ * llevan más de {@code app.ratelimit.idle-timeout} llenos se eliminan periódicamente: recrearlos
+ * después es equivalente, así que la limpieza nunca regala ni quita tokens.
+ * </p>
+ */
+@Component
+public class TokenBucketRateLimiter {
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final long idleNanos;
+
+    /**
+     * Constructor que toma el tiempo de inactividad de la configuración.
+     *
+     * @param properties Las propiedades de limitación de tasa.
+     */
+    public TokenBucketRateLimiter(RateLimitProperties properties) {
+        this.idleNanos = properties.getIdleTimeout().toNanos();
+    }
+
+    /**
+     * Intenta consumir un token del bucket de la clave.
+     *
+     * @param key La clave del bucket (por ejemplo, {@code u:admin#2} o {@code a:10.0.0.7}).
+     * @param rate La tasa del bucket.
+     * @return 0 si se concedió el token; si no, los nanosegundos a esperar para el siguiente.
+     */
+    public long tryAcquire(String key, Rate rate) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket(System.nanoTime()));
+        }
+        return bucket.tryAcquire(rate, System.nanoTime());
+    }
+
+    /**
+     * Elimina los buckets inactivos (llenos desde hace más de {@code idle-timeout}).
+     */
+    @Scheduled(fixedDelayString = "${app.ratelimit.sweep-interval:60s}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(b -> now - b.tat.get() > idleNanos);
+    }
+
+    /**
+     * @return El número de buckets en memoria.
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Tasa precalculada de un bucket: intervalo entre tokens y tolerancia de ráfaga, en nanosegundos.
+     *
+     * @param intervalNanos Nanosegundos entre dos tokens a la tasa sostenida.
+     * @param burstNanos Adelanto máximo permitido ({@code capacity * intervalNanos}).
+     */
+    public record Rate(long intervalNanos, long burstNanos) {
+
+        /**
+         * @param limit Capacidad y recarga configuradas.
+         * @return La tasa equivalente.
+         */
+        public static Rate of(RateLimitProperties.Limit limit) {
+            long interval = (long) Math.ceil(1_000_000_000d / limit.getPerSecond());
+            return new Rate(interval, Math.max(1, limit.getCapacity()) * interval);
+        }
+    }
+
+    /**
+     * Estado GCRA de un bucket.
+     */
+    private static final class Bucket {
+
+        private final AtomicLong tat;
+
+        Bucket(long now) {
+            this.tat = new AtomicLong(now);
+        }
+
+        long tryAcquire(Rate rate, long now) {
+            while (true) {
+                long current = tat.get();
+                long next = Math.max(current, now) + rate.intervalNanos();
+                long ahead = next - now;
+                if (ahead > rate.burstNanos()) {
+                    return ahead - rate.burstNanos();
+                }
+                if (tat.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.mposglobal.backoffice.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.mposglobal.backoffice.util.BarcodeUtil;
+import com.mposglobal.backoffice.util.Constant;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Generador de datos sintéticos para las pruebas de carga.
+ * <p>
+ * Se ejecuta al arrancar la aplicación con el perfil {@code loadtest} y llena la base embebida
+ * con un catálogo de tamaño configurable (por ejemplo, 1M de productos en 5k categorías) y
+ * cuentas de cajeros. Los tags siguen una distribución Zipf, de modo que unos pocos tags son
+ * muy frecuentes y la mayoría son raros, igual que en un catálogo real; el tamaño de las
+ * categorías también está sesgado.
+ * </p>
+ * <p>
+ * La inserción se hace con lotes JDBC ({@link JdbcTemplate#batchUpdate}) en lugar de JPA para
+ * que la generación de millones de filas tome segundos y no minutos. La semilla es fija
+ * para que dos corridas produzcan exactamente el mismo catálogo.
+ * </p>
+ */
+@Component
+@Profile("loadtest")
+public class SyntheticCatalogGenerator implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticCatalogGenerator.class);
+
+    /**
+     * Hash BCrypt de "user123" (el mismo del script de base de datos) para las cuentas generadas.
+     */
+    private static final String CLAVE_USUARIOS = "$2a$10$HtC208j5ra3GMyqpguL1weHgdph4.C9w/GaVMc7Pz9MF1vbha8g3S";
+
+    private static final String[] SUSTANTIVOS = {
+        "Smartphone", "Laptop", "Camiseta", "Pantalón", "Muñeco", "Cafetera", "Licuadora", "Audífonos",
+        "Monitor", "Teclado", "Zapatos", "Chaqueta", "Detergente", "Jabón", "Cereal", "Galletas",
+        "Refresco", "Lámpara", "Silla", "Mesa", "Cuaderno", "Bolígrafo", "Mochila", "Reloj"
+    };
+
+    private static final String[] ADJETIVOS = {
+        "Pro", "Max", "Mini", "Plus", "Lite", "Clásico", "Deluxe", "Eco", "Ultra", "Básico",
+        "Rojo", "Azul", "Negro", "Blanco", "Familiar", "Compacto", "Premium", "Infantil"
+    };
+
+    private static final String[] TAGS_BASE = {
+        "android", "5G", "128GB", "intel", "i7", "16GB", "ropa", "algodon", "rojo", "juguetes",
+        "coleccion", "hogar", "limpieza", "oferta", "nuevo", "importado", "nacional", "organico"
+    };
+
+    private final JdbcTemplate jdbc;
+    private final boolean enabled;
+    private final int categories;
+    private final int products;
+    private final int users;
+    private final int tags;
+    private final long seed;
+    private final int batchSize;
+
+    /**
+     * Constructor que inyecta el acceso JDBC y los volúmenes a generar.
+     *
+     * @param jdbc Plantilla JDBC sobre la base embebida.
+     * @param enabled Si es {@code false} el generador no hace nada.
+     * @param categories Número de categorías a generar.
+     * @param products Número de productos a generar.
+     * @param users Número de usuarios (cajeros) a generar.
+     * @param tags Tamaño del vocabulario de tags.
+     * @param seed Semilla del generador pseudoaleatorio.
+     * @param batchSize Filas por lote JDBC.
+     */
+    public SyntheticCatalogGenerator(JdbcTemplate jdbc,
+                                     @Value("${app.loadtest.generator.enabled:false}") boolean enabled,
+                                     @Value("${app.loadtest.generator.categories:5000}") int categories,
+                                     @Value("${app.loadtest.generator.products:1000000}") int products,
+                                     @Value("${app.loadtest.generator.users:1000}") int users,
+                                     @Value("${app.loadtest.generator.tags:2000}") int tags,
+                                     @Value("${app.loadtest.generator.seed:42}") long seed,
+                                     @Value("${app.loadtest.generator.batch-size:5000}") int batchSize) {
+        this.jdbc = jdbc;
+        this.enabled = enabled;
+        this.categories = categories;
+        this.products = products;
+        this.users = users;
+        this.tags = tags;
+        this.seed = seed;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Genera usuarios, categorías y productos al terminar el arranque de la aplicación.
+     *
+     * @param args Argumentos de la aplicación (no se usan).
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(seed);
+
+        generateUsers();
+        long[] categoryIds = generateCategories();
+        generateProducts(random, categoryIds, buildTagVocabulary());
+        seedCategoryHierarchy();
+        seedPriceHistory();
+        seedBarcodes();
+
+        log.info("Catalogo sintetico generado: {} usuarios, {} categorias, {} productos en {} ms",
+                users, categories, products, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // -------------------------------------------------------------------------
+    // Generación por tabla
+    // -------------------------------------------------------------------------
+
+    /**
+     * Agrega la fila propia de las categorías generadas a la jerarquía (todas quedan en la raíz).
+     */
+    private void seedCategoryHierarchy() {
+        jdbc.update("INSERT INTO CategoriasJerarquia (ancestroId, descendienteId, profundidad) "
+                + "SELECT c.id, c.id, 0 FROM Categorias c "
+                + "WHERE NOT EXISTS (SELECT 1 FROM CategoriasJerarquia j WHERE j.descendienteId = c.id)");
+    }
+
+    /**
+     * Registra el precio inicial de los productos generados en el historial de precios.
+     */
+    private void seedPriceHistory() {
+        jdbc.update("INSERT INTO PrecioHistorial (productoId, categoriaId, costo, precio, vigenteDesde) "
+                + "SELECT p.id, p.categoriaId, p.costo, p.precio, p.fechaCreacion FROM Productos p "
+                + "WHERE NOT EXISTS (SELECT 1 FROM PrecioHistorial h WHERE h.productoId = p.id)");
+    }
+
+    /**
+     * Asigna el código interno de tienda ({@link BarcodeUtil#storeCode(long)}) a los productos sin código.
+     */
+    private void seedBarcodes() {
+        String sql = "INSERT INTO CodigosBarra (codigo, productoId) VALUES (?, ?)";
+        List<Long> ids = jdbc.queryForList("SELECT p.id FROM Productos p "
+                + "WHERE NOT EXISTS (SELECT 1 FROM CodigosBarra b WHERE b.productoId = p.id)", Long.class);
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (Long id : ids) {
+            batch.add(new Object[] {BarcodeUtil.storeCode(id), id});
+            batch = flushIfFull(sql, batch);
+        }
+        flush(sql, batch);
+    }
+
+    /**
+     * Inserta las cuentas de cajeros {@code cajero00001..N} con la clave "user123".
+     */
+    private void generateUsers() {
+        String sql = "INSERT INTO Usuarios (nombreCompleto, username, clave, nivelAcceso, estado) VALUES (?, ?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int i = 1; i <= users; i++) {
+            batch.add(new Object[] {"Cajero Sintetico " + i, String.format("cajero%05d", i), CLAVE_USUARIOS,
+                    "USER", Constant.ACTIVO});
+            batch = flushIfFull(sql, batch);
+        }
+        flush(sql, batch);
+    }
+
+    /**
+     * Inserta las categorías sintéticas y devuelve los IDs de todas las categorías existentes,
+     * incluidas las de los datos de prueba.
+     *
+     * @return Los IDs de las categorías disponibles para asignar productos.
+     */
+    private long[] generateCategories() {
+        String sql = "INSERT INTO Categorias (nombre, estado) VALUES (?, ?)";
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int i = 1; i <= categories; i++) {
+            batch.add(new Object[] {String.format("Categoria Sintetica %05d", i), Constant.ACTIVO});
+            batch = flushIfFull(sql, batch);
+        }
+        flush(sql, batch);
+        return jdbc.queryForList("SELECT id FROM Categorias ORDER BY id", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Inserta los productos. La categoría se elige con una distribución Zipf (pocas categorías
+     * muy grandes), el costo con una distribución log-normal y el precio con un margen de 10% a 80%.
+     *
+     * @param random Generador pseudoaleatorio.
+     * @param categoryIds IDs de categorías disponibles.
+     * @param vocabulary Vocabulario de tags ordenado por popularidad.
+     */
+    private void generateProducts(SplittableRandom random, long[] categoryIds, String[] vocabulary) {
+        String sql = "INSERT INTO Productos (nombre, categoriaId, costo, precio, tags, estado) VALUES (?, ?, ?, ?, ?, ?)";
+        ZipfSampler categorySampler = new ZipfSampler(categoryIds.length, 0.8);
+        ZipfSampler tagSampler = new ZipfSampler(vocabulary.length, 1.1);
+
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int i = 1; i <= products; i++) {
+            String nombre = SUSTANTIVOS[random.nextInt(SUSTANTIVOS.length)] + " "
+                    + ADJETIVOS[random.nextInt(ADJETIVOS.length)] + " " + Integer.toString(i, 36).toUpperCase();
+
+            double costo = Math.exp(2.5 + random.nextDouble() * 4.0);
+            double precio = costo * (1.10 + random.nextDouble() * 0.70);
+
+            batch.add(new Object[] {
+                nombre,
+                categoryIds[categorySampler.sample(random)],
+                money(costo),
+                money(precio),
+                randomTags(random, tagSampler, vocabulary),
+                random.nextInt(50) == 0 ? Constant.DESACTIVADO : Constant.ACTIVO
+            });
+            batch = flushIfFull(sql, batch);
+        }
+        flush(sql, batch);
+    }
+
+    // -------------------------------------------------------------------------
+    // Utilidades internas
+    // -------------------------------------------------------------------------
+
+    /**
+     * Construye el vocabulario de tags: primero los tags reales del script y luego tags sintéticos.
+     *
+     * @return Vocabulario ordenado por popularidad esperada (el índice 0 es el más frecuente).
+     */
+    private String[] buildTagVocabulary() {
+        String[] vocabulary = Arrays.copyOf(TAGS_BASE, Math.max(tags, TAGS_BASE.length));
+        for (int i = TAGS_BASE.length; i < vocabulary.length; i++) {
+            vocabulary[i] = "tag" + i;
+        }
+        return vocabulary;
+    }
+
+    /**
+     * Genera entre 1 y 6 tags distintos (con más probabilidad pocos) separados por comas,
+     * cuidando no exceder el largo de la columna {@code tags NVARCHAR(255)}.
+     */
+    private String randomTags(SplittableRandom random, ZipfSampler sampler, String[] vocabulary) {
+        int count = 1;
+        while (count < 6 && random.nextInt(100) < 55) {
+            count++;
+        }
+        Set<String> chosen = new LinkedHashSet<>();
+        for (int i = 0; i < count * 2 && chosen.size() < count; i++) {
+            chosen.add(vocabulary[sampler.sample(random)]);
+        }
+        String joined = String.join(",", chosen);
+        return joined.length() > 255 ? joined.substring(0, joined.lastIndexOf(',', 255)) : joined;
+    }
+
+    private static BigDecimal money(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_EVEN);
+    }
+
+    private List<Object[]> flushIfFull(String sql, List<Object[]> batch) {
+        if (batch.size() < batchSize) {
+            return batch;
+        }
+        flush(sql, batch);
+        return new ArrayList<>(batchSize);
+    }
+
+    private void flush(String sql, List<Object[]> batch) {
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(sql, batch);
+        }
+    }
+
+    /**
+     * Muestreador de una distribución Zipf discreta sobre los rangos {@code [0, n)}.
+     * <p>
+     * Precalcula la función de distribución acumulada y muestrea con búsqueda binaria,
+     * por lo que cada muestra cuesta O(log n) sin asignar memoria.
+     * </p>
+     */
+    static final class ZipfSampler {
+
+        private final double[] cdf;
+
+        /**
+         * @param n Número de rangos.
+         * @param exponent Exponente de la distribución (mayor = más sesgada).
+         */
+        ZipfSampler(int n, double exponent) {
+            cdf = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1.0 / Math.pow(i + 1, exponent);
+                cdf[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cdf[i] /= sum;
+            }
+        }
+
+        /**
+         * @param random Generador pseudoaleatorio.
+         * @return Un rango en {@code [0, n)}; el rango 0 es el más probable.
+         */
+        int sample(SplittableRandom random) {
+            int idx = Arrays.binarySearch(cdf, random.nextDouble());
+            idx = idx >= 0 ? idx : -idx - 1;
+            return Math.min(idx, cdf.length - 1);
+        }
+    }
+}
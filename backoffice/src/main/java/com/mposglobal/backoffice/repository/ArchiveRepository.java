@@ -0,0 +1,291 @@
+package com.mposglobal.backoffice.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import com.mposglobal.backoffice.dto.CategoryResponse;
+import com.mposglobal.backoffice.dto.ProductResponse;
+import com.mposglobal.backoffice.dto.UserResponse;
+import com.mposglobal.backoffice.util.Constant;
+import com.mposglobal.backoffice.util.Money;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Acceso a las tablas {@code *_Archivo} y al avance del archivado ({@code ArchivoProgreso}).
+ * <p>
+ * Un tramo se mueve en tres sentencias dentro de la transacción del llamador: se leen las filas
+ * candidatas, se borran por {@code id} y {@code version} (una fila reactivada o modificada
+ * mientras tanto no coincide y se queda) y se insertan en el archivo solo las que se borraron.
+ * Las filas conservan su ID, así que las lecturas pueden unir la tabla activa y su archivo.
+ * </p>
+ */
+@Repository
+public class ArchiveRepository {
+
+    /**
+     * Tablas que se archivan, en el orden en que se recorren (los productos antes que las
+     * categorías, que solo se archivan cuando ya no tienen productos).
+     */
+    public enum ArchivedTable {
+        PRODUCTOS("Productos", "fechaActualizacion", "", null,
+                "id", "nombre", "categoriaId", "costo", "precio", "tags", "fechaCreacion", "fechaActualizacion",
+                "estado", "version"),
+        // Solo hojas sin productos; al archivarlas salen también de la tabla de clausura
+        CATEGORIAS("Categorias", "fechaActualizacion",
+                " AND NOT EXISTS (SELECT 1 FROM Productos p WHERE p.categoriaId = t.id)"
+                        + " AND NOT EXISTS (SELECT 1 FROM Categorias h WHERE h.padreId = t.id)",
+                "DELETE FROM CategoriasJerarquia WHERE descendienteId = ?",
+                "id", "nombre", "fechaCreacion", "fechaActualizacion", "estado", "version", "padreId",
+                "estadoEfectivo"),
+        USUARIOS("Usuarios", "fechaDesactivacion", "", null,
+                "id", "nombreCompleto", "username", "clave", "fechaCreacion", "fechaUltimoIngreso",
+                "fechaDesactivacion", "nivelAcceso", "estado", "version");
+
+        private final String select;
+        private final String delete;
+        private final String insert;
+        private final String cleanup;
+        private final int width;
+        private final int versionIndex;
+
+        ArchivedTable(String table, String dateColumn, String condition, String cleanup, String... columns) {
+            String list = String.join(", ", columns);
+            this.select = "SELECT " + list + " FROM " + table + " t WHERE t.estado = '" + Constant.DESACTIVADO
+                    + "' AND t.id > ? AND t." + dateColumn + " < ?" + condition
+                    + " ORDER BY t.id OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY";
+            this.delete = "DELETE FROM " + table + " WHERE id = ? AND version = ? AND estado = '"
+                    + Constant.DESACTIVADO + "'";
+            this.insert = "INSERT INTO " + table + "_Archivo (" + list + ", fechaArchivo) VALUES ("
+                    + "?, ".repeat(columns.length) + "?)";
+            this.cleanup = cleanup;
+            this.width = columns.length;
+            this.versionIndex = Arrays.asList(columns).indexOf("version");
+        }
+    }
+
+    /**
+     * Avance del archivado de una tabla.
+     *
+     * @param tabla El nombre de la tabla ({@link ArchivedTable#name()}).
+     * @param ultimoId El último ID revisado de la pasada en curso ({@code 0} si no hay ninguna).
+     * @param corte La fecha límite de la pasada en curso, o {@code null}.
+     * @param filasMovidas Filas archivadas desde que existe el registro.
+     * @param actualizado Última actualización del avance.
+     */
+    public record Progress(String tabla, long ultimoId, Timestamp corte, long filasMovidas, Timestamp actualizado) {
+    }
+
+    /**
+     * Resultado de un tramo.
+     *
+     * @param lastId El último ID revisado.
+     * @param scanned Filas candidatas leídas.
+     * @param moved IDs de las filas movidas al archivo.
+     */
+    public record Chunk(long lastId, int scanned, List<Long> moved) {
+    }
+
+    private static final RowMapper<Progress> PROGRESS = (rs, i) -> new Progress(rs.getString("tabla"),
+            rs.getLong("ultimoId"), rs.getTimestamp("corte"), rs.getLong("filasMovidas"), rs.getTimestamp("actualizado"));
+
+    private static final String USER_COLUMNS =
+            "id, nombreCompleto, username, fechaCreacion, fechaUltimoIngreso, nivelAcceso, estado, version";
+
+    private final JdbcTemplate jdbc;
+
+    /**
+     * @param jdbc Plantilla JDBC; participa de la transacción en curso.
+     */
+    public ArchiveRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    // -------------------------------------------------------------------------
+    // Archivado
+    // -------------------------------------------------------------------------
+
+    /**
+     * Lee el avance de una tabla, creándolo si no existe.
+     *
+     * @param table La tabla.
+     * @return El avance actual.
+     */
+    public Progress progress(ArchivedTable table) {
+        List<Progress> rows = jdbc.query("SELECT tabla, ultimoId, corte, filasMovidas, actualizado "
+                + "FROM ArchivoProgreso WHERE tabla = ?", PROGRESS, table.name());
+        if (!rows.isEmpty()) {
+            return rows.get(0);
+        }
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        try {
+            jdbc.update("INSERT INTO ArchivoProgreso (tabla, ultimoId, corte, filasMovidas, actualizado) "
+                    + "VALUES (?, 0, NULL, 0, ?)", table.name(), now);
+        } catch (DuplicateKeyException e) {
+            // Otra instancia lo creó al mismo tiempo
+        }
+        return new Progress(table.name(), 0, null, 0, now);
+    }
+
+    /**
+     * @return El avance de todas las tablas que ya se recorrieron alguna vez.
+     */
+    public List<Progress> progressAll() {
+        return jdbc.query("SELECT tabla, ultimoId, corte, filasMovidas, actualizado "
+                + "FROM ArchivoProgreso ORDER BY tabla", PROGRESS);
+    }
+
+    /**
+     * Mueve al archivo las filas desactivadas antes de {@code corte} con ID mayor que {@code afterId},
+     * hasta {@code limit} filas.
+     *
+     * @param table La tabla.
+     * @param afterId El último ID revisado.
+     * @param corte La fecha límite de desactivación.
+     * @param limit Máximo de filas a revisar.
+     * @param archivedAt La fecha de archivado a registrar.
+     * @return Las filas revisadas y movidas.
+     */
+    public Chunk moveChunk(ArchivedTable table, long afterId, Timestamp corte, int limit, Timestamp archivedAt) {
+        List<Object[]> rows = jdbc.query(table.select, (rs, i) -> {
+            Object[] row = new Object[table.width + 1];
+            for (int c = 0; c < table.width; c++) {
+                row[c] = rs.getObject(c + 1);
+            }
+            row[table.width] = archivedAt;
+            return row;
+        }, afterId, corte, limit);
+        if (rows.isEmpty()) {
+            return new Chunk(afterId, 0, List.of());
+        }
+
+        List<Object[]> keys = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            keys.add(new Object[] {row[0], row[table.versionIndex]});
+        }
+        int[] deleted = jdbc.batchUpdate(table.delete, keys);
+
+        List<Object[]> moved = new ArrayList<>(rows.size());
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (int i = 0; i < deleted.length; i++) {
+            if (deleted[i] > 0 || deleted[i] == Statement.SUCCESS_NO_INFO) {
+                moved.add(rows.get(i));
+                ids.add(((Number) rows.get(i)[0]).longValue());
+            }
+        }
+        if (!moved.isEmpty()) {
+            jdbc.batchUpdate(table.insert, moved);
+            if (table.cleanup != null) {
+                jdbc.batchUpdate(table.cleanup, ids.stream().map(id -> new Object[] {id}).toList());
+            }
+        }
+        long lastId = ((Number) rows.get(rows.size() - 1)[0]).longValue();
+        return new Chunk(lastId, rows.size(), ids);
+    }
+
+    /**
+     * Registra el avance solo si nadie lo cambió desde que se leyó; así dos instancias no recorren
+     * la misma tabla a la vez (la segunda revierte su tramo).
+     *
+     * @param table La tabla.
+     * @param expectedUltimoId El {@code ultimoId} leído al empezar el tramo.
+     * @param ultimoId El nuevo {@code ultimoId} ({@code 0} al terminar la pasada).
+     * @param corte La fecha límite de la pasada, o {@code null} al terminarla.
+     * @param moved Filas movidas en el tramo.
+     * @param now Fecha de actualización.
+     * @return {@code true} si se registró.
+     */
+    public boolean advance(ArchivedTable table, long expectedUltimoId, long ultimoId, Timestamp corte, int moved,
+                           Timestamp now) {
+        return jdbc.update("UPDATE ArchivoProgreso SET ultimoId = ?, corte = ?, filasMovidas = filasMovidas + ?, "
+                + "actualizado = ? WHERE tabla = ? AND ultimoId = ?",
+                ultimoId, corte, moved, now, table.name(), expectedUltimoId) == 1;
+    }
+
+    // -------------------------------------------------------------------------
+    // Lecturas con archivo
+    // -------------------------------------------------------------------------
+
+    /**
+     * @param id El ID del producto.
+     * @return El producto archivado, con el nombre de su categoría (activa o archivada).
+     */
+    public Optional<ProductResponse> findProduct(long id) {
+        return jdbc.query("SELECT p.id, p.nombre, COALESCE(c.nombre, ca.nombre) AS categoria, p.costo, p.precio, "
+                + "p.tags, p.estado, p.fechaCreacion, p.fechaActualizacion, p.version FROM Productos_Archivo p "
+                + "LEFT JOIN Categorias c ON c.id = p.categoriaId "
+                + "LEFT JOIN Categorias_Archivo ca ON ca.id = p.categoriaId WHERE p.id = ?", (rs, i) -> {
+                    ProductResponse response = new ProductResponse();
+                    response.setId(rs.getLong("id"));
+                    response.setNombre(rs.getString("nombre"));
+                    response.setCategoria(rs.getString("categoria"));
+                    response.setCosto(Money.toDouble(Money.of(rs.getBigDecimal("costo"))));
+                    response.setPrecio(Money.toDouble(Money.of(rs.getBigDecimal("precio"))));
+                    response.setTags(rs.getString("tags"));
+                    response.setEstado(rs.getString("estado"));
+                    response.setFechaCreacion(rs.getTimestamp("fechaCreacion"));
+                    response.setFechaActualizacion(rs.getTimestamp("fechaActualizacion"));
+                    response.setVersion(rs.getLong("version"));
+                    return response;
+                }, id).stream().findFirst();
+    }
+
+    /**
+     * @param id El ID de la categoría.
+     * @return La categoría archivada.
+     */
+    public Optional<CategoryResponse> findCategory(long id) {
+        return jdbc.query("SELECT id, nombre, estado, fechaCreacion, fechaActualizacion, version, padreId, "
+                + "estadoEfectivo FROM Categorias_Archivo WHERE id = ?", (rs, i) -> {
+                    CategoryResponse response = new CategoryResponse();
+                    response.setId(rs.getLong("id"));
+                    response.setNombre(rs.getString("nombre"));
+                    response.setEstado(rs.getString("estado"));
+                    response.setFechaCreacion(rs.getTimestamp("fechaCreacion"));
+                    response.setFechaActualizacion(rs.getTimestamp("fechaActualizacion"));
+                    response.setVersion(rs.getLong("version"));
+                    long padre = rs.getLong("padreId");
+                    response.setPadre(rs.wasNull() ? null : padre);
+                    response.setEstadoEfectivo(rs.getString("estadoEfectivo"));
+                    return response;
+                }, id).stream().findFirst();
+    }
+
+    /**
+     * Página de usuarios sobre la tabla activa y su archivo (los IDs no se repiten entre ambas).
+     *
+     * @param after El último ID recibido.
+     * @param estado El estado a filtrar.
+     * @param nivelAcceso El nivel de acceso a filtrar, o {@code null}.
+     * @param prefix El patrón {@code LIKE} de prefijo en minúsculas, o {@code null}.
+     * @param limit La cantidad máxima de filas.
+     * @return Los usuarios ordenados por ID.
+     */
+    public List<UserResponse> findUserPage(long after, String estado, String nivelAcceso, String prefix, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(USER_COLUMNS).append(" FROM (SELECT ")
+                .append(USER_COLUMNS).append(" FROM Usuarios UNION ALL SELECT ").append(USER_COLUMNS)
+                .append(" FROM Usuarios_Archivo) u WHERE u.id > ? AND u.estado = ?");
+        List<Object> args = new ArrayList<>(List.of(after, estado));
+        if (nivelAcceso != null) {
+            sql.append(" AND u.nivelAcceso = ?");
+            args.add(nivelAcceso);
+        }
+        if (prefix != null) {
+            sql.append(" AND (LOWER(u.username) LIKE ? ESCAPE '\\' OR LOWER(u.nombreCompleto) LIKE ? ESCAPE '\\')");
+            args.add(prefix);
+            args.add(prefix);
+        }
+        sql.append(" ORDER BY u.id OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY");
+        args.add(limit);
+        return jdbc.query(sql.toString(), (rs, i) -> new UserResponse(rs.getLong("id"), rs.getString("nombreCompleto"),
+                rs.getString("username"), rs.getTimestamp("fechaCreacion"), rs.getTimestamp("fechaUltimoIngreso"),
+                rs.getString("nivelAcceso"), rs.getString("estado"), rs.getLong("version")), args.toArray());
+    }
+}
@@ -0,0 +1,111 @@
+package com.mposglobal.backoffice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import com.mposglobal.backoffice.dto.AuditResponse;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Acceso a la tabla de solo inserción {@code Auditoria}.
+ * <p>
+ * Las altas las hace el hilo escritor de la auditoría, fuera de las transacciones de negocio,
+ * en lotes JDBC. La consulta pagina por keyset sobre {@code id} descendente, con los índices
+ * {@code (entidad, entidadId, id)} y {@code (usuario, id)} para los filtros.
+ * </p>
+ */
+@Repository
+public class AuditRepository {
+
+    /**
+     * Registro pendiente de insertar.
+     *
+     * @param entidad El tipo de registro ({@code USUARIO}, {@code CATEGORIA}, {@code PRODUCTO}).
+     * @param entidadId El ID del registro.
+     * @param accion La acción ({@code CREAR}, {@code ACTUALIZAR}, {@code DESACTIVAR}).
+     * @param usuario El usuario autenticado que hizo el cambio, o {@code null}.
+     * @param cambios Los campos modificados en JSON.
+     * @param fecha El instante del cambio en milisegundos.
+     */
+    public record Entry(String entidad, long entidadId, String accion, String usuario, String cambios, long fecha) {
+    }
+
+    private static final String INSERT = "INSERT INTO Auditoria "
+            + "(entidad, entidadId, accion, usuario, cambios, fecha) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final RowMapper<AuditResponse> ROW = (rs, i) -> {
+        AuditResponse response = new AuditResponse();
+        response.setId(rs.getLong("id"));
+        response.setEntidad(rs.getString("entidad"));
+        response.setEntidadId(rs.getLong("entidadId"));
+        response.setAccion(rs.getString("accion"));
+        response.setUsuario(rs.getString("usuario"));
+        response.setCambios(rs.getString("cambios"));
+        response.setFecha(rs.getTimestamp("fecha"));
+        return response;
+    };
+
+    private final JdbcTemplate jdbc;
+
+    /**
+     * @param jdbc Plantilla JDBC.
+     */
+    public AuditRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Inserta los registros en un único lote JDBC.
+     *
+     * @param entries Los registros, en orden de llegada.
+     */
+    public void insertAll(List<Entry> entries) {
+        jdbc.batchUpdate(INSERT, entries, entries.size(), (ps, e) -> {
+            ps.setString(1, e.entidad());
+            ps.setLong(2, e.entidadId());
+            ps.setString(3, e.accion());
+            ps.setString(4, e.usuario());
+            ps.setString(5, e.cambios());
+            ps.setTimestamp(6, new Timestamp(e.fecha()));
+        });
+    }
+
+    /**
+     * Obtiene una página de registros, del más reciente al más antiguo.
+     *
+     * @param before El ID del último registro recibido (cursor), o {@code null} para la primera página.
+     * @param entidad El tipo de registro, o {@code null} para todos.
+     * @param entidadId El ID del registro (solo junto con {@code entidad}), o {@code null}.
+     * @param usuario El usuario que hizo los cambios, o {@code null}.
+     * @param limit La cantidad máxima de filas.
+     * @return Los registros ordenados por ID descendente.
+     */
+    public List<AuditResponse> findPage(Long before, String entidad, Long entidadId, String usuario, int limit) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, entidad, entidadId, accion, usuario, cambios, fecha FROM Auditoria WHERE 1 = 1");
+        List<Object> args = new ArrayList<>(5);
+        if (before != null) {
+            sql.append(" AND id < ?");
+            args.add(before);
+        }
+        if (entidad != null) {
+            sql.append(" AND entidad = ?");
+            args.add(entidad);
+            if (entidadId != null) {
+                sql.append(" AND entidadId = ?");
+                args.add(entidadId);
+            }
+        }
+        if (usuario != null) {
+            sql.append(" AND usuario = ?");
+            args.add(usuario);
+        }
+        sql.append(" ORDER BY id DESC OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY");
+        args.add(limit);
+        return jdbc.query(sql.toString(), ROW, args.toArray());
+    }
+}
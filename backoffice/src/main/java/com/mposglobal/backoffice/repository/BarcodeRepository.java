@@ -0,0 +1,97 @@
+package com.mposglobal.backoffice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Acceso a la tabla {@code CodigosBarra}.
+ * <p>
+ * Los códigos llegan ya normalizados a 14 dígitos. Las búsquedas por código usan el índice único
+ * {@code UX_CodigosBarra_codigo} y las de un producto {@code IX_CodigosBarra_producto}. Las
+ * sentencias participan de la transacción en curso.
+ * </p>
+ */
+@Repository
+public class BarcodeRepository {
+
+    /**
+     * Recorrido de las filas de la tabla.
+     */
+    @FunctionalInterface
+    public interface RowConsumer {
+        void accept(String codigo, long productoId);
+    }
+
+    private final JdbcTemplate jdbc;
+
+    /**
+     * @param jdbc Plantilla JDBC; participa de la transacción JPA en curso.
+     */
+    public BarcodeRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * @param productoId El ID del producto.
+     * @return Sus códigos, ordenados.
+     */
+    public List<String> findByProduct(long productoId) {
+        return jdbc.queryForList("SELECT codigo FROM CodigosBarra WHERE productoId = ? ORDER BY codigo",
+                String.class, productoId);
+    }
+
+    /**
+     * @param codigos Los códigos a buscar.
+     * @return El producto de cada código encontrado.
+     */
+    public Map<String, Long> findOwners(Collection<String> codigos) {
+        if (codigos.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Long> owners = new LinkedHashMap<>();
+        String placeholders = String.join(", ", Collections.nCopies(codigos.size(), "?"));
+        jdbc.query("SELECT codigo, productoId FROM CodigosBarra WHERE codigo IN (" + placeholders + ")", rs -> {
+            owners.put(rs.getString("codigo"), rs.getLong("productoId"));
+        }, codigos.toArray());
+        return owners;
+    }
+
+    /**
+     * Reemplaza los códigos de un producto.
+     *
+     * @param productoId El ID del producto.
+     * @param codigos Los códigos nuevos (sin repetidos); vacío para quitarlos todos.
+     */
+    public void replace(long productoId, Collection<String> codigos) {
+        jdbc.update("DELETE FROM CodigosBarra WHERE productoId = ?", productoId);
+        if (!codigos.isEmpty()) {
+            jdbc.batchUpdate("INSERT INTO CodigosBarra (codigo, productoId) VALUES (?, ?)",
+                    codigos.stream().map(codigo -> new Object[] {codigo, productoId}).toList());
+        }
+    }
+
+    /**
+     * Recorre la tabla completa fila por fila, sin materializarla.
+     *
+     * @param action Recibe cada código y su producto.
+     */
+    public void forEach(RowConsumer action) {
+        jdbc.query("SELECT codigo, productoId FROM CodigosBarra", rs -> {
+            action.accept(rs.getString(1), rs.getLong(2));
+        });
+    }
+
+    /**
+     * @return La cantidad de códigos registrados.
+     */
+    public long count() {
+        Long count = jdbc.queryForObject("SELECT COUNT(*) FROM CodigosBarra", Long.class);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,160 @@
+package com.mposglobal.backoffice.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import com.mposglobal.backoffice.dto.CategoryResponse;
+import com.mposglobal.backoffice.util.Constant;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Acceso a la tabla de clausura {@code CategoriasJerarquia}.
+ * <p>
+ * Cada categoría tiene una fila por ancestro (incluida ella misma, con profundidad 0), así que el
+ * subárbol de una categoría es el rango {@code ancestroId = ?} de la clave primaria y sus
+ * ancestros el rango {@code descendienteId = ?} del índice secundario: ninguna consulta recorre
+ * la jerarquía nivel por nivel. Las sentencias participan de la transacción en curso.
+ * </p>
+ */
+@Repository
+public class CategoryHierarchyRepository {
+
+    /**
+     * Estado efectivo que le corresponde a cada categoría del subárbol según el estado propio de
+     * sus ancestros; solo devuelve las que difieren del guardado.
+     */
+    private static final String EFFECTIVE_CHANGES = "SELECT t.id, t.nuevo FROM (SELECT c.id, c.estadoEfectivo, "
+            + "CASE WHEN EXISTS (SELECT 1 FROM CategoriasJerarquia a JOIN Categorias x ON x.id = a.ancestroId "
+            + "WHERE a.descendienteId = c.id AND x.estado = '" + Constant.DESACTIVADO + "') THEN '"
+            + Constant.DESACTIVADO + "' ELSE '" + Constant.ACTIVO + "' END AS nuevo "
+            + "FROM CategoriasJerarquia s JOIN Categorias c ON c.id = s.descendienteId "
+            + "WHERE s.ancestroId = ? AND s.profundidad > 0) t WHERE t.estadoEfectivo <> t.nuevo";
+
+    private static final RowMapper<CategoryResponse> NODE = (rs, i) -> {
+        CategoryResponse response = new CategoryResponse();
+        response.setId(rs.getLong("id"));
+        response.setNombre(rs.getString("nombre"));
+        response.setEstado(rs.getString("estado"));
+        response.setFechaCreacion(rs.getDate("fechaCreacion"));
+        response.setFechaActualizacion(rs.getDate("fechaActualizacion"));
+        response.setVersion(rs.getLong("version"));
+        long padre = rs.getLong("padreId");
+        response.setPadre(rs.wasNull() ? null : padre);
+        response.setEstadoEfectivo(rs.getString("estadoEfectivo"));
+        return response;
+    };
+
+    /**
+     * Fila de {@code Bloqueos} que serializa los cambios de la jerarquía.
+     */
+    private static final String LOCK = "CategoriasJerarquia";
+
+    private final JdbcTemplate jdbc;
+
+    /**
+     * @param jdbc Plantilla JDBC; participa de la transacción en curso.
+     */
+    public CategoryHierarchyRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Toma el bloqueo exclusivo de la jerarquía hasta el fin de la transacción en curso.
+     * <p>
+     * Dos movimientos concurrentes que validan por separado pueden formar un ciclo (A bajo B y B
+     * bajo A), y un alta bajo un subárbol que se está moviendo copiaría caminos ya borrados. El
+     * {@code UPDATE} de una fila fija de {@code Bloqueos} hace esperar a las demás transacciones
+     * que cambian la jerarquía, también en otras instancias; las validaciones se hacen después de
+     * tomarlo. Las lecturas no lo toman.
+     * </p>
+     */
+    public void lock() {
+        String sql = "UPDATE Bloqueos SET fecha = CURRENT_TIMESTAMP WHERE nombre = ?";
+        if (jdbc.update(sql, LOCK) == 0) {
+            try {
+                jdbc.update("INSERT INTO Bloqueos (nombre, fecha) VALUES (?, CURRENT_TIMESTAMP)", LOCK);
+            } catch (DuplicateKeyException e) {
+                // La creó otra transacción a la vez: se espera su bloqueo como en el caso normal
+                jdbc.update(sql, LOCK);
+            }
+        }
+    }
+
+    /**
+     * Registra una categoría nueva: su fila propia y una por cada ancestro del padre.
+     *
+     * @param id El ID de la categoría.
+     * @param padreId El ID del padre, o {@code null} para una raíz.
+     */
+    public void insertNode(long id, Long padreId) {
+        jdbc.update("INSERT INTO CategoriasJerarquia (ancestroId, descendienteId, profundidad) VALUES (?, ?, 0)",
+                id, id);
+        if (padreId != null) {
+            jdbc.update("INSERT INTO CategoriasJerarquia (ancestroId, descendienteId, profundidad) "
+                    + "SELECT ancestroId, ?, profundidad + 1 FROM CategoriasJerarquia WHERE descendienteId = ?",
+                    id, padreId);
+        }
+    }
+
+    /**
+     * @param ancestroId La posible raíz del subárbol.
+     * @param id La categoría a buscar.
+     * @return {@code true} si {@code id} es {@code ancestroId} o uno de sus descendientes.
+     */
+    public boolean isInSubtree(long ancestroId, long id) {
+        Integer found = jdbc.queryForObject("SELECT COUNT(*) FROM CategoriasJerarquia "
+                + "WHERE ancestroId = ? AND descendienteId = ?", Integer.class, ancestroId, id);
+        return found != null && found > 0;
+    }
+
+    /**
+     * Mueve el subárbol de {@code id} bajo {@code padreId}: borra los caminos desde los ancestros
+     * anteriores y crea los que pasan por los nuevos. El llamador toma {@link #lock()} y después
+     * valida que {@code padreId} no esté dentro del propio subárbol.
+     *
+     * @param id La raíz del subárbol a mover.
+     * @param padreId El nuevo padre, o {@code null} para dejarla como raíz.
+     */
+    public void move(long id, Long padreId) {
+        jdbc.update("DELETE FROM CategoriasJerarquia WHERE descendienteId IN "
+                + "(SELECT descendienteId FROM CategoriasJerarquia WHERE ancestroId = ?) "
+                + "AND ancestroId NOT IN (SELECT descendienteId FROM CategoriasJerarquia WHERE ancestroId = ?)",
+                id, id);
+        if (padreId != null) {
+            jdbc.update("INSERT INTO CategoriasJerarquia (ancestroId, descendienteId, profundidad) "
+                    + "SELECT sup.ancestroId, sub.descendienteId, sup.profundidad + sub.profundidad + 1 "
+                    + "FROM CategoriasJerarquia sup CROSS JOIN CategoriasJerarquia sub "
+                    + "WHERE sup.descendienteId = ? AND sub.ancestroId = ?", padreId, id);
+        }
+    }
+
+    /**
+     * Calcula el estado efectivo de los descendientes de {@code id} (sin incluirla) a partir del
+     * estado propio de sus ancestros.
+     *
+     * @param id La raíz del subárbol.
+     * @return Los descendientes cuyo estado efectivo debe cambiar, con el nuevo valor.
+     */
+    public Map<Long, String> effectiveChanges(long id) {
+        Map<Long, String> changes = new LinkedHashMap<>();
+        jdbc.query(EFFECTIVE_CHANGES, rs -> {
+            changes.put(rs.getLong("id"), rs.getString("nuevo"));
+        }, id);
+        return changes;
+    }
+
+    /**
+     * @param id La raíz del subárbol.
+     * @return La categoría y todos sus descendientes, por profundidad y luego por ID.
+     */
+    public List<CategoryResponse> findSubtree(long id) {
+        return jdbc.query("SELECT c.id, c.nombre, c.estado, c.fechaCreacion, c.fechaActualizacion, c.version, "
+                + "c.padreId, c.estadoEfectivo FROM CategoriasJerarquia j JOIN Categorias c ON c.id = j.descendienteId "
+                + "WHERE j.ancestroId = ? ORDER BY j.profundidad, c.id", NODE, id);
+    }
+}
@@ -1,9 +1,21 @@
 package com.mposglobal.backoffice.repository;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.mposglobal.backoffice.entity.Category;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Interfaz de repositorio para la entidad {@link Category}.
  * <p>
@@ -16,4 +28,60 @@ import com.mposglobal.backoffice.entity.Category;
  */
 public interface CategoryRepository extends JpaRepository<Category,Long>{
 
+	/**
+     * Obtiene todas las categorías usando la caché de consultas de Hibernate; el resultado se
+     * invalida automáticamente cuando cambia cualquier fila de {@code Categorias}.
+     *
+     * @return Todas las categorías.
+     */
+	@Override
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+	List<Category> findAll();
+
+	/**
+     * Obtiene solo la versión de una categoría, para resolver un {@code If-Match} con varios {@code ETag}.
+     *
+     * @param id El ID de la categoría.
+     * @return La versión actual, o vacío si no existe.
+     */
+	@Query("select c.version from Category c where c.id = :id")
+	Optional<Long> findVersionById(@Param("id") Long id);
+
+	/**
+     * Obtiene una categoría como fila escalar, sin cargar la entidad ni pasar por la caché de
+     * segundo nivel: el estado anterior de una escritura directa, que con los valores escritos da
+     * también la respuesta sin releerla.
+     *
+     * @param id El ID de la categoría.
+     * @return Una fila {@code [nombre, estado, padreId, version, fechaCreacion, fechaActualizacion,
+     *         estadoEfectivo]}, o vacío si no existe.
+     */
+	@Query("select c.nombre, c.estado, c.padreId, c.version, c.fechaCreacion, c.fechaActualizacion, "
+			+ "c.estadoEfectivo from Category c where c.id = :id")
+	List<Object[]> findAuditRow(@Param("id") Long id);
+
+	/**
+     * Actualiza una categoría en una sola sentencia, solo si su versión coincide con la esperada.
+     *
+     * @return El número de filas actualizadas (0 si la categoría no existe o la versión no coincide).
+     */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update Category c set c.nombre = :nombre, c.estado = :estado, c.fechaActualizacion = :fecha, "
+			+ "c.padreId = :padreId, c.estadoEfectivo = :estadoEfectivo, "
+			+ "c.version = c.version + 1 where c.id = :id and c.version = :version")
+	int updateIfVersion(@Param("id") Long id, @Param("version") Long version,
+			@Param("nombre") String nombre, @Param("estado") String estado, @Param("fecha") Date fecha,
+			@Param("padreId") Long padreId, @Param("estadoEfectivo") String estadoEfectivo);
+
+	/**
+     * Cambia el estado efectivo de varias categorías e incrementa su versión. Al ser una
+     * actualización masiva de JPQL, Hibernate invalida la caché de segundo nivel de la entidad
+     * y las consultas cacheadas al terminar la transacción.
+     *
+     * @return El número de filas actualizadas.
+     */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update Category c set c.estadoEfectivo = :estadoEfectivo, c.version = c.version + 1 where c.id in :ids")
+	int updateEstadoEfectivo(@Param("ids") Collection<Long> ids, @Param("estadoEfectivo") String estadoEfectivo);
+
 }
@@ -0,0 +1,122 @@
+package com.mposglobal.backoffice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import com.mposglobal.backoffice.event.OutboxMessage;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Acceso a la tabla {@code Outbox}.
+ * <p>
+ * Las altas se hacen en la transacción del cambio de negocio. El relay lee las filas pendientes
+ * por el índice {@code (procesado, id)} y las marca procesadas en lote; la compactación borra
+ * las procesadas antiguas por el mismo índice.
+ * </p>
+ */
+@Repository
+public class OutboxRepository {
+
+    /**
+     * Evento pendiente de insertar.
+     *
+     * @param tipo El tipo de registro.
+     * @param entidadId El ID del registro.
+     * @param accion La acción.
+     * @param datos El estado del registro en JSON.
+     * @param fecha El instante del cambio en milisegundos.
+     */
+    public record Entry(String tipo, long entidadId, String accion, String datos, long fecha) {
+    }
+
+    /**
+     * Eventos pendientes de entrega.
+     *
+     * @param pending Cantidad de filas sin procesar.
+     * @param oldest Instante de la más antigua en milisegundos, o {@code null} si no hay.
+     */
+    public record Backlog(long pending, Long oldest) {
+    }
+
+    private static final String INSERT = "INSERT INTO Outbox (tipo, entidadId, accion, datos, fecha, procesado) "
+            + "VALUES (?, ?, ?, ?, ?, 0)";
+
+    private static final RowMapper<OutboxMessage> ROW = (rs, i) -> new OutboxMessage(rs.getLong("id"),
+            rs.getString("tipo"), rs.getLong("entidadId"), rs.getString("accion"), rs.getString("datos"),
+            rs.getTimestamp("fecha").getTime());
+
+    private final JdbcTemplate jdbc;
+
+    /**
+     * @param jdbc Plantilla JDBC; participa de la transacción en curso.
+     */
+    public OutboxRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Inserta los eventos en un único lote JDBC.
+     *
+     * @param entries Los eventos, en orden.
+     */
+    public void insertAll(List<Entry> entries) {
+        jdbc.batchUpdate(INSERT, entries, entries.size(), (ps, e) -> {
+            ps.setString(1, e.tipo());
+            ps.setLong(2, e.entidadId());
+            ps.setString(3, e.accion());
+            ps.setString(4, e.datos());
+            ps.setTimestamp(5, new Timestamp(e.fecha()));
+        });
+    }
+
+    /**
+     * @param limit Máximo de filas.
+     * @return Los eventos pendientes más antiguos, en orden de {@code id}.
+     */
+    public List<OutboxMessage> findPending(int limit) {
+        return jdbc.query("SELECT id, tipo, entidadId, accion, datos, fecha FROM Outbox WHERE procesado = 0 "
+                + "ORDER BY id OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY", ROW, limit);
+    }
+
+    /**
+     * Marca los eventos como procesados.
+     *
+     * @param ids Los IDs entregados.
+     * @param now La fecha de procesado.
+     */
+    public void markProcessed(List<Long> ids, Timestamp now) {
+        jdbc.batchUpdate("UPDATE Outbox SET procesado = 1, fechaProcesado = ? WHERE id = ?", ids, ids.size(),
+                (ps, id) -> {
+                    ps.setTimestamp(1, now);
+                    ps.setLong(2, id);
+                });
+    }
+
+    /**
+     * La fecha del evento pendiente con menor {@code id} se toma como la del más antiguo; así
+     * ambas consultas recorren solo el tramo {@code procesado = 0} del índice.
+     *
+     * @return La cantidad de eventos pendientes y la fecha del más antiguo.
+     */
+    public Backlog backlog() {
+        Long pending = jdbc.queryForObject("SELECT COUNT(*) FROM Outbox WHERE procesado = 0", Long.class);
+        List<Timestamp> oldest = jdbc.queryForList("SELECT fecha FROM Outbox WHERE procesado = 0 "
+                + "ORDER BY id OFFSET 0 ROWS FETCH NEXT 1 ROWS ONLY", Timestamp.class);
+        return new Backlog(pending == null ? 0 : pending, oldest.isEmpty() ? null : oldest.get(0).getTime());
+    }
+
+    /**
+     * Borra hasta {@code limit} eventos procesados antes de {@code before}.
+     *
+     * @param before Fecha de procesado límite.
+     * @param limit Máximo de filas a borrar.
+     * @return Las filas borradas.
+     */
+    public int compact(Timestamp before, int limit) {
+        return jdbc.update("DELETE FROM Outbox WHERE id IN (SELECT id FROM Outbox WHERE procesado = 1 "
+                + "AND fechaProcesado < ? ORDER BY id OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY)", before, limit);
+    }
+}
@@ -0,0 +1,59 @@
+package com.mposglobal.backoffice.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+
+/**
+ * Repositorio para actualizaciones parciales (PATCH) de cualquier entidad versionada.
+ * <p>
+ * Construye dinámicamente un {@code UPDATE} que solo incluye las columnas recibidas, más el
+ * incremento de {@code version}, en lugar de reescribir la fila completa. Así una modificación
+ * de precio no reescribe {@code tags}, {@code nombre} ni los índices que los contienen, y el
+ * volumen del log de transacciones es proporcional a lo que realmente cambió.
+ * </p>
+ */
+@Repository
+public class PartialUpdateRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    /**
+     * Ejecuta un {@code UPDATE <tabla> SET <columnas> , version = version + 1 WHERE id = ?
+     * [AND version = ?]} en una sola sentencia, sin leer la entidad.
+     *
+     * @param type La clase de la entidad (debe tener atributos {@code id} y {@code version}).
+     * @param id El ID del registro.
+     * @param expectedVersion La versión esperada, o {@code null} para no condicionar.
+     * @param values Los atributos de la entidad a modificar y sus nuevos valores.
+     * @param <T> El tipo de la entidad.
+     * @return El número de filas actualizadas (0 si no existe o la versión no coincide).
+     */
+    public <T> int update(Class<T> type, Long id, Long expectedVersion, Map<String, Object> values) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaUpdate<T> update = cb.createCriteriaUpdate(type);
+        Root<T> root = update.from(type);
+
+        values.forEach(update::set);
+        update.set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), 1L));
+
+        Predicate where = cb.equal(root.get("id"), id);
+        if (expectedVersion != null) {
+            where = cb.and(where, cb.equal(root.get("version"), expectedVersion));
+        }
+        update.where(where);
+
+        em.flush();
+        int rows = em.createQuery(update).executeUpdate();
+        em.clear();
+        return rows;
+    }
+}
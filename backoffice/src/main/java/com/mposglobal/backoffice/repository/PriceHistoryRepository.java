@@ -0,0 +1,112 @@
+package com.mposglobal.backoffice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import com.mposglobal.backoffice.dto.PriceHistoryResponse;
+import com.mposglobal.backoffice.util.Money;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Acceso a la tabla de solo inserción {@code PrecioHistorial}.
+ * <p>
+ * Se usa JDBC directo: las altas van en un solo lote JDBC por transacción (la clave
+ * {@code IDENTITY} impediría a Hibernate agruparlas) y las lecturas son proyecciones que no
+ * necesitan entidades. Ambas consultas están escritas para el índice
+ * {@code (productoId, vigenteDesde)}: el rango de un producto es una búsqueda más un recorrido
+ * contiguo, y la foto de una categoría es una búsqueda por producto.
+ * </p>
+ */
+@Repository
+public class PriceHistoryRepository {
+
+    /**
+     * Fila pendiente de insertar.
+     *
+     * @param productoId El ID del producto.
+     * @param categoriaId El ID de su categoría.
+     * @param costo El costo nuevo.
+     * @param precio El precio nuevo.
+     * @param vigenteDesde El instante del cambio.
+     * @param usuario El usuario que hizo el cambio.
+     */
+    public record Entry(long productoId, long categoriaId, Money costo, Money precio, Timestamp vigenteDesde,
+                        String usuario) {
+    }
+
+    private static final String INSERT = "INSERT INTO PrecioHistorial "
+            + "(productoId, categoriaId, costo, precio, vigenteDesde, usuario) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String COLUMNS = "productoId, categoriaId, costo, precio, vigenteDesde, usuario";
+
+    // Desde la entrada vigente al inicio del rango (si la hay) hasta el final del rango
+    private static final String RANGE = "SELECT " + COLUMNS + " FROM PrecioHistorial "
+            + "WHERE productoId = ? AND vigenteDesde <= ? AND vigenteDesde >= COALESCE("
+            + "(SELECT MAX(vigenteDesde) FROM PrecioHistorial WHERE productoId = ? AND vigenteDesde <= ?), ?) "
+            + "ORDER BY vigenteDesde, id";
+
+    // Última entrada de cada producto a la fecha, si en ese momento pertenecía a la categoría
+    private static final String CATEGORY_AT = "SELECT " + COLUMNS + " FROM PrecioHistorial h WHERE h.id IN ("
+            + "SELECT (SELECT TOP 1 x.id FROM PrecioHistorial x WHERE x.productoId = p.productoId "
+            + "AND x.vigenteDesde <= ? ORDER BY x.vigenteDesde DESC, x.id DESC) "
+            + "FROM (SELECT DISTINCT productoId FROM PrecioHistorial WHERE categoriaId = ? AND vigenteDesde <= ?) p"
+            + ") AND h.categoriaId = ? ORDER BY h.productoId";
+
+    private static final RowMapper<PriceHistoryResponse> ROW = (rs, i) -> {
+        PriceHistoryResponse response = new PriceHistoryResponse();
+        response.setProductoId(rs.getLong("productoId"));
+        response.setCategoriaId(rs.getLong("categoriaId"));
+        response.setCosto(Money.toDouble(Money.of(rs.getBigDecimal("costo"))));
+        response.setPrecio(Money.toDouble(Money.of(rs.getBigDecimal("precio"))));
+        response.setVigenteDesde(rs.getTimestamp("vigenteDesde"));
+        response.setUsuario(rs.getString("usuario"));
+        return response;
+    };
+
+    private final JdbcTemplate jdbc;
+
+    /**
+     * @param jdbc Plantilla JDBC; participa de la transacción JPA en curso.
+     */
+    public PriceHistoryRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Inserta las entradas en un único lote JDBC.
+     *
+     * @param entries Las entradas, en el orden de los cambios.
+     */
+    public void insertAll(List<Entry> entries) {
+        jdbc.batchUpdate(INSERT, entries, entries.size(), (ps, e) -> {
+            ps.setLong(1, e.productoId());
+            ps.setLong(2, e.categoriaId());
+            ps.setBigDecimal(3, e.costo().toBigDecimal());
+            ps.setBigDecimal(4, e.precio().toBigDecimal());
+            ps.setTimestamp(5, e.vigenteDesde());
+            ps.setString(6, e.usuario());
+        });
+    }
+
+    /**
+     * @param productoId El ID del producto.
+     * @param from Inicio del rango.
+     * @param to Fin del rango (inclusive).
+     * @return La entrada vigente en {@code from} y las posteriores hasta {@code to}, en orden.
+     */
+    public List<PriceHistoryResponse> findRange(long productoId, Timestamp from, Timestamp to) {
+        return jdbc.query(RANGE, ROW, productoId, to, productoId, from, from);
+    }
+
+    /**
+     * @param categoriaId El ID de la categoría.
+     * @param at El instante consultado.
+     * @return La entrada vigente en {@code at} de cada producto que entonces era de la categoría.
+     */
+    public List<PriceHistoryResponse> findCategoryAt(long categoriaId, Timestamp at) {
+        return jdbc.query(CATEGORY_AT, ROW, at, categoriaId, at, categoriaId);
+    }
+}
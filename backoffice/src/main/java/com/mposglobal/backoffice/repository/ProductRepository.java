@@ -1,8 +1,22 @@
 package com.mposglobal.backoffice.repository;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import com.mposglobal.backoffice.entity.Category;
 import com.mposglobal.backoffice.entity.Product;
+import com.mposglobal.backoffice.util.Money;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Interfaz de repositorio para la entidad {@link Product}.
@@ -15,5 +29,85 @@ import com.mposglobal.backoffice.entity.Product;
  * </p>
  */
 public interface ProductRepository extends JpaRepository<Product,Long> {
+	
+	/**
+     * Recorre todos los productos como filas escalares, para cargar el catálogo fuera del heap.
+     * <p>
+     * La proyección no crea entidades administradas, por lo que el contexto de persistencia no
+     * crece con el catálogo; el {@code Stream} debe consumirse y cerrarse dentro de una transacción.
+     * </p>
+     *
+     * @return Filas {@code [id, nombre, categoriaId, costo, precio, tags, estado, fechaCreacion,
+     *         fechaActualizacion, version]}.
+     */
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+	@Query("select p.id, p.nombre, p.categoria.id, p.costo, p.precio, p.tags, p.estado, "
+			+ "p.fechaCreacion, p.fechaActualizacion, p.version from Product p")
+	Stream<Object[]> streamCatalogRows();
+	
+	/**
+     * Obtiene un producto como fila escalar, con las mismas columnas que {@link #streamCatalogRows()}.
+     *
+     * @param id El ID del producto.
+     * @return La fila, o una lista vacía si el producto no existe.
+     */
+	@Query("select p.id, p.nombre, p.categoria.id, p.costo, p.precio, p.tags, p.estado, "
+			+ "p.fechaCreacion, p.fechaActualizacion, p.version from Product p where p.id = :id")
+	List<Object[]> findCatalogRow(@Param("id") Long id);
+	
+	/**
+     * Obtiene los productos de una categoría en un estado, ordenados por ID.
+     *
+     * @param categoriaId El ID de la categoría.
+     * @param estado El estado buscado (sin distinguir mayúsculas).
+     * @return Los productos encontrados.
+     */
+	List<Product> findByCategoriaIdAndEstadoIgnoreCaseOrderById(Long categoriaId, String estado);
+	
+	/**
+     * Obtiene una página de los productos de un subárbol de categorías, ordenados por ID.
+     * <p>
+     * Un solo join entre el rango {@code ancestroId} de la tabla de clausura y el índice
+     * {@code IX_Productos_categoria (categoriaId, estado, id)}; no recorre la jerarquía.
+     * </p>
+     *
+     * @param categoriaId La raíz del subárbol.
+     * @param estado El estado buscado.
+     * @param after El último ID de la página anterior (0 para la primera).
+     * @param limit El número máximo de filas.
+     * @return Los productos encontrados.
+     */
+	@Query(value = "SELECT p.* FROM CategoriasJerarquia j JOIN Productos p ON p.categoriaId = j.descendienteId "
+			+ "WHERE j.ancestroId = :categoriaId AND p.estado = :estado AND p.id > :after "
+			+ "ORDER BY p.id OFFSET 0 ROWS FETCH NEXT :limit ROWS ONLY", nativeQuery = true)
+	List<Product> findSubtreePage(@Param("categoriaId") Long categoriaId, @Param("estado") String estado,
+			@Param("after") long after, @Param("limit") int limit);
+	
+	/**
+     * Obtiene solo la versión de un producto, para resolver un {@code If-Match} con varios {@code ETag}.
+     *
+     * @param id El ID del producto.
+     * @return La versión actual, o vacío si no existe.
+     */
+	@Query("select p.version from Product p where p.id = :id")
+	Optional<Long> findVersionById(@Param("id") Long id);
+
+	/**
+     * Actualiza un producto en una sola sentencia, solo si su versión coincide con la esperada.
+     * <p>
+     * Evita el SELECT previo del flujo {@code findById} + {@code save}: la comparación de la
+     * versión se hace en el propio {@code WHERE} y la versión se incrementa en el mismo UPDATE.
+     * </p>
+     *
+     * @return El número de filas actualizadas (0 si el producto no existe o la versión no coincide).
+     */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update Product p set p.nombre = :nombre, p.categoria = :categoria, p.costo = :costo, "
+			+ "p.precio = :precio, p.tags = :tags, p.estado = :estado, p.fechaActualizacion = :fecha, "
+			+ "p.version = p.version + 1 where p.id = :id and p.version = :version")
+	int updateIfVersion(@Param("id") Long id, @Param("version") Long version,
+			@Param("nombre") String nombre, @Param("categoria") Category categoria,
+			@Param("costo") Money costo, @Param("precio") Money precio, @Param("tags") String tags,
+			@Param("estado") String estado, @Param("fecha") Date fecha);
 	  
 }
@@ -0,0 +1,72 @@
+package com.mposglobal.backoffice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.mposglobal.backoffice.util.Constant;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Lectura de los textos buscables (nombre y tags) de los productos activos, para los índices de
+ * búsqueda en memoria. Las cargas completas recorren la tabla fila por fila, sin materializarla.
+ */
+@Repository
+public class ProductTextRepository {
+
+    /**
+     * Textos de un producto activo.
+     */
+    public record ProductText(long id, String nombre, String tags) {
+    }
+
+    /**
+     * Recorrido de las filas.
+     */
+    @FunctionalInterface
+    public interface RowConsumer {
+        void accept(ProductText row);
+    }
+
+    private static final String SELECT = "SELECT id, nombre, tags FROM Productos WHERE estado = ?";
+
+    private final JdbcTemplate jdbc;
+
+    /**
+     * @param jdbc Plantilla JDBC.
+     */
+    public ProductTextRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Recorre todos los productos activos en orden de ID.
+     *
+     * @param action Recibe cada producto.
+     */
+    public void forEachActive(RowConsumer action) {
+        jdbc.query(SELECT + " ORDER BY id", rs -> {
+            action.accept(new ProductText(rs.getLong(1), rs.getString(2), rs.getString(3)));
+        }, Constant.ACTIVO);
+    }
+
+    /**
+     * @param id El ID del producto.
+     * @return Sus textos, o vacío si no existe o está desactivado.
+     */
+    public Optional<ProductText> findActive(long id) {
+        List<ProductText> rows = jdbc.query(SELECT + " AND id = ?",
+                (rs, i) -> new ProductText(rs.getLong(1), rs.getString(2), rs.getString(3)), Constant.ACTIVO, id);
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * @return La cantidad de productos activos.
+     */
+    public long countActive() {
+        Long count = jdbc.queryForObject("SELECT COUNT(*) FROM Productos WHERE estado = ?", Long.class,
+                Constant.ACTIVO);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,114 @@
+package com.mposglobal.backoffice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.mposglobal.backoffice.util.Constant;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Lectura de los textos buscables de los usuarios (username y nombre completo) y de las
+ * categorías (nombre) activos, para la búsqueda global en memoria. Los de los productos los lee
+ * {@link ProductTextRepository}.
+ */
+@Repository
+public class SearchTextRepository {
+
+    /**
+     * Textos de un registro activo; {@code detalle} es {@code null} en las categorías.
+     */
+    public record EntityText(long id, String nombre, String detalle) {
+    }
+
+    /**
+     * Recorrido de las filas.
+     */
+    @FunctionalInterface
+    public interface RowConsumer {
+        void accept(EntityText row);
+    }
+
+    private static final String SELECT_USERS = "SELECT id, username, nombreCompleto FROM Usuarios WHERE estado = ?";
+    private static final String SELECT_CATEGORIES = "SELECT id, nombre, NULL FROM Categorias WHERE estado = ?";
+
+    private final JdbcTemplate jdbc;
+
+    /**
+     * @param jdbc Plantilla JDBC.
+     */
+    public SearchTextRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Recorre todos los usuarios activos en orden de ID.
+     *
+     * @param action Recibe cada usuario.
+     */
+    public void forEachActiveUser(RowConsumer action) {
+        forEach(SELECT_USERS, action);
+    }
+
+    /**
+     * Recorre todas las categorías activas en orden de ID.
+     *
+     * @param action Recibe cada categoría.
+     */
+    public void forEachActiveCategory(RowConsumer action) {
+        forEach(SELECT_CATEGORIES, action);
+    }
+
+    /**
+     * @param id El ID del usuario.
+     * @return Sus textos, o vacío si no existe o está desactivado.
+     */
+    public Optional<EntityText> findActiveUser(long id) {
+        return find(SELECT_USERS, id);
+    }
+
+    /**
+     * @param id El ID de la categoría.
+     * @return Sus textos, o vacío si no existe o está desactivada.
+     */
+    public Optional<EntityText> findActiveCategory(long id) {
+        return find(SELECT_CATEGORIES, id);
+    }
+
+    /**
+     * @return La cantidad de usuarios activos.
+     */
+    public long countActiveUsers() {
+        return count("Usuarios");
+    }
+
+    /**
+     * @return La cantidad de categorías activas.
+     */
+    public long countActiveCategories() {
+        return count("Categorias");
+    }
+
+    // -------------------------------------------------------------------------
+    // Utilidades internas
+    // -------------------------------------------------------------------------
+
+    private void forEach(String select, RowConsumer action) {
+        jdbc.query(select + " ORDER BY id", rs -> {
+            action.accept(new EntityText(rs.getLong(1), rs.getString(2), rs.getString(3)));
+        }, Constant.ACTIVO);
+    }
+
+    private Optional<EntityText> find(String select, long id) {
+        List<EntityText> rows = jdbc.query(select + " AND id = ?",
+                (rs, i) -> new EntityText(rs.getLong(1), rs.getString(2), rs.getString(3)), Constant.ACTIVO, id);
+        return rows.stream().findFirst();
+    }
+
+    private long count(String table) {
+        Long count = jdbc.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE estado = ?", Long.class,
+                Constant.ACTIVO);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,102 @@
+package com.mposglobal.backoffice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import com.mposglobal.backoffice.dto.UserResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consultas del listado paginado de usuarios ({@code GET /users}).
+ * <p>
+ * El {@code WHERE} se arma solo con los filtros presentes, sin predicados comodín del tipo
+ * {@code (? IS NULL OR columna = ?)} que obligan a un plan genérico y a recorrer el índice. La
+ * búsqueda por prefijo une con {@code UNION} una rama por columna calculada
+ * ({@code usernameBusqueda}, {@code nombreBusqueda}), de modo que cada rama busca en su propio
+ * índice en lugar de un {@code OR} entre dos {@code LIKE} que no puede usar ninguno.
+ * </p>
+ */
+@Repository
+public class UserPageRepository {
+
+    private static final String COLUMNS =
+            "id, nombreCompleto, username, fechaCreacion, fechaUltimoIngreso, nivelAcceso, estado, version";
+
+    private static final RowMapper<UserResponse> ROW = (rs, i) -> new UserResponse(rs.getLong("id"),
+            rs.getString("nombreCompleto"), rs.getString("username"), rs.getTimestamp("fechaCreacion"),
+            rs.getTimestamp("fechaUltimoIngreso"), rs.getString("nivelAcceso"), rs.getString("estado"),
+            rs.getLong("version"));
+
+    private final JdbcTemplate jdbc;
+
+    /**
+     * @param jdbc Plantilla JDBC.
+     */
+    public UserPageRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Obtiene una página de usuarios por keyset ({@code id > after}), con el índice
+     * {@code IX_Usuarios_estado_nivelAcceso (estado, nivelAcceso, id)}.
+     *
+     * @param after El último ID de la página anterior (0 para la primera).
+     * @param estado El estado a filtrar.
+     * @param nivelAcceso El nivel de acceso a filtrar, o {@code null} para todos.
+     * @param limit La cantidad máxima de filas.
+     * @return Los usuarios en orden ascendente de ID.
+     */
+    public List<UserResponse> findPage(long after, String estado, String nivelAcceso, int limit) {
+        List<Object> args = new ArrayList<>(4);
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM Usuarios");
+        appendFilters(sql, args, after, estado, nivelAcceso);
+        sql.append(" ORDER BY id OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY");
+        args.add(limit);
+        return jdbc.query(sql.toString(), ROW, args.toArray());
+    }
+
+    /**
+     * Igual que {@link #findPage}, filtrando además por prefijo de username o de nombre completo
+     * sin distinguir mayúsculas.
+     *
+     * @param after El último ID de la página anterior (0 para la primera).
+     * @param estado El estado a filtrar.
+     * @param nivelAcceso El nivel de acceso a filtrar, o {@code null} para todos.
+     * @param prefix El patrón {@code LIKE} ya en minúsculas, escapado y terminado en {@code %}.
+     * @param limit La cantidad máxima de filas.
+     * @return Los usuarios en orden ascendente de ID, sin repetidos.
+     */
+    public List<UserResponse> searchPage(long after, String estado, String nivelAcceso, String prefix, int limit) {
+        List<Object> args = new ArrayList<>(9);
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM (");
+        appendBranch(sql, args, "usernameBusqueda", prefix, after, estado, nivelAcceso);
+        sql.append(" UNION ");
+        appendBranch(sql, args, "nombreBusqueda", prefix, after, estado, nivelAcceso);
+        sql.append(") u ORDER BY u.id OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY");
+        args.add(limit);
+        return jdbc.query(sql.toString(), ROW, args.toArray());
+    }
+
+    private static void appendBranch(StringBuilder sql, List<Object> args, String column, String prefix,
+                                     long after, String estado, String nivelAcceso) {
+        sql.append("SELECT ").append(COLUMNS).append(" FROM Usuarios");
+        appendFilters(sql, args, after, estado, nivelAcceso);
+        sql.append(" AND ").append(column).append(" LIKE ? ESCAPE '\\'");
+        args.add(prefix);
+    }
+
+    private static void appendFilters(StringBuilder sql, List<Object> args, long after, String estado,
+                                      String nivelAcceso) {
+        sql.append(" WHERE estado = ?");
+        args.add(estado);
+        if (nivelAcceso != null) {
+            sql.append(" AND nivelAcceso = ?");
+            args.add(nivelAcceso);
+        }
+        sql.append(" AND id > ?");
+        args.add(after);
+    }
+}
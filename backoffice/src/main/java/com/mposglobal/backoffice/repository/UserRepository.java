@@ -1,9 +1,16 @@
 package com.mposglobal.backoffice.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.mposglobal.backoffice.dto.UserResponse;
 import com.mposglobal.backoffice.entity.User;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -25,5 +32,67 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return Un {@link Optional} que contiene el objeto {@code User} si se encuentra, o un {@code Optional} vacío si no existe.
      */
 	Optional<User> findByUsername(String username);
+	
+	/**
+     * Busca varios usuarios por ID en una sola consulta (resultados de la búsqueda global).
+     *
+     * @param ids Los IDs.
+     * @param estado El estado a filtrar.
+     * @return Los usuarios encontrados, sin un orden definido.
+     */
+	@Query("select new com.mposglobal.backoffice.dto.UserResponse(u.id, u.nombreCompleto, u.username, "
+			+ "u.fechaCreacion, u.fechaUltimoIngreso, u.nivelAcceso, u.estado, u.version) "
+			+ "from User u where u.id in :ids and u.estado = :estado")
+	List<UserResponse> findByIds(@Param("ids") Collection<Long> ids, @Param("estado") String estado);
+	
+	/**
+     * Obtiene solo la versión de un usuario, para resolver un {@code If-Match} con varios {@code ETag}.
+     *
+     * @param id El ID del usuario.
+     * @return La versión actual, o vacío si no existe.
+     */
+	@Query("select u.version from User u where u.id = :id")
+	Optional<Long> findVersionById(@Param("id") Long id);
+
+	/**
+     * Obtiene un usuario como fila escalar, sin cargar la entidad ni la clave: el estado anterior
+     * de una escritura directa, que con los valores escritos da también la respuesta sin releerlo.
+     *
+     * @param id El ID del usuario.
+     * @return Una fila {@code [nombreCompleto, username, nivelAcceso, estado, version, fechaCreacion,
+     *         fechaUltimoIngreso]}, o vacío si no existe.
+     */
+	@Query("select u.nombreCompleto, u.username, u.nivelAcceso, u.estado, u.version, u.fechaCreacion, "
+			+ "u.fechaUltimoIngreso from User u where u.id = :id")
+	List<Object[]> findAuditRow(@Param("id") Long id);
+
+	/**
+     * Actualiza un usuario en una sola sentencia, solo si su versión coincide con la esperada.
+     * <p>
+     * Si {@code clave} es {@code null} se conserva la clave actual.
+     * </p>
+     *
+     * @return El número de filas actualizadas (0 si el usuario no existe o la versión no coincide).
+     */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update User u set u.nombreCompleto = :nombreCompleto, u.username = :username, "
+			+ "u.nivelAcceso = :nivelAcceso, u.estado = :estado, u.clave = coalesce(:clave, u.clave), "
+			+ "u.version = u.version + 1 where u.id = :id and u.version = :version")
+	int updateIfVersion(@Param("id") Long id, @Param("version") Long version,
+			@Param("nombreCompleto") String nombreCompleto, @Param("username") String username,
+			@Param("nivelAcceso") String nivelAcceso, @Param("estado") String estado,
+			@Param("clave") String clave);
+	
+	/**
+     * Registra la fecha del último ingreso sin leer la entidad ni incrementar su versión,
+     * de modo que un inicio de sesión no invalide el {@code ETag} del usuario.
+     *
+     * @param id El ID del usuario.
+     * @param fecha La fecha del ingreso.
+     * @return El número de filas actualizadas.
+     */
+	@Modifying
+	@Query("update User u set u.fechaUltimoIngreso = :fecha where u.id = :id")
+	int updateLastLogin(@Param("id") Long id, @Param("fecha") Date fecha);
   
 }
@@ -0,0 +1,203 @@
+package com.mposglobal.backoffice.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mposglobal.backoffice.config.ArchiveProperties;
+import com.mposglobal.backoffice.entity.Category;
+import com.mposglobal.backoffice.event.CatalogChangedEvent;
+import com.mposglobal.backoffice.repository.ArchiveRepository;
+import com.mposglobal.backoffice.repository.ArchiveRepository.ArchivedTable;
+import com.mposglobal.backoffice.repository.ArchiveRepository.Chunk;
+import com.mposglobal.backoffice.repository.ArchiveRepository.Progress;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.sql.Timestamp;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Archivado programado de las filas desactivadas de {@code Productos}, {@code Categorias} y
+ * {@code Usuarios} en sus tablas {@code *_Archivo}.
+ * <p>
+ * Cada tabla se recorre por ID en tramos de {@code chunkSize} filas; cada tramo es una
+ * transacción corta con tiempo máximo, seguida de una pausa, así que el archivado solo toma
+ * unos pocos bloqueos de fila a la vez. El último ID revisado y la fecha de corte se guardan en
+ * {@code ArchivoProgreso} en la misma transacción que el tramo: tras un reinicio la pasada sigue
+ * donde quedó, con el mismo corte. Si otra instancia avanzó el registro mientras tanto, el tramo
+ * se revierte y la tabla se deja a esa instancia.
+ * </p>
+ */
+@Service
+@EnableConfigurationProperties(ArchiveProperties.class)
+public class ArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchiveService.class);
+
+    private final ArchiveRepository repo;
+    private final ArchiveProperties properties;
+    private final TransactionTemplate tx;
+    private final EntityManagerFactory emf;
+    private final ApplicationEventPublisher events;
+    private final Map<ArchivedTable, Counter> archived = new EnumMap<>(ArchivedTable.class);
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean stopping;
+
+    /**
+     * Constructor que inyecta el repositorio, la configuración, las transacciones y el registro de métricas.
+     *
+     * @param repo El repositorio del archivo.
+     * @param properties La configuración del archivado.
+     * @param txManager El administrador de transacciones (una transacción por tramo).
+     * @param emf La fábrica de {@code EntityManager}, para invalidar la caché de categorías.
+     * @param events El publicador de {@link CatalogChangedEvent} (categorías y productos archivados).
+     * @param registry El registro de métricas.
+     */
+    public ArchiveService(ArchiveRepository repo, ArchiveProperties properties, PlatformTransactionManager txManager,
+                          EntityManagerFactory emf, ApplicationEventPublisher events, MeterRegistry registry) {
+        this.repo = repo;
+        this.properties = properties;
+        this.tx = new TransactionTemplate(txManager);
+        this.tx.setTimeout((int) Math.max(1, properties.getChunkTimeout().toSeconds()));
+        this.emf = emf;
+        this.events = events;
+        for (ArchivedTable table : ArchivedTable.values()) {
+            archived.put(table, Counter.builder("archive.rows").tag("table", table.name()).register(registry));
+        }
+    }
+
+    /**
+     * Ejecución programada ({@code app.archive.interval}).
+     */
+    @Scheduled(initialDelayString = "${app.archive.initial-delay:10m}",
+               fixedDelayString = "${app.archive.interval:1h}")
+    public void scheduledRun() {
+        if (properties.isEnabled()) {
+            run();
+        }
+    }
+
+    /**
+     * Archiva todas las tablas hasta terminar sus pasadas. Si ya hay una ejecución en curso en
+     * esta instancia, vuelve sin hacer nada.
+     *
+     * @return Las filas archivadas por tabla.
+     */
+    public Map<String, Long> run() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        if (!running.compareAndSet(false, true)) {
+            return result;
+        }
+        try {
+            for (ArchivedTable table : ArchivedTable.values()) {
+                long moved = archive(table);
+                result.put(table.name(), moved);
+                if (moved > 0) {
+                    log.info("Archivado: {} filas de {} movidas al archivo", moved, table.name());
+                }
+            }
+        } finally {
+            running.set(false);
+        }
+        return result;
+    }
+
+    /**
+     * @return El avance de cada tabla.
+     */
+    public List<Progress> status() {
+        return repo.progressAll();
+    }
+
+    /**
+     * Interrumpe la ejecución en curso al terminar su tramo actual.
+     */
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+    }
+
+    // -------------------------------------------------------------------------
+    // Utilidades internas
+    // -------------------------------------------------------------------------
+
+    private long archive(ArchivedTable table) {
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        long total = 0;
+        while (!stopping) {
+            Step step;
+            try {
+                step = tx.execute(status -> {
+                    Progress progress = repo.progress(table);
+                    Timestamp now = new Timestamp(System.currentTimeMillis());
+                    Timestamp corte = progress.ultimoId() == 0 || progress.corte() == null
+                            ? new Timestamp(now.getTime() - properties.getRetention().toMillis())
+                            : progress.corte();
+                    Chunk chunk = repo.moveChunk(table, progress.ultimoId(), corte, chunkSize, now);
+                    boolean done = chunk.scanned() < chunkSize;
+                    if (!repo.advance(table, progress.ultimoId(), done ? 0 : chunk.lastId(), done ? null : corte,
+                            chunk.moved().size(), now)) {
+                        status.setRollbackOnly();
+                        return null;
+                    }
+                    if (table == ArchivedTable.CATEGORIAS) {
+                        // El catálogo en memoria guarda también las categorías desactivadas
+                        chunk.moved().forEach(id -> events.publishEvent(CatalogChangedEvent.category(id)));
+                    } else if (table == ArchivedTable.PRODUCTOS) {
+                        // Los códigos de barras se borran en cascada; el índice en memoria debe liberarlos
+                        chunk.moved().forEach(id -> events.publishEvent(CatalogChangedEvent.product(id)));
+                    }
+                    return new Step(chunk.moved().size(), done);
+                });
+            } catch (RuntimeException e) {
+                // Tiempo agotado esperando bloqueos o conflicto: se reintenta en la próxima ejecución
+                log.warn("Archivado de {} interrumpido: {}", table.name(), e.getMessage());
+                break;
+            }
+            if (step == null) {
+                log.info("Archivado de {} en curso en otra instancia", table.name());
+                break;
+            }
+            total += step.moved();
+            archived.get(table).increment(step.moved());
+            if (table == ArchivedTable.CATEGORIAS && step.moved() > 0) {
+                // Las filas se borraron por JDBC: la caché de segundo nivel no se enteró
+                emf.getCache().evict(Category.class);
+                emf.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+            }
+            if (step.done()) {
+                break;
+            }
+            pause();
+        }
+        return total;
+    }
+
+    private void pause() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(properties.getPause().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopping = true;
+        }
+    }
+
+    private record Step(int moved, boolean done) {
+    }
+}
@@ -0,0 +1,156 @@
+package com.mposglobal.backoffice.service;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mposglobal.backoffice.config.AuditProperties;
+import com.mposglobal.backoffice.dto.AuditResponse;
+import com.mposglobal.backoffice.repository.AuditRepository;
+import com.mposglobal.backoffice.repository.AuditRepository.Entry;
+import com.mposglobal.backoffice.util.Constant;
+import com.mposglobal.backoffice.util.TransactionBuffer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Servicio de auditoría de cambios sobre usuarios, categorías y productos.
+ * <p>
+ * Los servicios de negocio llaman a {@link #record} con el estado anterior y el nuevo de cada
+ * registro modificado. El diff y el usuario autenticado se toman en el momento; los registros se
+ * entregan al {@link AuditWriter} al confirmarse la transacción (un cambio revertido no se
+ * audita) y se insertan en segundo plano, sin sumar latencia a la escritura.
+ * </p>
+ */
+@Service
+public class AuditService {
+
+    public static final String USUARIO = "USUARIO";
+    public static final String CATEGORIA = "CATEGORIA";
+    public static final String PRODUCTO = "PRODUCTO";
+
+    public static final String CREAR = "CREAR";
+    public static final String ACTUALIZAR = "ACTUALIZAR";
+    public static final String DESACTIVAR = "DESACTIVAR";
+
+    /**
+     * Valor registrado en lugar de un dato sensible (la clave) que cambió.
+     */
+    public static final String MASKED = "********";
+
+    private final AuditRepository repo;
+    private final ObjectMapper mapper;
+    private final boolean enabled;
+    private final TransactionBuffer<Entry> pending;
+
+    /**
+     * Constructor que inyecta el escritor, el repositorio, Jackson y la configuración.
+     *
+     * @param writer El escritor en segundo plano.
+     * @param repo El repositorio de auditoría (consultas).
+     * @param mapper El {@code ObjectMapper} de la aplicación, para serializar los cambios.
+     * @param properties La configuración de la auditoría.
+     */
+    public AuditService(AuditWriter writer, AuditRepository repo, ObjectMapper mapper, AuditProperties properties) {
+        this.repo = repo;
+        this.mapper = mapper;
+        this.enabled = properties.isEnabled();
+        this.pending = new TransactionBuffer<>(TransactionBuffer.Phase.AFTER_COMMIT,
+                entries -> entries.forEach(writer::submit));
+    }
+
+    /**
+     * Registra un cambio. Solo se guardan los campos de {@code after} cuyo valor difiere del de
+     * {@code before}; una actualización sin diferencias no se registra.
+     *
+     * @param entidad El tipo de registro ({@link #USUARIO}, {@link #CATEGORIA}, {@link #PRODUCTO}).
+     * @param entidadId El ID del registro.
+     * @param accion La acción ({@link #CREAR}, {@link #ACTUALIZAR}, {@link #DESACTIVAR}).
+     * @param before El estado anterior, o {@code null} en un alta.
+     * @param after El estado nuevo de los campos escritos.
+     */
+    public void record(String entidad, Long entidadId, String accion, Map<String, Object> before,
+                       Map<String, Object> after) {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Map<String, Object>> changes = new LinkedHashMap<>();
+        after.forEach((field, value) -> {
+            Object previous = before == null ? null : before.get(field);
+            if (before == null || !Objects.equals(previous, value)) {
+                Map<String, Object> change = new LinkedHashMap<>(2);
+                change.put("antes", previous);
+                change.put("despues", value);
+                changes.put(field, change);
+            }
+        });
+        if (changes.isEmpty()) {
+            return;
+        }
+        pending.add(new Entry(entidad, entidadId, accion, currentUser(), toJson(changes), System.currentTimeMillis()));
+    }
+
+    /**
+     * Obtiene una página de registros de auditoría, del más reciente al más antiguo.
+     * <p>
+     * Se piden {@code size + 1} filas para saber si hay una página siguiente sin un {@code COUNT}.
+     * Los registros aparecen unos instantes después del commit del cambio.
+     * </p>
+     *
+     * @param before El último ID recibido (cursor), o {@code null} para la primera página.
+     * @param size El tamaño de página (se acota a {@code [1, MAX_PAGE_SIZE]}).
+     * @param entidad El tipo de registro a filtrar, o {@code null}.
+     * @param entidadId El ID del registro a filtrar (requiere {@code entidad}), o {@code null}.
+     * @param usuario El usuario a filtrar, o {@code null}.
+     * @return La página solicitada y el cursor de la siguiente.
+     */
+    @Transactional(readOnly = true)
+    public AuditPage findPage(Long before, int size, String entidad, Long entidadId, String usuario) {
+        int pageSize = Math.max(1, Math.min(size, Constant.MAX_PAGE_SIZE));
+        String tipo = entidad == null || entidad.isBlank() ? null : entidad.toUpperCase(Locale.ROOT);
+        if (tipo == null && entidadId != null) {
+            throw new IllegalArgumentException(Constant.ERROR_AUDIT_FILTER);
+        }
+        String quien = usuario == null || usuario.isBlank() ? null : usuario;
+
+        List<AuditResponse> rows = repo.findPage(before, tipo, entidadId, quien, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new AuditPage(rows, null);
+        }
+        List<AuditResponse> page = rows.subList(0, pageSize);
+        return new AuditPage(page, page.get(pageSize - 1).getId());
+    }
+
+    /**
+     * Una página de registros de auditoría y el cursor para pedir la siguiente.
+     *
+     * @param items Los registros de la página.
+     * @param nextCursor El ID a enviar como {@code before}, o {@code null} si no hay más.
+     */
+    public record AuditPage(List<AuditResponse> items, Long nextCursor) {
+    }
+
+    // -------------------------------------------------------------------------
+    // Utilidades internas
+    // -------------------------------------------------------------------------
+
+    private String toJson(Map<String, Map<String, Object>> changes) {
+        try {
+            return mapper.writeValueAsString(changes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String currentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth == null ? null : auth.getName();
+    }
+}
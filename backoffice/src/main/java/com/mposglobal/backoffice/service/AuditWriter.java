@@ -0,0 +1,292 @@
+package com.mposglobal.backoffice.service;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mposglobal.backoffice.config.AuditProperties;
+import com.mposglobal.backoffice.repository.AuditRepository;
+import com.mposglobal.backoffice.repository.AuditRepository.Entry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escritor en segundo plano de los registros de auditoría.
+ * <p>
+ * {@link #submit(Entry)} deja el registro en una cola acotada y vuelve; un único hilo la vacía
+ * en lotes JDBC, así que una escritura de negocio no espera ninguna inserción de auditoría.
+ * </p>
+ * <p>
+ * Contrapresión: si la cola está llena, quien registra espera hasta {@code offerTimeout} y luego
+ * agrega el registro al archivo de desborde (una línea JSON, forzada a disco). Si una inserción
+ * falla, el lote va al archivo y durante {@code retryDelay} los lotes siguientes también, sin
+ * volver a intentar contra la base. Cuando la cola queda vacía el hilo reinserta el archivo; si
+ * falla a mitad, reescribe solo las líneas pendientes. La entrega es al menos una vez: una caída
+ * del proceso durante un lote del archivo puede duplicar ese lote.
+ * </p>
+ */
+@Component
+@EnableConfigurationProperties(AuditProperties.class)
+public class AuditWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditWriter.class);
+
+    private final AuditRepository repo;
+    private final ObjectMapper mapper;
+    private final AuditProperties properties;
+    private final BlockingQueue<Entry> queue;
+    private final ExecutorService worker;
+    private final Path spillFile;
+    private final Path replayFile;
+    private final Object spillLock = new Object();
+    private final Counter written;
+    private final Counter spilled;
+    private final Counter lost;
+
+    private volatile boolean running = true;
+    private volatile boolean spillPending;
+    private long retryAt;
+
+    /**
+     * Constructor que inyecta el repositorio, Jackson, la configuración y el registro de métricas,
+     * e inicia el hilo escritor.
+     *
+     * @param repo El repositorio de auditoría.
+     * @param mapper El {@code ObjectMapper} de la aplicación, para el archivo de desborde.
+     * @param properties La configuración de la auditoría.
+     * @param registry El registro de métricas.
+     */
+    public AuditWriter(AuditRepository repo, ObjectMapper mapper, AuditProperties properties,
+                       MeterRegistry registry) {
+        this.repo = repo;
+        this.mapper = mapper;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+        this.spillFile = properties.getSpillFile();
+        this.replayFile = spillFile.resolveSibling(spillFile.getFileName() + ".replay");
+        this.spillPending = Files.exists(spillFile) || Files.exists(replayFile);
+        this.written = Counter.builder("audit.written").register(registry);
+        this.spilled = Counter.builder("audit.spilled").register(registry);
+        this.lost = Counter.builder("audit.lost").register(registry);
+        Gauge.builder("audit.queue.size", queue, BlockingQueue::size).register(registry);
+        this.worker = Executors.newSingleThreadExecutor(r -> new Thread(r, "audit-writer"));
+        this.worker.execute(this::drain);
+    }
+
+    /**
+     * Encola un registro; si la cola sigue llena después de {@code offerTimeout}, lo guarda en el
+     * archivo de desborde.
+     *
+     * @param entry El registro.
+     */
+    public void submit(Entry entry) {
+        try {
+            if (running && queue.offer(entry, properties.getOfferTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        spill(List.of(entry));
+    }
+
+    /**
+     * Termina de escribir lo que queda en la cola y detiene el hilo; lo que no alcance a
+     * escribirse queda en el archivo de desborde.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        worker.shutdown();
+        try {
+            if (!worker.awaitTermination(10, TimeUnit.SECONDS)) {
+                worker.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            worker.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        List<Entry> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            spill(rest);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Hilo escritor
+    // -------------------------------------------------------------------------
+
+    private void drain() {
+        int batchSize = Math.max(1, properties.getBatchSize());
+        long flushMillis = Math.max(1, properties.getFlushInterval().toMillis());
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            Entry first;
+            try {
+                first = queue.poll(flushMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (first == null) {
+                if (running && spillPending && System.currentTimeMillis() >= retryAt) {
+                    replaySpill(batchSize);
+                }
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, batchSize - 1);
+            if (System.currentTimeMillis() < retryAt || !insert(batch)) {
+                spill(batch);
+            }
+            batch.clear();
+        }
+    }
+
+    private boolean insert(List<Entry> batch) {
+        try {
+            repo.insertAll(batch);
+            written.increment(batch.size());
+            return true;
+        } catch (RuntimeException e) {
+            retryAt = System.currentTimeMillis() + properties.getRetryDelay().toMillis();
+            log.warn("Auditoria: fallo la insercion de {} registros, se reintenta en {}: {}",
+                    batch.size(), properties.getRetryDelay(), e.getMessage());
+            return false;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Archivo de desborde
+    // -------------------------------------------------------------------------
+
+    private void spill(List<Entry> entries) {
+        synchronized (spillLock) {
+            try (FileChannel channel = FileChannel.open(spillFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                StringBuilder lines = new StringBuilder(entries.size() * 256);
+                for (Entry entry : entries) {
+                    lines.append(mapper.writeValueAsString(entry)).append('\n');
+                }
+                ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(false);
+                spillPending = true;
+                spilled.increment(entries.size());
+            } catch (IOException | UncheckedIOException e) {
+                lost.increment(entries.size());
+                log.error("Auditoria: se perdieron {} registros, no se pudo escribir {}", entries.size(), spillFile, e);
+            }
+        }
+    }
+
+    /**
+     * Reinserta el archivo de desborde por lotes. El archivo se renombra antes de leerlo, así que
+     * los desbordes que ocurran mientras tanto van a un archivo nuevo.
+     */
+    private void replaySpill(int batchSize) {
+        try {
+            synchronized (spillLock) {
+                if (!Files.exists(replayFile)) {
+                    if (!Files.exists(spillFile)) {
+                        spillPending = false;
+                        return;
+                    }
+                    Files.move(spillFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            Path pending = Path.of(replayFile + ".tmp");
+            long replayed = 0;
+            boolean complete = true;
+            try (BufferedReader in = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8)) {
+                List<Entry> batch = new ArrayList<>(batchSize);
+                List<String> lines = new ArrayList<>(batchSize);
+                String line;
+                while ((line = in.readLine()) != null || !batch.isEmpty()) {
+                    if (line != null) {
+                        Entry entry = parse(line);
+                        if (entry != null) {
+                            batch.add(entry);
+                            lines.add(line);
+                        }
+                        if (batch.size() < batchSize) {
+                            continue;
+                        }
+                    }
+                    if (!insert(batch)) {
+                        keepPending(pending, lines, in);
+                        complete = false;
+                        break;
+                    }
+                    replayed += batch.size();
+                    batch.clear();
+                    lines.clear();
+                    if (line == null) {
+                        break;
+                    }
+                }
+            }
+            if (complete) {
+                Files.delete(replayFile);
+            } else {
+                Files.move(pending, replayFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (replayed > 0) {
+                log.info("Auditoria: {} registros recuperados del archivo de desborde", replayed);
+            }
+        } catch (IOException e) {
+            retryAt = System.currentTimeMillis() + properties.getRetryDelay().toMillis();
+            log.warn("Auditoria: no se pudo leer el archivo de desborde {}", replayFile, e);
+        }
+    }
+
+    private Entry parse(String line) {
+        if (line.isBlank()) {
+            return null;
+        }
+        try {
+            return mapper.readValue(line, Entry.class);
+        } catch (IOException e) {
+            // Línea truncada por una caída durante la escritura
+            log.warn("Auditoria: linea invalida en el archivo de desborde descartada: {}", line);
+            return null;
+        }
+    }
+
+    private static void keepPending(Path pending, List<String> lines, BufferedReader rest) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(pending, StandardCharsets.UTF_8)) {
+            for (String line : lines) {
+                out.write(line);
+                out.newLine();
+            }
+            rest.transferTo(out);
+        }
+    }
+}
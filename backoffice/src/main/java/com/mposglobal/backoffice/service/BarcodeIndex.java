@@ -0,0 +1,197 @@
+package com.mposglobal.backoffice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.mposglobal.backoffice.config.CatalogProperties;
+import com.mposglobal.backoffice.event.CatalogChangedEvent;
+import com.mposglobal.backoffice.repository.BarcodeRepository;
+import com.mposglobal.backoffice.util.BarcodeUtil;
+import com.mposglobal.backoffice.util.collections.LongLongHashMap;
+import com.mposglobal.backoffice.util.collections.LongObjectHashMap;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Arrays;
+
+/**
+ * Índice en memoria código de barras → producto, para las lecturas de los puntos de venta.
+ * <p>
+ * Las claves son los códigos normalizados como {@code long} y los valores los IDs de producto,
+ * en mapas {@link LongLongHashMap} de direccionamiento abierto (sin objetos por entrada). El
+ * índice se reparte en {@value #SHARDS} fragmentos según los bits altos de la clave mezclada;
+ * los fragmentos publicados no se modifican nunca, así que una búsqueda es una lectura
+ * {@code volatile} más una búsqueda en un mapa, sin bloqueo.
+ * </p>
+ * <ul>
+ *   <li><b>Carga completa:</b> al terminar el arranque, recorriendo {@code CodigosBarra} fila
+ *   por fila sin materializarla.</li>
+ *   <li><b>Cambios incrementales:</b> tras el commit de cada {@link CatalogChangedEvent} de
+ *   producto se releen los códigos de ese producto y se publica un arreglo de fragmentos nuevo
+ *   en el que solo se copiaron los fragmentos afectados.</li>
+ *   <li><b>Verificación:</b> si la cantidad de códigos difiere de la base en dos verificaciones
+ *   seguidas, o si falló la aplicación de un cambio, se recarga todo.</li>
+ * </ul>
+ * <p>
+ * Mientras no termina la primera carga, {@link #isReady()} es {@code false} y las búsquedas
+ * deben ir a la base. Sigue el interruptor {@code app.catalog.enabled} del catálogo en memoria.
+ * </p>
+ */
+@Component
+public class BarcodeIndex extends ReloadableIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(BarcodeIndex.class);
+
+    private static final int SHARD_BITS = 6;
+    private static final int SHARDS = 1 << SHARD_BITS;
+
+    private final BarcodeRepository repo;
+    private final Timer reloadTimer;
+
+    private volatile LongLongHashMap[] shards = emptyShards(0);
+
+    // Códigos de cada producto (ordenados); solo lo usan las escrituras, que están sincronizadas
+    private LongObjectHashMap<long[]> byProduct = new LongObjectHashMap<>(0);
+
+    /**
+     * Constructor que inyecta el repositorio, la configuración del catálogo y el registro de métricas.
+     *
+     * @param repo El repositorio de códigos de barras.
+     * @param properties La configuración del catálogo en memoria.
+     * @param registry El registro de métricas.
+     */
+    public BarcodeIndex(BarcodeRepository repo, CatalogProperties properties, MeterRegistry registry) {
+        super("Indice de codigos de barras", properties);
+        this.repo = repo;
+        this.reloadTimer = Timer.builder("barcodes.reload").register(registry);
+        Gauge.builder("barcodes.size", this, BarcodeIndex::size).register(registry);
+    }
+
+    // -------------------------------------------------------------------------
+    // Lecturas (sin bloqueo)
+    // -------------------------------------------------------------------------
+
+    /**
+     * @param key El código normalizado, como número ({@link BarcodeUtil#toKey(String)}).
+     * @return El ID del producto, o {@code 0} si el código no está registrado.
+     */
+    public long productId(long key) {
+        return shards[shardOf(key)].getOrDefault(key, 0);
+    }
+
+    /**
+     * @return La cantidad de códigos en el índice.
+     */
+    public long size() {
+        long size = 0;
+        for (LongLongHashMap shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    // -------------------------------------------------------------------------
+    // Escrituras
+    // -------------------------------------------------------------------------
+
+    @Override
+    protected void load() {
+        reloadTimer.record(() -> {
+            int expected = (int) Math.min(repo.count(), Integer.MAX_VALUE / 2);
+            LongLongHashMap[] next = emptyShards(expected / SHARDS);
+            LongObjectHashMap<long[]> products = new LongObjectHashMap<>(expected);
+            repo.forEach((codigo, productoId) -> {
+                long key = BarcodeUtil.toKey(codigo);
+                next[shardOf(key)].put(key, productoId);
+                long[] codes = products.get(productoId);
+                products.put(productoId, codes == null ? new long[] {key} : append(codes, key));
+            });
+            products.forEach((productoId, codes) -> Arrays.sort(codes));
+            shards = next;
+            byProduct = products;
+        });
+        log.info("Indice de codigos de barras cargado: {} codigos", size());
+    }
+
+    @Override
+    protected void apply(CatalogChangedEvent event) {
+        if (event.type() == CatalogChangedEvent.Type.PRODUCT) {
+            refresh(event.id());
+        }
+    }
+
+    @Override
+    protected boolean matchesDatabase() {
+        return size() == repo.count();
+    }
+
+    // -------------------------------------------------------------------------
+    // Utilidades internas
+    // -------------------------------------------------------------------------
+
+    private synchronized void refresh(long productId) {
+        try {
+            long[] current = repo.findByProduct(productId).stream().mapToLong(BarcodeUtil::toKey).toArray();
+            long[] previous = byProduct.get(productId);
+            if (Arrays.equals(previous == null ? new long[0] : previous, current)) {
+                return;
+            }
+            LongLongHashMap[] published = shards;
+            LongLongHashMap[] next = published.clone();
+            if (previous != null) {
+                for (long key : previous) {
+                    LongLongHashMap shard = writable(next, published, shardOf(key));
+                    // El código pudo pasar a otro producto cuyo cambio ya se aplicó
+                    if (shard.getOrDefault(key, 0) == productId) {
+                        shard.remove(key);
+                    }
+                }
+            }
+            for (long key : current) {
+                writable(next, published, shardOf(key)).put(key, productId);
+            }
+            shards = next;
+            if (current.length == 0) {
+                byProduct.remove(productId);
+            } else {
+                byProduct.put(productId, current);
+            }
+        } catch (RuntimeException e) {
+            applyFailed("los codigos de barras del producto " + productId, e);
+        }
+    }
+
+    /**
+     * Copia el fragmento la primera vez que se modifica en esta escritura.
+     */
+    private static LongLongHashMap writable(LongLongHashMap[] next, LongLongHashMap[] published, int shard) {
+        if (next[shard] == published[shard]) {
+            next[shard] = published[shard].copy();
+        }
+        return next[shard];
+    }
+
+    private static LongLongHashMap[] emptyShards(int expectedPerShard) {
+        LongLongHashMap[] empty = new LongLongHashMap[SHARDS];
+        for (int i = 0; i < SHARDS; i++) {
+            empty[i] = new LongLongHashMap(expectedPerShard);
+        }
+        return empty;
+    }
+
+    private static long[] append(long[] codes, long key) {
+        long[] grown = Arrays.copyOf(codes, codes.length + 1);
+        grown[codes.length] = key;
+        return grown;
+    }
+
+    /**
+     * Fragmento de una clave: los bits altos de la clave mezclada (los mapas usan los bajos).
+     */
+    private static int shardOf(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - SHARD_BITS));
+    }
+}
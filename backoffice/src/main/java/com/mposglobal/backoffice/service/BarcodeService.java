@@ -0,0 +1,111 @@
+package com.mposglobal.backoffice.service;
+
+import org.springframework.stereotype.Service;
+
+import com.mposglobal.backoffice.dto.ProductResponse;
+import com.mposglobal.backoffice.repository.BarcodeRepository;
+import com.mposglobal.backoffice.util.BarcodeUtil;
+import com.mposglobal.backoffice.util.Constant;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Búsqueda de productos por código de barras para los puntos de venta.
+ * <p>
+ * El código se resuelve con {@link BarcodeIndex} y el producto con {@link CatalogStore}, ambos en
+ * memoria, así que un escaneo no toca la base. Mientras alguno de los dos no terminó su primera
+ * carga se consulta la base. Solo se devuelven productos activos.
+ * </p>
+ */
+@Service
+public class BarcodeService {
+
+    private final BarcodeIndex index;
+    private final BarcodeRepository repo;
+    private final CatalogStore catalog;
+    private final ProductService products;
+
+    /**
+     * Constructor que inyecta el índice, el repositorio, el catálogo y el servicio de productos.
+     *
+     * @param index El índice en memoria de códigos de barras.
+     * @param repo El repositorio de códigos de barras (mientras el índice no está listo).
+     * @param catalog El catálogo en memoria.
+     * @param products El servicio de productos (mientras el catálogo no está listo).
+     */
+    public BarcodeService(BarcodeIndex index, BarcodeRepository repo, CatalogStore catalog,
+                          ProductService products) {
+        this.index = index;
+        this.repo = repo;
+        this.catalog = catalog;
+        this.products = products;
+    }
+
+    /**
+     * Busca el producto activo de un código.
+     *
+     * @param code El código leído (EAN-8, UPC-A, EAN-13 o GTIN-14).
+     * @return El producto.
+     * @throws IllegalArgumentException Si el código no es un GTIN válido.
+     * @throws RuntimeException Si ningún producto activo tiene ese código.
+     */
+    public ProductResponse find(String code) {
+        ProductResponse found = product(owner(BarcodeUtil.normalize(code)));
+        if (found == null) {
+            throw new RuntimeException(Constant.ERROR_NOFOUND_BARCODE + code);
+        }
+        return found;
+    }
+
+    /**
+     * Busca los productos de varios códigos a la vez (una canasta completa).
+     * <p>
+     * Un código inválido o sin producto activo no hace fallar la consulta: aparece con
+     * {@code null}, para que la caja lo marque sin perder el resto.
+     * </p>
+     *
+     * @param codes Los códigos leídos; los repetidos se devuelven una vez.
+     * @return El producto de cada código, con las claves tal como llegaron y en el mismo orden.
+     * @throws IllegalArgumentException Si la lista está vacía o supera {@link Constant#MAX_BARCODE_LOOKUP}.
+     */
+    public Map<String, ProductResponse> findAll(List<String> codes) {
+        if (codes == null || codes.isEmpty() || codes.size() > Constant.MAX_BARCODE_LOOKUP) {
+            throw new IllegalArgumentException(Constant.ERROR_BARCODE_LOOKUP_SIZE + Constant.MAX_BARCODE_LOOKUP);
+        }
+        Map<String, String> normalized = new LinkedHashMap<>();
+        for (String code : codes) {
+            try {
+                normalized.put(code, BarcodeUtil.normalize(code));
+            } catch (IllegalArgumentException e) {
+                normalized.put(code, null);
+            }
+        }
+        // Sin el índice, una sola consulta para toda la canasta
+        Map<String, Long> owners = index.isReady()
+                ? null
+                : repo.findOwners(normalized.values().stream().filter(c -> c != null).distinct().toList());
+
+        Map<String, ProductResponse> found = new LinkedHashMap<>();
+        normalized.forEach((code, gtin) -> {
+            long owner = gtin == null ? 0 : owners == null ? owner(gtin) : owners.getOrDefault(gtin, 0L);
+            found.put(code, product(owner));
+        });
+        return found;
+    }
+
+    private long owner(String gtin) {
+        if (index.isReady()) {
+            return index.productId(BarcodeUtil.toKey(gtin));
+        }
+        return repo.findOwners(List.of(gtin)).getOrDefault(gtin, 0L);
+    }
+
+    private ProductResponse product(long id) {
+        if (id == 0) {
+            return null;
+        }
+        return catalog.isReady() ? catalog.product(id) : products.findActiveById(id).orElse(null);
+    }
+}
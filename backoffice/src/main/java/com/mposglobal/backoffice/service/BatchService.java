@@ -0,0 +1,305 @@
+package com.mposglobal.backoffice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mposglobal.backoffice.dto.BatchOperation;
+import com.mposglobal.backoffice.dto.BatchRequest;
+import com.mposglobal.backoffice.dto.BatchResult;
+import com.mposglobal.backoffice.dto.CategoryRequest;
+import com.mposglobal.backoffice.dto.CategoryResponse;
+import com.mposglobal.backoffice.dto.ProductRequest;
+import com.mposglobal.backoffice.dto.ProductResponse;
+import com.mposglobal.backoffice.dto.UserRequest;
+import com.mposglobal.backoffice.dto.UserResponse;
+import com.mposglobal.backoffice.exceptions.PreconditionFailedException;
+import com.mposglobal.backoffice.util.Constant;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Servicio que ejecuta lotes de operaciones ({@code POST /batch}).
+ * <p>
+ * Cada operación se despacha directamente a {@link ProductService}, {@link CategoryService} o
+ * {@link UserService}, sin pasar de nuevo por la cadena de filtros HTTP (JWT, log de
+ * solicitudes). En modo atómico todas las operaciones comparten una transacción (un solo
+ * commit) y una falla revierte todo. En modo no atómico cada operación se confirma en su
+ * propia transacción y el lote continúa ante errores.
+ * </p>
+ * <p>
+ * Las sentencias no se agrupan en lotes JDBC: los IDs son {@code IDENTITY}, así que cada alta
+ * se inserta en el momento, y las modificaciones son {@code UPDATE} condicionados que se
+ * ejecutan al instante para saber si la versión coincidía. El ahorro está en los viajes de red,
+ * los filtros y los commits, no en la cantidad de sentencias.
+ * </p>
+ */
+@Service
+public class BatchService {
+
+    private final ProductService productService;
+    private final CategoryService categoryService;
+    private final UserService userService;
+    private final TransactionTemplate tx;
+    private final ObjectMapper mapper;
+    private final int maxOperations;
+
+    /**
+     * Constructor para inyectar los servicios de dominio y la infraestructura transaccional.
+     *
+     * @param productService El servicio de productos.
+     * @param categoryService El servicio de categorías.
+     * @param userService El servicio de usuarios.
+     * @param txManager El administrador de transacciones.
+     * @param mapper El {@code ObjectMapper} para convertir los cuerpos a los DTOs de solicitud.
+     * @param maxOperations Número máximo de operaciones por lote.
+     */
+    public BatchService(ProductService productService, CategoryService categoryService, UserService userService,
+                        PlatformTransactionManager txManager, ObjectMapper mapper,
+                        @Value("${app.batch.max-operations:100}") int maxOperations) {
+        this.productService = productService;
+        this.categoryService = categoryService;
+        this.userService = userService;
+        this.tx = new TransactionTemplate(txManager);
+        this.mapper = mapper;
+        this.maxOperations = maxOperations;
+    }
+
+    /**
+     * Ejecuta las operaciones del lote en orden.
+     *
+     * @param request El lote de operaciones.
+     * @return Un resultado por operación, en el mismo orden.
+     * @throws RuntimeException Si el lote está vacío o excede el máximo de operaciones.
+     */
+    public List<BatchResult> execute(BatchRequest request) {
+        List<BatchOperation> ops = request.getOperations();
+        if (ops == null || ops.isEmpty() || ops.size() > maxOperations) {
+            throw new RuntimeException(Constant.ERROR_BATCH_SIZE + maxOperations);
+        }
+        return request.isAtomic() ? executeAtomic(ops) : executeEach(ops);
+    }
+
+    // -------------------------------------------------------------------------
+    // Modos de ejecución
+    // -------------------------------------------------------------------------
+
+    /**
+     * Ejecuta todo el lote en una sola transacción; la primera falla revierte el lote completo.
+     */
+    private List<BatchResult> executeAtomic(List<BatchOperation> ops) {
+        List<BatchResult> results = new ArrayList<>(ops.size());
+        try {
+            tx.executeWithoutResult(status -> {
+                for (int i = 0; i < ops.size(); i++) {
+                    try {
+                        results.add(ok(i, dispatch(ops.get(i), results)));
+                    } catch (RuntimeException e) {
+                        throw new BatchAbortedException(i, e);
+                    }
+                }
+                // Lo que quede pendiente en el contexto de persistencia falla aquí, dentro del lote
+                status.flush();
+            });
+            return results;
+        } catch (BatchAbortedException e) {
+            return abortedResults(ops.size(), e.index, failure(e.index, e.getCause()));
+        } catch (RuntimeException e) {
+            // Falla al confirmar: no se puede atribuir a una operación concreta
+            List<BatchResult> failed = new ArrayList<>(ops.size());
+            for (int i = 0; i < ops.size(); i++) {
+                failed.add(failure(i, e));
+            }
+            return failed;
+        }
+    }
+
+    /**
+     * Ejecuta cada operación en su propia transacción; las fallas no detienen el lote.
+     */
+    private List<BatchResult> executeEach(List<BatchOperation> ops) {
+        List<BatchResult> results = new ArrayList<>(ops.size());
+        for (int i = 0; i < ops.size(); i++) {
+            BatchOperation op = ops.get(i);
+            try {
+                results.add(ok(i, tx.execute(status -> dispatch(op, results))));
+            } catch (RuntimeException e) {
+                results.add(failure(i, e));
+            }
+        }
+        return results;
+    }
+
+    // -------------------------------------------------------------------------
+    // Despacho de operaciones
+    // -------------------------------------------------------------------------
+
+    /**
+     * Ejecuta una operación sobre el servicio correspondiente.
+     *
+     * @param op La operación.
+     * @param previous Los resultados de las operaciones anteriores, para resolver referencias {@code "$n"}.
+     * @return La respuesta del servicio ({@code null} para {@code deactivate}).
+     */
+    private Object dispatch(BatchOperation op, List<BatchResult> previous) {
+        String action = String.valueOf(op.getAction());
+        Map<String, Object> body = resolveBody(op.getBody(), previous);
+        Long id = "create".equals(action) ? null : resolveId(op.getId(), previous);
+
+        switch (String.valueOf(op.getResource())) {
+            case "products":
+                switch (action) {
+                    case "create": return productService.create(mapper.convertValue(body, ProductRequest.class));
+                    case "update": return productService.update(id, mapper.convertValue(body, ProductRequest.class), op.getVersion());
+                    case "patch": return productService.patch(id, body, op.getVersion());
+                    case "deactivate": productService.deactivate(id); return null;
+                    default: break;
+                }
+                break;
+            case "categories":
+                switch (action) {
+                    case "create": return categoryService.create(mapper.convertValue(body, CategoryRequest.class));
+                    case "update": return categoryService.update(id, mapper.convertValue(body, CategoryRequest.class), op.getVersion());
+                    case "patch": return categoryService.patch(id, body, op.getVersion());
+                    case "deactivate": categoryService.deactivate(id); return null;
+                    default: break;
+                }
+                break;
+            case "users":
+                requireAdmin();
+                switch (action) {
+                    case "create": return userService.create(mapper.convertValue(body, UserRequest.class));
+                    case "update":
+                        UserRequest request = mapper.convertValue(body, UserRequest.class);
+                        request.setId(id);
+                        return userService.update(request, op.getVersion());
+                    case "patch": return userService.patch(id, body, op.getVersion());
+                    case "deactivate": userService.softDeactivate(id); return null;
+                    default: break;
+                }
+                break;
+            default:
+                break;
+        }
+        throw new RuntimeException(Constant.ERROR_BATCH_OPERATION + op.getResource() + " " + op.getAction());
+    }
+
+    /**
+     * Las operaciones sobre usuarios exigen el mismo rol que {@code /users/**}.
+     */
+    private static void requireAdmin() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        boolean admin = auth != null && auth.getAuthorities().stream()
+                .anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+        if (!admin) {
+            throw new AccessDeniedException(Constant.ERROR_BATCH_FORBIDDEN);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Referencias "$n" entre operaciones
+    // -------------------------------------------------------------------------
+
+    private Map<String, Object> resolveBody(Map<String, Object> body, List<BatchResult> previous) {
+        Map<String, Object> resolved = new LinkedHashMap<>();
+        if (body != null) {
+            body.forEach((k, v) -> resolved.put(k, isReference(v) ? resolveId((String) v, previous) : v));
+        }
+        return resolved;
+    }
+
+    private static boolean isReference(Object value) {
+        return value instanceof String s && s.matches("\\$\\d+");
+    }
+
+    private static Long resolveId(String id, List<BatchResult> previous) {
+        if (id == null) {
+            throw new RuntimeException(Constant.ERROR_BATCH_REFERENCE + null);
+        }
+        if (!isReference(id)) {
+            try {
+                return Long.valueOf(id);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException(Constant.ERROR_BATCH_REFERENCE + id);
+            }
+        }
+        int index = Integer.parseInt(id.substring(1));
+        Long ref = index < previous.size() ? idOf(previous.get(index).getBody()) : null;
+        if (ref == null) {
+            throw new RuntimeException(Constant.ERROR_BATCH_REFERENCE + id);
+        }
+        return ref;
+    }
+
+    private static Long idOf(Object response) {
+        if (response instanceof ProductResponse p) {
+            return p.getId();
+        }
+        if (response instanceof CategoryResponse c) {
+            return c.getId();
+        }
+        if (response instanceof UserResponse u) {
+            return u.getId();
+        }
+        return null;
+    }
+
+    // -------------------------------------------------------------------------
+    // Construcción de resultados
+    // -------------------------------------------------------------------------
+
+    private static BatchResult ok(int index, Object body) {
+        return new BatchResult(index, HttpStatus.OK.value(), body, null);
+    }
+
+    /**
+     * Traduce una excepción al mismo código y mensaje que daría {@code GlobalExceptionHandler}.
+     */
+    private static BatchResult failure(int index, Throwable e) {
+        if (e instanceof PreconditionFailedException) {
+            return new BatchResult(index, HttpStatus.PRECONDITION_FAILED.value(), null, e.getMessage());
+        }
+        if (e instanceof ObjectOptimisticLockingFailureException) {
+            return new BatchResult(index, HttpStatus.CONFLICT.value(), null, Constant.ERROR_CONFLICT);
+        }
+        if (e instanceof AccessDeniedException) {
+            return new BatchResult(index, HttpStatus.UNAUTHORIZED.value(), null, e.getMessage());
+        }
+        return new BatchResult(index, HttpStatus.BAD_REQUEST.value(), null, Constant.ERROR_CUSTOM + e.getMessage());
+    }
+
+    private static List<BatchResult> abortedResults(int size, int failedIndex, BatchResult failed) {
+        List<BatchResult> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            results.add(i == failedIndex ? failed
+                    : new BatchResult(i, HttpStatus.FAILED_DEPENDENCY.value(), null, Constant.ERROR_BATCH_ABORTED + failedIndex));
+        }
+        return results;
+    }
+
+    /**
+     * Señala la operación que abortó un lote atómico, para revertir la transacción y
+     * reportar la causa en la posición correcta.
+     */
+    private static final class BatchAbortedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int index;
+
+        BatchAbortedException(int index, RuntimeException cause) {
+            super(cause);
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.mposglobal.backoffice.service;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Servicio que expone las estadísticas de la caché de segundo nivel de Hibernate.
+ * <p>
+ * Requiere {@code hibernate.generate_statistics=true}; sin ello todos los contadores son cero.
+ * </p>
+ */
+@Service
+public class CacheStatsService {
+
+    private final Statistics statistics;
+
+    /**
+     * Constructor que obtiene las estadísticas de la {@code SessionFactory}.
+     *
+     * @param emf La fábrica de {@code EntityManager} (Hibernate).
+     */
+    public CacheStatsService(EntityManagerFactory emf) {
+        this.statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Obtiene aciertos, fallos, inserciones y tamaño de cada región, más los totales de la
+     * caché de consultas.
+     *
+     * @return Un mapa región → contadores, ordenado por nombre de región.
+     */
+    public Map<String, Map<String, Long>> regionStats() {
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics s = statistics.getCacheRegionStatistics(region);
+            if (s != null) {
+                Map<String, Long> counters = new LinkedHashMap<>();
+                counters.put("hits", s.getHitCount());
+                counters.put("misses", s.getMissCount());
+                counters.put("puts", s.getPutCount());
+                // JCache no expone el tamaño de la caché; en ese caso Hibernate devuelve un valor negativo
+                if (s.getElementCountInMemory() >= 0) {
+                    counters.put("elementsInMemory", s.getElementCountInMemory());
+                }
+                result.put(region, counters);
+            }
+        }
+        result.put("queryCache", Map.of(
+                "hits", statistics.getQueryCacheHitCount(),
+                "misses", statistics.getQueryCacheMissCount(),
+                "puts", statistics.getQueryCachePutCount()));
+        return result;
+    }
+}
@@ -0,0 +1,430 @@
+package com.mposglobal.backoffice.service;
+
+import com.mposglobal.backoffice.dto.CategoryResponse;
+import com.mposglobal.backoffice.dto.ProductResponse;
+import com.mposglobal.backoffice.util.Constant;
+import com.mposglobal.backoffice.util.Money;
+import com.mposglobal.backoffice.util.collections.LongObjectHashMap;
+import com.mposglobal.backoffice.util.collections.SortedLongArray;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Fotografía inmutable del catálogo: productos activos y todas las categorías.
+ * <p>
+ * Los productos se reparten en fragmentos por rango de ID ({@value #SHARD_BITS} bits, es decir
+ * 1024 IDs por fragmento), cada uno con arreglos ordenados. Un cambio de un producto copia solo
+ * su fragmento y el arreglo de referencias a fragmentos, no el catálogo completo; un cambio de
+ * categoría copia solo el mapa de categorías, porque el nombre de la categoría se resuelve al
+ * leer. Ninguna instancia se modifica después de construida, así que se puede leer desde
+ * cualquier hilo sin bloqueo. Los mapas por ID usan claves {@code long} primitivas, sin un
+ * {@code Long} ni un nodo por entrada.
+ * </p>
+ * <p>
+ * Cada fotografía mantiene también su suma de control (cantidad, suma de IDs y suma de
+ * versiones), calculada de forma incremental y comparable con la de la base.
+ * </p>
+ */
+final class CatalogSnapshot {
+
+    /**
+     * Bits del ID que quedan dentro de un fragmento.
+     */
+    static final int SHARD_BITS = 10;
+
+    private static final Shard[] NO_SHARDS = new Shard[0];
+
+    private final Shard[] shards;
+    private final LongObjectHashMap<CategoryEntry> categories;
+    private final long generation;
+    private final Checksum productChecksum;
+    private final Checksum categoryChecksum;
+
+    // Listas de respuesta calculadas a la primera lectura; una carrera solo las calcula dos veces
+    private volatile List<ProductResponse> productList;
+    private volatile List<CategoryResponse> categoryList;
+    private volatile LongObjectHashMap<SortedLongArray> productsByCategory;
+
+    private CatalogSnapshot(Shard[] shards, LongObjectHashMap<CategoryEntry> categories, long generation,
+                            Checksum productChecksum, Checksum categoryChecksum) {
+        this.shards = shards;
+        this.categories = categories;
+        this.generation = generation;
+        this.productChecksum = productChecksum;
+        this.categoryChecksum = categoryChecksum;
+    }
+
+    /**
+     * @return Una fotografía vacía (generación 0).
+     */
+    static CatalogSnapshot empty() {
+        return new CatalogSnapshot(NO_SHARDS, new LongObjectHashMap<>(0), 0, Checksum.ZERO, Checksum.ZERO);
+    }
+
+    /**
+     * Construye una fotografía completa.
+     *
+     * @param products Los productos (se descartan los no activos), en cualquier orden.
+     * @param categories Todas las categorías.
+     * @param generation La generación de la nueva fotografía.
+     * @return La fotografía.
+     */
+    static CatalogSnapshot of(List<ProductEntry> products, List<CategoryEntry> categories, long generation) {
+        List<ProductEntry> active = new ArrayList<>(products.size());
+        for (ProductEntry p : products) {
+            if (p.isActive()) {
+                active.add(p);
+            }
+        }
+        active.sort((a, b) -> Long.compare(a.id(), b.id()));
+
+        int shardCount = active.isEmpty() ? 0 : shardOf(active.get(active.size() - 1).id()) + 1;
+        Shard[] shards = new Shard[shardCount];
+        Checksum checksum = Checksum.ZERO;
+        int from = 0;
+        while (from < active.size()) {
+            int shard = shardOf(active.get(from).id());
+            int to = from;
+            while (to < active.size() && shardOf(active.get(to).id()) == shard) {
+                checksum = checksum.plus(active.get(to).id(), active.get(to).version());
+                to++;
+            }
+            shards[shard] = Shard.of(active.subList(from, to));
+            from = to;
+        }
+
+        LongObjectHashMap<CategoryEntry> categoryMap = new LongObjectHashMap<>(categories.size());
+        Checksum categorySum = Checksum.ZERO;
+        for (CategoryEntry c : categories) {
+            categoryMap.put(c.id(), c);
+            categorySum = categorySum.plus(c.id(), c.version());
+        }
+        return new CatalogSnapshot(shards, categoryMap, generation, checksum, categorySum);
+    }
+
+    // -------------------------------------------------------------------------
+    // Cambios incrementales (devuelven una fotografía nueva)
+    // -------------------------------------------------------------------------
+
+    /**
+     * Aplica el estado actual de un producto: lo agrega o reemplaza si está activo y lo quita
+     * si está desactivado o ya no existe.
+     *
+     * @param id El ID del producto.
+     * @param current El estado actual leído de la base, o {@code null} si no existe.
+     * @return La nueva fotografía.
+     */
+    CatalogSnapshot withProduct(long id, ProductEntry current) {
+        int index = shardOf(id);
+        Shard shard = index < shards.length ? shards[index] : null;
+        ProductEntry previous = shard == null ? null : shard.get(id);
+
+        Checksum checksum = productChecksum;
+        if (previous != null) {
+            checksum = checksum.minus(previous.id(), previous.version());
+        }
+        Shard updated = shard == null ? Shard.EMPTY : shard;
+        if (current != null && current.isActive()) {
+            updated = updated.with(current);
+            checksum = checksum.plus(current.id(), current.version());
+        } else if (previous != null) {
+            updated = updated.without(id);
+        } else {
+            return this;
+        }
+
+        Shard[] copy = Arrays.copyOf(shards, Math.max(shards.length, index + 1));
+        copy[index] = updated.size() == 0 ? null : updated;
+        return new CatalogSnapshot(copy, categories, generation + 1, checksum, categoryChecksum);
+    }
+
+    /**
+     * Aplica el estado actual de una categoría.
+     *
+     * @param id El ID de la categoría.
+     * @param current El estado actual leído de la base, o {@code null} si no existe.
+     * @return La nueva fotografía.
+     */
+    CatalogSnapshot withCategory(long id, CategoryEntry current) {
+        LongObjectHashMap<CategoryEntry> copy = categories.copy();
+        CategoryEntry previous = current == null ? copy.remove(id) : copy.put(id, current);
+        Checksum checksum = categoryChecksum;
+        if (previous != null) {
+            checksum = checksum.minus(previous.id(), previous.version());
+        }
+        if (current != null) {
+            checksum = checksum.plus(current.id(), current.version());
+        }
+        return new CatalogSnapshot(shards, copy, generation + 1, productChecksum, checksum);
+    }
+
+    // -------------------------------------------------------------------------
+    // Lecturas
+    // -------------------------------------------------------------------------
+
+    long generation() {
+        return generation;
+    }
+
+    Checksum productChecksum() {
+        return productChecksum;
+    }
+
+    Checksum categoryChecksum() {
+        return categoryChecksum;
+    }
+
+    /**
+     * @return Los productos activos ordenados por ID.
+     */
+    List<ProductResponse> activeProducts() {
+        List<ProductResponse> list = productList;
+        if (list == null) {
+            List<ProductResponse> built = new ArrayList<>((int) productChecksum.count());
+            for (Shard shard : shards) {
+                if (shard != null) {
+                    for (ProductEntry p : shard.entries) {
+                        built.add(toResponse(p));
+                    }
+                }
+            }
+            list = Collections.unmodifiableList(built);
+            productList = list;
+        }
+        return list;
+    }
+
+    /**
+     * @return Las categorías activas ordenadas por ID.
+     */
+    List<CategoryResponse> activeCategories() {
+        List<CategoryResponse> list = categoryList;
+        if (list == null) {
+            list = categories.values().stream()
+                    .filter(CategoryEntry::isActive)
+                    .sorted((a, b) -> Long.compare(a.id(), b.id()))
+                    .map(CategoryEntry::toResponse)
+                    .toList();
+            categoryList = list;
+        }
+        return list;
+    }
+
+    /**
+     * @param categoryId El ID de la categoría.
+     * @return Los productos activos de la categoría ordenados por ID.
+     */
+    List<ProductResponse> activeProducts(long categoryId) {
+        LongObjectHashMap<SortedLongArray> index = productsByCategory;
+        if (index == null) {
+            index = buildCategoryIndex();
+            productsByCategory = index;
+        }
+        SortedLongArray ids = index.get(categoryId);
+        if (ids == null) {
+            return List.of();
+        }
+        List<ProductResponse> result = new ArrayList<>(ids.size());
+        ids.forEach(id -> result.add(toResponse(entry(id))));
+        return result;
+    }
+
+    /**
+     * @param id El ID del producto.
+     * @return El producto activo, o {@code null} si no está en el catálogo.
+     */
+    ProductResponse product(long id) {
+        ProductEntry p = entry(id);
+        return p == null ? null : toResponse(p);
+    }
+
+    /**
+     * @param id El ID de la categoría.
+     * @return La categoría (activa o no), o {@code null} si no existe.
+     */
+    CategoryResponse category(long id) {
+        CategoryEntry c = categories.get(id);
+        return c == null ? null : c.toResponse();
+    }
+
+    private ProductEntry entry(long id) {
+        int index = shardOf(id);
+        Shard shard = index < shards.length ? shards[index] : null;
+        return shard == null ? null : shard.get(id);
+    }
+
+    /**
+     * Agrupa los IDs de productos por categoría en un solo recorrido; como los fragmentos se
+     * recorren en orden de ID, cada grupo queda ordenado sin ordenar.
+     */
+    private LongObjectHashMap<SortedLongArray> buildCategoryIndex() {
+        LongObjectHashMap<SortedLongArray.Builder> builders = new LongObjectHashMap<>(categories.size());
+        for (Shard shard : shards) {
+            if (shard != null) {
+                for (ProductEntry p : shard.entries) {
+                    SortedLongArray.Builder builder = builders.get(p.categoriaId());
+                    if (builder == null) {
+                        builder = new SortedLongArray.Builder(16);
+                        builders.put(p.categoriaId(), builder);
+                    }
+                    builder.add(p.id());
+                }
+            }
+        }
+        LongObjectHashMap<SortedLongArray> index = new LongObjectHashMap<>(builders.size());
+        builders.forEach((categoryId, builder) -> index.put(categoryId, builder.build()));
+        return index;
+    }
+
+    private ProductResponse toResponse(ProductEntry p) {
+        CategoryEntry c = categories.get(p.categoriaId());
+        ProductResponse response = new ProductResponse();
+        response.setId(p.id());
+        response.setNombre(p.nombre());
+        response.setCosto(Money.toDouble(p.costo()));
+        response.setPrecio(Money.toDouble(p.precio()));
+        response.setTags(p.tags());
+        if (c != null && c.nombre() != null) {
+            response.setCategoria(c.nombre());
+        }
+        response.setEstado(p.estado());
+        response.setFechaCreacion(toDate(p.fechaCreacion()));
+        response.setFechaActualizacion(toDate(p.fechaActualizacion()));
+        response.setVersion(p.version());
+        return response;
+    }
+
+    private static Date toDate(Long millis) {
+        return millis == null ? null : new Date(millis);
+    }
+
+    private static int shardOf(long id) {
+        return (int) (id >>> SHARD_BITS);
+    }
+
+    // -------------------------------------------------------------------------
+    // Tipos internos
+    // -------------------------------------------------------------------------
+
+    /**
+     * Fila de {@code Productos} tal como se guarda en memoria; costo y precio en centavos.
+     */
+    record ProductEntry(long id, String nombre, long categoriaId, long costo, long precio, String tags,
+                        String estado, Long fechaCreacion, Long fechaActualizacion, long version) {
+
+        boolean isActive() {
+            return Constant.ACTIVO.equalsIgnoreCase(estado);
+        }
+    }
+
+    /**
+     * Fila de {@code Categorias} tal como se guarda en memoria.
+     */
+    record CategoryEntry(long id, String nombre, String estado, Long fechaCreacion, Long fechaActualizacion,
+                         long version, Long padreId, String estadoEfectivo) {
+
+        boolean isActive() {
+            return Constant.ACTIVO.equalsIgnoreCase(estadoEfectivo);
+        }
+
+        CategoryResponse toResponse() {
+            CategoryResponse response = new CategoryResponse();
+            response.setId(id);
+            response.setNombre(nombre);
+            response.setEstado(estado);
+            response.setFechaCreacion(toDate(fechaCreacion));
+            response.setFechaActualizacion(toDate(fechaActualizacion));
+            response.setVersion(version);
+            response.setPadre(padreId);
+            response.setEstadoEfectivo(estadoEfectivo);
+            return response;
+        }
+    }
+
+    /**
+     * Suma de control de una tabla: cantidad de filas, suma de IDs y suma de versiones.
+     * Cualquier alta, baja o modificación cambia al menos uno de los tres valores.
+     */
+    record Checksum(long count, long idSum, long versionSum) {
+
+        static final Checksum ZERO = new Checksum(0, 0, 0);
+
+        Checksum plus(long id, long version) {
+            return new Checksum(count + 1, idSum + id, versionSum + version);
+        }
+
+        Checksum minus(long id, long version) {
+            return new Checksum(count - 1, idSum - id, versionSum - version);
+        }
+    }
+
+    /**
+     * Fragmento inmutable de productos con IDs ordenados.
+     */
+    private static final class Shard {
+
+        static final Shard EMPTY = new Shard(new long[0], new ProductEntry[0]);
+
+        final long[] ids;
+        final ProductEntry[] entries;
+
+        private Shard(long[] ids, ProductEntry[] entries) {
+            this.ids = ids;
+            this.entries = entries;
+        }
+
+        static Shard of(List<ProductEntry> sorted) {
+            long[] ids = new long[sorted.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = sorted.get(i).id();
+            }
+            return new Shard(ids, sorted.toArray(new ProductEntry[0]));
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        ProductEntry get(long id) {
+            int i = Arrays.binarySearch(ids, id);
+            return i >= 0 ? entries[i] : null;
+        }
+
+        Shard with(ProductEntry entry) {
+            int i = Arrays.binarySearch(ids, entry.id());
+            if (i >= 0) {
+                ProductEntry[] copy = entries.clone();
+                copy[i] = entry;
+                return new Shard(ids, copy);
+            }
+            int at = -i - 1;
+            long[] newIds = new long[ids.length + 1];
+            ProductEntry[] newEntries = new ProductEntry[ids.length + 1];
+            System.arraycopy(ids, 0, newIds, 0, at);
+            System.arraycopy(entries, 0, newEntries, 0, at);
+            newIds[at] = entry.id();
+            newEntries[at] = entry;
+            System.arraycopy(ids, at, newIds, at + 1, ids.length - at);
+            System.arraycopy(entries, at, newEntries, at + 1, ids.length - at);
+            return new Shard(newIds, newEntries);
+        }
+
+        Shard without(long id) {
+            int i = Arrays.binarySearch(ids, id);
+            if (i < 0) {
+                return this;
+            }
+            long[] newIds = new long[ids.length - 1];
+            ProductEntry[] newEntries = new ProductEntry[ids.length - 1];
+            System.arraycopy(ids, 0, newIds, 0, i);
+            System.arraycopy(entries, 0, newEntries, 0, i);
+            System.arraycopy(ids, i + 1, newIds, i, ids.length - i - 1);
+            System.arraycopy(entries, i + 1, newEntries, i, ids.length - i - 1);
+            return new Shard(newIds, newEntries);
+        }
+    }
+}
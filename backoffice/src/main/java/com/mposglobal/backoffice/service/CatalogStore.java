@@ -0,0 +1,335 @@
+package com.mposglobal.backoffice.service;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.mposglobal.backoffice.config.CatalogProperties;
+import com.mposglobal.backoffice.dto.CategoryResponse;
+import com.mposglobal.backoffice.dto.ProductResponse;
+import com.mposglobal.backoffice.event.CatalogChangedEvent;
+import com.mposglobal.backoffice.service.CatalogSnapshot.CategoryEntry;
+import com.mposglobal.backoffice.service.CatalogSnapshot.Checksum;
+import com.mposglobal.backoffice.service.CatalogSnapshot.ProductEntry;
+import com.mposglobal.backoffice.util.Constant;
+import com.mposglobal.backoffice.util.Money;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Catálogo en memoria para las lecturas de productos y categorías.
+ * <p>
+ * Mantiene una {@link CatalogSnapshot} inmutable publicada en un campo {@code volatile}: los
+ * lectores toman la referencia actual y la recorren sin bloqueo; los escritores construyen una
+ * fotografía nueva y la publican con una sola asignación. Las escrituras se serializan entre sí.
+ * </p>
+ * <ul>
+ *   <li><b>Carga completa:</b> al terminar el arranque (después del generador de datos de carga)
+ *   y a pedido con {@link #reload()}.</li>
+ *   <li><b>Cambios incrementales:</b> los servicios publican {@link CatalogChangedEvent}; tras el
+ *   commit se relee solo esa fila del primario y se reemplaza su fragmento. En modo
+ *   {@code SYNC} esto ocurre antes de responder al cliente; en modo {@code ASYNC}, en un hilo
+ *   aparte que respeta el orden de los commits.</li>
+ *   <li><b>Almacenamiento:</b> con {@code app.catalog.storage=OFF_HEAP} los productos se
+ *   guardan en {@link OffHeapProductStore} en lugar de la fotografía; las categorías siempre
+ *   quedan en el heap.</li>
+ *   <li><b>Verificación:</b> periódicamente se comparan las sumas de control (cantidad, suma de
+ *   IDs y de versiones) con la base; si difieren dos veces seguidas, por ejemplo por una
+ *   modificación hecha fuera de la aplicación, se recarga todo.</li>
+ * </ul>
+ * <p>
+ * Mientras no termina la primera carga, {@link #isReady()} es {@code false} y las lecturas
+ * deben ir a la base.
+ * </p>
+ */
+@Component
+@EnableConfigurationProperties(CatalogProperties.class)
+public class CatalogStore extends ReloadableIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogStore.class);
+
+    private static final String SELECT_PRODUCTS = "SELECT id, nombre, categoriaId, costo, precio, tags, estado, "
+            + "fechaCreacion, fechaActualizacion, version FROM Productos";
+    private static final String SELECT_CATEGORIES = "SELECT id, nombre, estado, fechaCreacion, fechaActualizacion, "
+            + "version, padreId, estadoEfectivo FROM Categorias";
+    private static final String CHECKSUM = "SELECT COUNT(*), COALESCE(SUM(CAST(id AS BIGINT)), 0), "
+            + "COALESCE(SUM(version), 0) FROM ";
+
+    private static final RowMapper<ProductEntry> PRODUCT_ROW = (rs, i) -> new ProductEntry(
+            rs.getLong("id"), rs.getString("nombre"), rs.getLong("categoriaId"),
+            Money.of(rs.getBigDecimal("costo")).cents(), Money.of(rs.getBigDecimal("precio")).cents(),
+            rs.getString("tags"), rs.getString("estado"),
+            millis(rs.getDate("fechaCreacion")), millis(rs.getDate("fechaActualizacion")),
+            rs.getLong("version"));
+
+    private static final RowMapper<CategoryEntry> CATEGORY_ROW = (rs, i) -> new CategoryEntry(
+            rs.getLong("id"), rs.getString("nombre"), rs.getString("estado"),
+            millis(rs.getDate("fechaCreacion")), millis(rs.getDate("fechaActualizacion")),
+            rs.getLong("version"), rs.getObject("padreId", Long.class), rs.getString("estadoEfectivo"));
+
+    private static final RowMapper<Checksum> CHECKSUM_ROW = (rs, i) -> new Checksum(
+            rs.getLong(1), rs.getLong(2), rs.getLong(3));
+
+    private final JdbcTemplate jdbc;
+    private final CatalogProperties properties;
+    private final OffHeapProductStore offHeap;
+    private final boolean useOffHeap;
+    private final ExecutorService applier;
+    private final Timer reloadTimer;
+    private final Counter mismatches;
+
+    private volatile CatalogSnapshot snapshot = CatalogSnapshot.empty();
+
+    /**
+     * Constructor que inyecta el acceso JDBC, la configuración y el registro de métricas.
+     *
+     * @param jdbc Plantilla JDBC para las cargas (completas y por fila).
+     * @param properties La configuración del catálogo.
+     * @param offHeap Los productos fuera del heap (modo {@code OFF_HEAP}).
+     * @param registry El registro de métricas.
+     */
+    public CatalogStore(JdbcTemplate jdbc, CatalogProperties properties, OffHeapProductStore offHeap,
+                        MeterRegistry registry) {
+        super("Catalogo en memoria", properties);
+        this.jdbc = jdbc;
+        this.properties = properties;
+        this.offHeap = offHeap;
+        this.useOffHeap = properties.getStorage() == CatalogProperties.Storage.OFF_HEAP;
+        this.applier = properties.getConsistency() == CatalogProperties.Consistency.ASYNC
+                ? Executors.newSingleThreadExecutor(r -> new Thread(r, "catalog-applier"))
+                : null;
+        this.reloadTimer = Timer.builder("catalog.reload").register(registry);
+        this.mismatches = Counter.builder("catalog.checksum.mismatch").register(registry);
+        Gauge.builder("catalog.products", this, s -> s.productChecksum().count()).register(registry);
+        Gauge.builder("catalog.generation", this, s -> s.snapshot.generation()).register(registry);
+    }
+
+    // -------------------------------------------------------------------------
+    // Lecturas (sin bloqueo)
+    // -------------------------------------------------------------------------
+
+    /**
+     * @return Los productos activos ordenados por ID; la lista es compartida y no debe modificarse.
+     */
+    public List<ProductResponse> activeProducts() {
+        return useOffHeap ? offHeap.activeProducts(this::categoryName) : snapshot.activeProducts();
+    }
+
+    /**
+     * @param categoryId El ID de la categoría.
+     * @return Los productos activos de la categoría ordenados por ID.
+     */
+    public List<ProductResponse> activeProductsByCategory(long categoryId) {
+        return useOffHeap
+                ? offHeap.activeProducts(categoryId, this::categoryName)
+                : snapshot.activeProducts(categoryId);
+    }
+
+    /**
+     * @return {@code true} si el listado de productos debe escribirse con
+     *         {@link #writeActiveProductsJson(OutputStream)} en lugar de materializar la lista.
+     */
+    public boolean streamsProducts() {
+        return isReady() && useOffHeap;
+    }
+
+    /**
+     * Escribe los productos activos como arreglo JSON directamente desde el almacenamiento
+     * fuera del heap, sin crear un DTO por producto.
+     *
+     * @param out El flujo de salida de la respuesta.
+     * @throws IOException Si falla la escritura.
+     */
+    public void writeActiveProductsJson(OutputStream out) throws IOException {
+        offHeap.writeActiveJson(out, this::categoryName);
+    }
+
+    /**
+     * @return Las categorías activas ordenadas por ID; la lista es compartida y no debe modificarse.
+     */
+    public List<CategoryResponse> activeCategories() {
+        return snapshot.activeCategories();
+    }
+
+    /**
+     * @param id El ID del producto.
+     * @return El producto activo, o {@code null} si no está en el catálogo (desactivado o inexistente).
+     */
+    public ProductResponse product(Long id) {
+        if (id == null) {
+            return null;
+        }
+        return useOffHeap ? offHeap.product(id, this::categoryName) : snapshot.product(id);
+    }
+
+    /**
+     * @param id El ID de la categoría.
+     * @return La categoría, activa o no, o {@code null} si no existe.
+     */
+    public CategoryResponse category(Long id) {
+        return id == null ? null : snapshot.category(id);
+    }
+
+    // -------------------------------------------------------------------------
+    // Escrituras
+    // -------------------------------------------------------------------------
+
+    /**
+     * Aplica un cambio confirmado de producto o categoría, también antes de la primera carga
+     * (la carga en curso lo incluye o el cambio espera a que termine).
+     *
+     * @param event El evento con el tipo y el ID del registro modificado.
+     */
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (applier != null) {
+            applier.execute(() -> apply(event));
+        } else {
+            apply(event);
+        }
+    }
+
+    @Override
+    protected void load() {
+        long generation = reloadTimer.record(() -> {
+            List<CategoryEntry> categories = jdbc.query(SELECT_CATEGORIES, CATEGORY_ROW);
+            List<ProductEntry> products = new ArrayList<>();
+            if (useOffHeap) {
+                offHeap.reload();
+            } else {
+                jdbc.query(SELECT_PRODUCTS + " WHERE estado = ?", rs -> {
+                    products.add(PRODUCT_ROW.mapRow(rs, 0));
+                }, Constant.ACTIVO);
+            }
+            snapshot = CatalogSnapshot.of(products, categories, snapshot.generation() + 1);
+            return snapshot.generation();
+        });
+        log.info("Catalogo en memoria cargado ({}): {} productos activos, {} categorias (generacion {})",
+                properties.getStorage(), productChecksum().count(), snapshot.categoryChecksum().count(), generation);
+    }
+
+    /**
+     * Compara las sumas de control con la base.
+     */
+    @Override
+    protected boolean matchesDatabase() {
+        if (isConsistent()) {
+            return true;
+        }
+        mismatches.increment();
+        return false;
+    }
+
+    /**
+     * Obtiene el estado del catálogo y sus sumas de control frente a las de la base.
+     *
+     * @return Un mapa con {@code ready}, {@code generation}, {@code consistent} y, por tabla,
+     *         las sumas en memoria ({@code store}) y en la base ({@code database}).
+     */
+    public Map<String, Object> status() {
+        CatalogSnapshot current = snapshot;
+        Checksum dbProducts = productChecksumInDb();
+        Checksum dbCategories = categoryChecksumInDb();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("ready", isReady());
+        result.put("consistency", properties.getConsistency());
+        result.put("generation", current.generation());
+        Checksum storeProducts = productChecksum();
+        result.put("storage", properties.getStorage());
+        result.put("consistent", storeProducts.equals(dbProducts) && current.categoryChecksum().equals(dbCategories));
+        result.put("products", Map.of("store", storeProducts, "database", dbProducts));
+        result.put("categories", Map.of("store", current.categoryChecksum(), "database", dbCategories));
+        return result;
+    }
+
+    /**
+     * Detiene el hilo de aplicación asíncrona, si existe.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (applier != null) {
+            applier.shutdown();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Utilidades internas
+    // -------------------------------------------------------------------------
+
+    @Override
+    protected synchronized void apply(CatalogChangedEvent event) {
+        try {
+            if (event.type() == CatalogChangedEvent.Type.PRODUCT && useOffHeap) {
+                offHeap.refresh(event.id());
+            } else if (event.type() == CatalogChangedEvent.Type.PRODUCT) {
+                List<ProductEntry> rows = jdbc.query(SELECT_PRODUCTS + " WHERE id = ?", PRODUCT_ROW, event.id());
+                snapshot = snapshot.withProduct(event.id(), rows.isEmpty() ? null : rows.get(0));
+            } else {
+                List<CategoryEntry> rows = jdbc.query(SELECT_CATEGORIES + " WHERE id = ?", CATEGORY_ROW, event.id());
+                snapshot = snapshot.withCategory(event.id(), rows.isEmpty() ? null : rows.get(0));
+            }
+        } catch (RuntimeException e) {
+            applyFailed("el cambio " + event, e);
+        }
+    }
+
+    private boolean isConsistent() {
+        // Se repite si otra escritura publicó una fotografía mientras se consultaba la base
+        for (int attempt = 0; attempt < 3; attempt++) {
+            CatalogSnapshot before = snapshot;
+            Checksum storeProducts = productChecksum();
+            Checksum dbProducts = productChecksumInDb();
+            Checksum dbCategories = categoryChecksumInDb();
+            if (before == snapshot && storeProducts.equals(productChecksum())) {
+                return storeProducts.equals(dbProducts) && before.categoryChecksum().equals(dbCategories);
+            }
+        }
+        return true;
+    }
+
+    private Checksum productChecksum() {
+        return useOffHeap ? offHeap.checksum() : snapshot.productChecksum();
+    }
+
+    private String categoryName(long id) {
+        CategoryResponse category = snapshot.category(id);
+        return category == null ? null : category.getNombre();
+    }
+
+    private Checksum productChecksumInDb() {
+        return jdbc.queryForObject(CHECKSUM + "Productos WHERE estado = ?", CHECKSUM_ROW, Constant.ACTIVO);
+    }
+
+    private Checksum categoryChecksumInDb() {
+        return jdbc.queryForObject(CHECKSUM + "Categorias", CHECKSUM_ROW);
+    }
+
+    // Las fechas se leen como DATE, igual que las entidades (@Temporal(DATE)), para responder lo mismo
+    private static Long millis(Date date) {
+        return date == null ? null : date.getTime();
+    }
+}
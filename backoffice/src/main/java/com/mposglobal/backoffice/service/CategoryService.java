@@ -1,15 +1,33 @@
 package com.mposglobal.backoffice.service;
 
+import jakarta.persistence.EntityManagerFactory;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.mposglobal.backoffice.dto.CategoryRequest;
 import com.mposglobal.backoffice.dto.CategoryResponse;
 import com.mposglobal.backoffice.entity.Category;
+import com.mposglobal.backoffice.event.CatalogChangedEvent;
+import com.mposglobal.backoffice.exceptions.PreconditionFailedException;
+import com.mposglobal.backoffice.repository.ArchiveRepository;
+import com.mposglobal.backoffice.repository.CategoryHierarchyRepository;
 import com.mposglobal.backoffice.repository.CategoryRepository;
+import com.mposglobal.backoffice.repository.PartialUpdateRepository;
 import com.mposglobal.backoffice.util.Constant;
+import com.mposglobal.backoffice.util.MergePatchUtil;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Servicio central para la gestión de categorías.
@@ -18,19 +36,54 @@ import java.util.List;
  * sobre la entidad {@code Category}, manejando la conversión entre DTOs de solicitud/respuesta
  * y la entidad de persistencia.
  * </p>
+ * <p>
+ * Las categorías forman una jerarquía (departamento, pasillo, estante) a través de
+ * {@code padreId}; los caminos se mantienen en la tabla de clausura al crear o mover una categoría.
+ * Cada categoría guarda además su estado efectivo (desactivada si ella o un ancestro lo está), que
+ * se propaga al subárbol al desactivar, reactivar o mover, de modo que validar una categoría no
+ * requiere recorrer sus ancestros.
+ * </p>
  */
 @Service
 public class CategoryService {
 
+    /**
+     * Campos que se pueden modificar mediante {@code PATCH}.
+     */
+    private static final Set<String> PATCHABLE = Set.of("nombre", "padre");
+
     private final CategoryRepository repo;
+    private final PartialUpdateRepository partialRepo;
+    private final ApplicationEventPublisher events;
+    private final AuditService audit;
+    private final ArchiveRepository archive;
+    private final OutboxService outbox;
+    private final CategoryHierarchyRepository hierarchy;
+    private final EntityManagerFactory emf;
 
     /**
      * Constructor para inyectar el repositorio de categorías.
      *
      * @param repo El repositorio JPA para el acceso a datos de categorías.
+     * @param partialRepo El repositorio para las actualizaciones parciales (PATCH).
+     * @param events El publicador de {@link CatalogChangedEvent} (catálogo en memoria tras el commit).
+     * @param audit La auditoría de cambios (se entrega tras el commit).
+     * @param archive El repositorio de filas archivadas (lecturas con {@code includeArchived}).
+     * @param outbox El outbox de eventos del catálogo (se escribe en la misma transacción).
+     * @param hierarchy El repositorio de la tabla de clausura de la jerarquía.
+     * @param emf La fábrica de {@code EntityManager}, para invalidar la caché de categorías.
      */
-    public CategoryService(CategoryRepository repo) {
+    public CategoryService(CategoryRepository repo, PartialUpdateRepository partialRepo,
+                           ApplicationEventPublisher events, AuditService audit, ArchiveRepository archive,
+                           OutboxService outbox, CategoryHierarchyRepository hierarchy, EntityManagerFactory emf) {
         this.repo = repo;
+        this.partialRepo = partialRepo;
+        this.events = events;
+        this.audit = audit;
+        this.archive = archive;
+        this.outbox = outbox;
+        this.hierarchy = hierarchy;
+        this.emf = emf;
     }
 
     // -------------------------------------------------------------------------
@@ -41,49 +94,105 @@ public class CategoryService {
      * Busca y devuelve todas las categorías que se encuentran en estado "ACTIVO".
      * <p>
      * Este método realiza un filtro y mapea las entidades {@code Category} a DTOs {@code CategoryResponse}.
+     * Se considera el estado efectivo: una categoría bajo un departamento desactivado no se lista.
      * </p>
      *
      * @return Una lista de {@code CategoryResponse} de todas las categorías activas.
      */
+    @Transactional(readOnly = true)
     public List<CategoryResponse> findAllActive() {
         return repo.findAll()
                 .stream()
-                .filter(c -> Constant.ACTIVO.equalsIgnoreCase(c.getEstado()))
+                .filter(c -> Constant.ACTIVO.equalsIgnoreCase(c.getEstadoEfectivo()))
                 .map(this::convertToResponse) // aquí mapeas Category -> CategoryResponse
                 .toList();
     }
 
+    /**
+     * Busca una categoría por su ID, activa o no.
+     *
+     * @param id El ID de la categoría.
+     * @return El DTO de respuesta de la categoría.
+     * @throws RuntimeException Si la categoría no existe.
+     */
+    @Transactional(readOnly = true)
+    public CategoryResponse findById(Long id) {
+        return findById(id, false);
+    }
+
+    /**
+     * Busca una categoría por su ID, activa o no, y opcionalmente también entre las archivadas.
+     *
+     * @param id El ID de la categoría.
+     * @param includeArchived {@code true} para buscar en {@code Categorias_Archivo} si no está en la tabla principal.
+     * @return El DTO de respuesta de la categoría.
+     * @throws RuntimeException Si la categoría no existe.
+     */
+    @Transactional(readOnly = true)
+    public CategoryResponse findById(Long id, boolean includeArchived) {
+        return repo.findById(id).map(this::convertToResponse)
+                .or(() -> includeArchived ? archive.findCategory(id) : Optional.empty())
+                .orElseThrow(() -> new RuntimeException(Constant.ERROR_NOFOUND_CATEGORY + id));
+    }
+
+    /**
+     * Obtiene la versión actual de una categoría.
+     *
+     * @param id El ID de la categoría.
+     * @return La versión, o {@code null} si la categoría no existe.
+     */
+    @Transactional(readOnly = true)
+    public Long findVersion(Long id) {
+        return repo.findVersionById(id).orElse(null);
+    }
+
     /**
      * Crea una nueva categoría con estado inicial "ACTIVO".
      * <p>
      * Realiza el mapeo de {@code CategoryRequest} a la entidad, asigna valores del sistema
      * (fecha de creación, actualización y estado) y luego mapea la entidad guardada a {@code CategoryResponse}.
+     * Si trae {@code padre}, la categoría hereda su estado efectivo.
      * </p>
      *
      * @param request El DTO de solicitud con los datos de la categoría.
      * @return El DTO de respuesta de la categoría creada.
+     * @throws RuntimeException Si la categoría padre no existe.
      */
+    @Transactional
     public CategoryResponse create(CategoryRequest request) {
+        if (request.getPadre() != null) {
+            hierarchy.lock();
+        }
+        Category parent = parentFor(null, request.getPadre());
         Category c = new Category();
         
         c.setNombre(request.getNombre());
+        c.setPadreId(request.getPadre());
         
         // 2. Asignar valores del sistema (buenas prácticas)
         c.setEstado(Constant.ACTIVO); // Estado por defecto
+        c.setEstadoEfectivo(effectiveState(Constant.ACTIVO, parent));
         Date now = new Date();
         c.setFechaCreacion(now);
         c.setFechaActualizacion(now);
         
         Category savedCategory = repo.save(c);
+        hierarchy.insertNode(savedCategory.getId(), savedCategory.getPadreId());
+        events.publishEvent(CatalogChangedEvent.category(savedCategory.getId()));
+        audit.record(AuditService.CATEGORIA, savedCategory.getId(), AuditService.CREAR, null, auditState(savedCategory));
         
-        return convertToResponse(savedCategory);
+        CategoryResponse response = convertToResponse(savedCategory);
+        outbox.record(AuditService.CATEGORIA, savedCategory.getId(), AuditService.CREAR, response);
+        return response;
     }
 
     /**
      * Actualiza una categoría existente.
      * <p>
-     * Si la categoría existe, aplica los cambios del DTO de solicitud (nombre, estado opcional)
-     * y actualiza la fecha de modificación. Si la categoría no existe, lanza una excepción.
+     * Si la categoría existe, aplica los cambios del DTO de solicitud (nombre, padre) y la
+     * reactiva; el estado efectivo se recalcula para ella y su subárbol. Una solicitud sin
+     * {@code padre} conserva el padre actual; {@code "padre": null} la deja como raíz. Si la
+     * categoría no existe, lanza una excepción.
      * </p>
      *
      * @param id El ID de la categoría a actualizar.
@@ -91,37 +200,292 @@ public class CategoryService {
      * @return El DTO de respuesta de la categoría actualizada.
      * @throws RuntimeException Si la categoría con el ID especificado no se encuentra.
      */
+    @Transactional
     public CategoryResponse update(Long id, CategoryRequest request) {
+        return update(id, request, null);
+    }
+
+    /**
+     * Actualiza una categoría existente, opcionalmente condicionada a su versión ({@code If-Match}).
+     * <p>
+     * Con {@code expectedVersion} se ejecuta un único {@code UPDATE ... WHERE id = ? AND version = ?},
+     * cuyo número de filas decide el 412. Lo precede una lectura escalar por PK que da el estado
+     * anterior a la auditoría; la respuesta se arma con esa fila y los valores escritos, sin releer
+     * la categoría.
+     * </p>
+     * <p>
+     * Sin {@code padre} en la solicitud se conserva el padre actual, para que un cliente que no lo
+     * conoce no mueva la categoría a la raíz; {@code "padre": null} la mueve explícitamente.
+     * </p>
+     *
+     * @param id El ID de la categoría a actualizar.
+     * @param request El DTO de solicitud con los nuevos datos.
+     * @param expectedVersion La versión que el cliente leyó, o {@code null} para no condicionar.
+     * @return El DTO de respuesta de la categoría actualizada.
+     * @throws PreconditionFailedException Si la versión no coincide con la actual.
+     * @throws IllegalArgumentException Si el nuevo padre está dentro del subárbol de la categoría.
+     * @throws RuntimeException Si la categoría con el ID especificado no se encuentra.
+     */
+    @Transactional
+    public CategoryResponse update(Long id, CategoryRequest request, Long expectedVersion) {
+        // Reactiva y puede mover: el bloqueo va antes de escribir la fila, como en todo cambio de la jerarquía
+        hierarchy.lock();
+        if (expectedVersion != null) {
+            Object[] previous = auditRow(id);
+            Long padre = request.hasPadre() ? request.getPadre() : (Long) previous[2];
+            String estadoEfectivo = effectiveState(Constant.ACTIVO, parentFor(id, padre));
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("nombre", request.getNombre());
+            values.put("estado", Constant.ACTIVO);
+            values.put("padreId", padre);
+            values.put("estadoEfectivo", estadoEfectivo);
+            values.put("fechaActualizacion", new Date());
+            int rows = repo.updateIfVersion(id, expectedVersion, request.getNombre(), Constant.ACTIVO,
+                    (Date) values.get("fechaActualizacion"), padre, estadoEfectivo);
+            if (rows == 0) {
+                // La versión leída por el cliente ya no es la actual
+                throw new PreconditionFailedException(Constant.ERROR_PRECONDITION + id);
+            }
+            evict(List.of(id));
+            applyHierarchy(id, (Long) previous[2], padre);
+            events.publishEvent(CatalogChangedEvent.category(id));
+            Category updated = written(id, previous, values, expectedVersion + 1);
+            audit.record(AuditService.CATEGORIA, id, AuditService.ACTUALIZAR, auditState(previous), auditState(updated));
+            CategoryResponse response = convertToResponse(updated);
+            outbox.record(AuditService.CATEGORIA, id, AuditService.ACTUALIZAR, response);
+            return response;
+        }
+        
         return repo.findById(id).map(existing -> {
+            Map<String, Object> before = auditState(existing);
+            Long oldParent = existing.getPadreId();
+            Long padre = request.hasPadre() ? request.getPadre() : oldParent;
+            String estadoEfectivo = effectiveState(Constant.ACTIVO, parentFor(id, padre));
             
             existing.setNombre(request.getNombre());
+            existing.setPadreId(padre);
             
             existing.setEstado(Constant.ACTIVO);
+            existing.setEstadoEfectivo(estadoEfectivo);
             
             existing.setFechaActualizacion(new Date());
             
-            Category savedCategory = repo.save(existing);
+            // saveAndFlush para que la respuesta (y el ETag) lleve la versión ya incrementada
+            Category savedCategory = repo.saveAndFlush(existing);
+            applyHierarchy(id, oldParent, savedCategory.getPadreId());
+            events.publishEvent(CatalogChangedEvent.category(id));
+            audit.record(AuditService.CATEGORIA, id, AuditService.ACTUALIZAR, before, auditState(savedCategory));
             
-            return convertToResponse(savedCategory);
+            CategoryResponse response = convertToResponse(savedCategory);
+            outbox.record(AuditService.CATEGORIA, id, AuditService.ACTUALIZAR, response);
+            return response;
         }).orElseThrow(() -> new RuntimeException(Constant.ERROR_NOFOUND_CATEGORY + id));
     }
 
+    /**
+     * Modifica parcialmente una categoría a partir de un documento JSON Merge Patch.
+     * <p>
+     * Solo se escriben las columnas presentes en el documento (más {@code fechaActualizacion} y
+     * {@code version}) con un único {@code UPDATE}, condicionado a la versión de una lectura escalar
+     * previa que también da el estado anterior para la auditoría y, con los valores escritos, la
+     * respuesta sin releer la categoría. Sin {@code expectedVersion}, una
+     * escritura concurrente entre la lectura y el {@code UPDATE} se informa como conflicto. El estado
+     * no se modifica; {@code "padre": null} deja la categoría como raíz.
+     * </p>
+     *
+     * @param id El ID de la categoría a modificar.
+     * @param patch Los campos a modificar ({@code nombre}, {@code padre}).
+     * @param expectedVersion La versión que el cliente leyó, o {@code null} para no condicionar.
+     * @return El DTO de respuesta de la categoría modificada.
+     * @throws PreconditionFailedException Si la versión no coincide con la actual.
+     * @throws IllegalArgumentException Si el nuevo padre está dentro del subárbol de la categoría.
+     * @throws RuntimeException Si la categoría no se encuentra o el documento contiene campos no modificables.
+     */
+    @Transactional
+    public CategoryResponse patch(Long id, Map<String, Object> patch, Long expectedVersion) {
+        MergePatchUtil.requireAllowed(patch, PATCHABLE);
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (patch.containsKey("nombre")) {
+            values.put("nombre", MergePatchUtil.asString(patch, "nombre"));
+        }
+        Object[] previous = null;
+        Long newParent = null;
+        if (patch.containsKey("padre")) {
+            newParent = patch.get("padre") == null ? null : MergePatchUtil.asLong(patch, "padre");
+            // El bloqueo va antes de escribir la fila, como en todo cambio de la jerarquía
+            hierarchy.lock();
+            Category parent = parentFor(id, newParent);
+            previous = auditRow(id);
+            values.put("padreId", newParent);
+            values.put("estadoEfectivo", effectiveState((String) previous[1], parent));
+        }
+
+        Category current;
+        if (!values.isEmpty()) {
+            values.put("fechaActualizacion", new Date());
+            if (previous == null) {
+                previous = auditRow(id);
+            }
+            Long version = expectedVersion != null ? expectedVersion : rowVersion(previous);
+            if (partialRepo.update(Category.class, id, version, values) == 0) {
+                if (expectedVersion == null) {
+                    throw new ObjectOptimisticLockingFailureException(Category.class, id);
+                }
+                throw new PreconditionFailedException(Constant.ERROR_PRECONDITION + id);
+            }
+            evict(List.of(id));
+            if (patch.containsKey("padre")) {
+                applyHierarchy(id, (Long) previous[2], newParent);
+            }
+            events.publishEvent(CatalogChangedEvent.category(id));
+            current = written(id, previous, values, version + 1);
+        } else {
+            current = repo.findById(id)
+                    .orElseThrow(() -> new RuntimeException(Constant.ERROR_NOFOUND_CATEGORY + id));
+            if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+                throw new PreconditionFailedException(Constant.ERROR_PRECONDITION + id);
+            }
+        }
+        if (!values.isEmpty()) {
+            Map<String, Object> written = auditState(current);
+            written.keySet().retainAll(values.keySet());
+            audit.record(AuditService.CATEGORIA, id, AuditService.ACTUALIZAR, auditState(previous), written);
+        }
+        CategoryResponse response = convertToResponse(current);
+        if (!values.isEmpty()) {
+            outbox.record(AuditService.CATEGORIA, id, AuditService.ACTUALIZAR, response);
+        }
+        return response;
+    }
+
     /**
      * Desactiva lógicamente una categoría (soft delete).
      * <p>
-     * Cambia el estado de la categoría a "DESACTIVADO" si esta existe.
+     * Cambia el estado de la categoría a "DESACTIVADO" si esta existe. Todo su subárbol queda con
+     * estado efectivo "DESACTIVADO" (su estado propio no cambia, y vuelve a estar activo al
+     * reactivar la categoría).
      * </p>
      *
      * @param id El ID de la categoría a desactivar.
      */
+    @Transactional
     public void deactivate(Long id) {
+        // El subárbol cambia de estado efectivo: el bloqueo va antes de escribir la fila
+        hierarchy.lock();
         repo.findById(id).ifPresent(cat -> {
+            Map<String, Object> before = auditState(cat);
             cat.setEstado(Constant.DESACTIVADO);
+            cat.setEstadoEfectivo(Constant.DESACTIVADO);
             cat.setFechaActualizacion(new Date());
-            repo.save(cat);
+            // saveAndFlush para que el evento del outbox lleve la versión ya incrementada
+            Category saved = repo.saveAndFlush(cat);
+            events.publishEvent(CatalogChangedEvent.category(id));
+            audit.record(AuditService.CATEGORIA, id, AuditService.DESACTIVAR, before, auditState(saved));
+            outbox.record(AuditService.CATEGORIA, id, AuditService.DESACTIVAR, convertToResponse(saved));
+            propagateEffectiveState(id);
         });
     }
+
+    /**
+     * Devuelve una categoría y todo su subárbol con una sola lectura de la tabla de clausura.
+     *
+     * @param id El ID de la raíz del subárbol.
+     * @return La categoría seguida de sus descendientes, por profundidad y luego por ID.
+     * @throws RuntimeException Si la categoría no existe.
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryResponse> findSubtree(Long id) {
+        List<CategoryResponse> subtree = hierarchy.findSubtree(id);
+        if (subtree.isEmpty()) {
+            throw new RuntimeException(Constant.ERROR_NOFOUND_CATEGORY + id);
+        }
+        return subtree;
+    }
+
+    // -------------------------------------------------------------------------
+    // Jerarquía
+    // -------------------------------------------------------------------------
+
+    /**
+     * Valida el padre de una categoría. El llamador ya tomó el bloqueo de la jerarquía, para que la
+     * validación siga vigente hasta el commit.
+     * <p>
+     * Toda escritura que puede cambiar el padre o el estado efectivo toma el bloqueo antes de
+     * escribir la fila de {@code Categorias}: si una lo tomara después, podría esperar el bloqueo
+     * mientras otra, que ya lo tiene, espera esa fila para propagar el estado (deadlock).
+     * </p>
+     *
+     * @param id La categoría que se crea ({@code null}) o se modifica.
+     * @param padreId El padre pedido, o {@code null} para una raíz.
+     * @return El padre, o {@code null} si es una raíz.
+     * @throws IllegalArgumentException Si el padre es la propia categoría o uno de sus descendientes.
+     * @throws RuntimeException Si el padre no existe.
+     */
+    private Category parentFor(Long id, Long padreId) {
+        if (padreId == null) {
+            return null;
+        }
+        Category parent = repo.findById(padreId)
+                .orElseThrow(() -> new RuntimeException(Constant.ERROR_NOFOUND_CATEGORY + padreId));
+        if (id != null && hierarchy.isInSubtree(id, padreId)) {
+            throw new IllegalArgumentException(Constant.ERROR_CATEGORY_CYCLE + id);
+        }
+        return parent;
+    }
+
+    private static String effectiveState(String estado, Category parent) {
+        boolean active = Constant.ACTIVO.equalsIgnoreCase(estado)
+                && (parent == null || Constant.ACTIVO.equalsIgnoreCase(parent.getEstadoEfectivo()));
+        return active ? Constant.ACTIVO : Constant.DESACTIVADO;
+    }
+
+    /**
+     * Actualiza la tabla de clausura si cambió el padre y recalcula el estado efectivo del subárbol,
+     * con el bloqueo de la jerarquía ya tomado.
+     */
+    private void applyHierarchy(Long id, Long oldParent, Long newParent) {
+        if (!Objects.equals(oldParent, newParent)) {
+            hierarchy.move(id, newParent);
+        }
+        propagateEffectiveState(id);
+    }
+
+    /**
+     * Escribe el estado efectivo de los descendientes de {@code id} que cambió, con un
+     * {@code UPDATE} por valor; cada descendiente afectado se notifica al catálogo, la auditoría y
+     * el outbox como cualquier otra modificación.
+     */
+    private void propagateEffectiveState(Long id) {
+        Map<Long, String> changes = hierarchy.effectiveChanges(id);
+        if (changes.isEmpty()) {
+            return;
+        }
+        Map<String, List<Long>> byState = new LinkedHashMap<>();
+        changes.forEach((descendant, estado) -> byState.computeIfAbsent(estado, k -> new ArrayList<>()).add(descendant));
+        byState.forEach((estado, ids) -> repo.updateEstadoEfectivo(ids, estado));
+        evict(changes.keySet());
+
+        for (Category descendant : repo.findAllById(changes.keySet())) {
+            String after = descendant.getEstadoEfectivo();
+            String before = Constant.ACTIVO.equals(after) ? Constant.DESACTIVADO : Constant.ACTIVO;
+            events.publishEvent(CatalogChangedEvent.category(descendant.getId()));
+            audit.record(AuditService.CATEGORIA, descendant.getId(), AuditService.ACTUALIZAR,
+                    Map.of("estadoEfectivo", before), Map.of("estadoEfectivo", after));
+            outbox.record(AuditService.CATEGORIA, descendant.getId(), AuditService.ACTUALIZAR,
+                    convertToResponse(descendant));
+        }
+    }
     
+    /**
+     * Quita de la caché de segundo nivel las categorías escritas con un {@code UPDATE} masivo.
+     * Hibernate invalida la región recién al terminar la transacción, así que sin esto una
+     * lectura posterior en la misma transacción devolvería la versión anterior.
+     */
+    private void evict(Collection<Long> ids) {
+        ids.forEach(id -> emf.getCache().evict(Category.class, id));
+    }
+
     // -------------------------------------------------------------------------
     // Método de Mapeo Interno
     // -------------------------------------------------------------------------
@@ -139,6 +503,79 @@ public class CategoryService {
         response.setEstado(category.getEstado());
         response.setFechaCreacion(category.getFechaCreacion());
         response.setFechaActualizacion(category.getFechaActualizacion());
+        response.setVersion(category.getVersion());
+        response.setPadre(category.getPadreId());
+        response.setEstadoEfectivo(category.getEstadoEfectivo());
         return response;
     }
+
+    /**
+     * Campos auditados de una categoría.
+     *
+     * @param category La categoría.
+     * @return Un mapa nuevo (modificable) de campo a valor.
+     */
+    private static Map<String, Object> auditState(Category category) {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("nombre", category.getNombre());
+        state.put("estado", category.getEstado());
+        state.put("padreId", category.getPadreId());
+        return state;
+    }
+
+    /**
+     * Campos auditados de una fila leída con {@link #auditRow(Long)}.
+     *
+     * @param row La fila de {@link CategoryRepository#findAuditRow(Long)}.
+     * @return Un mapa nuevo (modificable) de campo a valor.
+     */
+    private static Map<String, Object> auditState(Object[] row) {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("nombre", row[0]);
+        state.put("estado", row[1]);
+        state.put("padreId", row[2]);
+        return state;
+    }
+
+    /**
+     * Arma la categoría tal como quedó después de un {@code UPDATE} directo, sin releerla: la fila
+     * anterior con las columnas escritas encima. No queda administrada por JPA.
+     *
+     * @param id El ID de la categoría.
+     * @param previous La fila anterior, leída con {@link #auditRow(Long)}.
+     * @param values Las columnas escritas.
+     * @param version La versión nueva.
+     * @return La categoría modificada.
+     */
+    private static Category written(Long id, Object[] previous, Map<String, Object> values, long version) {
+        Category category = new Category();
+        category.setId(id);
+        category.setNombre((String) values.getOrDefault("nombre", previous[0]));
+        category.setEstado((String) values.getOrDefault("estado", previous[1]));
+        category.setPadreId((Long) values.getOrDefault("padreId", previous[2]));
+        category.setFechaCreacion((Date) previous[4]);
+        category.setFechaActualizacion((Date) values.getOrDefault("fechaActualizacion", previous[5]));
+        category.setEstadoEfectivo((String) values.getOrDefault("estadoEfectivo", previous[6]));
+        category.setVersion(version);
+        return category;
+    }
+
+    /**
+     * Lee por PK una categoría como valores escalares, sin cargar la entidad.
+     *
+     * @param id El ID de la categoría.
+     * @return La fila de {@link CategoryRepository#findAuditRow(Long)}.
+     * @throws RuntimeException Si la categoría no existe.
+     */
+    private Object[] auditRow(Long id) {
+        List<Object[]> rows = repo.findAuditRow(id);
+        if (rows.isEmpty()) {
+            throw new RuntimeException(Constant.ERROR_NOFOUND_CATEGORY + id);
+        }
+        return rows.get(0);
+    }
+
+    private static Long rowVersion(Object[] row) {
+        return ((Number) row[3]).longValue();
+    }
 }
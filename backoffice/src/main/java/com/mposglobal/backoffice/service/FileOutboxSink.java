@@ -0,0 +1,74 @@
+package com.mposglobal.backoffice.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.mposglobal.backoffice.config.OutboxProperties;
+import com.mposglobal.backoffice.event.OutboxMessage;
+import com.mposglobal.backoffice.event.OutboxSubscriber;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Suscriptor del outbox que agrega cada evento como una línea JSON a {@code app.outbox.file-sink}.
+ * <p>
+ * El lote se escribe y se fuerza a disco antes de volver, así que un evento marcado procesado
+ * siempre está en el archivo. Si el relay reintenta un lote, las líneas pueden repetirse; el
+ * {@code id} permite descartarlas.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.outbox", name = "file-sink")
+public class FileOutboxSink implements OutboxSubscriber {
+
+    private final Path file;
+    private final ObjectMapper mapper;
+
+    /**
+     * @param properties La configuración del outbox (ruta del archivo).
+     * @param mapper El {@code ObjectMapper} de la aplicación.
+     */
+    public FileOutboxSink(OutboxProperties properties, ObjectMapper mapper) {
+        this.file = properties.getFileSink();
+        this.mapper = mapper;
+    }
+
+    @Override
+    public synchronized void deliver(List<OutboxMessage> messages) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            StringBuilder lines = new StringBuilder(messages.size() * 256);
+            for (OutboxMessage message : messages) {
+                lines.append(line(message)).append('\n');
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String line(OutboxMessage message) throws JsonProcessingException {
+        ObjectNode node = mapper.createObjectNode();
+        node.put("id", message.id());
+        node.put("tipo", message.tipo());
+        node.put("entidadId", message.entidadId());
+        node.put("accion", message.accion());
+        node.set("datos", mapper.readTree(message.datos()));
+        node.put("fecha", message.fecha());
+        return mapper.writeValueAsString(node);
+    }
+}
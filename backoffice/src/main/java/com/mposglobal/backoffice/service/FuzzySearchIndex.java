@@ -0,0 +1,568 @@
+package com.mposglobal.backoffice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.mposglobal.backoffice.config.CatalogProperties;
+import com.mposglobal.backoffice.event.CatalogChangedEvent;
+import com.mposglobal.backoffice.repository.ProductTextRepository;
+import com.mposglobal.backoffice.repository.ProductTextRepository.ProductText;
+import com.mposglobal.backoffice.util.SearchText;
+import com.mposglobal.backoffice.util.collections.LongIntHashMap;
+import com.mposglobal.backoffice.util.collections.LongObjectHashMap;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice en memoria para la búsqueda de productos activos tolerante a errores de tipeo.
+ * <p>
+ * Cada palabra distinta del nombre y de los tags ({@link SearchText}) es un término con la lista
+ * ordenada de los productos que la contienen. Para una palabra de la consulta:
+ * </p>
+ * <ol>
+ *   <li><b>Candidatos:</b> los términos que comparten suficientes trigramas con ella (cada
+ *   edición altera a lo sumo tres), contados con el índice invertido trigrama → términos.</li>
+ *   <li><b>Verificación:</b> distancia de Levenshtein acotada
+ *   ({@link SearchText#editDistance(String, String, int)}); se admiten 0 ediciones hasta 3
+ *   letras, 1 hasta 6 y 2 desde 7.</li>
+ *   <li><b>Puntaje:</b> BM25 del término en cada producto (todas las palabras aparecen una vez,
+ *   así que pesan su rareza y el largo del producto), multiplicado por 1, 0,75 o 0,5 según las
+ *   ediciones. Un producto suma el mejor término de cada palabra de la consulta.</li>
+ * </ol>
+ * <p>
+ * Las consultas no toman ningún bloqueo: leen mapas concurrentes y arreglos que nunca se
+ * modifican después de publicados (un cambio publica un arreglo nuevo). La lista de un término
+ * está partida en bloques, así que un cambio copia solo el bloque afectado y el arreglo de
+ * referencias, no todas las entradas de una palabra frecuente. Un único escritor a la
+ * vez aplica los cambios de un producto tras el commit de su {@link CatalogChangedEvent}; una
+ * consulta simultánea puede ver el producto a medio aplicar, nunca una estructura inconsistente.
+ * La carga completa arma un índice aparte y lo publica de una vez. Los términos que quedan sin
+ * productos se conservan hasta la próxima carga completa.
+ * </p>
+ */
+@Component
+public class FuzzySearchIndex extends ReloadableIndex {
+
+    /**
+     * Un producto encontrado y su puntaje.
+     */
+    public record Hit(long id, double score) {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(FuzzySearchIndex.class);
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // Términos aceptados como máximo por cada palabra de la consulta
+    private static final int MAX_EXPANSIONS = 50;
+    private static final int MAX_QUERY_WORDS = 8;
+    // El largo del producto (en palabras) va en los 8 bits bajos de cada entrada de las listas
+    private static final int LENGTH_BITS = 8;
+    private static final int MAX_LENGTH = (1 << LENGTH_BITS) - 1;
+    // Entradas por bloque de una lista al cargarla; un bloque se parte al llegar al doble
+    private static final int BLOCK = 512;
+
+    private final ProductTextRepository repo;
+    private final Timer reloadTimer;
+    private final Timer queryTimer;
+
+    private volatile Index index = new Index(0);
+
+    /**
+     * Constructor que inyecta el repositorio, la configuración del catálogo y el registro de métricas.
+     *
+     * @param repo El repositorio de los textos de los productos.
+     * @param properties La configuración del catálogo en memoria.
+     * @param registry El registro de métricas.
+     */
+    public FuzzySearchIndex(ProductTextRepository repo, CatalogProperties properties, MeterRegistry registry) {
+        super("Indice de busqueda", properties);
+        this.repo = repo;
+        this.reloadTimer = Timer.builder("search.reload").register(registry);
+        this.queryTimer = Timer.builder("search.query").register(registry);
+        Gauge.builder("search.products", this, FuzzySearchIndex::size).register(registry);
+        Gauge.builder("search.terms", this, i -> i.index.termCount).register(registry);
+    }
+
+    // -------------------------------------------------------------------------
+    // Lecturas (sin bloqueo)
+    // -------------------------------------------------------------------------
+
+    /**
+     * @return La cantidad de productos en el índice.
+     */
+    public int size() {
+        return index.docCount;
+    }
+
+    /**
+     * Busca los productos más parecidos a la consulta.
+     *
+     * @param query El texto escrito; se ignoran acentos, mayúsculas y signos.
+     * @param limit La cantidad máxima de resultados.
+     * @return Los productos, de mayor a menor puntaje (a igual puntaje, el más reciente primero).
+     */
+    public List<Hit> search(String query, int limit) {
+        return queryTimer.record(() -> search(index, query, limit));
+    }
+
+    private List<Hit> search(Index current, String query, int limit) {
+        List<String> words = SearchText.terms(query).stream().limit(MAX_QUERY_WORDS).toList();
+        if (words.isEmpty() || current.docCount == 0) {
+            return List.of();
+        }
+        double avgLength = Math.max(1.0, (double) current.totalLength / current.docCount);
+        List<List<Match>> matches = words.stream().map(current::matches).toList();
+        TopHits best = new TopHits(limit);
+
+        if (words.size() == 1 && matches.get(0).size() == 1) {
+            // Un solo término: no hace falta acumular, el puntaje sale de la entrada
+            Match match = matches.get(0).get(0);
+            double[] byLength = scoreByLength(match, current.docCount, avgLength);
+            long[][] blocks = match.term().postings.blocks;
+            // De atrás hacia adelante: ante un empate queda el primero visto, que es el más reciente
+            for (int b = blocks.length - 1; b >= 0; b--) {
+                long[] block = blocks[b];
+                for (int i = block.length - 1; i >= 0; i--) {
+                    best.offer(block[i] >>> LENGTH_BITS, byLength[(int) (block[i] & MAX_LENGTH)]);
+                }
+            }
+            return best.toList();
+        }
+
+        // Mejor puntaje de cada producto por cada palabra, en un arreglo plano indexado por ranura
+        int width = words.size();
+        long entries = matches.stream().flatMap(List::stream).mapToLong(m -> m.term().postings.size).sum();
+        int expected = (int) Math.max(16, Math.min(entries, current.docCount));
+        LongIntHashMap slots = new LongIntHashMap(expected);
+        long[] ids = new long[expected];
+        double[] scores = new double[expected * width];
+        int used = 0;
+        for (int w = 0; w < width; w++) {
+            for (Match match : matches.get(w)) {
+                double[] byLength = scoreByLength(match, current.docCount, avgLength);
+                for (long[] block : match.term().postings.blocks) {
+                    for (long entry : block) {
+                        long id = entry >>> LENGTH_BITS;
+                        int slot = slots.getOrDefault(id, -1);
+                        if (slot < 0) {
+                            if (used == ids.length) {
+                                ids = Arrays.copyOf(ids, used * 2);
+                                scores = Arrays.copyOf(scores, used * 2 * width);
+                            }
+                            slot = used++;
+                            slots.put(id, slot);
+                            ids[slot] = id;
+                        }
+                        int at = slot * width + w;
+                        scores[at] = Math.max(scores[at], byLength[(int) (entry & MAX_LENGTH)]);
+                    }
+                }
+            }
+        }
+        // Las ranuras siguen aproximadamente el orden de ID: también de atrás hacia adelante
+        for (int slot = used - 1; slot >= 0; slot--) {
+            double total = 0;
+            for (int w = 0; w < width; w++) {
+                total += scores[slot * width + w];
+            }
+            best.offer(ids[slot], total);
+        }
+        return best.toList();
+    }
+
+    /**
+     * BM25 del término para cada largo posible del producto (todas las palabras aparecen una
+     * vez), con la penalización por ediciones.
+     */
+    private static double[] scoreByLength(Match match, int docCount, double avgLength) {
+        int df = match.term().postings.size;
+        double idf = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+        double penalty = 1 - 0.25 * match.edits();
+        double[] byLength = new double[MAX_LENGTH + 1];
+        for (int length = 0; length <= MAX_LENGTH; length++) {
+            byLength[length] = idf * (K1 + 1) / (1 + K1 * (1 - B + B * length / avgLength)) * penalty;
+        }
+        return byLength;
+    }
+
+    // -------------------------------------------------------------------------
+    // Escrituras
+    // -------------------------------------------------------------------------
+
+    @Override
+    protected void load() {
+        reloadTimer.record(() -> {
+            Index next = new Index((int) Math.min(repo.countActive(), Integer.MAX_VALUE / 2));
+            repo.forEachActive(next::append);
+            next.finishBuild();
+            index = next;
+        });
+        log.info("Indice de busqueda cargado: {} productos, {} terminos", size(), index.termCount);
+    }
+
+    @Override
+    protected void apply(CatalogChangedEvent event) {
+        if (event.type() == CatalogChangedEvent.Type.PRODUCT) {
+            refresh(event.id());
+        }
+    }
+
+    @Override
+    protected boolean matchesDatabase() {
+        return size() == repo.countActive();
+    }
+
+    private synchronized void refresh(long productId) {
+        try {
+            Index current = index;
+            current.remove(productId);
+            repo.findActive(productId).ifPresent(current::add);
+        } catch (RuntimeException e) {
+            applyFailed("el producto " + productId, e);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Estructura
+    // -------------------------------------------------------------------------
+
+    private record Match(Term term, int edits) {
+    }
+
+    /**
+     * Los mejores resultados vistos: montículo del peor al mejor, que solo crea un
+     * {@link Hit} cuando el candidato entra.
+     */
+    private static final class TopHits {
+
+        private static final Comparator<Hit> WORST_FIRST =
+                Comparator.comparingDouble(Hit::score).thenComparingLong(Hit::id);
+
+        private final int limit;
+        private final PriorityQueue<Hit> heap;
+
+        TopHits(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(limit + 1, WORST_FIRST);
+        }
+
+        void offer(long id, double score) {
+            if (heap.size() == limit) {
+                Hit worst = heap.peek();
+                if (score < worst.score() || (score == worst.score() && id < worst.id())) {
+                    return;
+                }
+                heap.poll();
+            }
+            heap.add(new Hit(id, score));
+        }
+
+        List<Hit> toList() {
+            List<Hit> hits = new ArrayList<>(heap);
+            hits.sort(WORST_FIRST.reversed());
+            return hits;
+        }
+    }
+
+    /**
+     * Una palabra y los productos que la contienen: {@code (id << 8) | largo}, ordenados por ID.
+     */
+    private static final class Term {
+
+        final int id;
+        final String text;
+        volatile Postings postings = Postings.EMPTY;
+        // Solo durante la carga completa: las entradas, y cuántas son válidas
+        long[] pending = new long[0];
+        int building;
+
+        Term(int id, String text) {
+            this.id = id;
+            this.text = text;
+        }
+    }
+
+    private static final class Index {
+
+        final ConcurrentHashMap<String, Term> vocabulary;
+        // Trigrama → IDs de los términos que lo contienen, ascendentes
+        final ConcurrentHashMap<String, int[]> grams = new ConcurrentHashMap<>();
+        volatile Term[] terms;
+        volatile int termCount;
+        volatile int docCount;
+        volatile long totalLength;
+        // Solo el escritor: los términos de cada producto, para quitarlo
+        final LongObjectHashMap<int[]> termsByProduct;
+
+        Index(int expectedProducts) {
+            vocabulary = new ConcurrentHashMap<>(Math.max(16, expectedProducts));
+            terms = new Term[Math.max(16, expectedProducts)];
+            termsByProduct = new LongObjectHashMap<>(expectedProducts);
+        }
+
+        /**
+         * Los términos a menos de las ediciones admitidas de la palabra, los más cercanos primero.
+         */
+        List<Match> matches(String word) {
+            int maxEdits = word.length() <= 3 ? 0 : word.length() <= 6 ? 1 : 2;
+            Term exact = vocabulary.get(word);
+            List<Match> found = new ArrayList<>();
+            if (exact != null) {
+                found.add(new Match(exact, 0));
+            }
+            if (maxEdits == 0) {
+                return found;
+            }
+            Term[] published = terms;
+            Set<String> wordGrams = distinctGrams(word);
+            // Cada edición quita a lo sumo tres trigramas de la palabra
+            int minShared = wordGrams.size() - 3 * maxEdits;
+            LongIntHashMap shared = new LongIntHashMap(256);
+            for (String gram : wordGrams) {
+                for (int termId : grams.getOrDefault(gram, new int[0])) {
+                    shared.addTo(termId, 1);
+                }
+            }
+            shared.forEach((termId, count) -> {
+                Term term = termId < published.length ? published[(int) termId] : null;
+                if (term == null || term == exact || term.postings.size == 0 || count < minShared) {
+                    return;
+                }
+                int edits = SearchText.editDistance(word, term.text, maxEdits);
+                if (edits <= maxEdits) {
+                    found.add(new Match(term, edits));
+                }
+            });
+            found.sort(Comparator.comparingInt(Match::edits));
+            return found.size() > MAX_EXPANSIONS ? found.subList(0, MAX_EXPANSIONS) : found;
+        }
+
+        /**
+         * Agrega un producto (escritor único, índice ya publicado).
+         */
+        void add(ProductText row) {
+            Set<String> words = SearchText.terms(row.nombre(), row.tags());
+            long entry = entry(row.id(), words.size());
+            int[] ids = new int[words.size()];
+            int i = 0;
+            for (String word : words) {
+                Term term = termFor(word, true);
+                term.postings = term.postings.with(entry);
+                ids[i++] = term.id;
+            }
+            termsByProduct.put(row.id(), ids);
+            totalLength += words.size();
+            docCount++;
+        }
+
+        /**
+         * Quita un producto (escritor único, índice ya publicado).
+         */
+        void remove(long productId) {
+            int[] ids = termsByProduct.remove(productId);
+            if (ids == null) {
+                return;
+            }
+            Term[] published = terms;
+            for (int termId : ids) {
+                Term term = published[termId];
+                term.postings = term.postings.without(productId);
+            }
+            totalLength -= ids.length;
+            docCount--;
+        }
+
+        /**
+         * Agrega un producto durante la carga completa, que llega en orden de ID: las listas
+         * crecen sin copiarse en cada alta y los trigramas se indexan al final.
+         */
+        void append(ProductText row) {
+            Set<String> words = SearchText.terms(row.nombre(), row.tags());
+            long entry = entry(row.id(), words.size());
+            int[] ids = new int[words.size()];
+            int i = 0;
+            for (String word : words) {
+                Term term = termFor(word, false);
+                if (term.building == term.pending.length) {
+                    term.pending = Arrays.copyOf(term.pending, Math.max(4, term.building * 2));
+                }
+                term.pending[term.building++] = entry;
+                ids[i++] = term.id;
+            }
+            termsByProduct.put(row.id(), ids);
+            totalLength += words.size();
+            docCount++;
+        }
+
+        void finishBuild() {
+            Map<String, int[]> counts = new HashMap<>();
+            for (int t = 0; t < termCount; t++) {
+                Term term = terms[t];
+                term.postings = Postings.of(term.pending, term.building);
+                term.pending = null;
+                for (String gram : distinctGrams(term.text)) {
+                    counts.computeIfAbsent(gram, g -> new int[1])[0]++;
+                }
+            }
+            counts.forEach((gram, count) -> grams.put(gram, new int[count[0]]));
+            // Los términos se recorren por ID, así que cada lista queda ordenada
+            for (int t = 0; t < termCount; t++) {
+                for (String gram : distinctGrams(terms[t].text)) {
+                    int[] slot = counts.get(gram);
+                    grams.get(gram)[grams.get(gram).length - slot[0]--] = t;
+                }
+            }
+        }
+
+        private Term termFor(String word, boolean indexGrams) {
+            Term term = vocabulary.get(word);
+            if (term != null) {
+                return term;
+            }
+            term = new Term(termCount, word);
+            Term[] current = terms;
+            if (termCount == current.length) {
+                current = Arrays.copyOf(current, termCount + (termCount >> 1));
+            }
+            current[termCount] = term;
+            // Primero el arreglo, después los trigramas y el vocabulario: quien encuentre el
+            // término por cualquiera de los dos ya lo ve en el arreglo
+            terms = current;
+            termCount++;
+            if (indexGrams) {
+                for (String gram : distinctGrams(word)) {
+                    int[] previous = grams.getOrDefault(gram, new int[0]);
+                    int[] next = Arrays.copyOf(previous, previous.length + 1);
+                    next[previous.length] = term.id;
+                    grams.put(gram, next);
+                }
+            }
+            vocabulary.put(word, term);
+            return term;
+        }
+
+        private static Set<String> distinctGrams(String word) {
+            return Set.of(Arrays.stream(SearchText.trigrams(word)).distinct().toArray(String[]::new));
+        }
+
+        private static long entry(long productId, int length) {
+            return (productId << LENGTH_BITS) | Math.min(length, MAX_LENGTH);
+        }
+    }
+
+    /**
+     * Las entradas de un término en bloques ordenados y consecutivos, nunca vacíos. Es inmutable:
+     * un cambio devuelve una lista nueva que comparte los bloques no afectados.
+     */
+    private static final class Postings {
+
+        static final Postings EMPTY = new Postings(new long[0][], 0);
+
+        final long[][] blocks;
+        final int size;
+
+        private Postings(long[][] blocks, int size) {
+            this.blocks = blocks;
+            this.size = size;
+        }
+
+        static Postings of(long[] entries, int count) {
+            long[][] blocks = new long[(count + BLOCK - 1) / BLOCK][];
+            for (int b = 0; b < blocks.length; b++) {
+                blocks[b] = Arrays.copyOfRange(entries, b * BLOCK, Math.min(count, (b + 1) * BLOCK));
+            }
+            return new Postings(blocks, count);
+        }
+
+        Postings with(long entry) {
+            if (blocks.length == 0) {
+                return new Postings(new long[][] {{entry}}, 1);
+            }
+            int b = blockFor(entry);
+            long[] block = blocks[b];
+            int at = Arrays.binarySearch(block, entry);
+            if (at >= 0) {
+                return this;
+            }
+            at = -at - 1;
+            long[] next = new long[block.length + 1];
+            System.arraycopy(block, 0, next, 0, at);
+            next[at] = entry;
+            System.arraycopy(block, at, next, at + 1, block.length - at);
+            if (next.length < 2 * BLOCK) {
+                return new Postings(replace(b, next), size + 1);
+            }
+            // El bloque lleno se parte en dos mitades
+            long[][] split = new long[blocks.length + 1][];
+            System.arraycopy(blocks, 0, split, 0, b);
+            split[b] = Arrays.copyOfRange(next, 0, BLOCK);
+            split[b + 1] = Arrays.copyOfRange(next, BLOCK, next.length);
+            System.arraycopy(blocks, b + 1, split, b + 2, blocks.length - b - 1);
+            return new Postings(split, size + 1);
+        }
+
+        Postings without(long productId) {
+            if (blocks.length == 0) {
+                return this;
+            }
+            // Cualquier largo ordena después de (id << 8) y antes de ((id + 1) << 8)
+            long first = productId << LENGTH_BITS;
+            int b = blockFor(first | MAX_LENGTH);
+            long[] block = blocks[b];
+            int at = Arrays.binarySearch(block, first);
+            if (at < 0) {
+                at = -at - 1;
+            }
+            if (at >= block.length || block[at] >>> LENGTH_BITS != productId) {
+                return this;
+            }
+            if (block.length == 1) {
+                long[][] rest = new long[blocks.length - 1][];
+                System.arraycopy(blocks, 0, rest, 0, b);
+                System.arraycopy(blocks, b + 1, rest, b, rest.length - b);
+                return new Postings(rest, size - 1);
+            }
+            long[] next = new long[block.length - 1];
+            System.arraycopy(block, 0, next, 0, at);
+            System.arraycopy(block, at + 1, next, at, next.length - at);
+            return new Postings(replace(b, next), size - 1);
+        }
+
+        /**
+         * El último bloque cuya primera entrada no supera la dada (el primero si todas la superan).
+         */
+        private int blockFor(long entry) {
+            int low = 1;
+            int high = blocks.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (blocks[mid][0] <= entry) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low - 1;
+        }
+
+        private long[][] replace(int b, long[] block) {
+            long[][] next = blocks.clone();
+            next[b] = block;
+            return next;
+        }
+    }
+}
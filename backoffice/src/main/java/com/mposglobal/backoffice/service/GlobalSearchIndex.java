@@ -0,0 +1,320 @@
+package com.mposglobal.backoffice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.mposglobal.backoffice.config.CatalogProperties;
+import com.mposglobal.backoffice.event.CatalogChangedEvent;
+import com.mposglobal.backoffice.event.UserChangedEvent;
+import com.mposglobal.backoffice.repository.ProductTextRepository;
+import com.mposglobal.backoffice.repository.SearchTextRepository;
+import com.mposglobal.backoffice.util.Constant;
+import com.mposglobal.backoffice.util.SearchText;
+import com.mposglobal.backoffice.util.collections.LongObjectHashMap;
+import com.mposglobal.backoffice.util.collections.PrefixTrie;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Índice en memoria de la búsqueda global del backoffice: usuarios (username y nombre completo),
+ * categorías (nombre) y productos (nombre y tags), todos activos.
+ * <p>
+ * Las palabras se normalizan igual para los tres tipos ({@link SearchText}) y cada tipo tiene su
+ * propio {@link PrefixTrie}, de modo que los resultados salen agrupados y cada grupo se pagina
+ * por separado, del ID mayor al menor. El cursor es el último ID entregado: las altas (IDs
+ * mayores) no desplazan las páginas siguientes.
+ * </p>
+ * <ul>
+ *   <li><b>Carga completa:</b> al terminar el arranque, recorriendo las tres tablas fila por
+ *   fila; el índice nuevo se arma aparte y se publica de una vez.</li>
+ *   <li><b>Cambios incrementales:</b> tras el commit de cada {@link UserChangedEvent} y de cada
+ *   {@link CatalogChangedEvent} se releen los textos del registro; uno desactivado sale.</li>
+ *   <li><b>Verificación:</b> si la cantidad de registros de algún tipo difiere de la base en dos
+ *   verificaciones seguidas, o si falló la aplicación de un cambio, se recarga todo.</li>
+ * </ul>
+ * <p>
+ * Las consultas toman el bloqueo de lectura de un {@link StampedLock} y no se bloquean entre sí;
+ * las escrituras lo toman de escritura solo para modificar el trie, con la fila ya leída. Sigue
+ * el interruptor {@code app.catalog.enabled} del catálogo en memoria.
+ * </p>
+ */
+@Component
+public class GlobalSearchIndex extends ReloadableIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(GlobalSearchIndex.class);
+
+    // Los prefijos de hasta 3 letras guardan sus mejores resultados (una primera página típica)
+    private static final int CACHED_DEPTH = 3;
+    private static final int CACHE_SIZE = Constant.MAX_SUGGEST_LIMIT + 1;
+    // Candidatos revisados como máximo por página en una consulta de varias palabras
+    private static final int MAX_SCAN = 10_000;
+
+    /**
+     * Tipos de registro buscables.
+     */
+    public enum Type { USER, CATEGORY, PRODUCT }
+
+    /**
+     * Una página de IDs de un tipo.
+     *
+     * @param ids Los IDs, de mayor a menor.
+     * @param nextCursor El ID a enviar como {@code before} para seguir, o {@code null} si no hay más.
+     */
+    public record Page(long[] ids, Long nextCursor) {
+    }
+
+    private static final Page EMPTY = new Page(new long[0], null);
+
+    private final SearchTextRepository texts;
+    private final ProductTextRepository productTexts;
+    private final Timer reloadTimer;
+    private final StampedLock lock = new StampedLock();
+
+    // Protegidos por el bloqueo; un elemento por tipo
+    private PrefixTrie[] tries = emptyTries();
+    private LongObjectHashMap<int[]>[] termsById = emptyTerms();
+
+    /**
+     * Constructor que inyecta los repositorios de textos, la configuración del catálogo y el registro de métricas.
+     *
+     * @param texts Los textos de usuarios y categorías.
+     * @param productTexts Los textos de los productos.
+     * @param properties La configuración del catálogo en memoria.
+     * @param registry El registro de métricas.
+     */
+    public GlobalSearchIndex(SearchTextRepository texts, ProductTextRepository productTexts,
+                             CatalogProperties properties, MeterRegistry registry) {
+        super("Indice de busqueda global", properties);
+        this.texts = texts;
+        this.productTexts = productTexts;
+        this.reloadTimer = Timer.builder("globalsearch.reload").register(registry);
+        for (Type type : Type.values()) {
+            Gauge.builder("globalsearch.entries", this, index -> index.size(type))
+                    .tag("type", type.name().toLowerCase(Locale.ROOT)).register(registry);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Lecturas
+    // -------------------------------------------------------------------------
+
+    /**
+     * Busca los registros de un tipo que tienen, por cada palabra de la consulta, alguna palabra
+     * que empieza así.
+     * <p>
+     * Con varias palabras se recorre la más larga y se filtra por las demás, revisando a lo sumo
+     * {@code MAX_SCAN} candidatos: si se alcanza ese tope la página puede venir incompleta, pero
+     * trae el cursor para seguir desde el último candidato revisado.
+     * </p>
+     *
+     * @param type El tipo de registro.
+     * @param query El texto escrito; se ignoran acentos, mayúsculas y signos.
+     * @param before El último ID recibido (cursor), o {@code null} para la primera página.
+     * @param size El tamaño de página (mayor que cero).
+     * @return Los IDs de la página, de mayor a menor, y el cursor de la siguiente.
+     */
+    public Page search(Type type, String query, Long before, int size) {
+        List<String> words = new ArrayList<>(SearchText.terms(query));
+        if (words.isEmpty()) {
+            return EMPTY;
+        }
+        words.sort(Comparator.comparingInt(String::length).reversed());
+        long[] out = new long[size + 1];
+        long stamp = lock.readLock();
+        try {
+            PrefixTrie trie = tries[type.ordinal()];
+            if (words.size() == 1 && before == null && out.length <= CACHE_SIZE) {
+                return page(out, trie.top(words.get(0), out), null);
+            }
+            int[] others = new int[words.size() - 1];
+            for (int i = 1; i < words.size(); i++) {
+                others[i - 1] = trie.nodeOf(words.get(i));
+                if (others[i - 1] == PrefixTrie.NONE) {
+                    return EMPTY;
+                }
+            }
+            LongObjectHashMap<int[]> terms = termsById[type.ordinal()];
+            int[] found = {0};
+            int[] scanned = {0};
+            long[] last = {0};
+            trie.forEachDescending(words.get(0), before == null ? Long.MAX_VALUE : before, id -> {
+                if (others.length == 0 || matchesAll(trie, terms.get(id), others)) {
+                    out[found[0]++] = id;
+                }
+                last[0] = id;
+                return found[0] < out.length && ++scanned[0] < MAX_SCAN;
+            });
+            return page(out, found[0], scanned[0] == MAX_SCAN ? last[0] : null);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @param type El tipo de registro.
+     * @return La cantidad de registros de ese tipo en el índice.
+     */
+    public int size(Type type) {
+        long stamp = lock.readLock();
+        try {
+            return termsById[type.ordinal()].size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Escrituras
+    // -------------------------------------------------------------------------
+
+    /**
+     * Aplica los textos de un usuario modificado, después del commit.
+     *
+     * @param event El evento con el ID del usuario.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.id() != null) {
+            whenReady(() -> refresh(Type.USER, event.id()));
+        }
+    }
+
+    @Override
+    protected void load() {
+        reloadTimer.record(() -> {
+            PrefixTrie[] nextTries = emptyTries();
+            LongObjectHashMap<int[]>[] nextTerms = emptyTerms();
+            texts.forEachActiveUser(row -> nextTerms[Type.USER.ordinal()].put(row.id(),
+                    index(nextTries[Type.USER.ordinal()], row.id(), row.nombre(), row.detalle())));
+            texts.forEachActiveCategory(row -> nextTerms[Type.CATEGORY.ordinal()].put(row.id(),
+                    index(nextTries[Type.CATEGORY.ordinal()], row.id(), row.nombre())));
+            productTexts.forEachActive(row -> nextTerms[Type.PRODUCT.ordinal()].put(row.id(),
+                    index(nextTries[Type.PRODUCT.ordinal()], row.id(), row.nombre(), row.tags())));
+            long stamp = lock.writeLock();
+            try {
+                tries = nextTries;
+                termsById = nextTerms;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        });
+        log.info("Indice de busqueda global cargado: {} usuarios, {} categorias, {} productos",
+                size(Type.USER), size(Type.CATEGORY), size(Type.PRODUCT));
+    }
+
+    @Override
+    protected void apply(CatalogChangedEvent event) {
+        refresh(event.type() == CatalogChangedEvent.Type.PRODUCT ? Type.PRODUCT : Type.CATEGORY, event.id());
+    }
+
+    @Override
+    protected boolean matchesDatabase() {
+        return size(Type.USER) == texts.countActiveUsers()
+                && size(Type.CATEGORY) == texts.countActiveCategories()
+                && size(Type.PRODUCT) == productTexts.countActive();
+    }
+
+    // -------------------------------------------------------------------------
+    // Utilidades internas
+    // -------------------------------------------------------------------------
+
+    private synchronized void refresh(Type type, long id) {
+        try {
+            String[] row = switch (type) {
+                case USER -> texts.findActiveUser(id).map(t -> new String[] {t.nombre(), t.detalle()}).orElse(null);
+                case CATEGORY -> texts.findActiveCategory(id).map(t -> new String[] {t.nombre()}).orElse(null);
+                case PRODUCT -> productTexts.findActive(id).map(t -> new String[] {t.nombre(), t.tags()}).orElse(null);
+            };
+            long stamp = lock.writeLock();
+            try {
+                PrefixTrie trie = tries[type.ordinal()];
+                LongObjectHashMap<int[]> terms = termsById[type.ordinal()];
+                int[] previous = terms.remove(id);
+                if (previous != null) {
+                    for (int node : previous) {
+                        trie.remove(trie.termOf(node), id);
+                    }
+                }
+                if (row != null) {
+                    terms.put(id, index(trie, id, row));
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        } catch (RuntimeException e) {
+            applyFailed("el registro " + type + " " + id, e);
+        }
+    }
+
+    /**
+     * Agrega las palabras del registro al trie.
+     *
+     * @return Los nodos de sus palabras.
+     */
+    private static int[] index(PrefixTrie target, long id, String... fields) {
+        Set<String> terms = SearchText.terms(fields);
+        int[] nodes = new int[terms.size()];
+        int i = 0;
+        for (String term : terms) {
+            target.add(term, id);
+            nodes[i++] = target.nodeOf(term);
+        }
+        return nodes;
+    }
+
+    private static boolean matchesAll(PrefixTrie trie, int[] nodes, int[] prefixes) {
+        if (nodes == null) {
+            return false;
+        }
+        for (int prefix : prefixes) {
+            boolean matched = false;
+            for (int i = 0; i < nodes.length && !matched; i++) {
+                matched = trie.startsWith(nodes[i], prefix);
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Arma la página a partir de {@code size + 1} candidatos: si sobra uno, hay página siguiente.
+     */
+    private static Page page(long[] out, int found, Long scanCursor) {
+        int size = out.length - 1;
+        if (found > size) {
+            return new Page(Arrays.copyOf(out, size), out[size - 1]);
+        }
+        return new Page(Arrays.copyOf(out, found), scanCursor);
+    }
+
+    private static PrefixTrie[] emptyTries() {
+        PrefixTrie[] empty = new PrefixTrie[Type.values().length];
+        for (int i = 0; i < empty.length; i++) {
+            empty[i] = new PrefixTrie(0, CACHED_DEPTH, CACHE_SIZE);
+        }
+        return empty;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static LongObjectHashMap<int[]>[] emptyTerms() {
+        LongObjectHashMap<int[]>[] empty = new LongObjectHashMap[Type.values().length];
+        for (int i = 0; i < empty.length; i++) {
+            empty[i] = new LongObjectHashMap<>(0);
+        }
+        return empty;
+    }
+}
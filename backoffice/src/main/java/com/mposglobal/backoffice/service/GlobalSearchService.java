@@ -0,0 +1,176 @@
+package com.mposglobal.backoffice.service;
+
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.mposglobal.backoffice.dto.CategoryResponse;
+import com.mposglobal.backoffice.dto.ProductResponse;
+import com.mposglobal.backoffice.dto.UserResponse;
+import com.mposglobal.backoffice.exceptions.IndexNotReadyException;
+import com.mposglobal.backoffice.service.GlobalSearchIndex.Type;
+import com.mposglobal.backoffice.util.Constant;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Búsqueda global del backoffice sobre usuarios, categorías y productos activos.
+ * <p>
+ * Los IDs salen de {@link GlobalSearchIndex}, agrupados por tipo; los usuarios se leen de la base
+ * en una sola consulta y las categorías y productos del {@link CatalogStore}. Los usuarios solo
+ * se buscan para el rol ADMIN, igual que {@code /users/**} en {@code SecurityConfig}.
+ * </p>
+ */
+@Service
+public class GlobalSearchService {
+
+    private final GlobalSearchIndex index;
+    private final CatalogStore catalog;
+    private final UserService users;
+    private final CategoryService categories;
+    private final ProductService products;
+
+    /**
+     * Constructor que inyecta el índice, el catálogo y los servicios de cada tipo.
+     *
+     * @param index El índice de búsqueda global.
+     * @param catalog El catálogo en memoria.
+     * @param users El servicio de usuarios.
+     * @param categories El servicio de categorías (mientras el catálogo no está listo).
+     * @param products El servicio de productos (mientras el catálogo no está listo).
+     */
+    public GlobalSearchService(GlobalSearchIndex index, CatalogStore catalog, UserService users,
+                               CategoryService categories, ProductService products) {
+        this.index = index;
+        this.catalog = catalog;
+        this.users = users;
+        this.categories = categories;
+        this.products = products;
+    }
+
+    /**
+     * Busca en todos los tipos (la primera página de cada uno) o, con {@code tipo}, en uno solo.
+     *
+     * @param query El texto escrito; cada palabra se busca como prefijo.
+     * @param tipo {@code USUARIO}, {@code CATEGORIA} o {@code PRODUCTO}; {@code null} para todos.
+     * @param before El {@code nextCursor} recibido en el grupo del tipo (requiere {@code tipo}), o {@code null}.
+     * @param size El tamaño de página de cada grupo (se acota a {@code [1, MAX_PAGE_SIZE]}).
+     * @return Los resultados agrupados; los grupos no consultados quedan en {@code null}.
+     * @throws IllegalArgumentException Si el tipo no existe o hay cursor sin tipo.
+     * @throws AccessDeniedException Si se piden usuarios sin el rol ADMIN.
+     * @throws IndexNotReadyException Si el índice todavía no terminó su primera carga.
+     */
+    public SearchResults search(String query, String tipo, Long before, int size) {
+        int pageSize = Math.max(1, Math.min(size, Constant.MAX_PAGE_SIZE));
+        Type only = tipo == null || tipo.isBlank() ? null : type(tipo);
+        if (only == null && before != null) {
+            throw new IllegalArgumentException(Constant.ERROR_SEARCH_CURSOR);
+        }
+        boolean admin = isAdmin();
+        if (only == Type.USER && !admin) {
+            throw new AccessDeniedException(Constant.ERROR_SEARCH_FORBIDDEN);
+        }
+        if (!index.isReady()) {
+            throw new IndexNotReadyException(Constant.ERROR_SEARCH_NOT_READY);
+        }
+        boolean withUsers = only == Type.USER || (only == null && admin);
+        return new SearchResults(
+                withUsers ? userPage(query, before, pageSize) : null,
+                only == null || only == Type.CATEGORY ? categoryPage(query, before, pageSize) : null,
+                only == null || only == Type.PRODUCT ? productPage(query, before, pageSize) : null);
+    }
+
+    /**
+     * Los resultados de la búsqueda global, agrupados por tipo.
+     *
+     * @param usuarios Los usuarios (solo para ADMIN).
+     * @param categorias Las categorías.
+     * @param productos Los productos.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record SearchResults(SearchPage<UserResponse> usuarios, SearchPage<CategoryResponse> categorias,
+                                SearchPage<ProductResponse> productos) {
+    }
+
+    /**
+     * Una página de un grupo y el cursor para pedir la siguiente.
+     *
+     * @param items Los registros de la página, del más reciente al más antiguo.
+     * @param nextCursor El ID a enviar como {@code before} (con {@code tipo}), o {@code null} si no hay más.
+     */
+    public record SearchPage<T>(List<T> items, Long nextCursor) {
+    }
+
+    // -------------------------------------------------------------------------
+    // Utilidades internas
+    // -------------------------------------------------------------------------
+
+    private SearchPage<UserResponse> userPage(String query, Long before, int size) {
+        GlobalSearchIndex.Page page = index.search(Type.USER, query, before, size);
+        return new SearchPage<>(users.findActiveByIds(ids(page)), page.nextCursor());
+    }
+
+    private SearchPage<CategoryResponse> categoryPage(String query, Long before, int size) {
+        GlobalSearchIndex.Page page = index.search(Type.CATEGORY, query, before, size);
+        Map<Long, CategoryResponse> active = null;
+        List<CategoryResponse> found = new ArrayList<>(page.ids().length);
+        for (long id : page.ids()) {
+            CategoryResponse category;
+            if (catalog.isReady()) {
+                category = catalog.category(id);
+            } else {
+                if (active == null) {
+                    active = categories.findAllActive().stream()
+                            .collect(Collectors.toMap(CategoryResponse::getId, Function.identity()));
+                }
+                category = active.get(id);
+            }
+            // Puede haberse desactivado (ella o un ancestro) entre la consulta al índice y la del catálogo
+            if (category != null && Constant.ACTIVO.equals(category.getEstadoEfectivo())) {
+                found.add(category);
+            }
+        }
+        return new SearchPage<>(found, page.nextCursor());
+    }
+
+    private SearchPage<ProductResponse> productPage(String query, Long before, int size) {
+        GlobalSearchIndex.Page page = index.search(Type.PRODUCT, query, before, size);
+        List<ProductResponse> found = new ArrayList<>(page.ids().length);
+        for (long id : page.ids()) {
+            ProductResponse product = catalog.isReady()
+                    ? catalog.product(id)
+                    : products.findActiveById(id).orElse(null);
+            if (product != null) {
+                found.add(product);
+            }
+        }
+        return new SearchPage<>(found, page.nextCursor());
+    }
+
+    private static List<Long> ids(GlobalSearchIndex.Page page) {
+        return Arrays.stream(page.ids()).boxed().toList();
+    }
+
+    private static Type type(String tipo) {
+        return switch (tipo.toUpperCase(Locale.ROOT)) {
+            case AuditService.USUARIO -> Type.USER;
+            case AuditService.CATEGORIA -> Type.CATEGORY;
+            case AuditService.PRODUCTO -> Type.PRODUCT;
+            default -> throw new IllegalArgumentException(Constant.ERROR_SEARCH_TYPE + tipo);
+        };
+    }
+
+    private static boolean isAdmin() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.getAuthorities().stream()
+                .anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+    }
+}
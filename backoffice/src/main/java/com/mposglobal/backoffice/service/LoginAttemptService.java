@@ -0,0 +1,256 @@
+package com.mposglobal.backoffice.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.mposglobal.backoffice.exceptions.LoginThrottledException;
+import com.mposglobal.backoffice.util.Constant;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Servicio de protección contra fuerza bruta en el inicio de sesión.
+ * <p>
+ * Lleva, por nombre de usuario y por dirección remota, un puntaje de fallos que decae
+ * exponencialmente con el tiempo (vida media configurable). Superado el número de fallos
+ * libres, cada fallo adicional duplica el bloqueo temporal, hasta un máximo. Mientras hay
+ * bloqueo, {@link #checkAllowed(String, String)} rechaza el intento antes de consultar la base
+ * y antes de ejecutar BCrypt, que es precisamente el trabajo que un ataque de relleno de
+ * credenciales intenta forzar.
+ * </p>
+ * <p>
+ * Los contadores viven en memoria con un tamaño máximo: al llenarse se descartan primero las
+ * entradas ya decaídas y, si aún no hay espacio, las de fallo más antiguo entre las que no
+ * tienen bloqueo vigente. Un bloqueo vigente nunca se descarta, para que una ráfaga de nombres
+ * inventados no libere a un usuario bloqueado; mientras duran esos bloqueos (a lo sumo
+ * {@code max-lockout}) el mapa puede superar el tamaño máximo. Se publican métricas
+ * ({@code login.attempts}, {@code login.bcrypt}, {@code login.bcrypt.avoided}) para ver cuántas
+ * verificaciones y cuánto tiempo de CPU se ahorró.
+ * </p>
+ */
+@Service
+public class LoginAttemptService {
+
+    private final Map<String, Attempts> byUser = new ConcurrentHashMap<>();
+    private final Map<String, Attempts> byAddress = new ConcurrentHashMap<>();
+
+    private final int freeUserFailures;
+    private final int freeAddressFailures;
+    private final long baseDelayNanos;
+    private final long maxLockoutNanos;
+    private final double decayPerNano;
+    private final int maxEntries;
+    private final LongSupplier clock;
+
+    private final Counter success;
+    private final Counter failure;
+    private final Counter throttled;
+    private final Timer bcrypt;
+
+    /**
+     * Constructor que toma la política de bloqueo de la configuración y registra las métricas.
+     *
+     * @param freeUserFailures Fallos por usuario permitidos antes de empezar a bloquear.
+     * @param freeAddressFailures Fallos por dirección remota permitidos antes de empezar a bloquear.
+     * @param baseDelay Bloqueo tras el primer fallo por encima del umbral; se duplica en cada fallo.
+     * @param maxLockout Bloqueo máximo.
+     * @param halfLife Vida media del puntaje de fallos.
+     * @param maxEntries Máximo de usuarios o direcciones seguidos en memoria (cada uno).
+     * @param registry El registro de métricas.
+     */
+    @Autowired
+    public LoginAttemptService(@Value("${app.login.throttle.free-user-failures:3}") int freeUserFailures,
+                               @Value("${app.login.throttle.free-address-failures:20}") int freeAddressFailures,
+                               @Value("${app.login.throttle.base-delay:1s}") Duration baseDelay,
+                               @Value("${app.login.throttle.max-lockout:15m}") Duration maxLockout,
+                               @Value("${app.login.throttle.half-life:10m}") Duration halfLife,
+                               @Value("${app.login.throttle.max-entries:100000}") int maxEntries,
+                               MeterRegistry registry) {
+        this(freeUserFailures, freeAddressFailures, baseDelay, maxLockout, halfLife, maxEntries, registry,
+                System::nanoTime);
+    }
+
+    /**
+     * Constructor con un reloj propio, para probar el bloqueo y el decaimiento sin esperar.
+     */
+    LoginAttemptService(int freeUserFailures, int freeAddressFailures, Duration baseDelay, Duration maxLockout,
+                        Duration halfLife, int maxEntries, MeterRegistry registry, LongSupplier clock) {
+        this.freeUserFailures = freeUserFailures;
+        this.freeAddressFailures = freeAddressFailures;
+        this.baseDelayNanos = baseDelay.toNanos();
+        this.maxLockoutNanos = maxLockout.toNanos();
+        this.decayPerNano = Math.log(2) / halfLife.toNanos();
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+
+        this.success = Counter.builder("login.attempts").tag("result", "success").register(registry);
+        this.failure = Counter.builder("login.attempts").tag("result", "failure").register(registry);
+        this.throttled = Counter.builder("login.attempts").tag("result", "throttled")
+                .description("Intentos rechazados sin consultar la base ni ejecutar BCrypt").register(registry);
+        this.bcrypt = Timer.builder("login.bcrypt").description("Duración de la verificación BCrypt").register(registry);
+        Gauge.builder("login.bcrypt.avoided", this, s -> s.throttled.count() * s.bcrypt.mean(TimeUnit.SECONDS))
+                .description("Tiempo de CPU de BCrypt estimado que se evitó al rechazar intentos bloqueados")
+                .baseUnit("seconds").register(registry);
+        Gauge.builder("login.throttle.tracked", byUser, Map::size).tag("key", "user").register(registry);
+        Gauge.builder("login.throttle.tracked", byAddress, Map::size).tag("key", "address").register(registry);
+    }
+
+    /**
+     * Verifica que el usuario y la dirección remota no estén bloqueados.
+     *
+     * @param username El nombre de usuario del intento.
+     * @param address La dirección remota del intento.
+     * @throws LoginThrottledException Si alguno de los dos está bloqueado.
+     */
+    public void checkAllowed(String username, String address) {
+        long now = clock.getAsLong();
+        long wait = Math.max(remaining(byUser.get(userKey(username)), now),
+                             remaining(byAddress.get(address), now));
+        if (wait > 0) {
+            throttled.increment();
+            throw new LoginThrottledException(Constant.ERROR_LOGIN_THROTTLED,
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999L)));
+        }
+    }
+
+    /**
+     * Ejecuta y mide la verificación de la clave.
+     *
+     * @param check La comparación BCrypt.
+     * @return El resultado de la comparación.
+     */
+    public boolean verify(BooleanSupplier check) {
+        long start = System.nanoTime();
+        try {
+            return check.getAsBoolean();
+        } finally {
+            bcrypt.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Registra un intento fallido (usuario inexistente, clave incorrecta o usuario inactivo).
+     *
+     * @param username El nombre de usuario del intento.
+     * @param address La dirección remota del intento.
+     */
+    public void onFailure(String username, String address) {
+        failure.increment();
+        long now = clock.getAsLong();
+        track(byUser, userKey(username), now).fail(now, freeUserFailures);
+        track(byAddress, address, now).fail(now, freeAddressFailures);
+    }
+
+    /**
+     * Registra un inicio de sesión exitoso: olvida los fallos del usuario. Los de la dirección
+     * remota se mantienen, para que una cuenta válida no sirva para "lavar" un ataque desde esa IP.
+     *
+     * @param username El nombre de usuario autenticado.
+     */
+    public void onSuccess(String username) {
+        success.increment();
+        byUser.remove(userKey(username));
+    }
+
+    /**
+     * Elimina periódicamente las entradas cuyo puntaje ya decayó y que no tienen bloqueo vigente.
+     */
+    @Scheduled(fixedDelayString = "${app.login.throttle.sweep-interval:60s}")
+    public void evictDecayed() {
+        long now = clock.getAsLong();
+        byUser.values().removeIf(a -> a.isForgotten(now));
+        byAddress.values().removeIf(a -> a.isForgotten(now));
+    }
+
+    // -------------------------------------------------------------------------
+    // Utilidades internas
+    // -------------------------------------------------------------------------
+
+    private static String userKey(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long remaining(Attempts attempts, long now) {
+        return attempts == null ? 0 : attempts.lockedUntil - now;
+    }
+
+    private Attempts track(Map<String, Attempts> map, String key, long now) {
+        Attempts attempts = map.get(key);
+        if (attempts != null) {
+            return attempts;
+        }
+        if (map.size() >= maxEntries) {
+            makeRoom(map, now);
+        }
+        return map.computeIfAbsent(key, k -> new Attempts(now));
+    }
+
+    /**
+     * Libera espacio: primero las entradas olvidadas, luego (si sigue lleno) una décima parte
+     * del tope entre las de fallo más antiguo que no tienen bloqueo vigente.
+     */
+    private void makeRoom(Map<String, Attempts> map, long now) {
+        map.values().removeIf(a -> a.isForgotten(now));
+        int toRemove = map.size() - maxEntries + Math.max(1, maxEntries / 10);
+        if (toRemove <= 0) {
+            return;
+        }
+        long[] lasts = map.values().stream().filter(a -> !a.isLocked(now)).mapToLong(Attempts::last).sorted().toArray();
+        if (lasts.length == 0) {
+            return;
+        }
+        long cutoff = lasts[Math.min(toRemove, lasts.length) - 1];
+        map.values().removeIf(a -> !a.isLocked(now) && a.last() - cutoff <= 0);
+    }
+
+    /**
+     * Puntaje de fallos con decaimiento exponencial y bloqueo vigente de una clave.
+     */
+    private final class Attempts {
+
+        private double score;
+        private long last;
+        private volatile long lockedUntil;
+
+        Attempts(long now) {
+            this.last = now;
+            this.lockedUntil = now;
+        }
+
+        synchronized void fail(long now, int freeFailures) {
+            score = score * Math.exp(-decayPerNano * (now - last)) + 1;
+            last = now;
+            // Redondeado: esperar un bloqueo corto antes de reintentar no debe bajar un escalón
+            int excess = (int) Math.round(score) - freeFailures;
+            if (excess > 0) {
+                long delay = baseDelayNanos << Math.min(excess - 1, 40);
+                lockedUntil = now + Math.min(delay <= 0 ? maxLockoutNanos : delay, maxLockoutNanos);
+            }
+        }
+
+        synchronized long last() {
+            return last;
+        }
+
+        boolean isLocked(long now) {
+            return lockedUntil - now > 0;
+        }
+
+        synchronized boolean isForgotten(long now) {
+            return lockedUntil - now <= 0 && score * Math.exp(-decayPerNano * (now - last)) < 0.5;
+        }
+    }
+}
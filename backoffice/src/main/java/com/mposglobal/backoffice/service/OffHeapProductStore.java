@@ -0,0 +1,353 @@
+package com.mposglobal.backoffice.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mposglobal.backoffice.dto.ProductResponse;
+import com.mposglobal.backoffice.repository.ProductRepository;
+import com.mposglobal.backoffice.service.CatalogSnapshot.Checksum;
+import com.mposglobal.backoffice.service.CatalogSnapshot.ProductEntry;
+import com.mposglobal.backoffice.util.Money;
+import com.mposglobal.backoffice.util.collections.LongObjectHashMap;
+import com.mposglobal.backoffice.util.collections.SortedLongArray;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Productos del catálogo en memoria guardados fuera del heap ({@code app.catalog.storage=OFF_HEAP}).
+ * <p>
+ * Carga los productos desde {@link ProductRepository} en una {@link OffHeapProductTable} nueva,
+ * que reemplaza a la anterior solo cuando está completa, y aplica los cambios por producto.
+ * {@code CatalogStore} serializa las escrituras; las lecturas no bloquean.
+ * </p>
+ * <p>
+ * El listado se escribe en JSON directamente desde las filas, con los mismos campos y formatos
+ * que {@link ProductResponse}: nombre y tags se copian como bytes UTF-8 desde la arena, sin crear
+ * un {@code String} ni un DTO por producto, así que servir millones de productos no genera basura
+ * proporcional al catálogo.
+ * </p>
+ */
+@Component
+public class OffHeapProductStore {
+
+    private static final ZoneId ZONE = ZoneId.of("America/Panama");
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy").withZone(ZONE);
+    private static final long NO_CATEGORY = Long.MIN_VALUE;
+
+    private final ProductRepository repo;
+    private final TransactionTemplate tx;
+    private final JsonFactory json;
+    private volatile OffHeapProductTable table = new OffHeapProductTable(16);
+    private volatile CategoryIndex categoryIndex = new CategoryIndex(table, new LongObjectHashMap<>(16));
+
+    /**
+     * Constructor que inyecta el repositorio, las transacciones, Jackson y el registro de métricas.
+     *
+     * @param repo El repositorio de productos.
+     * @param txManager El administrador de transacciones (la carga recorre un {@code Stream}).
+     * @param mapper El {@code ObjectMapper} de la aplicación, para crear los generadores JSON.
+     * @param registry El registro de métricas.
+     */
+    public OffHeapProductStore(ProductRepository repo, PlatformTransactionManager txManager,
+                               ObjectMapper mapper, MeterRegistry registry) {
+        this.repo = repo;
+        this.tx = new TransactionTemplate(txManager);
+        this.json = mapper.getFactory();
+        Gauge.builder("catalog.offheap.bytes", this, s -> s.table.capacityBytes()).register(registry);
+    }
+
+    /**
+     * Carga todos los productos en una tabla nueva, arma su índice por categoría en el mismo
+     * recorrido y publica ambos al terminar.
+     */
+    void reload() {
+        OffHeapProductTable fresh = new OffHeapProductTable((int) Math.min(Integer.MAX_VALUE, repo.count()));
+        LongObjectHashMap<SortedLongArray.Builder> builders = new LongObjectHashMap<>(64);
+        tx.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = repo.streamCatalogRows()) {
+                rows.forEach(row -> {
+                    ProductEntry entry = toEntry(row);
+                    fresh.upsert(entry);
+                    if (entry.isActive()) {
+                        builder(builders, entry.categoriaId()).add(entry.id());
+                    }
+                });
+            }
+        });
+        LongObjectHashMap<SortedLongArray> productIds = new LongObjectHashMap<>(builders.size());
+        builders.forEach((categoryId, builder) -> productIds.put(categoryId, builder.build()));
+        categoryIndex = new CategoryIndex(fresh, productIds);
+        table = fresh;
+    }
+
+    /**
+     * Vuelve a leer un producto de la base y actualiza su fila.
+     * <p>
+     * Si el producto entra, sale o cambia de categoría, el índice por categoría se actualiza con
+     * una copia del mapa que solo reemplaza las dos categorías afectadas: el costo es proporcional
+     * a la cantidad de categorías y a su tamaño, no al catálogo.
+     * </p>
+     *
+     * @param id El ID del producto.
+     */
+    void refresh(long id) {
+        OffHeapProductTable current = table;
+        OffHeapProductTable.Row row = new OffHeapProductTable.Row();
+        long before = current.read(id, row) ? row.categoriaId : NO_CATEGORY;
+        long after = NO_CATEGORY;
+        List<Object[]> rows = repo.findCatalogRow(id);
+        if (rows.isEmpty()) {
+            current.remove(id);
+        } else {
+            ProductEntry entry = toEntry(rows.get(0));
+            current.upsert(entry);
+            if (entry.isActive()) {
+                after = entry.categoriaId();
+            }
+        }
+        if (before != after) {
+            moveInIndex(current, id, before, after);
+        }
+    }
+
+    /**
+     * @return La suma de control de los productos activos.
+     */
+    Checksum checksum() {
+        return table.checksum();
+    }
+
+    /**
+     * @param id El ID del producto.
+     * @param categoryName Resuelve el nombre de una categoría por ID.
+     * @return El producto activo, o {@code null} si no existe o está desactivado.
+     */
+    ProductResponse product(long id, LongFunction<String> categoryName) {
+        OffHeapProductTable current = table;
+        OffHeapProductTable.Row row = new OffHeapProductTable.Row();
+        return current.read(id, row) ? toResponse(current, row, categoryName) : null;
+    }
+
+    /**
+     * @param categoryName Resuelve el nombre de una categoría por ID.
+     * @return Los productos activos como DTOs (solo para llamadores que necesitan la lista).
+     */
+    List<ProductResponse> activeProducts(LongFunction<String> categoryName) {
+        OffHeapProductTable current = table;
+        List<ProductResponse> result = new ArrayList<>((int) current.checksum().count());
+        current.forEachActive(new OffHeapProductTable.Row(), row -> result.add(toResponse(current, row, categoryName)));
+        return result;
+    }
+
+    /**
+     * Devuelve los productos activos de una categoría.
+     * <p>
+     * Usa el índice categoría → productos (8 bytes por producto, en el heap) que mantienen
+     * {@link #reload()} y {@link #refresh(long)}. Solo mientras se publica una recarga el índice
+     * puede corresponder a otra tabla; entonces se recorre la tabla sin guardar el resultado.
+     * </p>
+     *
+     * @param categoryId El ID de la categoría.
+     * @param categoryName Resuelve el nombre de una categoría por ID.
+     * @return Los productos activos de la categoría ordenados por ID.
+     */
+    List<ProductResponse> activeProducts(long categoryId, LongFunction<String> categoryName) {
+        OffHeapProductTable current = table;
+        CategoryIndex index = categoryIndex;
+        OffHeapProductTable.Row row = new OffHeapProductTable.Row();
+        if (index.table() != current) {
+            List<ProductResponse> result = new ArrayList<>();
+            current.forEachActive(row, r -> {
+                if (r.categoriaId == categoryId) {
+                    result.add(toResponse(current, r, categoryName));
+                }
+            });
+            return result;
+        }
+        SortedLongArray ids = index.productIds().get(categoryId);
+        if (ids == null) {
+            return List.of();
+        }
+        List<ProductResponse> result = new ArrayList<>(ids.size());
+        ids.forEach(id -> {
+            if (current.read(id, row) && row.categoriaId == categoryId) {
+                result.add(toResponse(current, row, categoryName));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Escribe los productos activos como un arreglo JSON, directamente desde las filas.
+     *
+     * @param out El flujo de salida de la respuesta.
+     * @param categoryName Resuelve el nombre de una categoría por ID.
+     * @throws IOException Si falla la escritura.
+     */
+    void writeActiveJson(OutputStream out, LongFunction<String> categoryName) throws IOException {
+        OffHeapProductTable current = table;
+        OffHeapStringArena strings = current.strings();
+        try (JsonGenerator gen = json.createGenerator(out)) {
+            JsonRowWriter writer = new JsonRowWriter(gen, strings, categoryName);
+            gen.writeStartArray();
+            try {
+                current.forEachActive(new OffHeapProductTable.Row(), writer::write);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Utilidades internas
+    // -------------------------------------------------------------------------
+
+    private void moveInIndex(OffHeapProductTable current, long id, long from, long to) {
+        CategoryIndex index = categoryIndex;
+        if (index.table() != current) {
+            return;
+        }
+        LongObjectHashMap<SortedLongArray> productIds = index.productIds().copy();
+        if (from != NO_CATEGORY) {
+            SortedLongArray ids = productIds.get(from);
+            SortedLongArray remaining = ids == null ? SortedLongArray.EMPTY : ids.without(id);
+            if (remaining.size() == 0) {
+                productIds.remove(from);
+            } else {
+                productIds.put(from, remaining);
+            }
+        }
+        if (to != NO_CATEGORY) {
+            SortedLongArray ids = productIds.get(to);
+            productIds.put(to, ids == null ? SortedLongArray.of(id) : ids.with(id));
+        }
+        categoryIndex = new CategoryIndex(current, productIds);
+    }
+
+    private static SortedLongArray.Builder builder(LongObjectHashMap<SortedLongArray.Builder> builders,
+                                                   long categoryId) {
+        SortedLongArray.Builder builder = builders.get(categoryId);
+        if (builder == null) {
+            builder = new SortedLongArray.Builder(16);
+            builders.put(categoryId, builder);
+        }
+        return builder;
+    }
+
+    private static ProductEntry toEntry(Object[] row) {
+        return new ProductEntry(((Number) row[0]).longValue(), (String) row[1], ((Number) row[2]).longValue(),
+                ((Money) row[3]).cents(), ((Money) row[4]).cents(), (String) row[5], (String) row[6],
+                millis(row[7]), millis(row[8]), ((Number) row[9]).longValue());
+    }
+
+    private static Long millis(Object value) {
+        return value == null ? null : ((Date) value).getTime();
+    }
+
+    private static ProductResponse toResponse(OffHeapProductTable table, OffHeapProductTable.Row row,
+                                              LongFunction<String> categoryName) {
+        OffHeapStringArena strings = table.strings();
+        ProductResponse response = new ProductResponse();
+        response.setId(row.id);
+        response.setNombre(strings.get(row.nombre));
+        response.setCategoria(categoryName.apply(row.categoriaId));
+        response.setCosto(Money.toDouble(row.costo));
+        response.setPrecio(Money.toDouble(row.precio));
+        response.setTags(strings.get(row.tags));
+        response.setEstado(strings.get(row.estado));
+        response.setFechaCreacion(row.fechaCreacion() == null ? null : new Date(row.fechaCreacion()));
+        response.setFechaActualizacion(row.fechaActualizacion() == null ? null : new Date(row.fechaActualizacion()));
+        response.setVersion(row.version);
+        return response;
+    }
+
+    /**
+     * Índice categoría → productos activos de una tabla (se reemplaza completo en cada cambio).
+     */
+    private record CategoryIndex(OffHeapProductTable table, LongObjectHashMap<SortedLongArray> productIds) {
+    }
+
+    /**
+     * Escribe una fila como objeto JSON reutilizando un búfer de bytes y la última fecha formateada.
+     */
+    private static final class JsonRowWriter {
+
+        private final JsonGenerator gen;
+        private final OffHeapStringArena strings;
+        private final LongFunction<String> categoryName;
+        private byte[] scratch = new byte[256];
+        private long lastMinute = Long.MIN_VALUE;
+        private String lastDate;
+
+        JsonRowWriter(JsonGenerator gen, OffHeapStringArena strings, LongFunction<String> categoryName) {
+            this.gen = gen;
+            this.strings = strings;
+            this.categoryName = categoryName;
+        }
+
+        void write(OffHeapProductTable.Row row) {
+            try {
+                gen.writeStartObject();
+                gen.writeNumberField("id", row.id);
+                writeString("nombre", row.nombre);
+                gen.writeStringField("categoria", categoryName.apply(row.categoriaId));
+                gen.writeNumberField("costo", Money.toDouble(row.costo));
+                gen.writeNumberField("precio", Money.toDouble(row.precio));
+                writeString("tags", row.tags);
+                writeString("estado", row.estado);
+                writeDate("fechaCreacion", row.fechaCreacion);
+                writeDate("fechaActualizacion", row.fechaActualizacion);
+                gen.writeNumberField("version", row.version);
+                gen.writeEndObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeString(String field, int ref) throws IOException {
+            gen.writeFieldName(field);
+            int len = strings.length(ref);
+            if (len < 0) {
+                gen.writeNull();
+                return;
+            }
+            if (len > scratch.length) {
+                scratch = new byte[Math.max(len, scratch.length * 2)];
+            }
+            strings.copy(ref, scratch);
+            gen.writeUTF8String(scratch, 0, len);
+        }
+
+        private void writeDate(String field, long millis) throws IOException {
+            if (millis == OffHeapProductTable.NO_DATE) {
+                gen.writeNullField(field);
+                return;
+            }
+            // Las fechas del catálogo son días (DATE): casi todas las filas repiten el texto anterior
+            long minute = Math.floorDiv(millis, 60_000L);
+            if (minute != lastMinute) {
+                lastDate = DATE.format(Instant.ofEpochMilli(millis));
+                lastMinute = minute;
+            }
+            gen.writeStringField(field, lastDate);
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.mposglobal.backoffice.service;
+
+import com.mposglobal.backoffice.service.CatalogSnapshot.Checksum;
+import com.mposglobal.backoffice.service.CatalogSnapshot.ProductEntry;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.function.Consumer;
+
+/**
+ * Tabla de productos fuera del heap, en columnas de ancho fijo dentro de {@link ByteBuffer}s directos.
+ * <p>
+ * Cada producto ocupa una fila de {@value #ROW_BYTES} bytes (números, fechas en milisegundos y
+ * referencias a {@link OffHeapStringArena} para nombre, tags y estado) y se ubica por ID con un
+ * índice {@code long → fila} de direccionamiento abierto, también fuera del heap. El heap solo
+ * guarda unos pocos objetos de control, sin importar el tamaño del catálogo, así que el
+ * recolector de basura no recorre millones de productos.
+ * </p>
+ * <ul>
+ *   <li><b>Escritura:</b> un solo hilo a la vez (el llamador serializa). Un producto desactivado
+ *   conserva su fila, marcada como inactiva.</li>
+ *   <li><b>Lectura sin bloqueo:</b> cada fila tiene un contador de secuencia (seqlock); el escritor
+ *   lo deja impar mientras modifica la fila y el lector reintenta si lo encuentra impar o si
+ *   cambió durante la lectura, de modo que nunca ve una fila a medio escribir.</li>
+ *   <li><b>Crecimiento:</b> al llenarse, filas e índice se copian a buffers más grandes que se
+ *   publican juntos; un lector que aún recorre los anteriores ve datos consistentes de ese
+ *   instante.</li>
+ * </ul>
+ */
+final class OffHeapProductTable {
+
+    /**
+     * Bytes por fila.
+     */
+    static final int ROW_BYTES = 80;
+
+    private static final int SEQ = 0;
+    private static final int FLAGS = 4;
+    private static final int ID = 8;
+    private static final int CATEGORIA = 16;
+    private static final int COSTO = 24;
+    private static final int PRECIO = 32;
+    private static final int NOMBRE = 40;
+    private static final int TAGS = 44;
+    private static final int CREACION = 48;
+    private static final int ACTUALIZACION = 56;
+    private static final int VERSION = 64;
+    private static final int ESTADO = 72;
+
+    private static final int ACTIVE = 1;
+
+    /**
+     * Valor de una fecha nula en las columnas de fecha.
+     */
+    static final long NO_DATE = Long.MIN_VALUE;
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    /**
+     * Buffers publicados juntos: filas, claves e índices de fila del índice.
+     */
+    private record State(ByteBuffer rows, int rowCapacity, ByteBuffer keys, ByteBuffer slots, int mask) {
+    }
+
+    private final OffHeapStringArena strings;
+    private volatile State state;
+    private volatile int rowCount;
+    private volatile Checksum checksum = Checksum.ZERO;
+    private int indexSize;
+
+    /**
+     * @param expectedRows Número de productos esperado (dimensiona los buffers iniciales).
+     */
+    OffHeapProductTable(int expectedRows) {
+        int rows = Math.max(16, expectedRows);
+        int slots = Integer.highestOneBit(Math.max(16, rows * 2 - 1)) << 1;
+        strings = new OffHeapStringArena(rows * 48);
+        state = new State(allocate((long) rows * ROW_BYTES), rows,
+                allocate((long) slots * Long.BYTES), allocate((long) slots * Integer.BYTES), slots - 1);
+    }
+
+    // -------------------------------------------------------------------------
+    // Escritura (un solo hilo)
+    // -------------------------------------------------------------------------
+
+    /**
+     * Agrega o reemplaza un producto.
+     *
+     * @param entry El estado actual del producto.
+     */
+    void upsert(ProductEntry entry) {
+        int row = rowOf(state, entry.id());
+        Checksum sum = checksum;
+        if (row < 0) {
+            row = appendRow(entry.id());
+        } else {
+            ByteBuffer rows = state.rows;
+            int off = row * ROW_BYTES;
+            if (((int) INT.get(rows, off + FLAGS) & ACTIVE) != 0) {
+                sum = sum.minus(entry.id(), rows.getLong(off + VERSION));
+            }
+        }
+        // Las cadenas se guardan antes de abrir la escritura de la fila
+        int nombre = strings.intern(entry.nombre());
+        int tags = strings.intern(entry.tags());
+        int estado = strings.intern(entry.estado());
+
+        ByteBuffer rows = state.rows;
+        int off = row * ROW_BYTES;
+        int seq = beginWrite(rows, off);
+        INT.set(rows, off + FLAGS, entry.isActive() ? ACTIVE : 0);
+        rows.putLong(off + ID, entry.id());
+        rows.putLong(off + CATEGORIA, entry.categoriaId());
+        rows.putLong(off + COSTO, entry.costo());
+        rows.putLong(off + PRECIO, entry.precio());
+        rows.putInt(off + NOMBRE, nombre);
+        rows.putInt(off + TAGS, tags);
+        rows.putLong(off + CREACION, entry.fechaCreacion() == null ? NO_DATE : entry.fechaCreacion());
+        rows.putLong(off + ACTUALIZACION, entry.fechaActualizacion() == null ? NO_DATE : entry.fechaActualizacion());
+        rows.putLong(off + VERSION, entry.version());
+        rows.putInt(off + ESTADO, estado);
+        endWrite(rows, off, seq);
+
+        checksum = entry.isActive() ? sum.plus(entry.id(), entry.version()) : sum;
+    }
+
+    /**
+     * Marca un producto como inexistente (sale de las lecturas de activos).
+     *
+     * @param id El ID del producto.
+     */
+    void remove(long id) {
+        State st = state;
+        int row = rowOf(st, id);
+        if (row < 0) {
+            return;
+        }
+        int off = row * ROW_BYTES;
+        if (((int) INT.get(st.rows, off + FLAGS) & ACTIVE) != 0) {
+            checksum = checksum.minus(id, st.rows.getLong(off + VERSION));
+        }
+        int seq = beginWrite(st.rows, off);
+        INT.set(st.rows, off + FLAGS, 0);
+        endWrite(st.rows, off, seq);
+    }
+
+    // -------------------------------------------------------------------------
+    // Lectura (sin bloqueo)
+    // -------------------------------------------------------------------------
+
+    /**
+     * Lee un producto por ID.
+     *
+     * @param id El ID del producto.
+     * @param out El destino de la lectura (reutilizable).
+     * @return {@code true} si el producto existe y está activo.
+     */
+    boolean read(long id, Row out) {
+        State st = state;
+        int row = rowOf(st, id);
+        return row >= 0 && readRow(st.rows, row, out) && out.active;
+    }
+
+    /**
+     * Recorre los productos activos en orden de inserción.
+     *
+     * @param scratch La fila reutilizable que recibe cada producto.
+     * @param visitor Se invoca con {@code scratch} una vez por producto activo.
+     */
+    void forEachActive(Row scratch, Consumer<Row> visitor) {
+        int count = rowCount;
+        ByteBuffer rows = state.rows;
+        for (int row = 0; row < count; row++) {
+            if (readRow(rows, row, scratch) && scratch.active) {
+                visitor.accept(scratch);
+            }
+        }
+    }
+
+    /**
+     * @return La arena donde están las cadenas referenciadas por las filas.
+     */
+    OffHeapStringArena strings() {
+        return strings;
+    }
+
+    /**
+     * @return La suma de control de los productos activos.
+     */
+    Checksum checksum() {
+        return checksum;
+    }
+
+    /**
+     * @return Los bytes reservados fuera del heap (filas, índice y cadenas).
+     */
+    long capacityBytes() {
+        State st = state;
+        return (long) st.rows.capacity() + st.keys.capacity() + st.slots.capacity() + strings.capacityBytes();
+    }
+
+    // -------------------------------------------------------------------------
+    // Utilidades internas
+    // -------------------------------------------------------------------------
+
+    private boolean readRow(ByteBuffer rows, int row, Row out) {
+        int off = row * ROW_BYTES;
+        while (true) {
+            int before = (int) INT.getAcquire(rows, off + SEQ);
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int flags = (int) INT.get(rows, off + FLAGS);
+            out.id = rows.getLong(off + ID);
+            out.categoriaId = rows.getLong(off + CATEGORIA);
+            out.costo = rows.getLong(off + COSTO);
+            out.precio = rows.getLong(off + PRECIO);
+            out.nombre = rows.getInt(off + NOMBRE);
+            out.tags = rows.getInt(off + TAGS);
+            out.fechaCreacion = rows.getLong(off + CREACION);
+            out.fechaActualizacion = rows.getLong(off + ACTUALIZACION);
+            out.version = rows.getLong(off + VERSION);
+            out.estado = rows.getInt(off + ESTADO);
+            VarHandle.loadLoadFence();
+            if ((int) INT.getOpaque(rows, off + SEQ) == before) {
+                out.active = (flags & ACTIVE) != 0;
+                return out.id != 0;
+            }
+        }
+    }
+
+    private static int beginWrite(ByteBuffer rows, int off) {
+        int seq = (int) INT.get(rows, off + SEQ);
+        INT.setOpaque(rows, off + SEQ, seq + 1);
+        VarHandle.storeStoreFence();
+        return seq;
+    }
+
+    private static void endWrite(ByteBuffer rows, int off, int seq) {
+        INT.setRelease(rows, off + SEQ, seq + 2);
+    }
+
+    private static int rowOf(State st, long id) {
+        for (int i = mix(id) & st.mask; ; i = (i + 1) & st.mask) {
+            long key = (long) LONG.getAcquire(st.keys, i * Long.BYTES);
+            if (key == 0) {
+                return -1;
+            }
+            if (key == id) {
+                return st.slots.getInt(i * Integer.BYTES);
+            }
+        }
+    }
+
+    private int appendRow(long id) {
+        State st = state;
+        int row = rowCount;
+        if (row == st.rowCapacity) {
+            int grown = st.rowCapacity * 2;
+            ByteBuffer rows = allocate((long) grown * ROW_BYTES);
+            rows.put(0, st.rows, 0, row * ROW_BYTES);
+            st = new State(rows, grown, st.keys, st.slots, st.mask);
+        }
+        if ((indexSize + 1) * 2 > st.mask + 1) {
+            st = rehash(st);
+        }
+        insertKey(st, id, row);
+        indexSize++;
+        state = st;
+        rowCount = row + 1;
+        return row;
+    }
+
+    private static void insertKey(State st, long id, int row) {
+        int i = mix(id) & st.mask;
+        while ((long) LONG.get(st.keys, i * Long.BYTES) != 0) {
+            i = (i + 1) & st.mask;
+        }
+        st.slots.putInt(i * Integer.BYTES, row);
+        // La fila se publica antes que la clave: quien ve la clave ve también su fila
+        LONG.setRelease(st.keys, i * Long.BYTES, id);
+    }
+
+    private static State rehash(State st) {
+        int slots = (st.mask + 1) * 2;
+        State bigger = new State(st.rows, st.rowCapacity, allocate((long) slots * Long.BYTES),
+                allocate((long) slots * Integer.BYTES), slots - 1);
+        for (int i = 0; i <= st.mask; i++) {
+            long key = (long) LONG.get(st.keys, i * Long.BYTES);
+            if (key != 0) {
+                insertKey(bigger, key, st.slots.getInt(i * Integer.BYTES));
+            }
+        }
+        return bigger;
+    }
+
+    private static int mix(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static ByteBuffer allocate(long bytes) {
+        if (bytes > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Tabla de productos fuera del heap llena");
+        }
+        // Alineado a 8 bytes para los accesos atómicos del seqlock y del índice
+        return ByteBuffer.allocateDirect((int) bytes + 8).alignedSlice(8).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Fila leída de la tabla; el lector la reutiliza entre productos para no asignar memoria.
+     * Las cadenas son referencias a {@link OffHeapStringArena}.
+     */
+    static final class Row {
+        long id;
+        long categoriaId;
+        long costo;   // centavos
+        long precio;  // centavos
+        int nombre;
+        int tags;
+        int estado;
+        long fechaCreacion;
+        long fechaActualizacion;
+        long version;
+        boolean active;
+
+        /**
+         * @return La fecha de creación en milisegundos, o {@code null}.
+         */
+        Long fechaCreacion() {
+            return fechaCreacion == NO_DATE ? null : fechaCreacion;
+        }
+
+        /**
+         * @return La fecha de actualización en milisegundos, o {@code null}.
+         */
+        Long fechaActualizacion() {
+            return fechaActualizacion == NO_DATE ? null : fechaActualizacion;
+        }
+    }
+}
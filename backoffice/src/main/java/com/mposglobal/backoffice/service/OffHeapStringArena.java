@@ -0,0 +1,185 @@
+package com.mposglobal.backoffice.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Arena de cadenas fuera del heap con diccionario: cada cadena distinta se guarda una sola vez.
+ * <p>
+ * Las cadenas se guardan en UTF-8 precedidas por su largo ({@code int}) en un {@link ByteBuffer}
+ * directo que solo crece; la referencia de una cadena es su posición en la arena ({@code 0}
+ * representa {@code null}). El diccionario es una tabla hash de direccionamiento abierto, también
+ * fuera del heap, que guarda referencias y compara los bytes en la propia arena; así el heap no
+ * crece con la cantidad de cadenas. Los tags del catálogo se repiten mucho (siguen una ley de
+ * Zipf), por lo que la deduplicación ahorra la mayor parte del espacio.
+ * </p>
+ * <p>
+ * Un solo hilo escribe ({@link #intern(String)}); los lectores pueden leer en paralelo las
+ * referencias ya publicadas, porque los bytes de una referencia nunca cambian. Cuando una cadena
+ * deja de usarse su espacio no se recupera hasta la siguiente recarga completa.
+ * </p>
+ */
+final class OffHeapStringArena {
+
+    private static final int EMPTY = 0;
+
+    private volatile ByteBuffer bytes;
+    private int used;
+    private ByteBuffer slots;
+    private int slotMask;
+    private int count;
+
+    /**
+     * @param initialBytes Capacidad inicial de la arena en bytes.
+     */
+    OffHeapStringArena(int initialBytes) {
+        bytes = ByteBuffer.allocateDirect(Math.max(64, initialBytes));
+        used = 4; // la posición 0 queda reservada para null
+        slots = ByteBuffer.allocateDirect(1024 * Integer.BYTES);
+        slotMask = 1023;
+    }
+
+    /**
+     * Guarda la cadena si no existe y devuelve su referencia.
+     *
+     * @param value La cadena, o {@code null}.
+     * @return La referencia de la cadena ({@code 0} para {@code null}).
+     */
+    int intern(String value) {
+        if (value == null) {
+            return EMPTY;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(utf8);
+        for (int i = hash & slotMask; ; i = (i + 1) & slotMask) {
+            int ref = slots.getInt(i * Integer.BYTES);
+            if (ref == EMPTY) {
+                ref = append(utf8);
+                slots.putInt(i * Integer.BYTES, ref);
+                if (++count * 2 > slotMask) {
+                    rehash();
+                }
+                return ref;
+            }
+            if (equalsAt(ref, utf8)) {
+                return ref;
+            }
+        }
+    }
+
+    /**
+     * @param ref La referencia de la cadena.
+     * @return El largo en bytes UTF-8 ({@code -1} para {@code null}).
+     */
+    int length(int ref) {
+        return ref == EMPTY ? -1 : bytes.getInt(ref);
+    }
+
+    /**
+     * Copia los bytes UTF-8 de la cadena.
+     *
+     * @param ref La referencia de la cadena (distinta de {@code 0}).
+     * @param dst El destino, de al menos {@link #length(int)} bytes.
+     * @return El largo copiado.
+     */
+    int copy(int ref, byte[] dst) {
+        ByteBuffer buffer = bytes;
+        int len = buffer.getInt(ref);
+        buffer.get(ref + Integer.BYTES, dst, 0, len);
+        return len;
+    }
+
+    /**
+     * @param ref La referencia de la cadena.
+     * @return La cadena decodificada, o {@code null}.
+     */
+    String get(int ref) {
+        if (ref == EMPTY) {
+            return null;
+        }
+        ByteBuffer buffer = bytes;
+        byte[] utf8 = new byte[buffer.getInt(ref)];
+        buffer.get(ref + Integer.BYTES, utf8, 0, utf8.length);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return Los bytes reservados fuera del heap (arena y diccionario).
+     */
+    long capacityBytes() {
+        return (long) bytes.capacity() + slots.capacity();
+    }
+
+    // -------------------------------------------------------------------------
+    // Utilidades internas
+    // -------------------------------------------------------------------------
+
+    private int append(byte[] utf8) {
+        int needed = Integer.BYTES + utf8.length;
+        ByteBuffer buffer = bytes;
+        if (used + needed > buffer.capacity()) {
+            long grown = Math.max((long) buffer.capacity() * 2, (long) used + needed);
+            if (grown > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Arena de cadenas llena");
+            }
+            ByteBuffer bigger = ByteBuffer.allocateDirect((int) grown);
+            bigger.put(0, buffer, 0, used);
+            buffer = bigger;
+        }
+        int ref = used;
+        buffer.putInt(ref, utf8.length);
+        buffer.put(ref + Integer.BYTES, utf8);
+        used += needed;
+        // Publica la arena (nueva o la misma) antes de que la referencia se escriba en una fila
+        bytes = buffer;
+        return ref;
+    }
+
+    private boolean equalsAt(int ref, byte[] utf8) {
+        ByteBuffer buffer = bytes;
+        if (buffer.getInt(ref) != utf8.length) {
+            return false;
+        }
+        int base = ref + Integer.BYTES;
+        for (int i = 0; i < utf8.length; i++) {
+            if (buffer.get(base + i) != utf8[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        int newMask = slotMask * 2 + 1;
+        ByteBuffer newSlots = ByteBuffer.allocateDirect((newMask + 1) * Integer.BYTES);
+        ByteBuffer buffer = bytes;
+        for (int i = 0; i <= slotMask; i++) {
+            int ref = slots.getInt(i * Integer.BYTES);
+            if (ref != EMPTY) {
+                int j = hashAt(buffer, ref) & newMask;
+                while (newSlots.getInt(j * Integer.BYTES) != EMPTY) {
+                    j = (j + 1) & newMask;
+                }
+                newSlots.putInt(j * Integer.BYTES, ref);
+            }
+        }
+        slots = newSlots;
+        slotMask = newMask;
+    }
+
+    private static int hash(byte[] utf8) {
+        int h = 0x9E3779B9;
+        for (byte b : utf8) {
+            h = (h ^ b) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static int hashAt(ByteBuffer buffer, int ref) {
+        int h = 0x9E3779B9;
+        for (int i = ref + Integer.BYTES, end = i + buffer.getInt(ref); i < end; i++) {
+            h = (h ^ buffer.get(i)) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+}
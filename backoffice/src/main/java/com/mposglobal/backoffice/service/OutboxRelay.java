@@ -0,0 +1,193 @@
+package com.mposglobal.backoffice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.mposglobal.backoffice.config.OutboxProperties;
+import com.mposglobal.backoffice.event.OutboxMessage;
+import com.mposglobal.backoffice.event.OutboxSubscriber;
+import com.mposglobal.backoffice.repository.OutboxRepository;
+import com.mposglobal.backoffice.repository.OutboxRepository.Backlog;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relay del outbox: entrega los eventos pendientes a los {@link OutboxSubscriber} y los marca
+ * procesados.
+ * <p>
+ * Cada ciclo lee lotes de {@code batchSize} filas en orden de {@code id} hasta vaciar la cola. Un
+ * lote se marca procesado solo después de que todos los suscriptores lo aceptaron; si alguno
+ * falla, o la marca no llega a la base, el lote se vuelve a entregar en el ciclo siguiente
+ * (entrega "al menos una vez"). Con varias instancias cada una corre su relay y un evento puede
+ * entregarse más de una vez por el mismo motivo.
+ * </p>
+ * <p>
+ * Sin ningún suscriptor registrado (por ejemplo, con {@code app.outbox.file-sink} sin configurar)
+ * el relay no marca nada: los eventos quedan pendientes, visibles en {@code outbox.pending} y
+ * {@code outbox.lag}, hasta que haya un destino que los reciba.
+ * </p>
+ * <p>
+ * Métricas: {@code outbox.delivered}, {@code outbox.delivery.failed}, {@code outbox.compacted},
+ * {@code outbox.pending}, {@code outbox.lag} (segundos desde el evento pendiente más antiguo) y
+ * {@code outbox.delivery.latency} (del cambio a la entrega).
+ * </p>
+ */
+@Service
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxRepository repo;
+    private final OutboxProperties properties;
+    private final ObjectProvider<OutboxSubscriber> subscribers;
+    private final Counter delivered;
+    private final Counter failed;
+    private final Counter compacted;
+    private final Timer latency;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong oldestPending = new AtomicLong();
+    private boolean warnedNoSubscribers;
+
+    /**
+     * Constructor que inyecta el repositorio, la configuración, los suscriptores y el registro de métricas.
+     *
+     * @param repo El repositorio del outbox.
+     * @param properties La configuración del outbox.
+     * @param subscribers Los suscriptores registrados como beans (puede no haber ninguno).
+     * @param registry El registro de métricas.
+     */
+    public OutboxRelay(OutboxRepository repo, OutboxProperties properties,
+                       ObjectProvider<OutboxSubscriber> subscribers, MeterRegistry registry) {
+        this.repo = repo;
+        this.properties = properties;
+        this.subscribers = subscribers;
+        this.delivered = registry.counter("outbox.delivered");
+        this.failed = registry.counter("outbox.delivery.failed");
+        this.compacted = registry.counter("outbox.compacted");
+        this.latency = Timer.builder("outbox.delivery.latency").register(registry);
+        Gauge.builder("outbox.pending", pending, AtomicLong::get).register(registry);
+        Gauge.builder("outbox.lag", oldestPending, OutboxRelay::lagSeconds).baseUnit("seconds").register(registry);
+    }
+
+    /**
+     * Ciclo programado del relay ({@code app.outbox.poll-interval}).
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:1s}")
+    public void scheduledRelay() {
+        if (properties.isEnabled()) {
+            relay();
+        }
+    }
+
+    /**
+     * Compactación programada de las filas procesadas ({@code app.outbox.compaction-interval}).
+     */
+    @Scheduled(initialDelayString = "${app.outbox.compaction-interval:10m}",
+               fixedDelayString = "${app.outbox.compaction-interval:10m}")
+    public void scheduledCompaction() {
+        compact();
+    }
+
+    /**
+     * Entrega los eventos pendientes hasta vaciar la cola o hasta el primer fallo.
+     *
+     * @return Los eventos entregados y marcados procesados.
+     */
+    public synchronized int relay() {
+        int batchSize = Math.max(1, properties.getBatchSize());
+        List<OutboxSubscriber> targets = subscribers.orderedStream().toList();
+        int total = 0;
+        try {
+            if (targets.isEmpty()) {
+                if (!warnedNoSubscribers) {
+                    log.warn("Outbox: no hay suscriptores registrados, los eventos quedan pendientes");
+                    warnedNoSubscribers = true;
+                }
+                refreshBacklog();
+                return 0;
+            }
+            warnedNoSubscribers = false;
+            while (true) {
+                List<OutboxMessage> batch = repo.findPending(batchSize);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                try {
+                    for (OutboxSubscriber target : targets) {
+                        target.deliver(batch);
+                    }
+                } catch (RuntimeException e) {
+                    failed.increment(batch.size());
+                    log.warn("Outbox: entrega fallida desde el evento {}, se reintenta: {}",
+                            batch.get(0).id(), e.getMessage());
+                    break;
+                }
+                long now = System.currentTimeMillis();
+                repo.markProcessed(batch.stream().map(OutboxMessage::id).toList(), new Timestamp(now));
+                delivered.increment(batch.size());
+                for (OutboxMessage message : batch) {
+                    latency.record(Math.max(0, now - message.fecha()), TimeUnit.MILLISECONDS);
+                }
+                total += batch.size();
+                if (batch.size() < batchSize) {
+                    break;
+                }
+            }
+            refreshBacklog();
+        } catch (RuntimeException e) {
+            // Base no disponible: el lote en curso queda pendiente y se vuelve a entregar
+            log.warn("Outbox: relay interrumpido: {}", e.getMessage());
+        }
+        return total;
+    }
+
+    /**
+     * Borra las filas procesadas hace más de {@code retention}, en tramos.
+     *
+     * @return Las filas borradas.
+     */
+    public int compact() {
+        int chunk = Math.max(1, properties.getCompactionChunk());
+        Timestamp before = new Timestamp(System.currentTimeMillis() - properties.getRetention().toMillis());
+        int total = 0;
+        try {
+            int deleted;
+            do {
+                deleted = repo.compact(before, chunk);
+                total += deleted;
+            } while (deleted == chunk);
+        } catch (RuntimeException e) {
+            log.warn("Outbox: compactacion interrumpida: {}", e.getMessage());
+        }
+        compacted.increment(total);
+        return total;
+    }
+
+    // -------------------------------------------------------------------------
+    // Utilidades internas
+    // -------------------------------------------------------------------------
+
+    private void refreshBacklog() {
+        Backlog backlog = repo.backlog();
+        pending.set(backlog.pending());
+        oldestPending.set(backlog.oldest() == null ? 0 : backlog.oldest());
+    }
+
+    private static double lagSeconds(AtomicLong oldest) {
+        long value = oldest.get();
+        return value == 0 ? 0 : Math.max(0, System.currentTimeMillis() - value) / 1000.0;
+    }
+}
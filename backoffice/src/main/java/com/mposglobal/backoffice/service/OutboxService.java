@@ -0,0 +1,58 @@
+package com.mposglobal.backoffice.service;
+
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mposglobal.backoffice.repository.OutboxRepository;
+import com.mposglobal.backoffice.repository.OutboxRepository.Entry;
+import com.mposglobal.backoffice.util.TransactionBuffer;
+
+/**
+ * Escritura del outbox de eventos del catálogo.
+ * <p>
+ * {@link ProductService} y {@link CategoryService} llaman a {@link #record} en cada alta,
+ * modificación o desactivación. Igual que el historial de precios, los eventos se acumulan
+ * durante la transacción y se insertan justo antes del commit en un solo lote: quedan
+ * confirmados junto con el cambio, o no quedan si la transacción se revierte. La entrega la
+ * hace {@link OutboxRelay}.
+ * </p>
+ */
+@Service
+public class OutboxService {
+
+    private final ObjectMapper mapper;
+    private final TransactionBuffer<Entry> pending;
+
+    /**
+     * Constructor que inyecta el repositorio y Jackson.
+     *
+     * @param repo El repositorio del outbox.
+     * @param mapper El {@code ObjectMapper} de la aplicación, para serializar el estado.
+     */
+    public OutboxService(OutboxRepository repo, ObjectMapper mapper) {
+        this.mapper = mapper;
+        this.pending = new TransactionBuffer<>(TransactionBuffer.Phase.BEFORE_COMMIT, repo::insertAll);
+    }
+
+    /**
+     * Registra un evento con el estado del registro después del cambio.
+     * <p>
+     * Dentro de una transacción el evento se inserta al confirmarla; fuera de una, en el acto.
+     * </p>
+     *
+     * @param tipo El tipo de registro ({@link AuditService#PRODUCTO} o {@link AuditService#CATEGORIA}).
+     * @param entidadId El ID del registro.
+     * @param accion La acción ({@link AuditService#CREAR}, {@link AuditService#ACTUALIZAR}, {@link AuditService#DESACTIVAR}).
+     * @param state El DTO de respuesta del registro, que se guarda en JSON.
+     */
+    public void record(String tipo, Long entidadId, String accion, Object state) {
+        String datos;
+        try {
+            datos = mapper.writeValueAsString(state);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        pending.add(new Entry(tipo, entidadId, accion, datos, System.currentTimeMillis()));
+    }
+}
@@ -0,0 +1,140 @@
+package com.mposglobal.backoffice.service;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.mposglobal.backoffice.dto.PriceHistoryResponse;
+import com.mposglobal.backoffice.entity.Product;
+import com.mposglobal.backoffice.repository.CategoryRepository;
+import com.mposglobal.backoffice.repository.PriceHistoryRepository;
+import com.mposglobal.backoffice.repository.PriceHistoryRepository.Entry;
+import com.mposglobal.backoffice.repository.ProductRepository;
+import com.mposglobal.backoffice.util.Constant;
+import com.mposglobal.backoffice.util.TransactionBuffer;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Servicio del historial de precios de los productos.
+ * <p>
+ * {@link ProductService} llama a {@link #record(Product)} en cada alta o cambio de costo, precio
+ * o categoría. Las entradas se acumulan durante la transacción y se insertan justo antes del
+ * commit en un solo lote JDBC: un lote de reprecios ({@code POST /batch} atómico) hace un único
+ * viaje a la base para el historial, y si la transacción se revierte no queda ninguna entrada.
+ * </p>
+ */
+@Service
+public class PriceHistoryService {
+
+    private static final ZoneId ZONE = ZoneId.of("America/Panama");
+
+    private final PriceHistoryRepository repo;
+    private final ProductRepository productRepo;
+    private final CategoryRepository categoryRepo;
+    private final TransactionBuffer<Entry> pending;
+
+    /**
+     * Constructor que inyecta los repositorios.
+     *
+     * @param repo El repositorio del historial.
+     * @param productRepo El repositorio de productos (para distinguir "sin historial" de "no existe").
+     * @param categoryRepo El repositorio de categorías (ídem).
+     */
+    public PriceHistoryService(PriceHistoryRepository repo, ProductRepository productRepo,
+                               CategoryRepository categoryRepo) {
+        this.repo = repo;
+        this.productRepo = productRepo;
+        this.categoryRepo = categoryRepo;
+        this.pending = new TransactionBuffer<>(TransactionBuffer.Phase.BEFORE_COMMIT, repo::insertAll);
+    }
+
+    /**
+     * Registra los valores actuales del producto como vigentes desde ahora.
+     * <p>
+     * Dentro de una transacción la entrada se inserta al confirmarla; fuera de una, en el acto.
+     * </p>
+     *
+     * @param product El producto ya guardado (con ID).
+     */
+    public void record(Product product) {
+        pending.add(new Entry(product.getId(), product.getCategoria().getId(), product.getCosto(),
+                product.getPrecio(), new Timestamp(System.currentTimeMillis()), currentUser()));
+    }
+
+    /**
+     * Devuelve el historial de un producto en un rango de fechas.
+     *
+     * @param productoId El ID del producto.
+     * @param from Inicio del rango ({@code yyyy-MM-dd} o {@code yyyy-MM-ddTHH:mm:ss}); opcional.
+     * @param to Fin del rango, inclusive (una fecha sola abarca el día completo); opcional, por defecto ahora.
+     * @return La entrada vigente al inicio del rango y los cambios posteriores hasta el final.
+     * @throws IllegalArgumentException Si las fechas son inválidas o el rango está invertido.
+     * @throws RuntimeException Si el producto no existe.
+     */
+    @Transactional(readOnly = true)
+    public List<PriceHistoryResponse> findRange(Long productoId, String from, String to) {
+        Timestamp start = parse(from, false, new Timestamp(0));
+        Timestamp end = parse(to, true, new Timestamp(System.currentTimeMillis()));
+        if (start.after(end)) {
+            throw new IllegalArgumentException(Constant.ERROR_PRICE_RANGE);
+        }
+        List<PriceHistoryResponse> result = repo.findRange(productoId, start, end);
+        if (result.isEmpty() && !productRepo.existsById(productoId)) {
+            throw new RuntimeException(Constant.ERROR_NOFOUND_PRODUCT);
+        }
+        return result;
+    }
+
+    /**
+     * Devuelve los precios de todos los productos de una categoría vigentes en un instante.
+     *
+     * @param categoriaId El ID de la categoría.
+     * @param at El instante ({@code yyyy-MM-dd} es el final de ese día); opcional, por defecto ahora.
+     * @return Una entrada por producto que en ese instante pertenecía a la categoría.
+     * @throws IllegalArgumentException Si la fecha es inválida.
+     * @throws RuntimeException Si la categoría no existe.
+     */
+    @Transactional(readOnly = true)
+    public List<PriceHistoryResponse> findCategoryAt(Long categoriaId, String at) {
+        Timestamp instant = parse(at, true, new Timestamp(System.currentTimeMillis()));
+        List<PriceHistoryResponse> result = repo.findCategoryAt(categoriaId, instant);
+        if (result.isEmpty() && !categoryRepo.existsById(categoriaId)) {
+            throw new RuntimeException(Constant.ERROR_NOFOUND_CATEGORY + categoriaId);
+        }
+        return result;
+    }
+
+    // -------------------------------------------------------------------------
+    // Utilidades internas
+    // -------------------------------------------------------------------------
+
+    private static String currentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth == null ? null : auth.getName();
+    }
+
+    /**
+     * Interpreta una fecha u hora local de Panamá (la misma zona con la que se muestran).
+     */
+    private static Timestamp parse(String value, boolean endOfDay, Timestamp fallback) {
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        try {
+            LocalDateTime local = value.length() == 10
+                    ? (endOfDay ? LocalDate.parse(value).plusDays(1).atStartOfDay().minusNanos(1000)
+                                : LocalDate.parse(value).atStartOfDay())
+                    : LocalDateTime.parse(value);
+            return Timestamp.from(local.atZone(ZONE).toInstant());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(Constant.ERROR_PRICE_DATE + value);
+        }
+    }
+}
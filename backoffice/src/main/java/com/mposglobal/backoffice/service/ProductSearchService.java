@@ -0,0 +1,67 @@
+package com.mposglobal.backoffice.service;
+
+import org.springframework.stereotype.Service;
+
+import com.mposglobal.backoffice.dto.ProductResponse;
+import com.mposglobal.backoffice.util.Constant;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Búsqueda de productos activos por nombre y tags tolerante a errores de tipeo.
+ * <p>
+ * Los IDs salen de {@link FuzzySearchIndex} y los productos de {@link CatalogStore}. Mientras el
+ * índice no terminó su primera carga se responde con el autocompletado por prefijo
+ * ({@link SuggestService}), que no tolera errores pero no deja la búsqueda sin resultados.
+ * </p>
+ */
+@Service
+public class ProductSearchService {
+
+    private final FuzzySearchIndex index;
+    private final CatalogStore catalog;
+    private final ProductService products;
+    private final SuggestService suggest;
+
+    /**
+     * Constructor que inyecta el índice, el catálogo y los servicios de productos y de autocompletado.
+     *
+     * @param index El índice de búsqueda.
+     * @param catalog El catálogo en memoria.
+     * @param products El servicio de productos (mientras el catálogo no está listo).
+     * @param suggest El autocompletado (mientras el índice no está listo).
+     */
+    public ProductSearchService(FuzzySearchIndex index, CatalogStore catalog, ProductService products,
+                                SuggestService suggest) {
+        this.index = index;
+        this.catalog = catalog;
+        this.products = products;
+        this.suggest = suggest;
+    }
+
+    /**
+     * Busca los productos activos más parecidos al texto.
+     *
+     * @param query El texto escrito, con o sin errores de tipeo.
+     * @param limit La cantidad de resultados (se acota a {@code [1, MAX_SUGGEST_LIMIT]}).
+     * @return Los productos, del más parecido al menos parecido.
+     */
+    public List<ProductResponse> search(String query, int limit) {
+        int max = Math.max(1, Math.min(limit, Constant.MAX_SUGGEST_LIMIT));
+        if (!index.isReady()) {
+            return suggest.suggest(query, max);
+        }
+        List<ProductResponse> found = new ArrayList<>(max);
+        for (FuzzySearchIndex.Hit hit : index.search(query, max)) {
+            ProductResponse product = catalog.isReady()
+                    ? catalog.product(hit.id())
+                    : products.findActiveById(hit.id()).orElse(null);
+            // Puede haberse desactivado entre la consulta al índice y la del catálogo
+            if (product != null) {
+                found.add(product);
+            }
+        }
+        return found;
+    }
+}
@@ -1,18 +1,36 @@
 package com.mposglobal.backoffice.service;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.mposglobal.backoffice.dto.ProductRequest;
 import com.mposglobal.backoffice.dto.ProductResponse;
 import com.mposglobal.backoffice.entity.Category;
 import com.mposglobal.backoffice.entity.Product;
+import com.mposglobal.backoffice.event.CatalogChangedEvent;
+import com.mposglobal.backoffice.exceptions.PreconditionFailedException;
 import com.mposglobal.backoffice.exceptions.ProductException;
+import com.mposglobal.backoffice.repository.ArchiveRepository;
+import com.mposglobal.backoffice.repository.BarcodeRepository;
 import com.mposglobal.backoffice.repository.CategoryRepository;
+import com.mposglobal.backoffice.repository.PartialUpdateRepository;
 import com.mposglobal.backoffice.repository.ProductRepository;
+import com.mposglobal.backoffice.util.BarcodeUtil;
 import com.mposglobal.backoffice.util.Constant;
+import com.mposglobal.backoffice.util.MergePatchUtil;
+import com.mposglobal.backoffice.util.Money;
 
 import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Servicio central para la gestión de productos.
@@ -25,18 +43,47 @@ import java.util.List;
 @Service
 public class ProductService {
 
+    /**
+     * Campos que se pueden modificar mediante {@code PATCH}.
+     */
+    private static final Set<String> PATCHABLE = Set.of("nombre", "categoria", "costo", "precio", "tags", "codigosBarra");
+
 	private final ProductRepository productRepo;
     private final CategoryRepository categoryRepo; // ¡Necesitas esto!
+    private final PartialUpdateRepository partialRepo;
+    private final ApplicationEventPublisher events;
+    private final PriceHistoryService priceHistory;
+    private final AuditService audit;
+    private final ArchiveRepository archive;
+    private final OutboxService outbox;
+    private final BarcodeRepository barcodes;
 
     /**
      * Constructor para inyectar los repositorios de Producto y Categoría.
      *
      * @param productRepo El repositorio JPA para el acceso a datos de productos.
      * @param categoryRepo El repositorio JPA para la búsqueda de entidades de categorías.
+     * @param partialRepo El repositorio para las actualizaciones parciales (PATCH).
+     * @param events El publicador de {@link CatalogChangedEvent} (catálogo en memoria tras el commit).
+     * @param priceHistory El historial de precios (se escribe en la misma transacción).
+     * @param audit La auditoría de cambios (se entrega tras el commit).
+     * @param archive El repositorio de filas archivadas (lecturas con {@code includeArchived}).
+     * @param outbox El outbox de eventos del catálogo (se escribe en la misma transacción).
+     * @param barcodes El repositorio de códigos de barras.
      */
-    public ProductService(ProductRepository productRepo, CategoryRepository categoryRepo) {
+    public ProductService(ProductRepository productRepo, CategoryRepository categoryRepo,
+                          PartialUpdateRepository partialRepo, ApplicationEventPublisher events,
+                          PriceHistoryService priceHistory, AuditService audit, ArchiveRepository archive,
+                          OutboxService outbox, BarcodeRepository barcodes) {
         this.productRepo = productRepo;
         this.categoryRepo = categoryRepo;
+        this.partialRepo = partialRepo;
+        this.events = events;
+        this.priceHistory = priceHistory;
+        this.audit = audit;
+        this.archive = archive;
+        this.outbox = outbox;
+        this.barcodes = barcodes;
     }
 
     // -------------------------------------------------------------------------
@@ -51,6 +98,7 @@ public class ProductService {
      *
      * @return Una lista de {@code ProductResponse} de todos los productos activos.
      */
+    @Transactional(readOnly = true)
     public List<ProductResponse> findAllActive() {
         return productRepo.findAll()
                 .stream()
@@ -59,6 +107,122 @@ public class ProductService {
                 .toList();
     }
 
+    /**
+     * Busca los productos activos de una categoría.
+     *
+     * @param categoriaId El ID de la categoría.
+     * @return Los productos activos de la categoría ordenados por ID.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductResponse> findActiveByCategory(Long categoriaId) {
+        return productRepo.findByCategoriaIdAndEstadoIgnoreCaseOrderById(categoriaId, Constant.ACTIVO)
+                .stream()
+                .map(this::convertToResponse)
+                .toList();
+    }
+
+    /**
+     * Busca un producto activo por su ID.
+     *
+     * @param id El ID del producto.
+     * @return El producto, o vacío si no existe o está desactivado.
+     */
+    @Transactional(readOnly = true)
+    public Optional<ProductResponse> findActiveById(Long id) {
+        return productRepo.findById(id)
+                .filter(p -> Constant.ACTIVO.equalsIgnoreCase(p.getEstado()))
+                .map(this::convertToResponse);
+    }
+
+    /**
+     * Obtiene los códigos de barras de un producto, activo o no.
+     *
+     * @param id El ID del producto.
+     * @return Los códigos normalizados a 14 dígitos, ordenados.
+     * @throws RuntimeException Si el producto no existe.
+     */
+    @Transactional(readOnly = true)
+    public List<String> findBarcodes(Long id) {
+        if (!productRepo.existsById(id)) {
+            throw new RuntimeException(Constant.ERROR_NOFOUND_PRODUCT);
+        }
+        return barcodes.findByProduct(id);
+    }
+
+    /**
+     * Busca una página de los productos activos de una categoría y todas sus subcategorías.
+     *
+     * @param categoriaId El ID de la raíz del subárbol.
+     * @param after El último ID recibido (cursor), o {@code null} para la primera página.
+     * @param size El tamaño de página (se acota a {@code [1, MAX_PAGE_SIZE]}).
+     * @return La página solicitada y el cursor de la siguiente.
+     * @throws RuntimeException Si la categoría no existe.
+     */
+    @Transactional(readOnly = true)
+    public ProductPage findActiveInSubtree(Long categoriaId, Long after, int size) {
+        if (!categoryRepo.existsById(categoriaId)) {
+            throw new RuntimeException(Constant.ERROR_NOFOUND_CATEGORY + categoriaId);
+        }
+        int pageSize = Math.max(1, Math.min(size, Constant.MAX_PAGE_SIZE));
+        List<ProductResponse> rows = productRepo
+                .findSubtreePage(categoriaId, Constant.ACTIVO, after == null ? 0L : after, pageSize + 1)
+                .stream()
+                .map(this::convertToResponse)
+                .toList();
+        if (rows.size() <= pageSize) {
+            return new ProductPage(rows, null);
+        }
+        List<ProductResponse> page = rows.subList(0, pageSize);
+        return new ProductPage(page, page.get(pageSize - 1).getId());
+    }
+
+    /**
+     * Una página de productos y el cursor para pedir la siguiente.
+     *
+     * @param items Los productos de la página.
+     * @param nextCursor El ID a enviar como {@code after}, o {@code null} si no hay más.
+     */
+    public record ProductPage(List<ProductResponse> items, Long nextCursor) {
+    }
+
+    /**
+     * Busca un producto por su ID, activo o no.
+     *
+     * @param id El ID del producto.
+     * @return El DTO de respuesta del producto.
+     * @throws RuntimeException Si el producto no existe.
+     */
+    @Transactional(readOnly = true)
+    public ProductResponse findById(Long id) {
+        return findById(id, false);
+    }
+
+    /**
+     * Busca un producto por su ID, activo o no, y opcionalmente también entre los archivados.
+     *
+     * @param id El ID del producto.
+     * @param includeArchived {@code true} para buscar en {@code Productos_Archivo} si no está en la tabla principal.
+     * @return El DTO de respuesta del producto.
+     * @throws RuntimeException Si el producto no existe.
+     */
+    @Transactional(readOnly = true)
+    public ProductResponse findById(Long id, boolean includeArchived) {
+        return productRepo.findById(id).map(this::convertToResponse)
+                .or(() -> includeArchived ? archive.findProduct(id) : Optional.empty())
+                .orElseThrow(() -> new RuntimeException(Constant.ERROR_NOFOUND_PRODUCT));
+    }
+
+    /**
+     * Obtiene la versión actual de un producto.
+     *
+     * @param id El ID del producto.
+     * @return La versión, o {@code null} si el producto no existe.
+     */
+    @Transactional(readOnly = true)
+    public Long findVersion(Long id) {
+        return productRepo.findVersionById(id).orElse(null);
+    }
+
     /**
      * Crea un nuevo producto.
      * <p>
@@ -70,8 +234,10 @@ public class ProductService {
      *
      * @param request El DTO de solicitud con los datos del nuevo producto.
      * @return El DTO de respuesta del producto creado.
+     * @throws IllegalArgumentException Si un código de barras es inválido o pertenece a otro producto.
      * @throws RuntimeException Si la categoría referenciada no existe.
      */
+    @Transactional
     public ProductResponse create(ProductRequest request) {
         // 1. Buscar la Entidad Category usando el ID del Request
         Category categoryEntity = categoryRepo.findById(request.getCategoria())
@@ -87,8 +253,8 @@ public class ProductService {
         // ASIGNACIÓN CORRECTA: Asignamos el objeto Category completo
         p.setCategoria(categoryEntity); 
         
-        p.setCosto(request.getCosto());
-        p.setPrecio(request.getPrecio());
+        p.setCosto(Money.of(request.getCosto()));
+        p.setPrecio(Money.of(request.getPrecio()));
         p.setTags(request.getTags());
         
         // 3. Asignar valores del sistema
@@ -99,7 +265,16 @@ public class ProductService {
         
         // 4. Guardar y Mapear a Respuesta
         Product savedProduct = productRepo.save(p);
-        return convertToResponse(savedProduct);
+        priceHistory.record(savedProduct);
+        events.publishEvent(CatalogChangedEvent.product(savedProduct.getId()));
+        Map<String, Object> after = auditState(savedProduct);
+        if (request.getCodigosBarra() != null && replaceBarcodes(savedProduct.getId(), request.getCodigosBarra()) != null) {
+            after.put("codigosBarra", barcodes.findByProduct(savedProduct.getId()));
+        }
+        audit.record(AuditService.PRODUCTO, savedProduct.getId(), AuditService.CREAR, null, after);
+        ProductResponse response = convertToResponse(savedProduct);
+        outbox.record(AuditService.PRODUCTO, savedProduct.getId(), AuditService.CREAR, response);
+        return response;
     }
 
     /**
@@ -116,7 +291,33 @@ public class ProductService {
      * @return El DTO de respuesta del producto actualizado.
      * @throws RuntimeException Si el producto o la categoría referenciada no se encuentran.
      */
+    @Transactional
     public ProductResponse update(Long id, ProductRequest request) {
+        return update(id, request, null);
+    }
+
+    /**
+     * Actualiza un producto existente, opcionalmente condicionado a su versión ({@code If-Match}).
+     * <p>
+     * Con {@code expectedVersion} la actualización se ejecuta como un único
+     * {@code UPDATE ... WHERE id = ? AND version = ?}, cuyo número de filas decide el 412. Lo precede
+     * una lectura escalar por PK de la fila anterior (sin cargar la entidad), que decide el historial
+     * de precios y da el estado anterior a la auditoría; a cambio, la respuesta se arma con esa fila
+     * y los valores escritos, sin releer el producto, así que son dos accesos a la base como con el
+     * UPDATE seguido de la relectura. Sin versión se
+     * mantiene el flujo de lectura y guardado, protegido igualmente por {@code @Version}.
+     * </p>
+     *
+     * @param id El ID del producto a actualizar.
+     * @param request El DTO de solicitud con los nuevos datos.
+     * @param expectedVersion La versión que el cliente leyó, o {@code null} para no condicionar.
+     * @return El DTO de respuesta del producto actualizado.
+     * @throws PreconditionFailedException Si la versión no coincide con la actual.
+     * @throws IllegalArgumentException Si un código de barras es inválido o pertenece a otro producto.
+     * @throws RuntimeException Si el producto o la categoría referenciada no se encuentran.
+     */
+    @Transactional
+    public ProductResponse update(Long id, ProductRequest request, Long expectedVersion) {
         
         // 1. Buscar la Entidad Category usando el ID del Request
         Category categoryEntity = categoryRepo.findById(request.getCategoria())
@@ -124,7 +325,49 @@ public class ProductService {
         
         validateCategoryIsActive(categoryEntity);
         
+        if (expectedVersion != null) {
+            Object[] previous = catalogRow(id);
+            Date fecha = new Date();
+            int rows = productRepo.updateIfVersion(id, expectedVersion, request.getNombre(), categoryEntity,
+                    Money.of(request.getCosto()), Money.of(request.getPrecio()), request.getTags(),
+                    Constant.ACTIVO, fecha);
+            if (rows == 0) {
+                // La versión leída por el cliente ya no es la actual
+                throw new PreconditionFailedException(Constant.ERROR_PRECONDITION + id);
+            }
+            events.publishEvent(CatalogChangedEvent.product(id));
+            // El producto tal como quedó, sin releerlo
+            Product updated = fromRow(previous, categoryEntity);
+            updated.setNombre(request.getNombre());
+            updated.setCosto(Money.of(request.getCosto()));
+            updated.setPrecio(Money.of(request.getPrecio()));
+            updated.setTags(request.getTags());
+            updated.setEstado(Constant.ACTIVO);
+            updated.setFechaActualizacion(fecha);
+            updated.setVersion(expectedVersion + 1);
+            if (pricingChanged(previous, updated)) {
+                priceHistory.record(updated);
+            }
+            Map<String, Object> before = auditState(previous);
+            Map<String, Object> after = auditState(updated);
+            List<String> previousCodes = request.getCodigosBarra() == null
+                    ? null : replaceBarcodes(id, request.getCodigosBarra());
+            if (previousCodes != null) {
+                before.put("codigosBarra", previousCodes);
+                after.put("codigosBarra", barcodes.findByProduct(id));
+            }
+            audit.record(AuditService.PRODUCTO, id, AuditService.ACTUALIZAR, before, after);
+            ProductResponse response = convertToResponse(updated);
+            outbox.record(AuditService.PRODUCTO, id, AuditService.ACTUALIZAR, response);
+            return response;
+        }
+        
         return productRepo.findById(id).map(existing -> {
+            Map<String, Object> before = auditState(existing);
+            
+            boolean pricingChanged = !existing.getCategoria().getId().equals(categoryEntity.getId())
+                    || !Objects.equals(existing.getCosto(), Money.of(request.getCosto()))
+                    || !Objects.equals(existing.getPrecio(), Money.of(request.getPrecio()));
             
             // 2. Aplicar cambios del Request a la Entidad existente
             existing.setNombre(request.getNombre());
@@ -132,8 +375,8 @@ public class ProductService {
             // ASIGNACIÓN CORRECTA: Asignamos el objeto Category completo
             existing.setCategoria(categoryEntity); 
             
-            existing.setCosto(request.getCosto());
-            existing.setPrecio(request.getPrecio());
+            existing.setCosto(Money.of(request.getCosto()));
+            existing.setPrecio(Money.of(request.getPrecio()));
             existing.setTags(request.getTags());
             
             // ... (resto de la lógica de update)
@@ -141,12 +384,121 @@ public class ProductService {
             existing.setFechaActualizacion(new Date());
             
             // 3. Guardar y Mapear a Respuesta
-            Product updatedProduct = productRepo.save(existing);
-            return convertToResponse(updatedProduct);
+            Product updatedProduct = productRepo.saveAndFlush(existing);
+            if (pricingChanged) {
+                priceHistory.record(updatedProduct);
+            }
+            events.publishEvent(CatalogChangedEvent.product(id));
+            Map<String, Object> after = auditState(updatedProduct);
+            List<String> previousCodes = request.getCodigosBarra() == null
+                    ? null : replaceBarcodes(id, request.getCodigosBarra());
+            if (previousCodes != null) {
+                before.put("codigosBarra", previousCodes);
+                after.put("codigosBarra", barcodes.findByProduct(id));
+            }
+            audit.record(AuditService.PRODUCTO, id, AuditService.ACTUALIZAR, before, after);
+            ProductResponse response = convertToResponse(updatedProduct);
+            outbox.record(AuditService.PRODUCTO, id, AuditService.ACTUALIZAR, response);
+            return response;
             
         }).orElseThrow(() -> new RuntimeException(Constant.ERROR_NOFOUND_PRODUCT));
     }
 
+    /**
+     * Modifica parcialmente un producto a partir de un documento JSON Merge Patch.
+     * <p>
+     * Solo se escriben las columnas presentes en el documento (más {@code fechaActualizacion} y
+     * {@code version}), con un único {@code UPDATE} condicionado a la versión de una lectura
+     * escalar previa por PK; esa fila anterior decide si el precio cambió, es el estado anterior de
+     * la auditoría y, con los valores escritos, da la respuesta sin releer el producto. Sin
+     * {@code expectedVersion},
+     * una escritura concurrente entre la lectura y el {@code UPDATE} se informa como conflicto. El
+     * estado no se modifica: un PATCH no reactiva un producto desactivado.
+     * </p>
+     *
+     * @param id El ID del producto a modificar.
+     * @param patch Los campos a modificar ({@code nombre}, {@code categoria}, {@code costo},
+     *              {@code precio}, {@code tags}, {@code codigosBarra}).
+     * @param expectedVersion La versión que el cliente leyó, o {@code null} para no condicionar.
+     * @return El DTO de respuesta del producto modificado.
+     * @throws PreconditionFailedException Si la versión no coincide con la actual.
+     * @throws IllegalArgumentException Si un código de barras es inválido o pertenece a otro producto.
+     * @throws RuntimeException Si el producto o la categoría referenciada no se encuentran,
+     *                          o si el documento contiene campos no modificables.
+     */
+    @Transactional
+    public ProductResponse patch(Long id, Map<String, Object> patch, Long expectedVersion) {
+        MergePatchUtil.requireAllowed(patch, PATCHABLE);
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (patch.containsKey("nombre")) {
+            values.put("nombre", MergePatchUtil.asString(patch, "nombre"));
+        }
+        if (patch.containsKey("categoria")) {
+            Long categoriaId = MergePatchUtil.asLong(patch, "categoria");
+            Category categoryEntity = categoryRepo.findById(categoriaId)
+                .orElseThrow(() -> new RuntimeException(Constant.ERROR_NOFOUND_CATEGORY + categoriaId));
+            validateCategoryIsActive(categoryEntity);
+            values.put("categoria", categoryEntity);
+        }
+        if (patch.containsKey("costo")) {
+            values.put("costo", MergePatchUtil.asMoney(patch, "costo"));
+        }
+        if (patch.containsKey("precio")) {
+            values.put("precio", MergePatchUtil.asMoney(patch, "precio"));
+        }
+        if (patch.containsKey("tags")) {
+            values.put("tags", MergePatchUtil.asNullableString(patch, "tags"));
+        }
+        List<String> codes = null;
+        if (patch.containsKey("codigosBarra")) {
+            codes = MergePatchUtil.asStringList(patch, "codigosBarra");
+        }
+        // Los códigos no son columnas del producto, pero cambiarlos también incrementa su versión
+        boolean write = !values.isEmpty() || codes != null;
+
+        Object[] previous = null;
+        Product current;
+        if (write) {
+            values.put("fechaActualizacion", new Date());
+            previous = catalogRow(id);
+            Long version = expectedVersion != null ? expectedVersion : rowVersion(previous);
+            if (partialRepo.update(Product.class, id, version, values) == 0) {
+                if (expectedVersion == null) {
+                    throw new ObjectOptimisticLockingFailureException(Product.class, id);
+                }
+                throw new PreconditionFailedException(Constant.ERROR_PRECONDITION + id);
+            }
+            events.publishEvent(CatalogChangedEvent.product(id));
+            current = patched(previous, values, version + 1);
+        } else {
+            current = productRepo.findById(id)
+                    .orElseThrow(() -> new RuntimeException(Constant.ERROR_NOFOUND_PRODUCT));
+            if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+                throw new PreconditionFailedException(Constant.ERROR_PRECONDITION + id);
+            }
+        }
+        if (previous != null && pricingChanged(previous, current)) {
+            priceHistory.record(current);
+        }
+        if (write) {
+            Map<String, Object> before = auditState(previous);
+            Map<String, Object> written = auditState(current);
+            written.keySet().retainAll(values.keySet());
+            List<String> previousCodes = codes == null ? null : replaceBarcodes(id, codes);
+            if (previousCodes != null) {
+                before.put("codigosBarra", previousCodes);
+                written.put("codigosBarra", barcodes.findByProduct(id));
+            }
+            audit.record(AuditService.PRODUCTO, id, AuditService.ACTUALIZAR, before, written);
+        }
+        ProductResponse response = convertToResponse(current);
+        if (write) {
+            outbox.record(AuditService.PRODUCTO, id, AuditService.ACTUALIZAR, response);
+        }
+        return response;
+    }
+
     /**
      * Desactiva lógicamente un producto (soft delete).
      * <p>
@@ -156,11 +508,17 @@ public class ProductService {
      *
      * @param id El ID del producto a desactivar.
      */
+    @Transactional
     public void deactivate(Long id) {
     	productRepo.findById(id).ifPresent(prod -> {
+            Map<String, Object> before = auditState(prod);
             prod.setEstado(Constant.DESACTIVADO);
             prod.setFechaActualizacion(new Date());
-            productRepo.save(prod);
+            // saveAndFlush para que el evento del outbox lleve la versión ya incrementada
+            Product saved = productRepo.saveAndFlush(prod);
+            events.publishEvent(CatalogChangedEvent.product(id));
+            audit.record(AuditService.PRODUCTO, id, AuditService.DESACTIVAR, before, auditState(saved));
+            outbox.record(AuditService.PRODUCTO, id, AuditService.DESACTIVAR, convertToResponse(saved));
         });
     }
     
@@ -180,8 +538,8 @@ public class ProductService {
         response.setId(prod.getId());
         response.setNombre(prod.getNombre());
 
-        response.setCosto(prod.getCosto());
-        response.setPrecio(prod.getPrecio());
+        response.setCosto(Money.toDouble(prod.getCosto()));
+        response.setPrecio(Money.toDouble(prod.getPrecio()));
         response.setTags(prod.getTags());
         
         if (prod.getCategoria().getNombre() != null) {
@@ -192,21 +550,177 @@ public class ProductService {
         response.setEstado(prod.getEstado());
         response.setFechaCreacion(prod.getFechaCreacion());
         response.setFechaActualizacion(prod.getFechaActualizacion());
+        response.setVersion(prod.getVersion());
         
         return response;
     }
+
+    /**
+     * Lee la fila actual de un producto por PK como valores escalares, sin cargar la entidad.
+     *
+     * @param id El ID del producto.
+     * @return Las columnas de {@link ProductRepository#findCatalogRow(Long)}.
+     * @throws RuntimeException Si el producto no existe.
+     */
+    private Object[] catalogRow(Long id) {
+        List<Object[]> rows = productRepo.findCatalogRow(id);
+        if (rows.isEmpty()) {
+            throw new RuntimeException(Constant.ERROR_NOFOUND_PRODUCT);
+        }
+        return rows.get(0);
+    }
+
+    private static Long rowVersion(Object[] row) {
+        return ((Number) row[9]).longValue();
+    }
+
+    /**
+     * Arma un producto (no administrado) con los valores de una fila de {@link #catalogRow(Long)}.
+     *
+     * @param row La fila del producto.
+     * @param categoria La categoría que se le asigna.
+     * @return El producto, con la versión de la fila.
+     */
+    private static Product fromRow(Object[] row, Category categoria) {
+        Product prod = new Product();
+        prod.setId(((Number) row[0]).longValue());
+        prod.setNombre((String) row[1]);
+        prod.setCategoria(categoria);
+        prod.setCosto((Money) row[3]);
+        prod.setPrecio((Money) row[4]);
+        prod.setTags((String) row[5]);
+        prod.setEstado((String) row[6]);
+        prod.setFechaCreacion((Date) row[7]);
+        prod.setFechaActualizacion((Date) row[8]);
+        prod.setVersion(rowVersion(row));
+        return prod;
+    }
+
+    /**
+     * Arma el producto tal como quedó después de un {@code UPDATE} parcial, sin releerlo.
+     * <p>
+     * La categoría no modificada se obtiene de la caché de segundo nivel de {@link Category}.
+     * </p>
+     *
+     * @param previous La fila anterior, leída con {@link #catalogRow(Long)}.
+     * @param values Las columnas escritas.
+     * @param version La versión nueva.
+     * @return El producto modificado.
+     */
+    private Product patched(Object[] previous, Map<String, Object> values, long version) {
+        Category categoria = values.containsKey("categoria")
+                ? (Category) values.get("categoria")
+                : categoryRepo.findById(((Number) previous[2]).longValue())
+                        .orElseThrow(() -> new RuntimeException(Constant.ERROR_NOFOUND_CATEGORY + previous[2]));
+        Product prod = fromRow(previous, categoria);
+        if (values.containsKey("nombre")) {
+            prod.setNombre((String) values.get("nombre"));
+        }
+        if (values.containsKey("costo")) {
+            prod.setCosto((Money) values.get("costo"));
+        }
+        if (values.containsKey("precio")) {
+            prod.setPrecio((Money) values.get("precio"));
+        }
+        if (values.containsKey("tags")) {
+            prod.setTags((String) values.get("tags"));
+        }
+        prod.setFechaActualizacion((Date) values.get("fechaActualizacion"));
+        prod.setVersion(version);
+        return prod;
+    }
+
+    /**
+     * Indica si cambió algo de lo que guarda el historial de precios (categoría, costo o precio).
+     *
+     * @param previous La fila anterior, leída con {@link #catalogRow(Long)}.
+     * @param current El producto ya modificado.
+     * @return {@code true} si hay que registrar una entrada nueva.
+     */
+    private static boolean pricingChanged(Object[] previous, Product current) {
+        return ((Number) previous[2]).longValue() != current.getCategoria().getId()
+                || !Objects.equals(previous[3], current.getCosto())
+                || !Objects.equals(previous[4], current.getPrecio());
+    }
+
+    /**
+     * Campos auditados de un producto (la categoría por ID, los importes exactos).
+     *
+     * @param prod El producto.
+     * @return Un mapa nuevo (modificable) de campo a valor.
+     */
+    private static Map<String, Object> auditState(Product prod) {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("nombre", prod.getNombre());
+        state.put("categoria", prod.getCategoria().getId());
+        state.put("costo", prod.getCosto().toBigDecimal());
+        state.put("precio", prod.getPrecio().toBigDecimal());
+        state.put("tags", prod.getTags());
+        state.put("estado", prod.getEstado());
+        return state;
+    }
+
+    /**
+     * Campos auditados de una fila leída con {@link #catalogRow(Long)}, con los mismos tipos que
+     * {@link #auditState(Product)}.
+     *
+     * @param row La fila anterior del producto.
+     * @return Un mapa nuevo (modificable) de campo a valor.
+     */
+    private static Map<String, Object> auditState(Object[] row) {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("nombre", row[1]);
+        state.put("categoria", ((Number) row[2]).longValue());
+        state.put("costo", ((Money) row[3]).toBigDecimal());
+        state.put("precio", ((Money) row[4]).toBigDecimal());
+        state.put("tags", row[5]);
+        state.put("estado", row[6]);
+        return state;
+    }
     
     /**
      * Valida si una categoría está inactiva y lanza una excepción si lo está.
+     * <p>
+     * Usa el estado efectivo guardado en la propia categoría, que ya refleja a sus ancestros.
+     * </p>
      *
      * @param categoryEntity La entidad Category a validar.
      */
     private void validateCategoryIsActive(Category categoryEntity) {
         
-        if (categoryEntity.getEstado().equals(Constant.DESACTIVADO)) {
+        if (categoryEntity.getEstadoEfectivo().equals(Constant.DESACTIVADO)) {
             throw new ProductException(
             		Constant.ERROR_CATEGORY_INVALID
             );
         }
     }
+
+    /**
+     * Reemplaza los códigos de barras de un producto si cambiaron.
+     * <p>
+     * El índice único de la tabla también lo impide, pero se valida antes para responder con
+     * el código en conflicto. La escritura se publica al índice en memoria con el evento de
+     * cambio del producto.
+     * </p>
+     *
+     * @param id El ID del producto (ya escrito en esta transacción).
+     * @param requested Los códigos pedidos, en cualquier formato GTIN.
+     * @return Los códigos anteriores, o {@code null} si no hubo cambios.
+     */
+    private List<String> replaceBarcodes(Long id, List<String> requested) {
+        Set<String> codes = new LinkedHashSet<>();
+        requested.forEach(code -> codes.add(BarcodeUtil.normalize(code)));
+        barcodes.findOwners(codes).forEach((code, owner) -> {
+            if (!owner.equals(id)) {
+                throw new IllegalArgumentException(Constant.ERROR_BARCODE_IN_USE + code);
+            }
+        });
+        List<String> previous = barcodes.findByProduct(id);
+        if (new HashSet<>(previous).equals(codes)) {
+            return null;
+        }
+        barcodes.replace(id, codes);
+        events.publishEvent(CatalogChangedEvent.product(id));
+        return previous;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,240 @@
+package com.mposglobal.backoffice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.mposglobal.backoffice.config.CatalogProperties;
+import com.mposglobal.backoffice.event.CatalogChangedEvent;
+import com.mposglobal.backoffice.repository.ProductTextRepository;
+import com.mposglobal.backoffice.repository.ProductTextRepository.ProductText;
+import com.mposglobal.backoffice.util.Constant;
+import com.mposglobal.backoffice.util.SearchText;
+import com.mposglobal.backoffice.util.collections.LongObjectHashMap;
+import com.mposglobal.backoffice.util.collections.PrefixTrie;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Índice en memoria para autocompletar nombres de productos activos.
+ * <p>
+ * Las palabras del nombre y de los tags, sin acentos y en minúsculas ({@link SearchText}), van a
+ * un {@link PrefixTrie} con los IDs de los productos que las contienen; los resultados salen del
+ * más reciente (ID mayor) al más antiguo. Por cada producto solo se guardan los nodos de sus
+ * palabras ({@code int[]}), que bastan para quitarlo y para filtrar por varias palabras.
+ * </p>
+ * <ul>
+ *   <li><b>Carga completa:</b> al terminar el arranque, recorriendo los productos activos fila
+ *   por fila; el índice nuevo se arma aparte y se publica de una vez.</li>
+ *   <li><b>Cambios incrementales:</b> tras el commit de cada {@link CatalogChangedEvent} de
+ *   producto se releen su nombre y tags; uno desactivado sale del índice.</li>
+ *   <li><b>Verificación:</b> si la cantidad de productos difiere de la base en dos
+ *   verificaciones seguidas, o si falló la aplicación de un cambio, se recarga todo.</li>
+ * </ul>
+ * <p>
+ * Las consultas toman el bloqueo de lectura de un {@link StampedLock} y no se bloquean entre sí;
+ * las escrituras (un producto a la vez) toman el de escritura solo para modificar el trie, con
+ * la fila ya leída. Sigue el interruptor {@code app.catalog.enabled} del catálogo en memoria.
+ * </p>
+ */
+@Component
+public class ProductSuggestIndex extends ReloadableIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSuggestIndex.class);
+
+    // Los prefijos de hasta 3 letras guardan sus mejores resultados
+    private static final int CACHED_DEPTH = 3;
+    // Candidatos revisados como máximo en una consulta de varias palabras
+    private static final int MAX_SCAN = 10_000;
+
+    private final ProductTextRepository repo;
+    private final Timer reloadTimer;
+    private final StampedLock lock = new StampedLock();
+
+    // Protegidos por el bloqueo
+    private PrefixTrie trie = new PrefixTrie(0, CACHED_DEPTH, Constant.MAX_SUGGEST_LIMIT);
+    private LongObjectHashMap<int[]> termsByProduct = new LongObjectHashMap<>(0);
+
+    /**
+     * Constructor que inyecta el repositorio, la configuración del catálogo y el registro de métricas.
+     *
+     * @param repo El repositorio de los textos de los productos.
+     * @param properties La configuración del catálogo en memoria.
+     * @param registry El registro de métricas.
+     */
+    public ProductSuggestIndex(ProductTextRepository repo, CatalogProperties properties, MeterRegistry registry) {
+        super("Indice de sugerencias", properties);
+        this.repo = repo;
+        this.reloadTimer = Timer.builder("suggest.reload").register(registry);
+        Gauge.builder("suggest.products", this, ProductSuggestIndex::size).register(registry);
+        Gauge.builder("suggest.nodes", this, ProductSuggestIndex::nodeCount).register(registry);
+    }
+
+    // -------------------------------------------------------------------------
+    // Lecturas
+    // -------------------------------------------------------------------------
+
+    /**
+     * Busca los productos que tienen, por cada palabra de la consulta, alguna palabra que empieza
+     * así (en el nombre o en los tags).
+     *
+     * @param query El texto escrito; se ignoran acentos, mayúsculas y signos.
+     * @param limit La cantidad máxima de resultados (de 1 a {@link Constant#MAX_SUGGEST_LIMIT}).
+     * @return Los IDs, del más reciente al más antiguo.
+     */
+    public long[] suggest(String query, int limit) {
+        List<String> words = new ArrayList<>(SearchText.terms(query));
+        if (words.isEmpty()) {
+            return new long[0];
+        }
+        long[] out = new long[limit];
+        long stamp = lock.readLock();
+        try {
+            if (words.size() == 1) {
+                return Arrays.copyOf(out, trie.top(words.get(0), out));
+            }
+            // Se recorre la palabra más larga (la más selectiva) y se filtra por las demás
+            words.sort(Comparator.comparingInt(String::length).reversed());
+            int[] others = new int[words.size() - 1];
+            for (int i = 1; i < words.size(); i++) {
+                others[i - 1] = trie.nodeOf(words.get(i));
+                if (others[i - 1] == PrefixTrie.NONE) {
+                    return new long[0];
+                }
+            }
+            int[] found = {0};
+            int[] scanned = {0};
+            trie.forEachDescending(words.get(0), id -> {
+                if (matchesAll(termsByProduct.get(id), others)) {
+                    out[found[0]++] = id;
+                }
+                return found[0] < limit && ++scanned[0] < MAX_SCAN;
+            });
+            return Arrays.copyOf(out, found[0]);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return La cantidad de productos en el índice.
+     */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return termsByProduct.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private int nodeCount() {
+        long stamp = lock.readLock();
+        try {
+            return trie.nodeCount();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Escrituras
+    // -------------------------------------------------------------------------
+
+    @Override
+    protected void load() {
+        reloadTimer.record(() -> {
+            int expected = (int) Math.min(repo.countActive(), Integer.MAX_VALUE / 8);
+            PrefixTrie next = new PrefixTrie(expected * 4, CACHED_DEPTH, Constant.MAX_SUGGEST_LIMIT);
+            LongObjectHashMap<int[]> products = new LongObjectHashMap<>(expected);
+            repo.forEachActive(row -> products.put(row.id(), index(next, row)));
+            long stamp = lock.writeLock();
+            try {
+                trie = next;
+                termsByProduct = products;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        });
+        log.info("Indice de sugerencias cargado: {} productos, {} nodos", size(), nodeCount());
+    }
+
+    @Override
+    protected void apply(CatalogChangedEvent event) {
+        if (event.type() == CatalogChangedEvent.Type.PRODUCT) {
+            refresh(event.id());
+        }
+    }
+
+    @Override
+    protected boolean matchesDatabase() {
+        return size() == repo.countActive();
+    }
+
+    // -------------------------------------------------------------------------
+    // Utilidades internas
+    // -------------------------------------------------------------------------
+
+    private synchronized void refresh(long productId) {
+        try {
+            ProductText row = repo.findActive(productId).orElse(null);
+            long stamp = lock.writeLock();
+            try {
+                int[] previous = termsByProduct.remove(productId);
+                if (previous != null) {
+                    for (int node : previous) {
+                        trie.remove(trie.termOf(node), productId);
+                    }
+                }
+                if (row != null) {
+                    termsByProduct.put(productId, index(trie, row));
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        } catch (RuntimeException e) {
+            applyFailed("el producto " + productId, e);
+        }
+    }
+
+    /**
+     * Agrega las palabras del producto al trie.
+     *
+     * @return Los nodos de sus palabras.
+     */
+    private static int[] index(PrefixTrie target, ProductText row) {
+        Set<String> terms = SearchText.terms(row.nombre(), row.tags());
+        int[] nodes = new int[terms.size()];
+        int i = 0;
+        for (String term : terms) {
+            target.add(term, row.id());
+            nodes[i++] = target.nodeOf(term);
+        }
+        return nodes;
+    }
+
+    private boolean matchesAll(int[] nodes, int[] prefixes) {
+        if (nodes == null) {
+            return false;
+        }
+        for (int prefix : prefixes) {
+            boolean matched = false;
+            for (int i = 0; i < nodes.length && !matched; i++) {
+                matched = trie.startsWith(nodes[i], prefix);
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
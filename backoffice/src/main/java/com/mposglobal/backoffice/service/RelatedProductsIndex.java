@@ -0,0 +1,190 @@
+package com.mposglobal.backoffice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.mposglobal.backoffice.config.CatalogProperties;
+import com.mposglobal.backoffice.event.CatalogChangedEvent;
+import com.mposglobal.backoffice.repository.ProductTextRepository;
+import com.mposglobal.backoffice.repository.ProductTextRepository.ProductText;
+import com.mposglobal.backoffice.util.SearchText;
+import com.mposglobal.backoffice.util.collections.MinHashLsh;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Índice en memoria de productos parecidos según sus tags (similitud de Jaccard entre los
+ * conjuntos de tags), con firmas MinHash y baldes LSH ({@link MinHashLsh}).
+ * <p>
+ * Los tags se separan por comas y se normalizan ({@link SearchText#tags}); un producto sin tags
+ * cuenta en el índice pero no tiene parecidos. Una consulta compara a lo sumo
+ * {@code MAX_CANDIDATES} productos de los baldes del consultado, sin importar el tamaño del
+ * catálogo, y los ordena por su Jaccard exacto.
+ * </p>
+ * <ul>
+ *   <li><b>Carga completa:</b> al terminar el arranque, recorriendo los productos activos fila
+ *   por fila; el índice nuevo se arma aparte y se publica de una vez.</li>
+ *   <li><b>Cambios incrementales:</b> tras el commit de cada {@link CatalogChangedEvent} de
+ *   producto se releen sus tags; uno desactivado sale del índice.</li>
+ *   <li><b>Verificación:</b> si la cantidad de productos difiere de la base en dos
+ *   verificaciones seguidas, o si falló la aplicación de un cambio, se recarga todo.</li>
+ * </ul>
+ * <p>
+ * Las consultas toman el bloqueo de lectura de un {@link StampedLock} y no se bloquean entre sí;
+ * las escrituras lo toman de escritura solo para modificar el índice, con la fila ya leída.
+ * Sigue el interruptor {@code app.catalog.enabled} del catálogo en memoria.
+ * </p>
+ */
+@Component
+public class RelatedProductsIndex extends ReloadableIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(RelatedProductsIndex.class);
+
+    // Productos comparados como máximo por consulta
+    private static final int MAX_CANDIDATES = 2_000;
+
+    private final ProductTextRepository repo;
+    private final Timer reloadTimer;
+    private final Timer queryTimer;
+    private final StampedLock lock = new StampedLock();
+
+    // Protegido por el bloqueo
+    private MinHashLsh lsh = new MinHashLsh(0);
+
+    /**
+     * Constructor que inyecta el repositorio, la configuración del catálogo y el registro de métricas.
+     *
+     * @param repo El repositorio de los textos de los productos.
+     * @param properties La configuración del catálogo en memoria.
+     * @param registry El registro de métricas.
+     */
+    public RelatedProductsIndex(ProductTextRepository repo, CatalogProperties properties, MeterRegistry registry) {
+        super("Indice de productos relacionados", properties);
+        this.repo = repo;
+        this.reloadTimer = Timer.builder("related.reload").register(registry);
+        this.queryTimer = Timer.builder("related.query").register(registry);
+        Gauge.builder("related.products", this, RelatedProductsIndex::size).register(registry);
+        Gauge.builder("related.buckets", this, RelatedProductsIndex::bucketCount).register(registry);
+    }
+
+    // -------------------------------------------------------------------------
+    // Lecturas
+    // -------------------------------------------------------------------------
+
+    /**
+     * Busca los productos activos con los tags más parecidos a los de un producto.
+     *
+     * @param productId El ID del producto.
+     * @param k La cantidad de resultados pedida.
+     * @return Los parecidos con su Jaccard, del más parecido al menos parecido; vacío si el
+     *         producto no está en el índice o no tiene tags.
+     */
+    public List<MinHashLsh.Match> related(long productId, int k) {
+        return queryTimer.record(() -> {
+            long stamp = lock.readLock();
+            try {
+                return lsh.similar(productId, k, MAX_CANDIDATES);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        });
+    }
+
+    /**
+     * @param productId El ID del producto.
+     * @return {@code true} si el producto está en el índice (activo).
+     */
+    public boolean contains(long productId) {
+        long stamp = lock.readLock();
+        try {
+            return lsh.get(productId) != null;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return La cantidad de productos en el índice.
+     */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return lsh.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private int bucketCount() {
+        long stamp = lock.readLock();
+        try {
+            return lsh.bucketCount();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Escrituras
+    // -------------------------------------------------------------------------
+
+    @Override
+    protected void load() {
+        reloadTimer.record(() -> {
+            MinHashLsh next = new MinHashLsh((int) Math.min(repo.countActive(), Integer.MAX_VALUE / 8));
+            repo.forEachActive(row -> next.put(row.id(), tagsOf(row)));
+            long stamp = lock.writeLock();
+            try {
+                lsh = next;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        });
+        log.info("Indice de productos relacionados cargado: {} productos, {} baldes", size(), bucketCount());
+    }
+
+    @Override
+    protected void apply(CatalogChangedEvent event) {
+        if (event.type() == CatalogChangedEvent.Type.PRODUCT) {
+            refresh(event.id());
+        }
+    }
+
+    @Override
+    protected boolean matchesDatabase() {
+        return size() == repo.countActive();
+    }
+
+    // -------------------------------------------------------------------------
+    // Utilidades internas
+    // -------------------------------------------------------------------------
+
+    private synchronized void refresh(long productId) {
+        try {
+            ProductText row = repo.findActive(productId).orElse(null);
+            long[] tags = row == null ? null : tagsOf(row);
+            long stamp = lock.writeLock();
+            try {
+                if (tags == null) {
+                    lsh.remove(productId);
+                } else {
+                    lsh.put(productId, tags);
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        } catch (RuntimeException e) {
+            applyFailed("el producto " + productId, e);
+        }
+    }
+
+    private static long[] tagsOf(ProductText row) {
+        return MinHashLsh.hashes(SearchText.tags(row.tags()));
+    }
+}
@@ -0,0 +1,68 @@
+package com.mposglobal.backoffice.service;
+
+import org.springframework.stereotype.Service;
+
+import com.mposglobal.backoffice.dto.ProductResponse;
+import com.mposglobal.backoffice.exceptions.IndexNotReadyException;
+import com.mposglobal.backoffice.util.Constant;
+import com.mposglobal.backoffice.util.collections.MinHashLsh;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Productos parecidos a uno dado según sus tags, para sugerirlos en el backoffice y en las cajas.
+ * <p>
+ * Los IDs salen de {@link RelatedProductsIndex} y los productos de {@link CatalogStore}.
+ * </p>
+ */
+@Service
+public class RelatedProductsService {
+
+    private final RelatedProductsIndex index;
+    private final CatalogStore catalog;
+    private final ProductService products;
+
+    /**
+     * Constructor que inyecta el índice, el catálogo y el servicio de productos.
+     *
+     * @param index El índice de productos relacionados.
+     * @param catalog El catálogo en memoria.
+     * @param products El servicio de productos (mientras el catálogo no está listo).
+     */
+    public RelatedProductsService(RelatedProductsIndex index, CatalogStore catalog, ProductService products) {
+        this.index = index;
+        this.catalog = catalog;
+        this.products = products;
+    }
+
+    /**
+     * Busca los productos activos con los tags más parecidos a los de un producto activo.
+     *
+     * @param id El ID del producto.
+     * @param k La cantidad de resultados (se acota a {@code [1, MAX_SUGGEST_LIMIT]}).
+     * @return Los productos, del más parecido al menos parecido; vacío si el producto no tiene tags.
+     * @throws IndexNotReadyException Si el índice todavía no terminó su primera carga.
+     * @throws RuntimeException Si el producto no existe o está desactivado.
+     */
+    public List<ProductResponse> related(Long id, int k) {
+        int max = Math.max(1, Math.min(k, Constant.MAX_SUGGEST_LIMIT));
+        if (!index.isReady()) {
+            throw new IndexNotReadyException(Constant.ERROR_SEARCH_NOT_READY);
+        }
+        if (!index.contains(id)) {
+            throw new RuntimeException(Constant.ERROR_NOFOUND_PRODUCT);
+        }
+        List<ProductResponse> found = new ArrayList<>(max);
+        for (MinHashLsh.Match match : index.related(id, max)) {
+            ProductResponse product = catalog.isReady()
+                    ? catalog.product(match.id())
+                    : products.findActiveById(match.id()).orElse(null);
+            // Puede haberse desactivado entre la consulta al índice y la del catálogo
+            if (product != null) {
+                found.add(product);
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,187 @@
+package com.mposglobal.backoffice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.mposglobal.backoffice.config.CatalogProperties;
+import com.mposglobal.backoffice.event.CatalogChangedEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base de las estructuras en memoria que se cargan completas desde la base y después siguen los
+ * cambios confirmados (el catálogo y sus índices).
+ * <ul>
+ *   <li><b>Carga completa:</b> al terminar el arranque, si {@code app.catalog.enabled} está
+ *   activo, y a pedido con {@link #reload()}; la subclase arma la estructura nueva aparte y la
+ *   publica de una vez en {@link #load()}.</li>
+ *   <li><b>Cambios incrementales:</b> tras el commit de cada {@link CatalogChangedEvent}, la
+ *   subclase relee el registro en {@link #apply}. Si falla, lo informa con {@link #applyFailed} y
+ *   la estructura queda sospechosa. La primera carga empieza cuando la aplicación ya acepta
+ *   escrituras: los cambios confirmados mientras corre se guardan y se aplican al terminarla, bajo
+ *   el mismo monitor (la carga podría haber leído esas filas antes del cambio); los anteriores a
+ *   la carga ya están en lo que lee.</li>
+ *   <li><b>Verificación:</b> periódicamente se compara con la base ({@link #matchesDatabase()});
+ *   una sola diferencia puede ser un commit que aún no se aplicó, así que se recarga recién
+ *   cuando difiere en dos verificaciones seguidas o después de un cambio fallido.</li>
+ * </ul>
+ * <p>
+ * La carga y los cambios de la subclase se serializan con el monitor de la instancia
+ * ({@code synchronized}).
+ * </p>
+ */
+public abstract class ReloadableIndex {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final String name;
+    private final CatalogProperties properties;
+
+    private volatile boolean ready;
+    private volatile boolean suspect;
+
+    /**
+     * Cambios confirmados durante la primera carga; el propio objeto protege también {@link #loading}.
+     */
+    private final List<Runnable> missed = new ArrayList<>();
+    private boolean loading;
+
+    /**
+     * @param name El nombre de la estructura para los mensajes del registro (por ejemplo,
+     *             {@code "Indice de sugerencias"}).
+     * @param properties La configuración del catálogo en memoria.
+     */
+    protected ReloadableIndex(String name, CatalogProperties properties) {
+        this.name = name;
+        this.properties = properties;
+    }
+
+    /**
+     * @return {@code true} si ya terminó la primera carga.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Hace la primera carga completa cuando la aplicación terminó de arrancar.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (properties.isEnabled()) {
+            reload();
+        }
+    }
+
+    /**
+     * Aplica un cambio confirmado de producto o categoría.
+     *
+     * @param event El evento con el tipo y el ID del registro modificado.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        whenReady(() -> apply(event));
+    }
+
+    /**
+     * Recarga la estructura completa desde la base y la publica.
+     * <p>
+     * Si es la primera carga, aplica después los cambios que se confirmaron mientras corría.
+     * </p>
+     */
+    public synchronized void reload() {
+        synchronized (missed) {
+            loading = true;
+        }
+        try {
+            load();
+        } catch (RuntimeException e) {
+            synchronized (missed) {
+                loading = false;
+                missed.clear();
+            }
+            throw e;
+        }
+        suspect = false;
+        List<Runnable> replay;
+        synchronized (missed) {
+            replay = List.copyOf(missed);
+            missed.clear();
+            loading = false;
+            ready = true;
+        }
+        replay.forEach(Runnable::run);
+    }
+
+    /**
+     * Compara con la base y recarga si difiere en dos verificaciones seguidas.
+     */
+    @Scheduled(initialDelayString = "${app.catalog.verify-interval:5m}",
+               fixedDelayString = "${app.catalog.verify-interval:5m}")
+    public void verifyAndRepair() {
+        if (!ready) {
+            return;
+        }
+        if (matchesDatabase()) {
+            suspect = false;
+        } else if (suspect) {
+            log.warn("{} distinto de la base en dos verificaciones seguidas; se recarga", name);
+            reload();
+        } else {
+            suspect = true;
+        }
+    }
+
+    /**
+     * Aplica un cambio confirmado si ya terminó la primera carga. Durante ella lo guarda para
+     * aplicarlo al terminar; antes de que empiece lo descarta, porque la carga ya lo verá.
+     *
+     * @param change El cambio (por ejemplo, releer un registro).
+     */
+    protected void whenReady(Runnable change) {
+        if (!ready) {
+            synchronized (missed) {
+                if (!ready) {
+                    if (loading) {
+                        missed.add(change);
+                    }
+                    return;
+                }
+            }
+        }
+        change.run();
+    }
+
+    /**
+     * Arma la estructura completa desde la base y la publica.
+     */
+    protected abstract void load();
+
+    /**
+     * Aplica un cambio confirmado; los errores se informan con {@link #applyFailed}.
+     *
+     * @param event El evento con el tipo y el ID del registro modificado.
+     */
+    protected abstract void apply(CatalogChangedEvent event);
+
+    /**
+     * @return {@code true} si la estructura coincide con la base.
+     */
+    protected abstract boolean matchesDatabase();
+
+    /**
+     * Registra un cambio que no se pudo aplicar; la próxima verificación recargará todo.
+     *
+     * @param change El registro afectado, para el mensaje (por ejemplo, {@code "el producto 7"}).
+     * @param e El error.
+     */
+    protected void applyFailed(String change, RuntimeException e) {
+        log.warn("No se pudo aplicar {} ({}): {}", change, name, e.getMessage());
+        suspect = true;
+    }
+}
@@ -0,0 +1,132 @@
+package com.mposglobal.backoffice.service;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.mposglobal.backoffice.config.CoalescingProperties;
+import com.mposglobal.backoffice.exceptions.CoalescingTimeoutException;
+import com.mposglobal.backoffice.util.Constant;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa las lecturas concurrentes idénticas en una sola ejecución (single-flight).
+ * <p>
+ * La primera solicitud de una clave (nombre de la consulta más sus parámetros) ejecuta la
+ * consulta en su propio hilo; las que llegan mientras tanto con la misma clave no van a la
+ * base, esperan ese mismo resultado. Al terminar la clave se libera, así que no es una caché:
+ * una solicitud que llega después de la respuesta ejecuta una consulta nueva. Esto aplana las
+ * estampidas que se producen tras un despliegue o al expirar una caché, cuando cientos de
+ * terminales piden el mismo listado a la vez.
+ * </p>
+ * <ul>
+ *   <li><b>Tiempo de espera por clave:</b> una solicitud agrupada espera como máximo el tiempo
+ *   configurado para su consulta y luego recibe {@link CoalescingTimeoutException} (503); la
+ *   solicitud que ejecuta la consulta no tiene límite propio.</li>
+ *   <li><b>Errores compartidos:</b> si la consulta falla, todas las solicitudes agrupadas
+ *   reciben la misma excepción.</li>
+ *   <li><b>Métricas:</b> {@code coalescing.requests{name, result}} cuenta las solicitudes que
+ *   ejecutaron la consulta ({@code leader}), las que se agruparon ({@code coalesced}) y las que
+ *   se cansaron de esperar ({@code timeout}); {@code coalescing.inflight} es el número de
+ *   consultas en curso.</li>
+ * </ul>
+ * <p>
+ * Debe llamarse fuera de la transacción (desde el controlador): así las solicitudes agrupadas
+ * no ocupan una conexión mientras esperan. El resultado se comparte entre hilos y no debe
+ * modificarse.
+ * </p>
+ */
+@Component
+@EnableConfigurationProperties(CoalescingProperties.class)
+public class RequestCoalescer {
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final CoalescingProperties properties;
+    private final MeterRegistry registry;
+
+    /**
+     * Constructor que inyecta la configuración y el registro de métricas.
+     *
+     * @param properties Los tiempos de espera por consulta.
+     * @param registry El registro de métricas.
+     */
+    public RequestCoalescer(CoalescingProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.registry = registry;
+        Gauge.builder("coalescing.inflight", inFlight, Map::size).register(registry);
+    }
+
+    /**
+     * Ejecuta la consulta, o espera la ejecución en curso con los mismos parámetros.
+     *
+     * @param <T> El tipo del resultado.
+     * @param name El nombre de la consulta; se usa para el tiempo de espera y las métricas.
+     * @param loader La consulta a ejecutar.
+     * @param params Los parámetros que, junto al nombre, identifican la consulta.
+     * @return El resultado de la consulta, posiblemente compartido con otras solicitudes.
+     * @throws CoalescingTimeoutException Si la consulta en curso no terminó a tiempo.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String name, Supplier<T> loader, Object... params) {
+        if (!properties.isEnabled()) {
+            return loader.get();
+        }
+        String key = name + Arrays.deepToString(params);
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return (T) await(name, existing);
+        }
+
+        count(name, "leader");
+        try {
+            T result = loader.get();
+            inFlight.remove(key, created);
+            created.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Utilidades internas
+    // -------------------------------------------------------------------------
+
+    private Object await(String name, CompletableFuture<Object> future) {
+        count(name, "coalesced");
+        try {
+            return future.get(properties.timeoutFor(name).toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            count(name, "timeout");
+            throw new CoalescingTimeoutException(Constant.ERROR_COALESCING_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CoalescingTimeoutException(Constant.ERROR_COALESCING_TIMEOUT);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            if (e.getCause() instanceof Error err) {
+                throw err;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void count(String name, String result) {
+        registry.counter("coalescing.requests", "name", name, "result", result).increment();
+    }
+}
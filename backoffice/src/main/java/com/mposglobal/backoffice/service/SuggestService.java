@@ -0,0 +1,87 @@
+package com.mposglobal.backoffice.service;
+
+import org.springframework.stereotype.Service;
+
+import com.mposglobal.backoffice.dto.ProductResponse;
+import com.mposglobal.backoffice.util.Constant;
+import com.mposglobal.backoffice.util.SearchText;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Autocompletado de productos activos por nombre y tags, para los selectores del backoffice.
+ * <p>
+ * Los IDs salen de {@link ProductSuggestIndex} y los productos de {@link CatalogStore}, ambos en
+ * memoria. Mientras el índice no terminó su primera carga (o con el catálogo en memoria
+ * deshabilitado) se filtra la lista completa de productos activos con el mismo criterio.
+ * </p>
+ */
+@Service
+public class SuggestService {
+
+    private final ProductSuggestIndex index;
+    private final CatalogStore catalog;
+    private final ProductService products;
+    private final RequestCoalescer coalescer;
+
+    /**
+     * Constructor que inyecta el índice, el catálogo, el servicio de productos y el agrupador de lecturas.
+     *
+     * @param index El índice de sugerencias.
+     * @param catalog El catálogo en memoria.
+     * @param products El servicio de productos (mientras el catálogo no está listo).
+     * @param coalescer El agrupador de lecturas concurrentes idénticas.
+     */
+    public SuggestService(ProductSuggestIndex index, CatalogStore catalog, ProductService products,
+                          RequestCoalescer coalescer) {
+        this.index = index;
+        this.catalog = catalog;
+        this.products = products;
+        this.coalescer = coalescer;
+    }
+
+    /**
+     * Busca los productos activos con alguna palabra que empiece con cada palabra de la consulta.
+     *
+     * @param query El texto escrito; se ignoran acentos, mayúsculas y signos.
+     * @param limit La cantidad de resultados (se acota a {@code [1, MAX_SUGGEST_LIMIT]}).
+     * @return Los productos, del más reciente al más antiguo.
+     */
+    public List<ProductResponse> suggest(String query, int limit) {
+        int max = Math.max(1, Math.min(limit, Constant.MAX_SUGGEST_LIMIT));
+        if (!index.isReady()) {
+            return scan(query, max);
+        }
+        List<ProductResponse> found = new ArrayList<>(max);
+        for (long id : index.suggest(query, max)) {
+            ProductResponse product = catalog.isReady() ? catalog.product(id) : products.findActiveById(id).orElse(null);
+            // Puede haberse desactivado entre la consulta al índice y la del catálogo
+            if (product != null) {
+                found.add(product);
+            }
+        }
+        return found;
+    }
+
+    private List<ProductResponse> scan(String query, int max) {
+        Set<String> words = SearchText.terms(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        List<ProductResponse> active = catalog.isReady()
+                ? catalog.activeProducts()
+                : coalescer.execute("products", products::findAllActive);
+        return active.stream()
+                .filter(p -> matches(SearchText.terms(p.getNombre(), p.getTags()), words))
+                .sorted(Comparator.comparing(ProductResponse::getId).reversed())
+                .limit(max)
+                .toList();
+    }
+
+    private static boolean matches(Set<String> terms, Set<String> words) {
+        return words.stream().allMatch(word -> terms.stream().anyMatch(term -> term.startsWith(word)));
+    }
+}
@@ -0,0 +1,140 @@
+package com.mposglobal.backoffice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.mposglobal.backoffice.entity.User;
+import com.mposglobal.backoffice.event.UserChangedEvent;
+import com.mposglobal.backoffice.repository.UserRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caché acotada de credenciales por nombre de usuario para el inicio de sesión.
+ * <p>
+ * Guarda solo lo que el login necesita (ID, hash de la clave, nivel de acceso y estado), de modo
+ * que con la caché caliente un login no lee la base; solo escribe la fecha de último ingreso.
+ * </p>
+ * <ul>
+ *   <li><b>Sin estampida:</b> la entrada es un {@link CompletableFuture}; cuando muchas terminales
+ *   inician sesión a la vez con el mismo usuario compartido, solo la primera consulta la base y
+ *   las demás esperan ese mismo resultado.</li>
+ *   <li><b>Invalidación precisa:</b> {@code UserService} publica {@link UserChangedEvent} al crear,
+ *   modificar o desactivar un usuario; tras el commit se eliminan las entradas de ese ID y las
+ *   cargas en curso, que podrían haber leído la versión anterior.</li>
+ *   <li><b>Lectura del primario:</b> la carga no usa una transacción de solo lectura, así que no
+ *   se enruta a una réplica que aún no tenga el último cambio.</li>
+ *   <li><b>Acotada:</b> no guarda usuarios inexistentes y, al superar el máximo, descarta una
+ *   décima parte de las entradas.</li>
+ * </ul>
+ */
+@Component
+public class UserCredentialCache {
+
+    private final Map<String, CompletableFuture<Optional<Credentials>>> cache = new ConcurrentHashMap<>();
+    private final UserRepository repo;
+    private final int maxEntries;
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+     * Constructor que inyecta el repositorio, el tamaño máximo y el registro de métricas.
+     *
+     * @param repo El repositorio de usuarios.
+     * @param maxEntries Número máximo de usuarios en caché.
+     * @param registry El registro de métricas.
+     */
+    public UserCredentialCache(UserRepository repo,
+                               @Value("${app.login.credential-cache.max-entries:10000}") int maxEntries,
+                               MeterRegistry registry) {
+        this.repo = repo;
+        this.maxEntries = maxEntries;
+        this.hits = Counter.builder("login.credentials.cache").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("login.credentials.cache").tag("result", "miss").register(registry);
+        Gauge.builder("login.credentials.cache.size", cache, Map::size).register(registry);
+    }
+
+    /**
+     * Obtiene las credenciales de un usuario, de la caché o de la base.
+     *
+     * @param username El nombre de usuario exacto.
+     * @return Las credenciales, o vacío si el usuario no existe.
+     */
+    public Optional<Credentials> find(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+        CompletableFuture<Optional<Credentials>> entry = cache.get(username);
+        if (entry != null) {
+            hits.increment();
+            return entry.join();
+        }
+
+        CompletableFuture<Optional<Credentials>> created = new CompletableFuture<>();
+        entry = cache.putIfAbsent(username, created);
+        if (entry != null) {
+            hits.increment();
+            return entry.join();
+        }
+
+        misses.increment();
+        try {
+            Optional<Credentials> loaded = repo.findByUsername(username).map(Credentials::of);
+            created.complete(loaded);
+            if (loaded.isEmpty()) {
+                cache.remove(username, created);
+            } else if (cache.size() > maxEntries) {
+                evictSome();
+            }
+            return loaded;
+        } catch (RuntimeException e) {
+            cache.remove(username, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Elimina las entradas del usuario y las cargas en curso después del commit que lo modificó.
+     *
+     * @param event El evento con el ID del usuario modificado.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        cache.values().removeIf(f -> !f.isDone() || f.isCompletedExceptionally()
+                || f.join().map(c -> c.id().equals(event.id())).orElse(true));
+    }
+
+    private void evictSome() {
+        Iterator<CompletableFuture<Optional<Credentials>>> it = cache.values().iterator();
+        for (int toRemove = Math.max(1, maxEntries / 10); toRemove > 0 && it.hasNext(); toRemove--) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    /**
+     * Datos mínimos de un usuario necesarios para autenticarlo.
+     *
+     * @param id El ID del usuario.
+     * @param username El nombre de usuario.
+     * @param clave El hash BCrypt de la clave.
+     * @param nivelAcceso El rol ({@code ADMIN} o {@code USER}).
+     * @param estado El estado ({@code ACTIVO} o {@code DESACTIVADO}).
+     */
+    public record Credentials(Long id, String username, String clave, String nivelAcceso, String estado) {
+
+        static Credentials of(User u) {
+            return new Credentials(u.getId(), u.getUsername(), u.getClave(), u.getNivelAcceso(), u.getEstado());
+        }
+    }
+}
@@ -1,17 +1,32 @@
 package com.mposglobal.backoffice.service;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.mposglobal.backoffice.dto.UserRequest;
 import com.mposglobal.backoffice.dto.UserResponse;
 import com.mposglobal.backoffice.entity.User;
+import com.mposglobal.backoffice.event.UserChangedEvent;
+import com.mposglobal.backoffice.exceptions.PreconditionFailedException;
+import com.mposglobal.backoffice.repository.ArchiveRepository;
+import com.mposglobal.backoffice.repository.PartialUpdateRepository;
+import com.mposglobal.backoffice.repository.UserPageRepository;
 import com.mposglobal.backoffice.repository.UserRepository;
 import com.mposglobal.backoffice.util.Constant;
+import com.mposglobal.backoffice.util.MergePatchUtil;
 
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Servicio central para la gestión de usuarios y la lógica de autenticación (cifrado de claves).
@@ -24,16 +39,38 @@ import java.util.Optional;
  */
 @Service
 public class UserService {
+
+  /**
+   * Campos que se pueden modificar mediante {@code PATCH}.
+   */
+  private static final Set<String> PATCHABLE = Set.of("nombreCompleto", "username", "clave", "nivelAcceso");
+
   private final UserRepository repo;
+  private final PartialUpdateRepository partialRepo;
+  private final ApplicationEventPublisher events;
+  private final AuditService audit;
+  private final ArchiveRepository archive;
+  private final UserPageRepository pages;
   private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
 
   /**
    * Constructor para inyectar el repositorio de usuarios.
    *
    * @param repo El repositorio JPA para el acceso a datos de usuarios.
+   * @param partialRepo El repositorio para las actualizaciones parciales (PATCH).
+   * @param events El publicador de {@link UserChangedEvent} (invalidación de cachés tras el commit).
+   * @param audit La auditoría de cambios (se entrega tras el commit).
+   * @param archive Las tablas de archivo (lecturas con {@code includeArchived}).
+   * @param pages Las consultas del listado paginado.
    */
-  public UserService(UserRepository repo) { 
+  public UserService(UserRepository repo, PartialUpdateRepository partialRepo, ApplicationEventPublisher events,
+                     AuditService audit, ArchiveRepository archive, UserPageRepository pages) { 
 	  this.repo = repo;
+	  this.partialRepo = partialRepo;
+	  this.events = events;
+	  this.audit = audit;
+	  this.archive = archive;
+	  this.pages = pages;
   }
 
 //-------------------------------------------------------------------------
@@ -47,6 +84,7 @@ public class UserService {
    * @param request El DTO con los datos del nuevo usuario.
    * @return El DTO de respuesta del usuario creado.
    */
+  @Transactional
   public UserResponse create(UserRequest request) {
       User u = convertToEntity(request);
       
@@ -56,6 +94,8 @@ public class UserService {
       // Nota: fechaCreacion se inicializa en la entidad.
       
       User savedUser = repo.save(u);
+      events.publishEvent(new UserChangedEvent(savedUser.getId()));
+      audit.record(AuditService.USUARIO, savedUser.getId(), AuditService.CREAR, null, auditState(savedUser, true));
       return convertToResponse(savedUser);
   }
 
@@ -65,19 +105,107 @@ public class UserService {
    * @param username El nombre de usuario a buscar.
    * @return Un Optional que contiene el DTO de respuesta si se encuentra.
    */
+  @Transactional(readOnly = true)
   public Optional<User> findByUsername(String username) {
       return repo.findByUsername(username); // Mapea la entidad a DTO si está presente
   }
 
   /**
-   * Obtiene una lista de todos los usuarios registrados.
+   * Obtiene una página de usuarios con paginación por keyset.
+   * <p>
+   * Se piden {@code size + 1} filas para saber si hay una página siguiente sin un {@code COUNT}.
+   * La búsqueda {@code q} es por prefijo, sin distinguir mayúsculas, sobre el username o el
+   * nombre completo.
+   * </p>
+   *
+   * @param after El último ID recibido (cursor), o {@code null} para la primera página.
+   * @param size El tamaño de página (se acota a {@code [1, MAX_PAGE_SIZE]}).
+   * @param estado El estado a filtrar; por defecto {@code ACTIVO}.
+   * @param nivelAcceso El nivel de acceso a filtrar, o {@code null} para todos.
+   * @param q El prefijo a buscar, o {@code null}.
+   * @return La página solicitada y el cursor de la siguiente.
+   */
+  @Transactional(readOnly = true)
+  public UserPage findPage(Long after, int size, String estado, String nivelAcceso, String q) {
+      return findPage(after, size, estado, nivelAcceso, q, false);
+  }
+
+  /**
+   * Obtiene una página de usuarios, incluyendo opcionalmente los archivados.
+   * <p>
+   * Con {@code includeArchived} la consulta une {@code Usuarios} y {@code Usuarios_Archivo}
+   * (para auditorías); la búsqueda por prefijo no usa entonces las columnas calculadas.
+   * </p>
+   *
+   * @param after El último ID recibido (cursor), o {@code null} para la primera página.
+   * @param size El tamaño de página (se acota a {@code [1, MAX_PAGE_SIZE]}).
+   * @param estado El estado a filtrar; por defecto {@code ACTIVO}.
+   * @param nivelAcceso El nivel de acceso a filtrar, o {@code null} para todos.
+   * @param q El prefijo a buscar, o {@code null}.
+   * @param includeArchived {@code true} para incluir los usuarios archivados.
+   * @return La página solicitada y el cursor de la siguiente.
+   */
+  @Transactional(readOnly = true)
+  public UserPage findPage(Long after, int size, String estado, String nivelAcceso, String q,
+                           boolean includeArchived) {
+      int pageSize = Math.max(1, Math.min(size, Constant.MAX_PAGE_SIZE));
+      long cursor = after == null ? 0L : after;
+      String estadoFiltro = estado == null || estado.isBlank() ? Constant.ACTIVO : estado.toUpperCase(Locale.ROOT);
+      String nivel = nivelAcceso == null || nivelAcceso.isBlank() ? null : nivelAcceso.toUpperCase(Locale.ROOT);
+
+      String prefix = q == null || q.isBlank() ? null : likePrefix(q);
+      List<UserResponse> rows;
+      if (includeArchived) {
+          rows = archive.findUserPage(cursor, estadoFiltro, nivel, prefix, pageSize + 1);
+      } else {
+          rows = prefix == null
+                  ? pages.findPage(cursor, estadoFiltro, nivel, pageSize + 1)
+                  : pages.searchPage(cursor, estadoFiltro, nivel, prefix, pageSize + 1);
+      }
+
+      if (rows.size() <= pageSize) {
+          return new UserPage(rows, null);
+      }
+      List<UserResponse> page = rows.subList(0, pageSize);
+      return new UserPage(page, page.get(pageSize - 1).getId());
+  }
+
+  /**
+   * Una página de usuarios y el cursor para pedir la siguiente.
+   *
+   * @param items Los usuarios de la página.
+   * @param nextCursor El ID a enviar como {@code after}, o {@code null} si no hay más.
+   */
+  public record UserPage(List<UserResponse> items, Long nextCursor) {
+  }
+
+  /**
+   * Busca varios usuarios activos por ID en una sola consulta.
    *
-   * @return Una lista de DTOs de respuesta de usuarios.
+   * @param ids Los IDs, en el orden deseado.
+   * @return Los usuarios en el mismo orden; se omiten los inexistentes o desactivados.
    */
-  public List<UserResponse> findAll() {
-      return repo.findAll().stream()
-              .map(this::convertToResponse)
-              .toList();
+  @Transactional(readOnly = true)
+  public List<UserResponse> findActiveByIds(List<Long> ids) {
+      if (ids.isEmpty()) {
+          return List.of();
+      }
+      Map<Long, UserResponse> byId = new HashMap<>();
+      for (UserResponse user : repo.findByIds(ids, Constant.ACTIVO)) {
+          byId.put(user.getId(), user);
+      }
+      return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+  }
+
+  /**
+   * Obtiene la versión actual de un usuario.
+   *
+   * @param id El ID del usuario.
+   * @return La versión, o {@code null} si el usuario no existe.
+   */
+  @Transactional(readOnly = true)
+  public Long findVersion(Long id) {
+      return repo.findVersionById(id).orElse(null);
   }
 
   /**
@@ -87,10 +215,56 @@ public class UserService {
    * @return El DTO de respuesta del usuario actualizado.
    * @throws RuntimeException Si el usuario con el ID proporcionado no se encuentra.
    */
+  @Transactional
   public UserResponse update(UserRequest request) {
+      return update(request, null);
+  }
+
+  /**
+   * Actualiza los datos de un usuario existente, opcionalmente condicionado a su versión ({@code If-Match}).
+   * <p>
+   * Con {@code expectedVersion} se ejecuta un único {@code UPDATE ... WHERE id = ? AND version = ?},
+   * cuyo número de filas decide el 412; la clave solo se reemplaza si se envía. Lo precede una
+   * lectura escalar por PK que da el estado anterior a la auditoría; la respuesta se arma con esa
+   * fila y los valores escritos, sin releer el usuario.
+   * </p>
+   *
+   * @param request El DTO con los datos a actualizar. Se asume que el ID es válido.
+   * @param expectedVersion La versión que el cliente leyó, o {@code null} para no condicionar.
+   * @return El DTO de respuesta del usuario actualizado.
+   * @throws PreconditionFailedException Si la versión no coincide con la actual.
+   * @throws RuntimeException Si el usuario con el ID proporcionado no se encuentra.
+   */
+  @Transactional
+  public UserResponse update(UserRequest request, Long expectedVersion) {
+      Long id = request.getId();
+      events.publishEvent(new UserChangedEvent(id));
+
+      if (expectedVersion != null) {
+          Object[] previous = auditRow(id);
+          String clave = request.getClave() != null && !request.getClave().isEmpty()
+                  ? encoder.encode(request.getClave()) : null;
+          int rows = repo.updateIfVersion(id, expectedVersion, request.getNombreCompleto(),
+                  request.getUsername(), request.getNivelAcceso(), Constant.ACTIVO, clave);
+          if (rows == 0) {
+              // La versión leída por el cliente ya no es la actual
+              throw new PreconditionFailedException(Constant.ERROR_PRECONDITION + id);
+          }
+          Map<String, Object> values = new LinkedHashMap<>();
+          values.put("nombreCompleto", request.getNombreCompleto());
+          values.put("username", request.getUsername());
+          values.put("nivelAcceso", request.getNivelAcceso());
+          values.put("estado", Constant.ACTIVO);
+          User updated = written(id, previous, values, expectedVersion + 1);
+          audit.record(AuditService.USUARIO, id, AuditService.ACTUALIZAR, auditState(previous),
+                  auditState(updated, clave != null));
+          return convertToResponse(updated);
+      }
 
       // 1. Intentar encontrar el usuario existente usando el ID del Request
       return repo.findById(request.getId()).map(existing -> {
+          Map<String, Object> before = auditState(existing, false);
+          boolean claveChanged = request.getClave() != null && !request.getClave().isEmpty();
           
           // 2. Aplicar solo los campos que vienen del DTO
           existing.setNombreCompleto(request.getNombreCompleto());
@@ -99,12 +273,13 @@ public class UserService {
           existing.setEstado(Constant.ACTIVO);
           
           // 3. La clave solo se actualiza si se envía un valor y se cifra.
-          if (request.getClave() != null && !request.getClave().isEmpty()) {
+          if (claveChanged) {
               existing.setClave(encoder.encode(request.getClave()));
           }
 
           // 4. Guardar y retornar DTO
-          User updatedUser = repo.save(existing);
+          User updatedUser = repo.saveAndFlush(existing);
+          audit.record(AuditService.USUARIO, id, AuditService.ACTUALIZAR, before, auditState(updatedUser, claveChanged));
           return convertToResponse(updatedUser);
 
       }).orElseThrow(() -> 
@@ -112,29 +287,84 @@ public class UserService {
       );
   }
   
+  /**
+   * Modifica parcialmente un usuario a partir de un documento JSON Merge Patch.
+   * <p>
+   * Solo se escriben las columnas presentes en el documento (más {@code version}) con un único
+   * {@code UPDATE}, condicionado a la versión de una lectura escalar previa que también da el
+   * estado anterior para la auditoría y, con los valores escritos, la respuesta sin releer el
+   * usuario; la clave, si viene, se cifra antes. Sin
+   * {@code expectedVersion}, una escritura concurrente entre la lectura y el {@code UPDATE} se
+   * informa como conflicto. El estado no se modifica.
+   * </p>
+   *
+   * @param id El ID del usuario a modificar.
+   * @param patch Los campos a modificar ({@code nombreCompleto}, {@code username}, {@code clave},
+   *              {@code nivelAcceso}).
+   * @param expectedVersion La versión que el cliente leyó, o {@code null} para no condicionar.
+   * @return El DTO de respuesta del usuario modificado.
+   * @throws PreconditionFailedException Si la versión no coincide con la actual.
+   * @throws RuntimeException Si el usuario no se encuentra o el documento contiene campos no modificables.
+   */
+  @Transactional
+  public UserResponse patch(Long id, Map<String, Object> patch, Long expectedVersion) {
+      MergePatchUtil.requireAllowed(patch, PATCHABLE);
+      events.publishEvent(new UserChangedEvent(id));
+
+      Map<String, Object> values = new LinkedHashMap<>();
+      if (patch.containsKey("nombreCompleto")) {
+          values.put("nombreCompleto", MergePatchUtil.asString(patch, "nombreCompleto"));
+      }
+      if (patch.containsKey("username")) {
+          values.put("username", MergePatchUtil.asString(patch, "username"));
+      }
+      if (patch.containsKey("nivelAcceso")) {
+          values.put("nivelAcceso", MergePatchUtil.asString(patch, "nivelAcceso"));
+      }
+      if (patch.containsKey("clave")) {
+          values.put("clave", encoder.encode(MergePatchUtil.asString(patch, "clave")));
+      }
+
+      Object[] previous = null;
+      User current;
+      if (!values.isEmpty()) {
+          previous = auditRow(id);
+          Long version = expectedVersion != null ? expectedVersion : rowVersion(previous);
+          if (partialRepo.update(User.class, id, version, values) == 0) {
+              if (expectedVersion == null) {
+                  throw new ObjectOptimisticLockingFailureException(User.class, id);
+              }
+              throw new PreconditionFailedException(Constant.ERROR_PRECONDITION + id);
+          }
+          current = written(id, previous, values, version + 1);
+      } else {
+          current = repo.findById(id).orElseThrow(() -> new RuntimeException(Constant.ERROR_NOFOUND + id));
+          if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+              throw new PreconditionFailedException(Constant.ERROR_PRECONDITION + id);
+          }
+      }
+      if (!values.isEmpty()) {
+          Map<String, Object> written = auditState(current, values.containsKey("clave"));
+          written.keySet().retainAll(values.keySet());
+          audit.record(AuditService.USUARIO, id, AuditService.ACTUALIZAR, auditState(previous), written);
+      }
+      return convertToResponse(current);
+  }
+
   /**
    * Actualiza la fecha del último inicio de sesión (login) para un usuario específico.
    *
-   * <p>El método busca el usuario por su ID y, si la entidad existe, actualiza
-   * únicamente el campo de la fecha del último ingreso con la fecha y hora
-   * del sistema actual.
+   * <p>Se ejecuta como un UPDATE directo de la columna {@code fechaUltimoIngreso}: no lee
+   * la entidad, no toca la clave y no incrementa la versión del usuario, de modo que un
+   * inicio de sesión no entra en conflicto con una edición concurrente del administrador.
    *
    * @param userId el identificador único (ID) del usuario cuya fecha de
    * último ingreso se desea actualizar. Debe ser un valor no nulo.
-   * @see #repo.findById(Object)
-   * @see #user.setFechaUltimoIngreso(java.util.Date)
-   * @see #repo.save(Object)
+   * @see UserRepository#updateLastLogin(Long, Date)
    */
+  @Transactional
   public void updateLastLoginDate(Long userId) {
-	    // Buscar la entidad existente para evitar sobrescribir datos
-	    repo.findById(userId).ifPresent(user -> {
-	        
-	        // **SOLO** actualizar la fecha de ingreso
-	        user.setFechaUltimoIngreso(new Date()); 
-	        
-	        // Persistir (la clave NO se toca en este proceso)
-	        repo.save(user); 
-	    });
+	    repo.updateLastLogin(userId, new Date());
 	}
 
   /**
@@ -146,10 +376,15 @@ public class UserService {
    *
    * @param id El ID del usuario que se desea desactivar.
    */
+  @Transactional
   public void softDeactivate(Long id) {
     repo.findById(id).ifPresent(u -> {
+      Map<String, Object> before = auditState(u, false);
       u.setEstado(Constant.DESACTIVADO);
+      u.setFechaDesactivacion(new Date());
       repo.save(u);
+      events.publishEvent(new UserChangedEvent(id));
+      audit.record(AuditService.USUARIO, id, AuditService.DESACTIVAR, before, auditState(u, false));
     });
   }
   
@@ -192,7 +427,102 @@ public class UserService {
       response.setFechaUltimoIngreso(user.getFechaUltimoIngreso());
       response.setNivelAcceso(user.getNivelAcceso());
       response.setEstado(user.getEstado());
+      response.setVersion(user.getVersion());
       return response;
   }
+
+  /**
+   * Campos auditados de un usuario. La clave nunca se registra: si cambió, se anota enmascarada.
+   *
+   * @param user El usuario.
+   * @param claveChanged {@code true} si la operación reemplazó la clave.
+   * @return Un mapa nuevo (modificable) de campo a valor.
+   */
+  private static Map<String, Object> auditState(User user, boolean claveChanged) {
+      Map<String, Object> state = new LinkedHashMap<>();
+      state.put("nombreCompleto", user.getNombreCompleto());
+      state.put("username", user.getUsername());
+      state.put("nivelAcceso", user.getNivelAcceso());
+      state.put("estado", user.getEstado());
+      if (claveChanged) {
+          state.put("clave", AuditService.MASKED);
+      }
+      return state;
+  }
+
+  /**
+   * Campos auditados de una fila leída con {@link #auditRow(Long)} (sin la clave).
+   *
+   * @param row La fila de {@link UserRepository#findAuditRow(Long)}.
+   * @return Un mapa nuevo (modificable) de campo a valor.
+   */
+  private static Map<String, Object> auditState(Object[] row) {
+      Map<String, Object> state = new LinkedHashMap<>();
+      state.put("nombreCompleto", row[0]);
+      state.put("username", row[1]);
+      state.put("nivelAcceso", row[2]);
+      state.put("estado", row[3]);
+      return state;
+  }
+
+  /**
+   * Arma el usuario tal como quedó después de un {@code UPDATE} directo, sin releerlo: la fila
+   * anterior con las columnas escritas encima (la clave no se copia). No queda administrado por JPA.
+   *
+   * @param id El ID del usuario.
+   * @param previous La fila anterior, leída con {@link #auditRow(Long)}.
+   * @param values Las columnas escritas.
+   * @param version La versión nueva.
+   * @return El usuario modificado.
+   */
+  private static User written(Long id, Object[] previous, Map<String, Object> values, long version) {
+      User user = new User();
+      user.setId(id);
+      user.setNombreCompleto((String) values.getOrDefault("nombreCompleto", previous[0]));
+      user.setUsername((String) values.getOrDefault("username", previous[1]));
+      user.setNivelAcceso((String) values.getOrDefault("nivelAcceso", previous[2]));
+      user.setEstado((String) values.getOrDefault("estado", previous[3]));
+      user.setFechaCreacion((Date) previous[5]);
+      user.setFechaUltimoIngreso((Date) previous[6]);
+      user.setVersion(version);
+      return user;
+  }
+
+  /**
+   * Lee por PK un usuario como valores escalares, sin cargar la entidad ni la clave.
+   *
+   * @param id El ID del usuario.
+   * @return La fila de {@link UserRepository#findAuditRow(Long)}.
+   * @throws RuntimeException Si el usuario no existe.
+   */
+  private Object[] auditRow(Long id) {
+      List<Object[]> rows = repo.findAuditRow(id);
+      if (rows.isEmpty()) {
+          throw new RuntimeException(Constant.ERROR_NOFOUND + id);
+      }
+      return rows.get(0);
+  }
+
+  private static Long rowVersion(Object[] row) {
+      return ((Number) row[4]).longValue();
+  }
+
+  /**
+   * Convierte el texto de búsqueda en un patrón {@code LIKE} de prefijo en minúsculas,
+   * escapando los comodines ({@code %}, {@code _} y {@code [} en SQL Server) con {@code \}.
+   *
+   * @param q El texto buscado.
+   * @return El patrón, por ejemplo {@code "caj%"}.
+   */
+  private static String likePrefix(String q) {
+      StringBuilder sb = new StringBuilder(q.length() + 1);
+      for (char c : q.trim().toLowerCase(Locale.ROOT).toCharArray()) {
+          if (c == '\\' || c == '%' || c == '_' || c == '[') {
+              sb.append('\\');
+          }
+          sb.append(c);
+      }
+      return sb.append('%').toString();
+  }
   
 }
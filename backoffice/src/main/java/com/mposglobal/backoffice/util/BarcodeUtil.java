@@ -0,0 +1,71 @@
+package com.mposglobal.backoffice.util;
+
+/**
+ * Utilidades para los códigos de barras GTIN (EAN-8, UPC-A, EAN-13 y GTIN-14).
+ * <p>
+ * Todos los formatos se normalizan a 14 dígitos completando con ceros a la izquierda, que es
+ * como los define GS1: un UPC-A y el EAN-13 que resulta de anteponerle un cero son el mismo
+ * código. Así normalizado, un código cabe en un {@code long} sin perder los ceros iniciales.
+ * Esta clase no debe ser instanciada.
+ * </p>
+ */
+public final class BarcodeUtil {
+
+    private static final int GTIN_LENGTH = 14;
+
+    /**
+     * Constructor privado para evitar la instanciación de la clase estática.
+     */
+    private BarcodeUtil() {
+        // Evitar instanciación
+    }
+
+    /**
+     * Valida un código leído o ingresado y lo devuelve con 14 dígitos.
+     *
+     * @param code El código (se ignoran los espacios de los extremos).
+     * @return El código normalizado.
+     * @throws IllegalArgumentException Si no tiene 8, 12, 13 o 14 dígitos o el dígito verificador no coincide.
+     */
+    public static String normalize(String code) {
+        String digits = code == null ? "" : code.trim();
+        int length = digits.length();
+        if ((length != 8 && length != 12 && length != 13 && length != GTIN_LENGTH)
+                || !digits.chars().allMatch(c -> c >= '0' && c <= '9')
+                || checkDigit(digits.substring(0, length - 1)) != digits.charAt(length - 1) - '0') {
+            throw new IllegalArgumentException(Constant.ERROR_BARCODE_INVALID + code);
+        }
+        return "0".repeat(GTIN_LENGTH - length) + digits;
+    }
+
+    /**
+     * Código interno de un producto: EAN-13 con prefijo {@code 200} (rango que GS1 reserva para
+     * uso dentro de la tienda) seguido del ID con 9 dígitos.
+     *
+     * @param productId El ID del producto.
+     * @return El código normalizado.
+     */
+    public static String storeCode(long productId) {
+        String body = "200" + String.format("%09d", productId);
+        return "0" + body + checkDigit(body);
+    }
+
+    /**
+     * @param code El código normalizado con {@link #normalize(String)}.
+     * @return El código como número (clave del índice en memoria).
+     */
+    public static long toKey(String code) {
+        return Long.parseLong(code);
+    }
+
+    /**
+     * Dígito verificador GS1: pesos 3 y 1 alternados desde el último dígito hacia la izquierda.
+     */
+    private static int checkDigit(String digits) {
+        int sum = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            sum += (digits.charAt(i) - '0') * ((digits.length() - i) % 2 == 1 ? 3 : 1);
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
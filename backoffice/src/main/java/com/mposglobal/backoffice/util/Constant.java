@@ -56,6 +56,70 @@ public final class Constant {
     
     public static final String ERROR_CATEGORY_INVALID = "Operación no permitida: La categoría está desactivada.";
     
+    public static final String ERROR_CATEGORY_CYCLE = "Operación no permitida: la categoría no puede quedar dentro de su propio subárbol, ID = ";
+    
     public static final String ERROR_LOGPATH_INVALID = "La variable de entorno ENV_VAR_LOGPATH no está definida";
     
+    public static final String ERROR_PRECONDITION = "El registro fue modificado por otro usuario (If-Match no coincide), ID = ";
+    
+    public static final String ERROR_CONFLICT = "El registro fue modificado por otro usuario, vuelva a consultarlo e intente de nuevo.";
+    
+    public static final String ERROR_IFMATCH_INVALID = "Encabezado If-Match inválido: ";
+    
+    public static final String ERROR_IFMATCH_WEAK = "If-Match requiere un ETag fuerte; un ETag débil nunca coincide: ";
+    
+    public static final String ERROR_PATCH_FIELD = "Campo no modificable mediante PATCH: ";
+    
+    public static final String ERROR_PATCH_NULL = "El campo es obligatorio y no puede borrarse: ";
+    
+    public static final String ERROR_PATCH_TYPE = "Tipo de dato inválido para el campo: ";
+    
+    public static final String MEDIA_MERGE_PATCH = "application/merge-patch+json";
+    
+    public static final String ERROR_BATCH_SIZE = "El lote debe tener entre 1 y la cantidad máxima de operaciones: ";
+    
+    public static final String ERROR_BATCH_OPERATION = "Operación de lote no soportada: ";
+    
+    public static final String ERROR_BATCH_REFERENCE = "ID o referencia inválida en el lote: ";
+    
+    public static final String ERROR_BATCH_FORBIDDEN = "Las operaciones sobre usuarios requieren rol ADMIN";
+    
+    public static final String ERROR_BATCH_ABORTED = "No aplicada: el lote fue revertido por la falla de la operación ";
+    
+    public static final String ERROR_RATE_LIMIT = "Demasiadas solicitudes, intente de nuevo más tarde";
+    
+    public static final int MAX_PAGE_SIZE = 500;
+    
+    public static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+    
+    public static final String ERROR_LOGIN_THROTTLED = "Demasiados intentos fallidos de inicio de sesión, intente de nuevo más tarde";
+    
+    public static final String ERROR_COALESCING_TIMEOUT = "El servicio está ocupado, intente de nuevo en unos segundos";
+    
+    public static final String ERROR_PRICE_DATE = "Fecha inválida (use yyyy-MM-dd o yyyy-MM-ddTHH:mm:ss): ";
+    
+    public static final String ERROR_PRICE_RANGE = "El inicio del rango es posterior a su fin";
+    
+    public static final String ERROR_AUDIT_FILTER = "El filtro entidadId requiere el filtro entidad";
+    
+    public static final String ERROR_BARCODE_INVALID = "Código de barras inválido (GTIN de 8, 12, 13 o 14 dígitos con dígito verificador): ";
+    
+    public static final String ERROR_BARCODE_IN_USE = "El código de barras ya está asignado a otro producto: ";
+    
+    public static final String ERROR_NOFOUND_BARCODE = "No hay un producto activo con el código de barras: ";
+    
+    public static final String ERROR_BARCODE_LOOKUP_SIZE = "La consulta debe tener entre 1 y la cantidad máxima de códigos: ";
+    
+    public static final int MAX_BARCODE_LOOKUP = 500;
+    
+    public static final int MAX_SUGGEST_LIMIT = 20;
+    
+    public static final String ERROR_SEARCH_TYPE = "Tipo de búsqueda inválido (use USUARIO, CATEGORIA o PRODUCTO): ";
+    
+    public static final String ERROR_SEARCH_CURSOR = "El cursor before requiere el filtro tipo";
+    
+    public static final String ERROR_SEARCH_FORBIDDEN = "La búsqueda de usuarios requiere rol ADMIN";
+    
+    public static final String ERROR_SEARCH_NOT_READY = "La búsqueda se está cargando, intente de nuevo en unos segundos";
+    
 }
@@ -0,0 +1,86 @@
+package com.mposglobal.backoffice.util;
+
+import org.springframework.util.StringUtils;
+
+import com.mposglobal.backoffice.exceptions.PreconditionFailedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Utilidades para convertir la versión de un registro en un {@code ETag} y viceversa.
+ * <p>
+ * El {@code ETag} de los recursos es simplemente su columna {@code version} entre comillas
+ * (por ejemplo {@code "3"}). Esta clase no debe ser instanciada.
+ * </p>
+ * <p>
+ * {@code If-Match} usa la comparación fuerte (RFC 9110, sección 13.1.1): un {@code ETag} débil
+ * ({@code W/"3"}) nunca coincide. El encabezado puede traer una lista de {@code ETag}; basta que
+ * uno coincida con la versión actual.
+ * </p>
+ */
+public final class ETagUtil {
+
+    /**
+     * Constructor privado para evitar la instanciación de la clase estática.
+     */
+    private ETagUtil() {
+        // Evitar instanciación
+    }
+
+    /**
+     * Interpreta el encabezado {@code If-Match} de una solicitud.
+     * <p>
+     * Con un solo {@code ETag} fuerte devuelve su versión sin consultar la base. Con una lista
+     * consulta la versión actual y, si está en la lista, la devuelve; si no, devuelve la primera
+     * de la lista, que no coincidirá y terminará en 412 (o en 404 si el registro no existe).
+     * </p>
+     *
+     * @param ifMatch El valor del encabezado; puede ser {@code null}, {@code *}, {@code "3"},
+     *                {@code W/"3"} o una lista como {@code "1", "2"}.
+     * @param currentVersion Devuelve la versión actual del registro, o {@code null} si no existe.
+     * @return La versión esperada, o {@code null} si el cliente no condicionó la actualización.
+     * @throws PreconditionFailedException Si todos los {@code ETag} de la lista son débiles.
+     * @throws IllegalArgumentException Si un valor no corresponde a una versión válida.
+     */
+    public static Long parseIfMatch(String ifMatch, Supplier<Long> currentVersion) {
+        if (!StringUtils.hasText(ifMatch) || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        List<Long> strong = new ArrayList<>();
+        for (String tag : ifMatch.split(",")) {
+            String value = tag.trim();
+            // La comparación fuerte descarta los ETag débiles
+            if (value.startsWith("W/")) {
+                continue;
+            }
+            if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = value.substring(1, value.length() - 1);
+            }
+            try {
+                strong.add(Long.valueOf(value));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(Constant.ERROR_IFMATCH_INVALID + ifMatch);
+            }
+        }
+        if (strong.isEmpty()) {
+            throw new PreconditionFailedException(Constant.ERROR_IFMATCH_WEAK + ifMatch);
+        }
+        if (strong.size() == 1) {
+            return strong.get(0);
+        }
+        Long current = currentVersion.get();
+        return current != null && strong.contains(current) ? current : strong.get(0);
+    }
+
+    /**
+     * Construye el valor del {@code ETag} para una versión.
+     *
+     * @param version La versión del registro.
+     * @return El valor del encabezado, entre comillas.
+     */
+    public static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+}
@@ -0,0 +1,150 @@
+package com.mposglobal.backoffice.util;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Utilidades para interpretar documentos JSON Merge Patch (RFC 7396) recibidos en los
+ * endpoints {@code PATCH}.
+ * <p>
+ * Un merge patch es un objeto JSON con solo los campos que cambian. Los recursos de esta API
+ * son planos, así que basta con validar que cada campo esté permitido, que no se intente
+ * borrar (valor {@code null}) un campo obligatorio y convertir el valor al tipo de la columna.
+ * Esta clase no debe ser instanciada.
+ * </p>
+ */
+public final class MergePatchUtil {
+
+    /**
+     * Constructor privado para evitar la instanciación de la clase estática.
+     */
+    private MergePatchUtil() {
+        // Evitar instanciación
+    }
+
+    /**
+     * Verifica que el documento solo contenga campos modificables.
+     *
+     * @param patch El documento merge patch.
+     * @param allowed Los campos que el recurso permite modificar.
+     * @throws IllegalArgumentException Si hay un campo no permitido.
+     */
+    public static void requireAllowed(Map<String, Object> patch, Set<String> allowed) {
+        for (String field : patch.keySet()) {
+            if (!allowed.contains(field)) {
+                throw new IllegalArgumentException(Constant.ERROR_PATCH_FIELD + field);
+            }
+        }
+    }
+
+    /**
+     * Obtiene un campo de texto obligatorio.
+     *
+     * @param patch El documento merge patch.
+     * @param field El nombre del campo.
+     * @return El valor como texto.
+     * @throws IllegalArgumentException Si el valor es {@code null} (borrado de un campo obligatorio)
+     *         o no es un texto JSON.
+     */
+    public static String asString(Map<String, Object> patch, String field) {
+        return text(requireNonNull(patch, field), field);
+    }
+
+    /**
+     * Obtiene un campo de texto opcional; {@code null} borra el valor de la columna.
+     *
+     * @param patch El documento merge patch.
+     * @param field El nombre del campo.
+     * @return El valor como texto, o {@code null}.
+     * @throws IllegalArgumentException Si el valor no es un texto JSON.
+     */
+    public static String asNullableString(Map<String, Object> patch, String field) {
+        Object value = patch.get(field);
+        return value == null ? null : text(value, field);
+    }
+
+    /**
+     * Obtiene un importe obligatorio, redondeado a centavos.
+     * <p>
+     * El valor se interpreta desde su texto decimal, sin pasar por {@code double}.
+     * </p>
+     *
+     * @param patch El documento merge patch.
+     * @param field El nombre del campo.
+     * @return El valor como {@link Money}.
+     * @throws IllegalArgumentException Si el valor es {@code null}, no es numérico o no cabe en la columna.
+     */
+    public static Money asMoney(Map<String, Object> patch, String field) {
+        Object value = requireNonNull(patch, field);
+        try {
+            return Money.of(value instanceof BigDecimal d ? d : new BigDecimal(value.toString()));
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException(Constant.ERROR_PATCH_TYPE + field);
+        }
+    }
+
+    /**
+     * Obtiene un campo numérico entero obligatorio (por ejemplo, un ID).
+     *
+     * @param patch El documento merge patch.
+     * @param field El nombre del campo.
+     * @return El valor como {@code Long}.
+     * @throws IllegalArgumentException Si el valor es {@code null}, no es numérico o tiene decimales
+     *         (no se trunca).
+     */
+    public static Long asLong(Map<String, Object> patch, String field) {
+        Object value = requireNonNull(patch, field);
+        try {
+            if (value instanceof Number n) {
+                // 1.0 se acepta; 1.9 no se trunca a 1
+                return new BigDecimal(n.toString()).longValueExact();
+            }
+            if (value instanceof String s) {
+                return Long.valueOf(s);
+            }
+        } catch (NumberFormatException | ArithmeticException e) {
+            // se informa abajo
+        }
+        throw new IllegalArgumentException(Constant.ERROR_PATCH_TYPE + field);
+    }
+
+    /**
+     * Obtiene una lista de textos opcional; {@code null} (borrar el campo) equivale a una lista vacía.
+     *
+     * @param patch El documento merge patch.
+     * @param field El nombre del campo.
+     * @return Los valores como texto.
+     * @throws IllegalArgumentException Si el valor no es un arreglo de textos.
+     */
+    public static List<String> asStringList(Map<String, Object> patch, String field) {
+        Object value = patch.get(field);
+        if (value == null) {
+            return List.of();
+        }
+        if (!(value instanceof List<?> list)) {
+            throw new IllegalArgumentException(Constant.ERROR_PATCH_TYPE + field);
+        }
+        return list.stream().map(item -> text(item, field)).toList();
+    }
+
+    /**
+     * Un número u objeto JSON en un campo de texto se rechaza en lugar de guardar su
+     * representación ({@code "123"}, {@code "{a=1}"}).
+     */
+    private static String text(Object value, String field) {
+        if (value instanceof String s) {
+            return s;
+        }
+        throw new IllegalArgumentException(Constant.ERROR_PATCH_TYPE + field);
+    }
+
+    private static Object requireNonNull(Map<String, Object> patch, String field) {
+        Object value = patch.get(field);
+        if (value == null) {
+            throw new IllegalArgumentException(Constant.ERROR_PATCH_NULL + field);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,116 @@
+package com.mposglobal.backoffice.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Importe monetario en punto fijo: un {@code long} de centavos, igual que las columnas
+ * {@code DECIMAL(10,2)} de la base.
+ * <p>
+ * Evita la deriva de redondeo de acumular y comparar {@code double}: sumas y diferencias son
+ * exactas, y la conversión a {@code double} solo ocurre al exponer el valor en los DTOs
+ * ({@code centavos / 100.0} es el {@code double} más cercano al decimal, el mismo que daría
+ * leer el texto {@code "12.34"}).
+ * </p>
+ *
+ * @param cents El importe en centavos.
+ */
+public record Money(long cents) implements Comparable<Money> {
+
+    /**
+     * Decimales de la moneda (centavos).
+     */
+    public static final int SCALE = 2;
+
+    /**
+     * Importe cero.
+     */
+    public static final Money ZERO = new Money(0);
+
+    /**
+     * @param cents El importe en centavos.
+     * @return El importe.
+     */
+    public static Money ofCents(long cents) {
+        return new Money(cents);
+    }
+
+    /**
+     * Convierte un decimal redondeando a centavos (mitad hacia arriba).
+     *
+     * @param amount El importe, o {@code null}.
+     * @return El importe, o {@code null}.
+     * @throws ArithmeticException Si el importe no cabe en un {@code long} de centavos.
+     */
+    public static Money of(BigDecimal amount) {
+        return amount == null ? null
+                : new Money(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Convierte un {@code double} usando su representación decimal más corta ({@code 19.99} y no
+     * {@code 19.989999...}) y redondeando a centavos.
+     *
+     * @param amount El importe, o {@code null}.
+     * @return El importe, o {@code null}.
+     */
+    public static Money of(Double amount) {
+        return amount == null ? null : of(BigDecimal.valueOf(amount));
+    }
+
+    /**
+     * @param money El importe, o {@code null}.
+     * @return El importe como {@code Double} para los DTOs, o {@code null}.
+     */
+    public static Double toDouble(Money money) {
+        return money == null ? null : money.toDouble();
+    }
+
+    /**
+     * @param cents El importe en centavos.
+     * @return El importe como {@code double}.
+     */
+    public static double toDouble(long cents) {
+        return cents / 100.0;
+    }
+
+    /**
+     * @return El importe como {@code double}.
+     */
+    public double toDouble() {
+        return toDouble(cents);
+    }
+
+    /**
+     * @return El importe como decimal con {@value #SCALE} decimales.
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * @param other El importe a sumar.
+     * @return La suma exacta.
+     */
+    public Money plus(Money other) {
+        return new Money(Math.addExact(cents, other.cents));
+    }
+
+    /**
+     * @param other El importe a restar.
+     * @return La diferencia exacta.
+     */
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(cents, other.cents));
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,97 @@
+package com.mposglobal.backoffice.util;
+
+/**
+ * Cálculos de precios en bloque sobre columnas de centavos ({@code long[]}).
+ * <p>
+ * Cada operación es un bucle contado sobre arreglos primitivos, sin objetos, sin llamadas y sin
+ * ramas dentro del cuerpo: es la forma que el compilador C2 desenrolla y, con las instrucciones
+ * disponibles (restas y conversiones de {@code long}, divisiones de {@code double}), vectoriza.
+ * Los arreglos de salida los aporta el llamador para poder reutilizarlos entre llamadas.
+ * </p>
+ * <p>
+ * Las razones se devuelven como {@code double}: con precio (o costo) cero el resultado es
+ * infinito o {@code NaN}, sin excepción, y el llamador decide cómo mostrarlo.
+ * </p>
+ */
+public final class PriceColumns {
+
+    private static final long BASIS_POINTS = 10_000L;
+
+    private PriceColumns() {
+    }
+
+    /**
+     * Margen bruto en centavos: {@code precio - costo}.
+     *
+     * @param costo Los costos en centavos.
+     * @param precio Los precios en centavos.
+     * @param out El destino.
+     * @param length La cantidad de elementos a procesar.
+     */
+    public static void margin(long[] costo, long[] precio, long[] out, int length) {
+        for (int i = 0; i < length; i++) {
+            out[i] = precio[i] - costo[i];
+        }
+    }
+
+    /**
+     * Margen sobre el precio: {@code (precio - costo) / precio}.
+     *
+     * @param costo Los costos en centavos.
+     * @param precio Los precios en centavos.
+     * @param out El destino.
+     * @param length La cantidad de elementos a procesar.
+     */
+    public static void marginRatio(long[] costo, long[] precio, double[] out, int length) {
+        for (int i = 0; i < length; i++) {
+            double p = precio[i];
+            out[i] = (p - costo[i]) / p;
+        }
+    }
+
+    /**
+     * Recargo sobre el costo: {@code (precio - costo) / costo}.
+     *
+     * @param costo Los costos en centavos.
+     * @param precio Los precios en centavos.
+     * @param out El destino.
+     * @param length La cantidad de elementos a procesar.
+     */
+    public static void markupRatio(long[] costo, long[] precio, double[] out, int length) {
+        for (int i = 0; i < length; i++) {
+            double c = costo[i];
+            out[i] = (precio[i] - c) / c;
+        }
+    }
+
+    /**
+     * Importe con impuesto incluido, redondeado al centavo (mitad hacia arriba para importes
+     * no negativos).
+     *
+     * @param amounts Los importes en centavos.
+     * @param rateBasisPoints La tasa en puntos básicos (7% = 700).
+     * @param out El destino (puede ser el mismo arreglo de entrada).
+     * @param length La cantidad de elementos a procesar.
+     */
+    public static void withTax(long[] amounts, int rateBasisPoints, long[] out, int length) {
+        long rate = rateBasisPoints;
+        long half = BASIS_POINTS / 2;
+        for (int i = 0; i < length; i++) {
+            long a = amounts[i];
+            out[i] = a + (a * rate + half) / BASIS_POINTS;
+        }
+    }
+
+    /**
+     * @param values Los importes en centavos.
+     * @param length La cantidad de elementos a sumar.
+     * @return La suma exacta (mientras no desborde un {@code long}).
+     */
+    public static long sum(long[] values, int length) {
+        long total = 0;
+        for (int i = 0; i < length; i++) {
+            total += values[i];
+        }
+        return total;
+    }
+}
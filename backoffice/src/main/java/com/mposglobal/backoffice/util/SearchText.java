@@ -0,0 +1,137 @@
+package com.mposglobal.backoffice.util;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalización de textos para las búsquedas: minúsculas, sin acentos ni diéresis y partidos en
+ * palabras. Así "Cámara", "camara" y "CAMARA" son la misma palabra.
+ * Esta clase no debe ser instanciada.
+ */
+public final class SearchText {
+
+    /**
+     * Largo máximo de una palabra indexada; las más largas (códigos, URLs) se recortan.
+     */
+    public static final int MAX_TERM_LENGTH = 32;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    /**
+     * Constructor privado para evitar la instanciación de la clase estática.
+     */
+    private SearchText() {
+        // Evitar instanciación
+    }
+
+    /**
+     * @param text El texto; {@code null} se trata como vacío.
+     * @return El texto en minúsculas y sin marcas diacríticas.
+     */
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Separa un texto en palabras normalizadas, sin repetidas y en orden de aparición.
+     *
+     * @param texts Los textos (por ejemplo, el nombre y los tags de un producto).
+     * @return Las palabras, recortadas a {@link #MAX_TERM_LENGTH} caracteres.
+     */
+    public static Set<String> terms(String... texts) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String text : texts) {
+            for (String term : SEPARATORS.split(fold(text))) {
+                if (!term.isEmpty()) {
+                    terms.add(term.length() > MAX_TERM_LENGTH ? term.substring(0, MAX_TERM_LENGTH) : term);
+                }
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Separa los tags de un producto (separados por comas) y los normaliza, conservando los
+     * espacios internos: "Algodón Orgánico" y "algodon organico" son el mismo tag.
+     *
+     * @param tags Los tags tal como se guardan; {@code null} se trata como vacío.
+     * @return Los tags, sin vacíos ni repetidos y en orden de aparición.
+     */
+    public static Set<String> tags(String tags) {
+        Set<String> out = new LinkedHashSet<>();
+        for (String tag : fold(tags).split(",")) {
+            String trimmed = tag.strip();
+            if (!trimmed.isEmpty()) {
+                out.add(trimmed);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Trigramas de una palabra con sus bordes marcados ({@code ^} y {@code $}): una palabra de
+     * {@code n} letras tiene {@code n} trigramas, y cada edición altera a lo sumo tres.
+     *
+     * @param term La palabra normalizada.
+     * @return Los trigramas, con repetidos si la palabra los tiene.
+     */
+    public static String[] trigrams(String term) {
+        String padded = "^" + term + "$";
+        String[] grams = new String[term.length()];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = padded.substring(i, i + 3);
+        }
+        return grams;
+    }
+
+    /**
+     * Distancia de Levenshtein acotada: solo calcula la franja de la matriz a {@code max} de la
+     * diagonal y termina en cuanto una fila entera supera el máximo.
+     *
+     * @param a Una palabra.
+     * @param b La otra.
+     * @param max La distancia máxima que interesa.
+     * @return La distancia, o {@code max + 1} si es mayor que {@code max}.
+     */
+    public static int editDistance(String a, String b, int max) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > max) {
+            return max + 1;
+        }
+        int[] prev = new int[m + 1];
+        int[] cur = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - max);
+            int to = Math.min(m, i + max);
+            cur[from - 1] = from == 1 ? i : max + 1;
+            int rowMin = cur[from - 1];
+            for (int j = from; j <= to; j++) {
+                int substitution = prev[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                cur[j] = Math.min(substitution, Math.min(prev[j], cur[j - 1]) + 1);
+                rowMin = Math.min(rowMin, cur[j]);
+            }
+            if (to < m) {
+                cur[to + 1] = max + 1;
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = prev;
+            prev = cur;
+            cur = swap;
+        }
+        return Math.min(prev[m], max + 1);
+    }
+}
@@ -0,0 +1,99 @@
+package com.mposglobal.backoffice.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Acumula elementos durante la transacción en curso y los entrega juntos al confirmarla.
+ * <p>
+ * Cada transacción tiene su propia lista, registrada como {@link TransactionSynchronization} la
+ * primera vez que se agrega algo; si la transacción se revierte, la lista se descarta. Fuera de
+ * una transacción cada elemento se entrega en el acto.
+ * </p>
+ * <ul>
+ *   <li>{@link Phase#BEFORE_COMMIT}: la entrega forma parte de la transacción (por ejemplo, un
+ *   lote de inserciones que debe confirmarse junto con el cambio).</li>
+ *   <li>{@link Phase#AFTER_COMMIT}: la entrega ocurre con los datos ya confirmados (por ejemplo,
+ *   pasarlos a un escritor en segundo plano).</li>
+ * </ul>
+ *
+ * @param <T> El tipo de los elementos.
+ */
+public final class TransactionBuffer<T> {
+
+    /**
+     * Momento de la entrega respecto del commit.
+     */
+    public enum Phase {
+        BEFORE_COMMIT,
+        AFTER_COMMIT
+    }
+
+    private final Phase phase;
+    private final Consumer<List<T>> flush;
+
+    /**
+     * @param phase Cuándo se entregan los elementos.
+     * @param flush Recibe los elementos de una transacción (nunca una lista vacía).
+     */
+    public TransactionBuffer(Phase phase, Consumer<List<T>> flush) {
+        this.phase = phase;
+        this.flush = flush;
+    }
+
+    /**
+     * Agrega un elemento a la transacción en curso, o lo entrega en el acto si no hay una.
+     *
+     * @param item El elemento.
+     */
+    public void add(T item) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            flush.accept(List.of(item));
+            return;
+        }
+        pending().items.add(item);
+    }
+
+    private Pending pending() {
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            if (sync instanceof TransactionBuffer<?>.Pending p && p.owner() == this) {
+                @SuppressWarnings("unchecked")
+                Pending own = (Pending) p;
+                return own;
+            }
+        }
+        Pending created = new Pending();
+        TransactionSynchronizationManager.registerSynchronization(created);
+        return created;
+    }
+
+    /**
+     * Elementos de la transacción en curso.
+     */
+    private final class Pending implements TransactionSynchronization {
+
+        private final List<T> items = new ArrayList<>();
+
+        TransactionBuffer<T> owner() {
+            return TransactionBuffer.this;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (phase == Phase.BEFORE_COMMIT && !items.isEmpty()) {
+                flush.accept(items);
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            if (phase == Phase.AFTER_COMMIT && !items.isEmpty()) {
+                flush.accept(items);
+            }
+        }
+    }
+}
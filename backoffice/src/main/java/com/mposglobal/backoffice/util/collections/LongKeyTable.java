@@ -0,0 +1,203 @@
+package com.mposglobal.backoffice.util.collections;
+
+/**
+ * Base de los mapas con claves {@code long} primitivas: tabla hash de direccionamiento abierto
+ * con sondeo lineal y borrado por desplazamiento hacia atrás (sin marcas de borrado).
+ * <p>
+ * La clave {@code 0} marca una casilla vacía, así que el valor de esa clave se guarda aparte,
+ * en la última posición del arreglo de valores. Las subclases solo aportan el arreglo de valores
+ * (de cualquier tipo); los movimientos usan {@link System#arraycopy}, que acepta arreglos
+ * primitivos y de objetos por igual. La tabla se mantiene a lo sumo a la mitad de su capacidad.
+ * </p>
+ * <p>
+ * Las instancias no son seguras para escrituras concurrentes; sí admiten lecturas concurrentes
+ * de una instancia que ya no se modifica (copiar con {@code copy()} y publicar la copia).
+ * </p>
+ */
+abstract class LongKeyTable {
+
+    private static final int MIN_CAPACITY = 8;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    long[] keys;
+    int mask;
+    int size;
+    boolean hasZeroKey;
+
+    LongKeyTable(int expectedSize) {
+        int capacity = capacityFor(expectedSize);
+        keys = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    LongKeyTable(LongKeyTable source) {
+        keys = source.keys.clone();
+        mask = source.mask;
+        size = source.size;
+        hasZeroKey = source.hasZeroKey;
+    }
+
+    /**
+     * @return La cantidad de entradas.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true} si no hay entradas.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param key La clave.
+     * @return {@code true} si la clave tiene un valor.
+     */
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    // -------------------------------------------------------------------------
+    // Contrato con las subclases
+    // -------------------------------------------------------------------------
+
+    /**
+     * @return El arreglo de valores actual (largo {@code keys.length + 1}).
+     */
+    abstract Object valueArray();
+
+    /**
+     * Reemplaza el arreglo de valores por uno nuevo del largo indicado y devuelve el anterior.
+     */
+    abstract Object replaceValues(int length);
+
+    /**
+     * Libera el valor de la casilla (solo importa para referencias).
+     */
+    abstract void clearValue(int index);
+
+    // -------------------------------------------------------------------------
+    // Operaciones sobre las casillas
+    // -------------------------------------------------------------------------
+
+    /**
+     * @return La casilla de la clave, o {@code -1} si no está.
+     */
+    final int indexOf(long key) {
+        if (key == 0) {
+            return hasZeroKey ? keys.length : -1;
+        }
+        long[] k = keys;
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            long current = k[i];
+            if (current == key) {
+                return i;
+            }
+            if (current == 0) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Busca la clave y la inserta si no está.
+     *
+     * @return La casilla si ya existía, o {@code -(casilla) - 1} si se acaba de insertar.
+     */
+    final int insert(long key) {
+        if (key == 0) {
+            if (hasZeroKey) {
+                return keys.length;
+            }
+            hasZeroKey = true;
+            size++;
+            return -keys.length - 1;
+        }
+        if ((size + 1) * 2L > keys.length) {
+            rehash(keys.length * 2);
+        }
+        long[] k = keys;
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            long current = k[i];
+            if (current == key) {
+                return i;
+            }
+            if (current == 0) {
+                k[i] = key;
+                size++;
+                return -i - 1;
+            }
+        }
+    }
+
+    /**
+     * Quita la entrada de la casilla y corre hacia atrás las entradas de su mismo grupo para
+     * que ninguna búsqueda se corte en el hueco.
+     */
+    final void removeAt(int index) {
+        size--;
+        if (index == keys.length) {
+            hasZeroKey = false;
+            clearValue(index);
+            return;
+        }
+        long[] k = keys;
+        Object values = valueArray();
+        int gap = index;
+        for (int i = (gap + 1) & mask; k[i] != 0; i = (i + 1) & mask) {
+            int home = slot(k[i], mask);
+            // La entrada i puede ocupar el hueco si su casilla ideal no está entre el hueco y ella
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                k[gap] = k[i];
+                System.arraycopy(values, i, values, gap, 1);
+                gap = i;
+            }
+        }
+        k[gap] = 0;
+        clearValue(gap);
+    }
+
+    private void rehash(int capacity) {
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalStateException("Capacidad máxima del mapa alcanzada");
+        }
+        long[] oldKeys = keys;
+        Object oldValues = replaceValues(capacity + 1);
+        Object newValues = valueArray();
+        long[] newKeys = new long[capacity];
+        int newMask = capacity - 1;
+        System.arraycopy(oldValues, oldKeys.length, newValues, capacity, 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != 0) {
+                int j = slot(key, newMask);
+                while (newKeys[j] != 0) {
+                    j = (j + 1) & newMask;
+                }
+                newKeys[j] = key;
+                System.arraycopy(oldValues, i, newValues, j, 1);
+            }
+        }
+        keys = newKeys;
+        mask = newMask;
+    }
+
+    static int capacityFor(int expectedSize) {
+        long needed = Math.max(MIN_CAPACITY, (long) expectedSize * 2);
+        if (needed > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Tamaño esperado demasiado grande: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    /**
+     * Casilla ideal de una clave: los IDs son consecutivos, así que se mezclan los bits
+     * (constante de Fibonacci) antes de enmascarar.
+     */
+    static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,115 @@
+package com.mposglobal.backoffice.util.collections;
+
+/**
+ * Mapa {@code long → long} sin objetos por entrada: ni {@code Long} ni nodos.
+ * <p>
+ * Pensado para relaciones entre IDs (por ejemplo producto → categoría). Las ausencias se
+ * informan con el valor por defecto que recibe {@link #getOrDefault(long, long)}.
+ * </p>
+ */
+public final class LongLongHashMap extends LongKeyTable {
+
+    /**
+     * Recorrido de las entradas.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    private long[] values;
+
+    /**
+     * @param expectedSize Cantidad de entradas prevista (evita crecer mientras no se supere).
+     */
+    public LongLongHashMap(int expectedSize) {
+        super(expectedSize);
+        values = new long[keys.length + 1];
+    }
+
+    private LongLongHashMap(LongLongHashMap source) {
+        super(source);
+        values = source.values.clone();
+    }
+
+    /**
+     * @param key La clave.
+     * @param defaultValue El valor a devolver si la clave no está.
+     * @return El valor de la clave, o {@code defaultValue}.
+     */
+    public long getOrDefault(long key, long defaultValue) {
+        int i = indexOf(key);
+        return i < 0 ? defaultValue : values[i];
+    }
+
+    /**
+     * @param key La clave.
+     * @param value El valor.
+     */
+    public void put(long key, long value) {
+        int i = insert(key);
+        values[i < 0 ? -i - 1 : i] = value;
+    }
+
+    /**
+     * Suma {@code delta} al valor de la clave (partiendo de 0 si no está).
+     *
+     * @return El valor resultante.
+     */
+    public long addTo(long key, long delta) {
+        int i = insert(key);
+        return i < 0 ? (values[-i - 1] = delta) : (values[i] += delta);
+    }
+
+    /**
+     * @param key La clave.
+     * @return {@code true} si la clave estaba.
+     */
+    public boolean remove(long key) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return false;
+        }
+        removeAt(i);
+        return true;
+    }
+
+    /**
+     * @param action Recibe cada entrada, sin orden definido.
+     */
+    public void forEach(EntryConsumer action) {
+        if (hasZeroKey) {
+            action.accept(0, values[keys.length]);
+        }
+        long[] k = keys;
+        for (int i = 0; i < k.length; i++) {
+            if (k[i] != 0) {
+                action.accept(k[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * @return Una copia independiente.
+     */
+    public LongLongHashMap copy() {
+        return new LongLongHashMap(this);
+    }
+
+    @Override
+    Object valueArray() {
+        return values;
+    }
+
+    @Override
+    Object replaceValues(int length) {
+        long[] old = values;
+        values = new long[length];
+        return old;
+    }
+
+    @Override
+    void clearValue(int index) {
+        values[index] = 0;
+    }
+}
@@ -0,0 +1,135 @@
+package com.mposglobal.backoffice.util.collections;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mapa {@code long → V} sin {@code Long} ni nodos por entrada: las claves viven en un
+ * {@code long[]} y los valores en un arreglo paralelo.
+ * <p>
+ * No admite valores {@code null}: {@link #get(long)} devuelve {@code null} para las ausencias.
+ * </p>
+ *
+ * @param <V> El tipo de los valores.
+ */
+public final class LongObjectHashMap<V> extends LongKeyTable {
+
+    /**
+     * Recorrido de las entradas.
+     *
+     * @param <V> El tipo de los valores.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    private Object[] values;
+
+    /**
+     * @param expectedSize Cantidad de entradas prevista (evita crecer mientras no se supere).
+     */
+    public LongObjectHashMap(int expectedSize) {
+        super(expectedSize);
+        values = new Object[keys.length + 1];
+    }
+
+    private LongObjectHashMap(LongObjectHashMap<V> source) {
+        super(source);
+        values = source.values.clone();
+    }
+
+    /**
+     * @param key La clave.
+     * @return El valor, o {@code null} si la clave no está.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int i = indexOf(key);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    /**
+     * @param key La clave.
+     * @param value El valor (no {@code null}).
+     * @return El valor anterior, o {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("El valor no puede ser null");
+        }
+        int i = insert(key);
+        if (i < 0) {
+            values[-i - 1] = value;
+            return null;
+        }
+        V previous = (V) values[i];
+        values[i] = value;
+        return previous;
+    }
+
+    /**
+     * @param key La clave.
+     * @return El valor quitado, o {@code null} si la clave no estaba.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return null;
+        }
+        V previous = (V) values[i];
+        removeAt(i);
+        return previous;
+    }
+
+    /**
+     * @param action Recibe cada entrada, sin orden definido.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> action) {
+        if (hasZeroKey) {
+            action.accept(0, (V) values[keys.length]);
+        }
+        long[] k = keys;
+        for (int i = 0; i < k.length; i++) {
+            if (k[i] != 0) {
+                action.accept(k[i], (V) values[i]);
+            }
+        }
+    }
+
+    /**
+     * @return Los valores, sin orden definido.
+     */
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        forEach((key, value) -> result.add(value));
+        return result;
+    }
+
+    /**
+     * @return Una copia independiente (los valores se comparten).
+     */
+    public LongObjectHashMap<V> copy() {
+        return new LongObjectHashMap<>(this);
+    }
+
+    @Override
+    Object valueArray() {
+        return values;
+    }
+
+    @Override
+    Object replaceValues(int length) {
+        Object[] old = values;
+        values = new Object[length];
+        return old;
+    }
+
+    @Override
+    void clearValue(int index) {
+        values[index] = null;
+    }
+}
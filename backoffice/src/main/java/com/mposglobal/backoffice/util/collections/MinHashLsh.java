@@ -0,0 +1,316 @@
+package com.mposglobal.backoffice.util.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Índice de conjuntos parecidos (similitud de Jaccard) con firmas MinHash y LSH por bandas, para
+ * buscar los vecinos de un elemento sin compararlo contra todos.
+ * <p>
+ * Cada elemento es un conjunto de valores ya convertidos a {@code long} ({@link #hashes}). Su
+ * firma son {@code BANDS × ROWS} mínimos de funciones hash independientes: la probabilidad de que
+ * dos conjuntos coincidan en un mínimo es su Jaccard. La firma se corta en {@code BANDS} bandas de
+ * {@code ROWS} valores y cada banda es la clave de un balde con los IDs (ascendentes) que la
+ * comparten; dos conjuntos con Jaccard {@code s} comparten algún balde con probabilidad
+ * {@code 1 - (1 - s^ROWS)^BANDS} (alrededor de 0,9 con {@code s = 0,5} y 0,6 con {@code s = 0,33}).
+ * </p>
+ * <p>
+ * Una consulta toma los candidatos de los baldes de su firma, a lo sumo {@code maxCandidates}
+ * repartidos entre las bandas (de los baldes muy poblados, los IDs mayores), y los ordena por su
+ * Jaccard exacto, calculado sobre los conjuntos guardados. El costo depende del tope de
+ * candidatos y no de la cantidad de elementos. Las firmas no se guardan: se recalculan de los
+ * conjuntos al consultar o quitar un elemento.
+ * </p>
+ * <p>
+ * Las instancias no son seguras para el uso concurrente; quien las comparta debe sincronizar.
+ * </p>
+ */
+public final class MinHashLsh {
+
+    /**
+     * Cantidad de bandas de la firma.
+     */
+    public static final int BANDS = 8;
+
+    /**
+     * Valores de la firma por banda.
+     */
+    public static final int ROWS = 2;
+
+    private static final long[] SEEDS = new long[BANDS * ROWS];
+    private static final long[] NO_VALUES = new long[0];
+
+    // El peor resultado queda arriba del montículo: menor similitud y, a igual similitud, menor ID
+    private static final Comparator<Match> WORST_FIRST =
+            Comparator.comparingDouble(Match::similarity).thenComparingLong(Match::id);
+
+    static {
+        for (int i = 0; i < SEEDS.length; i++) {
+            SEEDS[i] = mix(0x9E3779B97F4A7C15L * (i + 1));
+        }
+    }
+
+    /**
+     * Un vecino y su similitud exacta.
+     *
+     * @param id El ID del vecino.
+     * @param similarity Su Jaccard con el elemento consultado, entre 0 y 1.
+     */
+    public record Match(long id, double similarity) {
+    }
+
+    private final LongObjectHashMap<long[]> sets;
+    private final LongObjectHashMap<Bucket> buckets;
+
+    /**
+     * @param expectedItems Cantidad de elementos prevista (crece sola).
+     */
+    public MinHashLsh(int expectedItems) {
+        sets = new LongObjectHashMap<>(expectedItems);
+        buckets = new LongObjectHashMap<>(expectedItems);
+    }
+
+    /**
+     * Convierte un conjunto de textos en el formato que recibe {@link #put}.
+     *
+     * @param values Los textos, ya normalizados.
+     * @return Sus hashes de 64 bits, ordenados y sin repetidos.
+     */
+    public static long[] hashes(Collection<String> values) {
+        long[] out = new long[values.size()];
+        int n = 0;
+        for (String value : values) {
+            // FNV-1a sobre los caracteres, mezclado al final para repartir los bits
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                h = (h ^ value.charAt(i)) * 0x100000001b3L;
+            }
+            out[n++] = mix(h);
+        }
+        Arrays.sort(out);
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || out[i] != out[i - 1]) {
+                out[unique++] = out[i];
+            }
+        }
+        return unique == n ? out : Arrays.copyOf(out, unique);
+    }
+
+    /**
+     * @param a Un conjunto de {@link #hashes}.
+     * @param b Otro.
+     * @return Su similitud de Jaccard (0 si los dos están vacíos).
+     */
+    public static double jaccard(long[] a, long[] b) {
+        int shared = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        int union = a.length + b.length - shared;
+        return union == 0 ? 0 : (double) shared / union;
+    }
+
+    /**
+     * @return La cantidad de elementos, incluidos los de conjunto vacío.
+     */
+    public int size() {
+        return sets.size();
+    }
+
+    /**
+     * @return La cantidad de baldes no vacíos.
+     */
+    public int bucketCount() {
+        return buckets.size();
+    }
+
+    /**
+     * @param id El ID.
+     * @return Su conjunto, o {@code null} si no está.
+     */
+    public long[] get(long id) {
+        return sets.get(id);
+    }
+
+    /**
+     * Agrega un elemento o reemplaza su conjunto. Un conjunto vacío cuenta como elemento pero no
+     * entra en ningún balde (no tiene vecinos).
+     *
+     * @param id El ID.
+     * @param values Su conjunto, de {@link #hashes}.
+     */
+    public void put(long id, long[] values) {
+        remove(id);
+        sets.put(id, values.length == 0 ? NO_VALUES : values);
+        if (values.length > 0) {
+            long[] signature = signature(values);
+            for (int band = 0; band < BANDS; band++) {
+                long key = bandKey(band, signature);
+                Bucket bucket = buckets.get(key);
+                if (bucket == null) {
+                    bucket = new Bucket();
+                    buckets.put(key, bucket);
+                }
+                bucket.add(id);
+            }
+        }
+    }
+
+    /**
+     * @param id El ID.
+     * @return {@code true} si estaba.
+     */
+    public boolean remove(long id) {
+        long[] values = sets.remove(id);
+        if (values == null) {
+            return false;
+        }
+        if (values.length > 0) {
+            long[] signature = signature(values);
+            for (int band = 0; band < BANDS; band++) {
+                long key = bandKey(band, signature);
+                Bucket bucket = buckets.get(key);
+                if (bucket != null && bucket.remove(id) && bucket.size == 0) {
+                    buckets.remove(key);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Busca los elementos más parecidos a uno del índice.
+     *
+     * @param id El ID del elemento.
+     * @param k La cantidad de vecinos pedida.
+     * @param maxCandidates Candidatos comparados como máximo.
+     * @return Los vecinos con similitud mayor que cero, del más parecido al menos parecido (a
+     *         igual similitud, el de ID mayor primero); vacío si el elemento no está o no tiene valores.
+     */
+    public List<Match> similar(long id, int k, int maxCandidates) {
+        long[] own = sets.get(id);
+        if (own == null || own.length == 0 || k <= 0) {
+            return List.of();
+        }
+        long[] signature = signature(own);
+        int perBand = Math.max(1, maxCandidates / BANDS);
+        long[] candidates = new long[BANDS * perBand];
+        int n = 0;
+        for (int band = 0; band < BANDS; band++) {
+            Bucket bucket = buckets.get(bandKey(band, signature));
+            int taken = 0;
+            for (int i = bucket == null ? -1 : bucket.size - 1; i >= 0 && taken < perBand; i--) {
+                if (bucket.ids[i] != id) {
+                    candidates[n++] = bucket.ids[i];
+                    taken++;
+                }
+            }
+        }
+        Arrays.sort(candidates, 0, n);
+
+        PriorityQueue<Match> top = new PriorityQueue<>(k + 1, WORST_FIRST);
+        for (int i = 0; i < n; i++) {
+            if (i > 0 && candidates[i] == candidates[i - 1]) {
+                continue;
+            }
+            double similarity = jaccard(own, sets.get(candidates[i]));
+            if (similarity == 0) {
+                continue;
+            }
+            if (top.size() < k) {
+                top.add(new Match(candidates[i], similarity));
+            } else if (similarity > top.peek().similarity()
+                    || (similarity == top.peek().similarity() && candidates[i] > top.peek().id())) {
+                top.poll();
+                top.add(new Match(candidates[i], similarity));
+            }
+        }
+        List<Match> out = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            out.add(top.poll());
+        }
+        Collections.reverse(out);
+        return out;
+    }
+
+    // -------------------------------------------------------------------------
+    // Utilidades internas
+    // -------------------------------------------------------------------------
+
+    private static long[] signature(long[] values) {
+        long[] signature = new long[SEEDS.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (long value : values) {
+            for (int i = 0; i < SEEDS.length; i++) {
+                signature[i] = Math.min(signature[i], mix(value ^ SEEDS[i]));
+            }
+        }
+        return signature;
+    }
+
+    private static long bandKey(int band, long[] signature) {
+        long key = SEEDS[band];
+        for (int row = 0; row < ROWS; row++) {
+            key = mix(key ^ signature[band * ROWS + row]);
+        }
+        return key;
+    }
+
+    /**
+     * Finalizador de SplitMix64: cada bit de la entrada afecta a todos los de la salida.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * IDs de un balde, ascendentes y sin repetidos.
+     */
+    private static final class Bucket {
+
+        private long[] ids = new long[2];
+        private int size;
+
+        void add(long id) {
+            // Caso común: un producto nuevo tiene el ID mayor y va al final
+            int at = size == 0 || ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                at = -at - 1;
+            } else if (at < size) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+    }
+}
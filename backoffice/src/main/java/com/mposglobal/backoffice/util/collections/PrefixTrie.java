@@ -0,0 +1,532 @@
+package com.mposglobal.backoffice.util.collections;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * Trie de palabras en el que cada palabra lleva la lista de IDs que la contienen, para
+ * autocompletar por prefijo devolviendo primero los IDs más altos (los más recientes).
+ * <p>
+ * Los nodos se guardan por columnas en arreglos primitivos ({@code char} de la etiqueta,
+ * {@code int} del padre, del primer hijo y del siguiente hermano, más la cantidad de IDs y dos
+ * referencias), unos 26 bytes por nodo, además de las listas de IDs ({@code long[]} ascendentes,
+ * sin repetidos) de los nodos donde termina una palabra. No hay un objeto por nodo ni por ID.
+ * Los nodos que quedan sin IDs no se borran; una reconstrucción completa los descarta.
+ * </p>
+ * <p>
+ * Los prefijos cortos abarcan casi todo el vocabulario, así que los nodos hasta la profundidad
+ * {@code cachedDepth} guardan además hasta {@code 2 * cacheSize} IDs mayores de su subárbol, cada
+ * uno con la cantidad de palabras del subárbol que lo contienen: la consulta de un prefijo corto
+ * es una copia de ese arreglo. Un alta o una baja ajusta esas listas sin recorrer el subárbol; el
+ * margen sobre {@code cacheSize} absorbe las bajas, y el subárbol de un nodo solo se vuelve a
+ * recorrer cuando quedan menos de {@code cacheSize} y faltan IDs, es decir, a lo sumo una vez cada
+ * {@code cacheSize} bajas. Los prefijos más largos recorren su subárbol (pequeño) y mezclan las
+ * listas de atrás hacia adelante hasta juntar los pedidos.
+ * </p>
+ * <p>
+ * Las instancias no son seguras para el uso concurrente; quien las comparta debe sincronizar.
+ * </p>
+ */
+public final class PrefixTrie {
+
+    /**
+     * Nodo inexistente.
+     */
+    public static final int NONE = -1;
+
+    private static final int ROOT = 0;
+    private static final long[] NO_IDS = new long[0];
+    private static final int[] NO_COUNTS = new int[0];
+
+    private final int cachedDepth;
+    private final int cacheSize;
+    private final int cacheCapacity;
+
+    private char[] labels;
+    private int[] parent;
+    private int[] firstChild;
+    private int[] nextSibling;
+    private long[][] postings;
+    private int[] counts;
+    private long[][] top;
+    private int[][] topCounts;
+    private boolean[] truncated;
+    private int nodes;
+    private long postingCount;
+
+    /**
+     * @param expectedNodes Cantidad de nodos prevista (crece sola).
+     * @param cachedDepth Profundidad máxima de los nodos que guardan sus IDs mayores.
+     * @param cacheSize Cantidad de IDs guardados por esos nodos (el máximo útil por consulta).
+     */
+    public PrefixTrie(int expectedNodes, int cachedDepth, int cacheSize) {
+        int capacity = Math.max(16, expectedNodes);
+        this.cachedDepth = cachedDepth;
+        this.cacheSize = cacheSize;
+        this.cacheCapacity = 2 * cacheSize;
+        labels = new char[capacity];
+        parent = new int[capacity];
+        firstChild = new int[capacity];
+        nextSibling = new int[capacity];
+        postings = new long[capacity][];
+        counts = new int[capacity];
+        top = new long[capacity][];
+        topCounts = new int[capacity][];
+        truncated = new boolean[capacity];
+        nodes = 1;
+        parent[ROOT] = NONE;
+        firstChild[ROOT] = NONE;
+        nextSibling[ROOT] = NONE;
+    }
+
+    /**
+     * @return La cantidad de nodos, incluida la raíz.
+     */
+    public int nodeCount() {
+        return nodes;
+    }
+
+    /**
+     * @return La cantidad de pares palabra-ID.
+     */
+    public long postingCount() {
+        return postingCount;
+    }
+
+    /**
+     * @param term La palabra (no vacía).
+     * @param id El ID que la contiene.
+     * @return {@code true} si el par no estaba.
+     */
+    public boolean add(String term, long id) {
+        if (term.isEmpty()) {
+            return false;
+        }
+        int[] path = new int[Math.min(term.length(), cachedDepth)];
+        int node = ROOT;
+        for (int i = 0; i < term.length(); i++) {
+            node = child(node, term.charAt(i), true);
+            if (i < path.length) {
+                path[i] = node;
+            }
+        }
+        if (!insertPosting(node, id)) {
+            return false;
+        }
+        postingCount++;
+        for (int cached : path) {
+            offerTop(cached, id);
+        }
+        return true;
+    }
+
+    /**
+     * @param term La palabra.
+     * @param id El ID que ya no la contiene.
+     * @return {@code true} si el par estaba.
+     */
+    public boolean remove(String term, long id) {
+        int[] path = new int[Math.min(term.length(), cachedDepth)];
+        int node = ROOT;
+        for (int i = 0; i < term.length() && node != NONE; i++) {
+            node = child(node, term.charAt(i), false);
+            if (i < path.length) {
+                path[i] = node;
+            }
+        }
+        if (node == NONE || term.isEmpty() || !removePosting(node, id)) {
+            return false;
+        }
+        postingCount--;
+        for (int cached : path) {
+            withdrawTop(cached, id);
+        }
+        return true;
+    }
+
+    /**
+     * Los nodos no se borran, así que el número identifica a la palabra mientras dure la instancia.
+     *
+     * @param term La palabra o el prefijo.
+     * @return Su nodo, o {@link #NONE} si ninguna palabra empieza así.
+     */
+    public int nodeOf(String term) {
+        return find(term);
+    }
+
+    /**
+     * @param node Un nodo de {@link #nodeOf(String)}.
+     * @return La palabra o el prefijo que termina en el nodo.
+     */
+    public String termOf(int node) {
+        StringBuilder term = new StringBuilder();
+        for (int n = node; n != ROOT; n = parent[n]) {
+            term.append(labels[n]);
+        }
+        return term.reverse().toString();
+    }
+
+    /**
+     * @param node Un nodo de {@link #nodeOf(String)}.
+     * @param ancestor Otro nodo.
+     * @return {@code true} si la palabra del nodo empieza con la del ancestro (o es la misma).
+     */
+    public boolean startsWith(int node, int ancestor) {
+        for (int n = node; n != NONE; n = parent[n]) {
+            if (n == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copia los IDs mayores que tienen alguna palabra con el prefijo.
+     *
+     * @param prefix El prefijo (vacío no devuelve nada).
+     * @param out Recibe los IDs en orden descendente; su largo es la cantidad pedida.
+     * @return La cantidad de IDs copiados.
+     */
+    public int top(String prefix, long[] out) {
+        int node = find(prefix);
+        if (node == NONE || out.length == 0) {
+            return 0;
+        }
+        if (prefix.length() <= cachedDepth && out.length <= cacheSize) {
+            int n = Math.min(out.length, top[node].length);
+            System.arraycopy(top[node], 0, out, 0, n);
+            return n;
+        }
+        int[] n = {0};
+        descending(node, Long.MAX_VALUE, id -> {
+            out[n[0]++] = id;
+            return n[0] < out.length;
+        });
+        return n[0];
+    }
+
+    /**
+     * Recorre, de mayor a menor y sin repetidos, los IDs que tienen alguna palabra con el prefijo.
+     *
+     * @param prefix El prefijo (vacío no recorre nada).
+     * @param action Recibe cada ID; devuelve {@code false} para terminar el recorrido.
+     */
+    public void forEachDescending(String prefix, LongPredicate action) {
+        forEachDescending(prefix, Long.MAX_VALUE, action);
+    }
+
+    /**
+     * Igual que {@link #forEachDescending(String, LongPredicate)}, empezando por debajo de un ID:
+     * cada lista se posiciona con una búsqueda binaria, sin recorrer los IDs mayores.
+     *
+     * @param prefix El prefijo (vacío no recorre nada).
+     * @param before Solo se recorren los IDs menores que este (cursor de paginación).
+     * @param action Recibe cada ID; devuelve {@code false} para terminar el recorrido.
+     */
+    public void forEachDescending(String prefix, long before, LongPredicate action) {
+        int node = find(prefix);
+        if (node != NONE) {
+            descending(node, before, action);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Utilidades internas
+    // -------------------------------------------------------------------------
+
+    private int find(String prefix) {
+        if (prefix.isEmpty()) {
+            return NONE;
+        }
+        int node = ROOT;
+        for (int i = 0; i < prefix.length() && node != NONE; i++) {
+            node = child(node, prefix.charAt(i), false);
+        }
+        return node;
+    }
+
+    private int child(int parentNode, char label, boolean create) {
+        for (int c = firstChild[parentNode]; c != NONE; c = nextSibling[c]) {
+            if (labels[c] == label) {
+                return c;
+            }
+        }
+        if (!create) {
+            return NONE;
+        }
+        if (nodes == labels.length) {
+            grow();
+        }
+        int node = nodes++;
+        labels[node] = label;
+        parent[node] = parentNode;
+        firstChild[node] = NONE;
+        nextSibling[node] = firstChild[parentNode];
+        firstChild[parentNode] = node;
+        top[node] = NO_IDS;
+        topCounts[node] = NO_COUNTS;
+        return node;
+    }
+
+    private void grow() {
+        int capacity = labels.length + (labels.length >> 1);
+        labels = Arrays.copyOf(labels, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        nextSibling = Arrays.copyOf(nextSibling, capacity);
+        postings = Arrays.copyOf(postings, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+        top = Arrays.copyOf(top, capacity);
+        topCounts = Arrays.copyOf(topCounts, capacity);
+        truncated = Arrays.copyOf(truncated, capacity);
+    }
+
+    private boolean insertPosting(int node, long id) {
+        long[] ids = postings[node];
+        int count = counts[node];
+        // Caso común: un producto nuevo tiene el ID mayor y va al final
+        int at = count == 0 || ids[count - 1] < id ? count : Arrays.binarySearch(ids, 0, count, id);
+        if (at < 0) {
+            at = -at - 1;
+        } else if (at < count) {
+            return false;
+        }
+        if (ids == null || count == ids.length) {
+            ids = Arrays.copyOf(ids == null ? NO_IDS : ids, Math.max(2, count + (count >> 1) + 1));
+            postings[node] = ids;
+        }
+        System.arraycopy(ids, at, ids, at + 1, count - at);
+        ids[at] = id;
+        counts[node] = count + 1;
+        return true;
+    }
+
+    private boolean removePosting(int node, long id) {
+        int count = counts[node];
+        int at = count == 0 ? -1 : Arrays.binarySearch(postings[node], 0, count, id);
+        if (at < 0) {
+            return false;
+        }
+        System.arraycopy(postings[node], at + 1, postings[node], at, count - at - 1);
+        counts[node] = count - 1;
+        if (count == 1) {
+            postings[node] = null;
+        }
+        return true;
+    }
+
+    /**
+     * Cuenta una palabra más con el ID en el subárbol del nodo. La lista guarda siempre los IDs
+     * mayores del subárbol (todos, si no está truncada), así que un ID ausente y mayor que el menor
+     * guardado es nuevo en el subárbol; uno menor solo entra si la lista no perdió ninguno.
+     */
+    private void offerTop(int node, long id) {
+        long[] ids = top[node];
+        int at = 0;
+        while (at < ids.length && ids[at] > id) {
+            at++;
+        }
+        if (at < ids.length && ids[at] == id) {
+            topCounts[node][at]++;
+            return;
+        }
+        if (at == ids.length && (truncated[node] || ids.length == cacheCapacity)) {
+            truncated[node] = true;
+            return;
+        }
+        int length = Math.min(cacheCapacity, ids.length + 1);
+        if (length == ids.length) {
+            truncated[node] = true;
+        }
+        long[] next = new long[length];
+        int[] counts = new int[length];
+        System.arraycopy(ids, 0, next, 0, at);
+        System.arraycopy(topCounts[node], 0, counts, 0, at);
+        next[at] = id;
+        counts[at] = 1;
+        System.arraycopy(ids, at, next, at + 1, length - at - 1);
+        System.arraycopy(topCounts[node], at, counts, at + 1, length - at - 1);
+        top[node] = next;
+        topCounts[node] = counts;
+    }
+
+    /**
+     * Descuenta una palabra con el ID del subárbol del nodo; el ID sale de la lista cuando ya no
+     * queda ninguna. Si la lista truncada baja de {@code cacheSize}, se vuelve a llenar.
+     */
+    private void withdrawTop(int node, long id) {
+        long[] ids = top[node];
+        int at = 0;
+        while (at < ids.length && ids[at] > id) {
+            at++;
+        }
+        if (at == ids.length || ids[at] != id) {
+            return;
+        }
+        if (--topCounts[node][at] > 0) {
+            return;
+        }
+        long[] next = new long[ids.length - 1];
+        int[] counts = new int[ids.length - 1];
+        System.arraycopy(ids, 0, next, 0, at);
+        System.arraycopy(topCounts[node], 0, counts, 0, at);
+        System.arraycopy(ids, at + 1, next, at, next.length - at);
+        System.arraycopy(topCounts[node], at + 1, counts, at, next.length - at);
+        top[node] = next;
+        topCounts[node] = counts;
+        if (truncated[node] && next.length < cacheSize) {
+            refillTop(node);
+        }
+    }
+
+    /**
+     * Vuelve a llenar la lista del nodo con los {@code 2 * cacheSize} IDs mayores del subárbol y la
+     * cantidad de palabras de cada uno (los repetidos salen seguidos de la mezcla).
+     */
+    private void refillTop(int node) {
+        long[] ids = new long[cacheCapacity];
+        int[] counts = new int[cacheCapacity];
+        int[] n = {0};
+        boolean[] more = {false};
+        merge(node, Long.MAX_VALUE, id -> {
+            if (n[0] > 0 && ids[n[0] - 1] == id) {
+                counts[n[0] - 1]++;
+                return true;
+            }
+            if (n[0] == ids.length) {
+                more[0] = true;
+                return false;
+            }
+            ids[n[0]] = id;
+            counts[n[0]++] = 1;
+            return true;
+        });
+        top[node] = n[0] == ids.length ? ids : Arrays.copyOf(ids, n[0]);
+        topCounts[node] = n[0] == counts.length ? counts : Arrays.copyOf(counts, n[0]);
+        truncated[node] = more[0];
+    }
+
+    /**
+     * Recorre los IDs del subárbol de mayor a menor sin repetidos.
+     */
+    private void descending(int start, long before, LongPredicate action) {
+        long[] last = {Long.MIN_VALUE};
+        merge(start, before, id -> {
+            if (id == last[0]) {
+                return true;
+            }
+            last[0] = id;
+            return action.test(id);
+        });
+    }
+
+    /**
+     * Mezcla las listas del subárbol con un montículo de máximos que apunta al último ID aún no
+     * visitado de cada lista. Los repetidos (un ID con dos palabras del prefijo) salen seguidos.
+     */
+    private void merge(int start, long before, LongPredicate action) {
+        int[] stack = new int[16];
+        int depth = 0;
+        stack[depth++] = start;
+        Cursors heap = new Cursors();
+        while (depth > 0) {
+            int node = stack[--depth];
+            int last = lastBefore(node, before);
+            if (last >= 0) {
+                heap.add(node, last);
+            }
+            for (int c = firstChild[node]; c != NONE; c = nextSibling[c]) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = c;
+            }
+        }
+        heap.heapify();
+        while (heap.size > 0) {
+            if (!action.test(heap.pollMax())) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return La posición del último ID de la lista del nodo menor que {@code before}, o -1.
+     */
+    private int lastBefore(int node, long before) {
+        int count = counts[node];
+        if (count == 0 || postings[node][count - 1] < before) {
+            return count - 1;
+        }
+        int at = Arrays.binarySearch(postings[node], 0, count, before);
+        return (at < 0 ? -at - 1 : at) - 1;
+    }
+
+    /**
+     * Montículo de máximos de posiciones (nodo, índice en su lista), en arreglos paralelos.
+     */
+    private final class Cursors {
+
+        private int[] node = new int[16];
+        private int[] pos = new int[16];
+        private int size;
+
+        void add(int n, int p) {
+            if (size == node.length) {
+                node = Arrays.copyOf(node, size * 2);
+                pos = Arrays.copyOf(pos, size * 2);
+            }
+            node[size] = n;
+            pos[size++] = p;
+        }
+
+        void heapify() {
+            for (int i = (size >>> 1) - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        long pollMax() {
+            long id = value(0);
+            if (pos[0] == 0) {
+                size--;
+                node[0] = node[size];
+                pos[0] = pos[size];
+            } else {
+                pos[0]--;
+            }
+            if (size > 0) {
+                siftDown(0);
+            }
+            return id;
+        }
+
+        private long value(int i) {
+            return postings[node[i]][pos[i]];
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int largest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && value(left) > value(largest)) {
+                    largest = left;
+                }
+                if (right < size && value(right) > value(largest)) {
+                    largest = right;
+                }
+                if (largest == i) {
+                    return;
+                }
+                int n = node[i];
+                int p = pos[i];
+                node[i] = node[largest];
+                pos[i] = pos[largest];
+                node[largest] = n;
+                pos[largest] = p;
+                i = largest;
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.mposglobal.backoffice.util.collections;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Conjunto inmutable de IDs guardado como {@code long[]} ordenado y sin repetidos.
+ * <p>
+ * Ocupa 8 bytes por ID (una {@code List<Long>} ocupa unos 24 más por elemento), se recorre en
+ * orden sin iterador y se busca por bisección. Los cambios devuelven una instancia nueva, así que
+ * una instancia publicada se puede leer desde cualquier hilo.
+ * </p>
+ */
+public final class SortedLongArray {
+
+    /**
+     * El conjunto vacío.
+     */
+    public static final SortedLongArray EMPTY = new SortedLongArray(new long[0]);
+
+    private final long[] ids;
+
+    private SortedLongArray(long[] ids) {
+        this.ids = ids;
+    }
+
+    /**
+     * @param ids Los IDs, en cualquier orden y con posibles repetidos (no se modifican).
+     * @return El conjunto.
+     */
+    public static SortedLongArray of(long... ids) {
+        long[] copy = ids.clone();
+        Arrays.sort(copy);
+        int n = 0;
+        for (int i = 0; i < copy.length; i++) {
+            if (n == 0 || copy[n - 1] != copy[i]) {
+                copy[n++] = copy[i];
+            }
+        }
+        return n == 0 ? EMPTY : new SortedLongArray(n == copy.length ? copy : Arrays.copyOf(copy, n));
+    }
+
+    /**
+     * @return La cantidad de IDs.
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * @param index La posición, entre 0 y {@code size() - 1}.
+     * @return El ID en esa posición.
+     */
+    public long get(int index) {
+        return ids[index];
+    }
+
+    /**
+     * @param id El ID.
+     * @return {@code true} si el ID está en el conjunto.
+     */
+    public boolean contains(long id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    /**
+     * @param id El ID a agregar.
+     * @return El conjunto con el ID (la misma instancia si ya estaba).
+     */
+    public SortedLongArray with(long id) {
+        int i = Arrays.binarySearch(ids, id);
+        if (i >= 0) {
+            return this;
+        }
+        int at = -i - 1;
+        long[] copy = new long[ids.length + 1];
+        System.arraycopy(ids, 0, copy, 0, at);
+        copy[at] = id;
+        System.arraycopy(ids, at, copy, at + 1, ids.length - at);
+        return new SortedLongArray(copy);
+    }
+
+    /**
+     * @param id El ID a quitar.
+     * @return El conjunto sin el ID (la misma instancia si no estaba).
+     */
+    public SortedLongArray without(long id) {
+        int i = Arrays.binarySearch(ids, id);
+        if (i < 0) {
+            return this;
+        }
+        if (ids.length == 1) {
+            return EMPTY;
+        }
+        long[] copy = new long[ids.length - 1];
+        System.arraycopy(ids, 0, copy, 0, i);
+        System.arraycopy(ids, i + 1, copy, i, ids.length - i - 1);
+        return new SortedLongArray(copy);
+    }
+
+    /**
+     * @param action Recibe cada ID en orden ascendente.
+     */
+    public void forEach(LongConsumer action) {
+        for (long id : ids) {
+            action.accept(id);
+        }
+    }
+
+    /**
+     * @return Una copia de los IDs en orden ascendente.
+     */
+    public long[] toArray() {
+        return ids.clone();
+    }
+
+    /**
+     * Acumula IDs y construye el conjunto de una vez, sin una copia por cada alta. Si los IDs
+     * llegan en orden (el caso de un recorrido por ID) no se ordena nada.
+     */
+    public static final class Builder {
+
+        private long[] ids;
+        private int size;
+        private boolean sorted = true;
+
+        /**
+         * @param expectedSize Cantidad de IDs prevista.
+         */
+        public Builder(int expectedSize) {
+            ids = new long[Math.max(4, expectedSize)];
+        }
+
+        /**
+         * @param id El ID a agregar.
+         * @return Este constructor.
+         */
+        public Builder add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            if (size > 0 && ids[size - 1] >= id) {
+                sorted = false;
+            }
+            ids[size++] = id;
+            return this;
+        }
+
+        /**
+         * @return El conjunto con los IDs agregados.
+         */
+        public SortedLongArray build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            long[] exact = size == ids.length ? ids : Arrays.copyOf(ids, size);
+            return sorted ? new SortedLongArray(exact) : of(exact);
+        }
+    }
+}
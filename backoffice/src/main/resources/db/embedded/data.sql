@@ -0,0 +1,40 @@
+-- =====================================================
+-- DATOS DE PRUEBA (iguales a los de script_BackOfficeDB.sql)
+-- =====================================================
+
+-- Usuarios (clave admin: admin123, clave usuario: user123)
+INSERT INTO Usuarios (nombreCompleto, username, clave, nivelAcceso, estado)
+VALUES
+('Administrador General', 'admin', '$2a$10$zH/fqi850vx3kq9uj0RLLuTjUNfYu.ZSkqF9Q4gdXo0dRq7snHTfe', 'ADMIN', 'ACTIVO'),
+('Usuario Normal', 'usuario', '$2a$10$HtC208j5ra3GMyqpguL1weHgdph4.C9w/GaVMc7Pz9MF1vbha8g3S', 'USER', 'ACTIVO');
+
+-- Categorías
+INSERT INTO Categorias (nombre, estado)
+VALUES
+('Electrónica', 'ACTIVO'),
+('Ropa', 'ACTIVO'),
+('Juguetes', 'ACTIVO');
+
+-- Productos
+INSERT INTO Productos (nombre, categoriaId, costo, precio, tags, estado)
+VALUES
+('Smartphone XYZ', 1, 300.00, 450.00, 'android,5G,128GB', 'ACTIVO'),
+('Laptop ABC', 1, 800.00, 1200.00, 'intel,i7,16GB', 'ACTIVO'),
+('Camiseta Roja', 2, 5.00, 12.00, 'ropa,algodon,rojo', 'ACTIVO'),
+('Muñeco de Acción', 3, 10.00, 20.00, 'juguetes,coleccion', 'ACTIVO');
+
+-- Códigos de barras internos (prefijo 200) de los productos de prueba
+INSERT INTO CodigosBarra (codigo, productoId)
+VALUES
+('02000000000015', 1),
+('02000000000022', 2),
+('02000000000039', 3),
+('02000000000046', 4);
+
+-- Fila propia de cada categoría en la jerarquía
+INSERT INTO CategoriasJerarquia (ancestroId, descendienteId, profundidad)
+SELECT id, id, 0 FROM Categorias;
+
+-- Precio inicial de cada producto en el historial
+INSERT INTO PrecioHistorial (productoId, categoriaId, costo, precio, vigenteDesde)
+SELECT id, categoriaId, costo, precio, fechaCreacion FROM Productos;
@@ -0,0 +1,211 @@
+-- =====================================================
+-- Esquema de BackOfficeDB para la base embebida H2 (modo MSSQLServer).
+-- Replica las tablas de script_BackOfficeDB.sql sin las sentencias
+-- CREATE DATABASE / USE / GO propias de SQL Server. SchemaConsistencyTest
+-- verifica que ambos tengan las mismas tablas, columnas e índices.
+-- =====================================================
+
+-- =====================================================
+-- TABLA: USUARIOS
+-- =====================================================
+CREATE TABLE Usuarios (
+    id INT IDENTITY(1,1) PRIMARY KEY,
+    nombreCompleto NVARCHAR(150) NOT NULL,
+    username NVARCHAR(50) NOT NULL UNIQUE,
+    clave NVARCHAR(255) NOT NULL,
+    fechaCreacion DATETIME DEFAULT GETDATE(),
+    fechaUltimoIngreso DATETIME NULL,
+    fechaDesactivacion DATETIME NULL, -- desde cuándo está DESACTIVADO (archivado)
+    nivelAcceso NVARCHAR(20) CHECK (nivelAcceso IN ('USER','ADMIN')) NOT NULL,
+    estado NVARCHAR(20) CHECK (estado IN ('ACTIVO','DESACTIVADO')) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0, -- control de concurrencia optimista (ETag)
+    -- columnas calculadas en minusculas para la busqueda por prefijo (GET /users?q=)
+    usernameBusqueda NVARCHAR(50) GENERATED ALWAYS AS (LOWER(username)),
+    nombreBusqueda NVARCHAR(150) GENERATED ALWAYS AS (LOWER(nombreCompleto))
+);
+
+CREATE INDEX IX_Usuarios_estado_nivelAcceso ON Usuarios (estado, nivelAcceso, id);
+CREATE INDEX IX_Usuarios_usernameBusqueda ON Usuarios (usernameBusqueda);
+CREATE INDEX IX_Usuarios_nombreBusqueda ON Usuarios (nombreBusqueda);
+
+-- =====================================================
+-- TABLA: CATEGORÍAS
+-- =====================================================
+CREATE TABLE Categorias (
+    id INT IDENTITY(1,1) PRIMARY KEY,
+    nombre NVARCHAR(100) NOT NULL UNIQUE,
+    fechaCreacion DATETIME DEFAULT GETDATE(),
+    fechaActualizacion DATETIME DEFAULT GETDATE(),
+    estado NVARCHAR(20) CHECK (estado IN ('ACTIVO','DESACTIVADO')) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0, -- control de concurrencia optimista (ETag)
+    padreId INT NULL,
+    -- DESACTIVADO si la categoría o alguno de sus ancestros lo está; se mantiene al desactivar,
+    -- reactivar o mover para no recorrer la jerarquía en cada validación
+    estadoEfectivo NVARCHAR(20) DEFAULT 'ACTIVO' NOT NULL CHECK (estadoEfectivo IN ('ACTIVO','DESACTIVADO')),
+    CONSTRAINT FK_Categorias_padre FOREIGN KEY (padreId) REFERENCES Categorias(id)
+);
+
+-- Tabla de clausura de la jerarquía departamento -> pasillo -> estante: una fila por cada par
+-- (ancestro, descendiente), incluida la de cada categoría consigo misma (profundidad 0).
+-- El subárbol de una categoría es un rango de la clave primaria.
+CREATE TABLE CategoriasJerarquia (
+    ancestroId INT NOT NULL,
+    descendienteId INT NOT NULL,
+    profundidad INT NOT NULL,
+    PRIMARY KEY (ancestroId, descendienteId)
+);
+
+-- ancestros de una categoría (al mover o recalcular el estado efectivo)
+CREATE INDEX IX_CategoriasJerarquia_descendiente ON CategoriasJerarquia (descendienteId, ancestroId);
+
+-- Bloqueos de aplicación: una fila por recurso, actualizada al principio de la transacción que
+-- lo modifica para serializarlas entre instancias (p. ej. los movimientos de la jerarquía)
+CREATE TABLE Bloqueos (
+    nombre NVARCHAR(50) PRIMARY KEY,
+    fecha DATETIME2 NULL
+);
+
+-- =====================================================
+-- TABLA: PRODUCTOS
+-- =====================================================
+CREATE TABLE Productos (
+    id INT IDENTITY(1,1) PRIMARY KEY,
+    nombre NVARCHAR(150) NOT NULL,
+    categoriaId INT NOT NULL,
+    costo DECIMAL(10,2) NOT NULL,
+    precio DECIMAL(10,2) NOT NULL,
+    tags NVARCHAR(255),
+    fechaCreacion DATETIME DEFAULT GETDATE(),
+    fechaActualizacion DATETIME DEFAULT GETDATE(),
+    estado NVARCHAR(20) CHECK (estado IN ('ACTIVO','DESACTIVADO')) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0, -- control de concurrencia optimista (ETag)
+    CONSTRAINT FK_Productos_Categorias FOREIGN KEY (categoriaId) REFERENCES Categorias(id)
+);
+
+-- recorrido del archivado (desactivados por id), validación de la clave foránea al archivar
+-- categorías y productos activos de un subárbol (join con CategoriasJerarquia)
+CREATE INDEX IX_Productos_estado ON Productos (estado, id);
+CREATE INDEX IX_Productos_categoria ON Productos (categoriaId, estado, id);
+
+-- =====================================================
+-- TABLA: CÓDIGOS DE BARRA
+-- Códigos GTIN (EAN-8, UPC-A, EAN-13, GTIN-14) de cada producto, guardados con 14 dígitos.
+-- Un código pertenece a un solo producto; al archivar el producto se borran sus códigos.
+-- =====================================================
+CREATE TABLE CodigosBarra (
+    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    codigo NVARCHAR(14) NOT NULL,
+    productoId INT NOT NULL,
+    CONSTRAINT FK_CodigosBarra_Productos FOREIGN KEY (productoId) REFERENCES Productos(id) ON DELETE CASCADE
+);
+
+CREATE UNIQUE INDEX UX_CodigosBarra_codigo ON CodigosBarra (codigo);
+-- códigos de un producto al modificarlo
+CREATE INDEX IX_CodigosBarra_producto ON CodigosBarra (productoId, codigo);
+
+-- =====================================================
+-- TABLA: HISTORIAL DE PRECIOS (solo inserción)
+-- =====================================================
+CREATE TABLE PrecioHistorial (
+    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    productoId INT NOT NULL,
+    categoriaId INT NOT NULL,
+    costo DECIMAL(10,2) NOT NULL,
+    precio DECIMAL(10,2) NOT NULL,
+    vigenteDesde DATETIME2 NOT NULL,
+    usuario NVARCHAR(50) NULL -- sin clave foránea: el historial sobrevive al archivado del producto
+);
+
+-- rango de un producto: una sola búsqueda en el índice
+CREATE INDEX IX_PrecioHistorial_producto_vigencia ON PrecioHistorial (productoId, vigenteDesde, id);
+-- productos que pasaron por una categoría, para la consulta a una fecha
+CREATE INDEX IX_PrecioHistorial_categoria ON PrecioHistorial (categoriaId, productoId, vigenteDesde);
+
+CREATE TABLE Auditoria (
+    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    entidad NVARCHAR(20) NOT NULL,
+    entidadId BIGINT NOT NULL,
+    accion NVARCHAR(20) NOT NULL,
+    usuario NVARCHAR(50) NULL,
+    cambios NVARCHAR(MAX) NOT NULL,
+    fecha DATETIME2 NOT NULL
+);
+
+-- historial de un registro y acciones de un usuario, de la más reciente a la más antigua
+CREATE INDEX IX_Auditoria_entidad ON Auditoria (entidad, entidadId, id);
+CREATE INDEX IX_Auditoria_usuario ON Auditoria (usuario, id);
+
+-- =====================================================
+-- TABLAS DE ARCHIVO
+-- Filas DESACTIVADO movidas por el archivado programado, con el mismo ID. Sin claves
+-- foráneas ni UNIQUE: un username archivado puede volver a usarse.
+-- =====================================================
+CREATE TABLE Usuarios_Archivo (
+    id INT PRIMARY KEY,
+    nombreCompleto NVARCHAR(150) NOT NULL,
+    username NVARCHAR(50) NOT NULL,
+    clave NVARCHAR(255) NOT NULL,
+    fechaCreacion DATETIME NULL,
+    fechaUltimoIngreso DATETIME NULL,
+    fechaDesactivacion DATETIME NULL,
+    nivelAcceso NVARCHAR(20) NOT NULL,
+    estado NVARCHAR(20) NOT NULL,
+    version BIGINT NOT NULL,
+    fechaArchivo DATETIME2 NOT NULL
+);
+
+CREATE TABLE Categorias_Archivo (
+    id INT PRIMARY KEY,
+    nombre NVARCHAR(100) NOT NULL,
+    fechaCreacion DATETIME NULL,
+    fechaActualizacion DATETIME NULL,
+    estado NVARCHAR(20) NOT NULL,
+    version BIGINT NOT NULL,
+    padreId INT NULL,
+    estadoEfectivo NVARCHAR(20) NOT NULL,
+    fechaArchivo DATETIME2 NOT NULL
+);
+
+CREATE TABLE Productos_Archivo (
+    id INT PRIMARY KEY,
+    nombre NVARCHAR(150) NOT NULL,
+    categoriaId INT NOT NULL,
+    costo DECIMAL(10,2) NOT NULL,
+    precio DECIMAL(10,2) NOT NULL,
+    tags NVARCHAR(255),
+    fechaCreacion DATETIME NULL,
+    fechaActualizacion DATETIME NULL,
+    estado NVARCHAR(20) NOT NULL,
+    version BIGINT NOT NULL,
+    fechaArchivo DATETIME2 NOT NULL
+);
+
+-- Avance del archivado por tabla: ultimoId es el último ID revisado de la pasada en curso
+-- (0 sin pasada en curso) y corte la fecha límite fijada al empezarla
+CREATE TABLE ArchivoProgreso (
+    tabla NVARCHAR(30) PRIMARY KEY,
+    ultimoId BIGINT NOT NULL,
+    corte DATETIME2 NULL,
+    filasMovidas BIGINT NOT NULL,
+    actualizado DATETIME2 NOT NULL
+);
+
+-- =====================================================
+-- TABLA: OUTBOX (eventos de cambio del catálogo)
+-- Se escribe en la misma transacción que cada cambio de producto o categoría; un relay la
+-- lee en orden de id, entrega los eventos y los marca procesados. Las filas procesadas
+-- se compactan después de un tiempo.
+-- =====================================================
+CREATE TABLE Outbox (
+    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    tipo NVARCHAR(20) NOT NULL,
+    entidadId BIGINT NOT NULL,
+    accion NVARCHAR(20) NOT NULL,
+    datos NVARCHAR(MAX) NOT NULL,
+    fecha DATETIME2 NOT NULL,
+    procesado BIT NOT NULL DEFAULT 0,
+    fechaProcesado DATETIME2 NULL
+);
+
+-- pendientes en orden de id para el relay y procesadas para la compactación
+CREATE INDEX IX_Outbox_procesado ON Outbox (procesado, id);
@@ -0,0 +1,83 @@
+package com.mposglobal.backoffice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Verifica que el esquema embebido ({@code db/embedded/schema.sql}) tenga las mismas tablas,
+ * columnas e índices que {@code script_BackOfficeDB.sql}, el script de SQL Server.
+ * <p>
+ * Los dos scripts difieren en el dialecto (columnas calculadas, {@code INCLUDE}, {@code GO}),
+ * así que se compara el esquema que quedó en H2 contra los nombres declarados en el script.
+ * </p>
+ */
+@SpringBootTest
+@ActiveProfiles("embedded")
+class SchemaConsistencyTest {
+
+    private static final Path SCRIPT = Path.of("..", "script_BackOfficeDB.sql");
+    private static final Pattern TABLE = Pattern.compile("CREATE TABLE (\\w+) \\((.*?)\\R\\);", Pattern.DOTALL);
+    private static final Pattern INDEX = Pattern.compile("CREATE (?:UNIQUE )?INDEX (\\w+) ON (\\w+)");
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void embeddedSchemaMatchesSqlServerScript() throws IOException {
+        String script = Files.readString(SCRIPT, StandardCharsets.UTF_8);
+
+        Map<String, Set<String>> expectedColumns = new TreeMap<>();
+        Matcher table = TABLE.matcher(script);
+        while (table.find()) {
+            Set<String> columns = new TreeSet<>();
+            for (String line : table.group(2).split("\\R")) {
+                String column = line.replaceAll("--.*", "").trim();
+                if (!column.isEmpty() && !column.startsWith("CONSTRAINT") && !column.startsWith("PRIMARY KEY")) {
+                    columns.add(upper(column.split("\\s+")[0]));
+                }
+            }
+            expectedColumns.put(upper(table.group(1)), columns);
+        }
+        Set<String> expectedIndexes = new TreeSet<>();
+        Matcher index = INDEX.matcher(script);
+        while (index.find()) {
+            expectedIndexes.add(upper(index.group(2) + "." + index.group(1)));
+        }
+
+        Map<String, Set<String>> actualColumns = new TreeMap<>();
+        jdbc.query("SELECT TABLE_NAME, COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = 'PUBLIC'",
+                rs -> {
+                    actualColumns.computeIfAbsent(upper(rs.getString(1)), t -> new TreeSet<>())
+                            .add(upper(rs.getString(2)));
+                });
+        Set<String> actualIndexes = new TreeSet<>(jdbc.queryForList(
+                "SELECT TABLE_NAME || '.' || INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES"
+                        + " WHERE TABLE_SCHEMA = 'PUBLIC' AND INDEX_TYPE_NAME <> 'PRIMARY KEY'"
+                        + " AND INDEX_NAME NOT LIKE 'CONSTRAINT%' AND INDEX_NAME NOT LIKE 'FK%'",
+                String.class).stream().map(SchemaConsistencyTest::upper).toList());
+
+        assertEquals(expectedColumns, actualColumns);
+        assertEquals(expectedIndexes, actualIndexes);
+    }
+
+    private static String upper(String name) {
+        return name.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,165 @@
+package com.mposglobal.backoffice.benchmark;
+
+import com.mposglobal.backoffice.util.collections.LongIntHashMap;
+import com.mposglobal.backoffice.util.collections.LongLongHashMap;
+import com.mposglobal.backoffice.util.collections.LongObjectHashMap;
+import com.mposglobal.backoffice.util.collections.SortedLongArray;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara los índices por ID con claves primitivas contra {@code HashMap<Long, …>}: construcción
+ * del índice producto → categoría, consultas y agrupación categoría → productos.
+ * <p>
+ * El dato importante es la asignación por operación ({@code gc.alloc.rate.norm}), que el perfil
+ * {@code gc} agrega a cada resultado: las consultas con claves primitivas no asignan nada y las
+ * del {@code HashMap} asignan un {@code Long} por búsqueda fuera del caché de {@code Long.valueOf}.
+ * </p>
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.mposglobal.backoffice.benchmark.IdIndexBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdIndexBenchmark {
+
+    @Param({"100000"})
+    int products;
+
+    @Param({"5000"})
+    int categories;
+
+    private long[] productIds;
+    private long[] categoryIds;
+    private long[] probes;
+    private Map<Long, Long> boxedIndex;
+    private LongLongHashMap primitiveIndex;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        productIds = new long[products];
+        categoryIds = new long[products];
+        for (int i = 0; i < products; i++) {
+            productIds[i] = i + 1;
+            categoryIds[i] = 1 + random.nextInt(categories);
+        }
+        probes = new long[1024];
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = 1 + random.nextInt(products);
+        }
+        boxedIndex = buildBoxed();
+        primitiveIndex = buildPrimitive();
+    }
+
+    @Benchmark
+    public Map<Long, Long> buildBoxed() {
+        Map<Long, Long> index = new HashMap<>(products * 2);
+        for (int i = 0; i < products; i++) {
+            index.put(productIds[i], categoryIds[i]);
+        }
+        return index;
+    }
+
+    @Benchmark
+    public LongLongHashMap buildPrimitive() {
+        LongLongHashMap index = new LongLongHashMap(products);
+        for (int i = 0; i < products; i++) {
+            index.put(productIds[i], categoryIds[i]);
+        }
+        return index;
+    }
+
+    @Benchmark
+    public long lookupBoxed() {
+        long sum = 0;
+        for (long id : probes) {
+            sum += boxedIndex.get(id);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long lookupPrimitive() {
+        long sum = 0;
+        for (long id : probes) {
+            sum += primitiveIndex.getOrDefault(id, 0);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public Map<Long, List<Long>> groupBoxed() {
+        Map<Long, List<Long>> byCategory = new HashMap<>();
+        for (int i = 0; i < products; i++) {
+            byCategory.computeIfAbsent(categoryIds[i], k -> new ArrayList<>()).add(productIds[i]);
+        }
+        return byCategory;
+    }
+
+    @Benchmark
+    public LongObjectHashMap<SortedLongArray> groupPrimitive() {
+        LongObjectHashMap<SortedLongArray.Builder> builders = new LongObjectHashMap<>(categories);
+        for (int i = 0; i < products; i++) {
+            SortedLongArray.Builder builder = builders.get(categoryIds[i]);
+            if (builder == null) {
+                builder = new SortedLongArray.Builder(16);
+                builders.put(categoryIds[i], builder);
+            }
+            builder.add(productIds[i]);
+        }
+        LongObjectHashMap<SortedLongArray> byCategory = new LongObjectHashMap<>(builders.size());
+        builders.forEach((category, builder) -> byCategory.put(category, builder.build()));
+        return byCategory;
+    }
+
+    @Benchmark
+    public int countPrimitive() {
+        LongIntHashMap counts = new LongIntHashMap(categories);
+        for (int i = 0; i < products; i++) {
+            counts.addTo(categoryIds[i], 1);
+        }
+        return counts.size();
+    }
+
+    @Benchmark
+    public int countBoxed() {
+        Map<Long, Integer> counts = new HashMap<>(categories * 2);
+        for (int i = 0; i < products; i++) {
+            counts.merge(categoryIds[i], 1, Integer::sum);
+        }
+        return counts.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IdIndexBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
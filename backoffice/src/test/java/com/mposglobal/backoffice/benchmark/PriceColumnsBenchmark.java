@@ -0,0 +1,134 @@
+package com.mposglobal.backoffice.benchmark;
+
+import com.mposglobal.backoffice.util.PriceColumns;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Margen, recargo e impuesto sobre 1M de precios: columnas de centavos ({@link PriceColumns})
+ * contra la forma anterior, {@code Double} en cajas por producto y {@code BigDecimal} para
+ * redondear el impuesto.
+ * <p>
+ * Con el perfil {@code gc} se ve la asignación por operación; para comprobar la vectorización
+ * agregar {@code -prof perfasm} (requiere hsdis).
+ * </p>
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.mposglobal.backoffice.benchmark.PriceColumnsBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriceColumnsBenchmark {
+
+    @Param({"1000000"})
+    int size;
+
+    private long[] costo;
+    private long[] precio;
+    private long[] longOut;
+    private double[] doubleOut;
+    private List<Double> boxedCosto;
+    private List<Double> boxedPrecio;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        costo = new long[size];
+        precio = new long[size];
+        longOut = new long[size];
+        doubleOut = new double[size];
+        boxedCosto = new ArrayList<>(size);
+        boxedPrecio = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            costo[i] = 100 + random.nextLong(1_000_000);
+            precio[i] = costo[i] + costo[i] * random.nextInt(10, 80) / 100;
+            boxedCosto.add(costo[i] / 100.0);
+            boxedPrecio.add(precio[i] / 100.0);
+        }
+    }
+
+    @Benchmark
+    public double[] marginRatioColumns() {
+        PriceColumns.marginRatio(costo, precio, doubleOut, size);
+        return doubleOut;
+    }
+
+    @Benchmark
+    public List<Double> marginRatioBoxed() {
+        List<Double> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            double p = boxedPrecio.get(i);
+            out.add((p - boxedCosto.get(i)) / p);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public double[] markupRatioColumns() {
+        PriceColumns.markupRatio(costo, precio, doubleOut, size);
+        return doubleOut;
+    }
+
+    @Benchmark
+    public long[] taxColumns() {
+        PriceColumns.withTax(precio, 700, longOut, size);
+        return longOut;
+    }
+
+    @Benchmark
+    public List<Double> taxBoxed() {
+        BigDecimal rate = new BigDecimal("1.07");
+        List<Double> out = new ArrayList<>(size);
+        for (Double p : boxedPrecio) {
+            out.add(BigDecimal.valueOf(p).multiply(rate).setScale(2, RoundingMode.HALF_UP).doubleValue());
+        }
+        return out;
+    }
+
+    @Benchmark
+    public long totalMarginColumns() {
+        PriceColumns.margin(costo, precio, longOut, size);
+        return PriceColumns.sum(longOut, size);
+    }
+
+    @Benchmark
+    public double totalMarginBoxed() {
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            total += boxedPrecio.get(i) - boxedCosto.get(i);
+        }
+        return total;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PriceColumnsBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
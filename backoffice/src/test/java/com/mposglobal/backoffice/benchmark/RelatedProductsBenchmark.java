@@ -0,0 +1,130 @@
+package com.mposglobal.backoffice.benchmark;
+
+import com.mposglobal.backoffice.util.collections.MinHashLsh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Productos relacionados por tags: consulta con MinHash + LSH ({@link MinHashLsh}) contra el
+ * recorrido exacto de todo el catálogo, con 10 mil, 100 mil y 1 millón de productos.
+ * <p>
+ * Los tags imitan a los del perfil {@code loadtest}: vocabulario de 2000 tags con distribución
+ * Zipf (exponente 1,1) y de 1 a 6 tags por producto. El recorrido exacto crece linealmente con el
+ * catálogo; la consulta LSH compara a lo sumo 2000 candidatos, así que su tiempo crece mucho
+ * menos que el catálogo (lo que crece es la población de los baldes y las fallas de caché).
+ * </p>
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.mposglobal.backoffice.benchmark.RelatedProductsBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class RelatedProductsBenchmark {
+
+    private static final int VOCABULARY = 2000;
+    private static final int MAX_CANDIDATES = 2000;
+    private static final int K = 10;
+
+    @Param({"10000", "100000", "1000000"})
+    int products;
+
+    private MinHashLsh lsh;
+    private long[][] sets;
+    private long[] probes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        double[] cdf = zipf(VOCABULARY, 1.1);
+        lsh = new MinHashLsh(products);
+        sets = new long[products][];
+        for (int id = 0; id < products; id++) {
+            int count = 1;
+            while (count < 6 && random.nextInt(100) < 55) {
+                count++;
+            }
+            Set<String> tags = new LinkedHashSet<>();
+            for (int i = 0; i < count * 2 && tags.size() < count; i++) {
+                tags.add("tag" + sample(cdf, random));
+            }
+            sets[id] = MinHashLsh.hashes(tags);
+            lsh.put(id, sets[id]);
+        }
+        probes = random.longs(1024, 0, products).toArray();
+    }
+
+    @Benchmark
+    public List<MinHashLsh.Match> lsh() {
+        long id = probes[next++ & (probes.length - 1)];
+        return lsh.similar(id, K, MAX_CANDIDATES);
+    }
+
+    @Benchmark
+    public double[] exactScan() {
+        long id = probes[next++ & (probes.length - 1)];
+        long[] own = sets[(int) id];
+        // Solo se conservan los K mejores puntajes; basta para medir el costo del recorrido
+        double[] best = new double[K];
+        for (int other = 0; other < sets.length; other++) {
+            if (other != id) {
+                double similarity = MinHashLsh.jaccard(own, sets[other]);
+                if (similarity > best[0]) {
+                    best[0] = similarity;
+                    Arrays.sort(best);
+                }
+            }
+        }
+        return best;
+    }
+
+    private static double[] zipf(int n, double exponent) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    private static int sample(double[] cdf, SplittableRandom random) {
+        int idx = Arrays.binarySearch(cdf, random.nextDouble());
+        idx = idx >= 0 ? idx : -idx - 1;
+        return Math.min(idx, cdf.length - 1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RelatedProductsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
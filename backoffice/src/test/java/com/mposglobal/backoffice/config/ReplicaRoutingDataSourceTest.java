@@ -0,0 +1,171 @@
+package com.mposglobal.backoffice.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verifica el enrutamiento primario/réplica con dos bases H2 embebidas independientes.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private ReplicaRoutingDataSource routing;
+    private SwitchableDataSource replica;
+    private DataSource lazy;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+    private LocalContainerEntityManagerFactoryBean emf;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        replica = new SwitchableDataSource(database("replica"));
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica),
+                Duration.ofMillis(300), Duration.ofSeconds(1));
+
+        lazy = new LazyConnectionDataSourceProxy(routing);
+        jdbc = new JdbcTemplate(lazy);
+        useTransactionManager(new DataSourceTransactionManager(lazy));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        if (emf != null) {
+            emf.destroy();
+        }
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicaAndWritesToPrimary() {
+        assertEquals("replica", readOnly.execute(s -> origin()));
+        assertEquals("primary", readWrite.execute(s -> origin()));
+    }
+
+    @Test
+    void unhealthyReplicaFailsOverToPrimaryAndComesBack() {
+        replica.down = true;
+        routing.checkHealth();
+        assertTrue(routing.getHealthyReplicas().isEmpty());
+        assertEquals("primary", readOnly.execute(s -> origin()));
+
+        replica.down = false;
+        routing.checkHealth();
+        assertEquals("replica", readOnly.execute(s -> origin()));
+    }
+
+    @Test
+    void userReadsOwnWritesWithinWindow() throws InterruptedException {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "admin", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+
+        readWrite.execute(s -> jdbc.update("UPDATE Origen SET nombre = nombre"));
+        assertEquals("primary", readOnly.execute(s -> origin()));
+
+        Thread.sleep(400);
+        assertEquals("replica", readOnly.execute(s -> origin()));
+    }
+
+    @Test
+    void windowStartsAtCommitOfLongJpaTransaction() {
+        // Como en la aplicación: JPA, con JdbcTemplate compartiendo la conexión de la transacción
+        emf = new LocalContainerEntityManagerFactoryBean();
+        emf.setDataSource(lazy);
+        emf.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        emf.setPackagesToScan(ReplicaRoutingDataSourceTest.class.getPackageName() + ".sinentidades");
+        emf.setJpaPropertyMap(Map.of("hibernate.dialect", "org.hibernate.dialect.H2Dialect"));
+        emf.afterPropertiesSet();
+        useTransactionManager(new JpaTransactionManager(emf.getObject()));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "admin", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+
+        // La escritura dura más que la ventana: la ventana se cuenta desde el commit
+        readWrite.execute(s -> {
+            jdbc.update("UPDATE Origen SET nombre = nombre");
+            sleep(400);
+            return null;
+        });
+        assertEquals("primary", readOnly.execute(s -> origin()));
+
+        // Una escritura revertida no desvía las lecturas
+        sleep(400);
+        readWrite.execute(s -> {
+            jdbc.update("UPDATE Origen SET nombre = nombre");
+            s.setRollbackOnly();
+            return null;
+        });
+        assertEquals("replica", readOnly.execute(s -> origin()));
+    }
+
+    private void useTransactionManager(PlatformTransactionManager tm) {
+        readWrite = new TransactionTemplate(tm);
+        readOnly = new TransactionTemplate(tm);
+        readOnly.setReadOnly(true);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String origin() {
+        return jdbc.queryForObject("SELECT nombre FROM Origen", String.class);
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource ds = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + System.nanoTime() + ";MODE=MSSQLServer;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate init = new JdbcTemplate(ds);
+        init.execute("CREATE TABLE Origen (nombre NVARCHAR(20))");
+        init.update("INSERT INTO Origen (nombre) VALUES (?)", name);
+        return ds;
+    }
+
+    /**
+     * Réplica que se puede "apagar" para simular una caída.
+     */
+    static class SwitchableDataSource extends DelegatingDataSource {
+
+        volatile boolean down;
+
+        SwitchableDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("replica caida");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.mposglobal.backoffice.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.mposglobal.backoffice.dto.CategoryRequest;
+import com.mposglobal.backoffice.dto.CategoryResponse;
+import com.mposglobal.backoffice.service.CategoryService;
+
+/**
+ * Verifica las respuestas de un {@code PUT} condicionado con {@code If-Match}: 412 con un
+ * {@code ETag} débil o desactualizado, y éxito si alguno de los de una lista coincide.
+ * <p>
+ * Sin los filtros de seguridad: lo que se prueba es el controlador y el manejador de errores.
+ * {@code MockMvc} se arma sobre el mismo contexto que el resto de las pruebas.
+ * </p>
+ */
+@SpringBootTest
+@ActiveProfiles("embedded")
+class ConditionalRequestTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        mvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    void ifMatchUsesStrongComparisonAndAcceptsTagLists() throws Exception {
+        CategoryResponse created = categoryService.create(category("Condicional"));
+        String body = "{\"nombre\":\"Condicional 2\"}";
+        String uri = "/categories/" + created.getId();
+
+        mvc.perform(put(uri).header("If-Match", "W/\"0\"").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isPreconditionFailed());
+        mvc.perform(put(uri).header("If-Match", "\"7\"").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isPreconditionFailed());
+        mvc.perform(put(uri).header("If-Match", "\"abc\"").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest());
+
+        mvc.perform(put(uri).header("If-Match", "\"7\", W/\"0\", \"0\"").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+        mvc.perform(put(uri).header("If-Match", "\"0\", \"2\"").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isPreconditionFailed());
+        mvc.perform(put("/categories/999999").header("If-Match", "\"0\", \"1\"").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().is4xxClientError());
+    }
+
+    private static CategoryRequest category(String nombre) {
+        CategoryRequest request = new CategoryRequest();
+        request.setNombre(nombre);
+        return request;
+    }
+}
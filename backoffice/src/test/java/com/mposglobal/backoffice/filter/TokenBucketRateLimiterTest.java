@@ -0,0 +1,78 @@
+package com.mposglobal.backoffice.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.mposglobal.backoffice.config.RateLimitProperties;
+import com.mposglobal.backoffice.filter.TokenBucketRateLimiter.Rate;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verifica la ráfaga, la espera sugerida y la concurrencia de los token buckets.
+ */
+class TokenBucketRateLimiterTest {
+
+    private static TokenBucketRateLimiter limiter(Duration idle) {
+        RateLimitProperties props = new RateLimitProperties();
+        props.setIdleTimeout(idle);
+        return new TokenBucketRateLimiter(props);
+    }
+
+    @Test
+    void allowsBurstThenAsksToWait() {
+        TokenBucketRateLimiter limiter = limiter(Duration.ofMinutes(10));
+        // 5 de ráfaga, 1 por segundo: la recarga no alcanza a influir durante la prueba
+        Rate rate = Rate.of(new RateLimitProperties.Limit(5, 1));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("u:cajero", rate), "token " + i);
+        }
+        long wait = limiter.tryAcquire("u:cajero", rate);
+        assertTrue(wait > 0 && wait <= TimeUnit.SECONDS.toNanos(1), "espera sugerida " + wait);
+
+        // otra clave tiene su propio bucket
+        assertEquals(0, limiter.tryAcquire("u:otro", rate));
+    }
+
+    @Test
+    void concurrentCallersNeverExceedCapacity() throws InterruptedException {
+        TokenBucketRateLimiter limiter = limiter(Duration.ofMinutes(10));
+        Rate rate = Rate.of(new RateLimitProperties.Limit(100, 0.001));
+        AtomicInteger granted = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            pool.execute(() -> {
+                if (limiter.tryAcquire("a:10.0.0.1", rate) == 0) {
+                    granted.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(100, granted.get());
+    }
+
+    @Test
+    void evictsOnlyIdleBuckets() throws InterruptedException {
+        TokenBucketRateLimiter limiter = limiter(Duration.ofMillis(50));
+        Rate fast = Rate.of(new RateLimitProperties.Limit(1, 1000));
+        Rate slow = Rate.of(new RateLimitProperties.Limit(1, 0.001));
+
+        limiter.tryAcquire("idle", fast);
+        limiter.tryAcquire("busy", slow);
+        Thread.sleep(100);
+        limiter.evictIdle();
+
+        // "busy" sigue vacío (se recarga en ~17 minutos): no puede descartarse
+        assertEquals(1, limiter.size());
+        assertTrue(limiter.tryAcquire("busy", slow) > 0);
+    }
+}
@@ -0,0 +1,297 @@
+package com.mposglobal.backoffice.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga que reproduce los flujos de la colección de Postman contra la API.
+ * <p>
+ * Trabaja en <b>lazo abierto</b>: la petición {@code i} tiene un instante de inicio previsto
+ * {@code t0 + i / rate}, independiente de lo que tarden las anteriores. La latencia se mide
+ * desde ese instante previsto y no desde el envío real, de modo que cuando el servidor se
+ * atrasa el tiempo de espera en cola también se contabiliza (corrección de la
+ * <i>omisión coordinada</i>). Se reporta además el tiempo de servicio (desde el envío real)
+ * para poder comparar ambos.
+ * </p>
+ * <p>
+ * Configuración mediante propiedades del sistema:
+ * </p>
+ * <ul>
+ *   <li>{@code loadtest.baseUrl} (por defecto {@code http://localhost:8080})</li>
+ *   <li>{@code loadtest.collection} ruta a la colección (por defecto {@code ../BackOffice API.postman_collection.json})</li>
+ *   <li>{@code loadtest.rate} peticiones por segundo objetivo (por defecto 100)</li>
+ *   <li>{@code loadtest.duration} duración en segundos (por defecto 60)</li>
+ *   <li>{@code loadtest.warmup} segundos iniciales que no se registran (por defecto 10)</li>
+ *   <li>{@code loadtest.threads} hilos emisores (por defecto 64)</li>
+ *   <li>{@code loadtest.methods} métodos HTTP a reproducir, separados por coma (por defecto todos)</li>
+ *   <li>{@code loadtest.username} / {@code loadtest.password} credenciales (por defecto admin/admin123)</li>
+ * </ul>
+ * <p>
+ * En los cuerpos y URLs se sustituyen {@code {{token}}} y las variables dinámicas de Postman
+ * {@code {{$randomInt}}}, {@code {{$timestamp}}} y {@code {{$guid}}}.
+ * </p>
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.mposglobal.backoffice.loadtest.LoadDriver -Dloadtest.rate=500
+ * </pre>
+ */
+public final class LoadDriver {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = Duration.ofMinutes(5).toNanos();
+
+    /**
+     * Un request de la colección de Postman.
+     */
+    record Flow(String name, String method, String pathAndQuery, String body) {}
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final String baseUrl;
+    private final String username;
+    private final String password;
+    private volatile String token;
+
+    private final Map<String, ConcurrentHistogram> responseTimes = new ConcurrentHashMap<>();
+    private final Map<String, ConcurrentHistogram> serviceTimes = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final LongAdder errors = new LongAdder();
+
+    private LoadDriver(String baseUrl, String username, String password) {
+        this.baseUrl = baseUrl;
+        this.username = username;
+        this.password = password;
+    }
+
+    /**
+     * Punto de entrada del generador de carga.
+     *
+     * @param args No se usan; la configuración se toma de las propiedades del sistema.
+     * @throws Exception Si no se puede leer la colección o iniciar sesión.
+     */
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("loadtest.baseUrl", "http://localhost:8080");
+        String collection = System.getProperty("loadtest.collection", "../BackOffice API.postman_collection.json");
+        double rate = Double.parseDouble(System.getProperty("loadtest.rate", "100"));
+        long duration = Long.parseLong(System.getProperty("loadtest.duration", "60"));
+        long warmup = Long.parseLong(System.getProperty("loadtest.warmup", "10"));
+        int threads = Integer.parseInt(System.getProperty("loadtest.threads", "64"));
+        String methods = System.getProperty("loadtest.methods", "");
+
+        LoadDriver driver = new LoadDriver(baseUrl,
+                System.getProperty("loadtest.username", "admin"),
+                System.getProperty("loadtest.password", "admin123"));
+
+        List<Flow> flows = loadCollection(new File(collection), methods);
+        if (flows.isEmpty()) {
+            throw new IllegalStateException("La coleccion no contiene flujos para los metodos: " + methods);
+        }
+        driver.login();
+        driver.run(flows, rate, duration, warmup, threads);
+        driver.report(Math.max(1, duration - warmup));
+    }
+
+    // -------------------------------------------------------------------------
+    // Lectura de la colección
+    // -------------------------------------------------------------------------
+
+    /**
+     * Lee la colección de Postman (incluidas carpetas anidadas) y descarta el login,
+     * que se ejecuta aparte para obtener el token.
+     */
+    static List<Flow> loadCollection(File file, String methods) throws IOException {
+        Set<String> allowed = methods.isBlank() ? Set.of()
+                : Set.of(methods.toUpperCase(Locale.ROOT).split("\\s*,\\s*"));
+        List<Flow> flows = new ArrayList<>();
+        collect(new ObjectMapper().readTree(file).path("item"), flows);
+        flows.removeIf(f -> f.pathAndQuery().startsWith("/auth/")
+                || (!allowed.isEmpty() && !allowed.contains(f.method())));
+        return flows;
+    }
+
+    private static void collect(JsonNode items, List<Flow> flows) {
+        for (JsonNode item : items) {
+            if (item.has("item")) {
+                collect(item.get("item"), flows);
+                continue;
+            }
+            JsonNode request = item.path("request");
+            URI uri = URI.create(request.path("url").path("raw").asText().replace("{{", "%7B%7B").replace("}}", "%7D%7D"));
+            String pathAndQuery = uri.getRawPath() + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "");
+            flows.add(new Flow(item.path("name").asText(),
+                    request.path("method").asText("GET").toUpperCase(Locale.ROOT),
+                    pathAndQuery.replace("%7B%7B", "{{").replace("%7D%7D", "}}"),
+                    request.path("body").path("raw").asText(null)));
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Ejecución
+    // -------------------------------------------------------------------------
+
+    private void login() throws IOException, InterruptedException {
+        String body = "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}";
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login fallido (" + response.statusCode() + "): " + response.body());
+        }
+        token = new ObjectMapper().readTree(response.body()).path("token").asText();
+    }
+
+    /**
+     * Emite las peticiones según el calendario fijo {@code t0 + i * periodo}, repartiendo los
+     * flujos en round-robin. Cada hilo toma el siguiente índice del calendario y espera a su
+     * instante previsto; si ya pasó, envía de inmediato y la demora queda reflejada en la latencia.
+     */
+    private void run(List<Flow> flows, double rate, long durationSeconds, long warmupSeconds, int threads)
+            throws InterruptedException {
+        long periodNanos = (long) (1_000_000_000L / rate);
+        long total = (long) (rate * durationSeconds);
+        long warmupRequests = (long) (rate * warmupSeconds);
+        long start = System.nanoTime() + 100_000_000L;
+        AtomicLong sequence = new AtomicLong();
+
+        Runnable worker = () -> {
+            long i;
+            while ((i = sequence.getAndIncrement()) < total) {
+                long intended = start + i * periodNanos;
+                long wait;
+                while ((wait = intended - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Flow flow = flows.get((int) (i % flows.size()));
+                execute(flow, intended, i >= warmupRequests);
+            }
+        };
+
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(worker, "load-driver-" + t);
+            thread.start();
+            workers.add(thread);
+        }
+        for (Thread thread : workers) {
+            thread.join();
+        }
+    }
+
+    private void execute(Flow flow, long intendedStart, boolean record) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + substitute(flow.pathAndQuery())))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token);
+        if (flow.body() != null) {
+            builder.header("Content-Type", "application/json")
+                   .method(flow.method(), HttpRequest.BodyPublishers.ofString(substitute(flow.body())));
+        } else {
+            builder.method(flow.method(), HttpRequest.BodyPublishers.noBody());
+        }
+
+        long sent = System.nanoTime();
+        int status;
+        try {
+            status = client.send(builder.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long end = System.nanoTime();
+
+        if (status == 401 || status == 403) {
+            refreshToken();
+        }
+        if (!record) {
+            return;
+        }
+        histogram(responseTimes, flow.name()).recordValue(Math.min(end - intendedStart, HIGHEST_TRACKABLE_NANOS));
+        histogram(serviceTimes, flow.name()).recordValue(Math.min(end - sent, HIGHEST_TRACKABLE_NANOS));
+        statusCounts.computeIfAbsent(flow.name() + " -> " + (status < 0 ? "IOException" : status),
+                k -> new LongAdder()).increment();
+        if (status < 0 || status >= 500) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * El token dura pocos minutos; ante un 401/403 se vuelve a iniciar sesión una sola vez.
+     */
+    private synchronized void refreshToken() {
+        try {
+            login();
+        } catch (Exception e) {
+            // se reintenta en la siguiente respuesta 401/403
+        }
+    }
+
+    private String substitute(String text) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return text.replace("{{token}}", token)
+                .replace("{{$randomInt}}", Integer.toString(random.nextInt(1000)))
+                .replace("{{$timestamp}}", Long.toString(System.currentTimeMillis() / 1000))
+                .replace("{{$guid}}", UUID.randomUUID().toString());
+    }
+
+    private static ConcurrentHistogram histogram(Map<String, ConcurrentHistogram> map, String flow) {
+        return map.computeIfAbsent(flow, k -> new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3));
+    }
+
+    // -------------------------------------------------------------------------
+    // Reporte
+    // -------------------------------------------------------------------------
+
+    private void report(long durationSeconds) {
+        Histogram overall = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        System.out.printf(Locale.ROOT, "%n%-28s %9s | %-42s | %-42s%n", "Flujo", "n",
+                "tiempo de respuesta ms (p50/p90/p99/p99.9/max)", "tiempo de servicio ms (p50/p90/p99/p99.9/max)");
+        for (String flow : new TreeMap<>(responseTimes).keySet()) {
+            Histogram response = responseTimes.get(flow);
+            overall.add(response);
+            System.out.printf(Locale.ROOT, "%-28s %9d | %-42s | %-42s%n", flow, response.getTotalCount(),
+                    percentiles(response), percentiles(serviceTimes.get(flow)));
+        }
+        System.out.printf(Locale.ROOT, "%-28s %9d | %-42s%n", "TOTAL", overall.getTotalCount(), percentiles(overall));
+        System.out.printf(Locale.ROOT, "Throughput medido: %.1f req/s, errores (5xx/IO): %d%n",
+                overall.getTotalCount() / (double) durationSeconds, errors.sum());
+
+        System.out.println("\nCodigos de estado:");
+        new TreeMap<>(statusCounts).forEach((k, v) -> System.out.printf("  %-40s %d%n", k, v.sum()));
+    }
+
+    private static String percentiles(Histogram h) {
+        return String.format(Locale.ROOT, "%.2f/%.2f/%.2f/%.2f/%.2f",
+                ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)), ms(h.getValueAtPercentile(99)),
+                ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()));
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
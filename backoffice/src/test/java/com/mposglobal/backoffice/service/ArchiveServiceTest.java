@@ -0,0 +1,132 @@
+package com.mposglobal.backoffice.service;
+
+import static com.mposglobal.backoffice.service.ProductRequests.product;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.mposglobal.backoffice.config.ArchiveProperties;
+import com.mposglobal.backoffice.dto.CategoryRequest;
+import com.mposglobal.backoffice.dto.CategoryResponse;
+import com.mposglobal.backoffice.dto.ProductResponse;
+import com.mposglobal.backoffice.dto.UserRequest;
+import com.mposglobal.backoffice.dto.UserResponse;
+import com.mposglobal.backoffice.util.Constant;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Verifica que el archivado mueve solo las filas desactivadas hace más que la retención, que
+ * deja el avance listo para la próxima pasada y que las lecturas con {@code includeArchived}
+ * las siguen encontrando.
+ */
+@SpringBootTest
+@ActiveProfiles("embedded")
+class ArchiveServiceTest {
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ArchiveProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void smallChunks() {
+        // Tramos chicos para recorrer cada tabla en varias transacciones
+        properties.setChunkSize(2);
+        properties.setPause(Duration.ZERO);
+    }
+
+    @AfterEach
+    void restoreChunks() {
+        ArchiveProperties defaults = new ArchiveProperties();
+        properties.setChunkSize(defaults.getChunkSize());
+        properties.setPause(defaults.getPause());
+    }
+
+    @Test
+    void oldDeactivatedRowsAreArchivedAndStillReadable() {
+        CategoryResponse category = categoryService.create(category("Archivable"));
+        ProductResponse product = productService.create(product("Archivable", category.getId()));
+        ProductResponse recent = productService.create(product("Reciente", category.getId()));
+        UserResponse user = userService.create(user("archivable"));
+        productService.deactivate(product.getId());
+        productService.deactivate(recent.getId());
+        categoryService.deactivate(category.getId());
+        userService.softDeactivate(user.getId());
+        backdate("Productos", "fechaActualizacion", product.getId());
+        backdate("Categorias", "fechaActualizacion", category.getId());
+        backdate("Usuarios", "fechaDesactivacion", user.getId());
+
+        archiveService.run();
+
+        assertEquals(0, count("Productos", product.getId()));
+        assertEquals(1, count("Productos", recent.getId()), "desactivado hace poco: no se archiva");
+        assertEquals(1, count("Categorias", category.getId()), "todavía tiene un producto");
+        assertEquals(0, count("Usuarios", user.getId()));
+
+        ProductResponse archived = productService.findById(product.getId(), true);
+        assertEquals("Archivable", archived.getNombre());
+        assertEquals("Archivable", archived.getCategoria());
+        assertEquals(Constant.DESACTIVADO, archived.getEstado());
+        assertThrows(RuntimeException.class, () -> productService.findById(product.getId()));
+
+        List<UserResponse> users = userService.findPage(user.getId() - 1, 1, Constant.DESACTIVADO, null,
+                "archivable", true).items();
+        assertEquals(List.of(user.getId()), users.stream().map(UserResponse::getId).toList());
+
+        backdate("Productos", "fechaActualizacion", recent.getId());
+        archiveService.run();
+
+        assertEquals(0, count("Categorias", category.getId()));
+        assertEquals(category.getNombre(), categoryService.findById(category.getId(), true).getNombre());
+        assertTrue(archiveService.status().stream().allMatch(p -> p.ultimoId() == 0 && p.corte() == null),
+                "las pasadas terminadas reinician el avance");
+    }
+
+    private void backdate(String table, String column, Long id) {
+        Timestamp old = new Timestamp(System.currentTimeMillis() - Duration.ofDays(365).toMillis());
+        jdbc.update("UPDATE " + table + " SET " + column + " = ? WHERE id = ?", old, id);
+    }
+
+    private int count(String table, Long id) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE id = ?", Integer.class, id);
+    }
+
+    private static CategoryRequest category(String nombre) {
+        CategoryRequest request = new CategoryRequest();
+        request.setNombre(nombre);
+        return request;
+    }
+
+    private static UserRequest user(String username) {
+        UserRequest request = new UserRequest();
+        request.setNombreCompleto("Usuario Archivable");
+        request.setUsername(username);
+        request.setClave("Clave123!");
+        request.setNivelAcceso("USER");
+        return request;
+    }
+}
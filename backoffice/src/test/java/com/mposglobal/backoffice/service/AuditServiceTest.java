@@ -0,0 +1,116 @@
+package com.mposglobal.backoffice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mposglobal.backoffice.dto.AuditResponse;
+import com.mposglobal.backoffice.dto.CategoryRequest;
+import com.mposglobal.backoffice.dto.CategoryResponse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifica que los cambios confirmados llegan a la tabla de auditoría con su diff y el usuario
+ * autenticado, y que un cambio revertido no se audita.
+ */
+@SpringBootTest
+@ActiveProfiles("embedded")
+class AuditServiceTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void committedChangesAreAuditedWithDiffAndPrincipal() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("auditor", null, List.of()));
+        CategoryResponse created = categoryService.create(category("Auditada"));
+        categoryService.update(created.getId(), category("Auditada 2"));
+        CategoryResponse patched = categoryService.patch(created.getId(), Map.of("nombre", "Auditada 3"), null);
+        CategoryResponse conditional = categoryService.update(created.getId(), category("Auditada 4"), patched.getVersion());
+        // Reescribir el mismo valor no deja un cambio con un "antes" inventado
+        CategoryResponse last = categoryService.patch(created.getId(), Map.of("nombre", "Auditada 4"),
+                conditional.getVersion());
+
+        List<AuditResponse> rows = awaitRows(created.getId(), 4);
+        TimeUnit.MILLISECONDS.sleep(300);
+
+        assertEquals(4, auditService.findPage(null, 10, "CATEGORIA", created.getId(), null).items().size());
+        assertEquals(List.of("ACTUALIZAR", "ACTUALIZAR", "ACTUALIZAR", "CREAR"),
+                rows.stream().map(AuditResponse::getAccion).toList());
+        assertEquals("{\"nombre\":{\"antes\":\"Auditada 3\",\"despues\":\"Auditada 4\"}}", rows.get(0).getCambios());
+        assertEquals("{\"nombre\":{\"antes\":\"Auditada 2\",\"despues\":\"Auditada 3\"}}", rows.get(1).getCambios());
+        assertEquals("{\"nombre\":{\"antes\":\"Auditada\",\"despues\":\"Auditada 2\"}}", rows.get(2).getCambios());
+        assertTrue(rows.stream().allMatch(r -> "auditor".equals(r.getUsuario())));
+
+        // Las escrituras directas arman la respuesta sin releer: debe coincidir con lo guardado
+        CategoryResponse stored = categoryService.findById(created.getId());
+        assertEquals(patched.getVersion() + 1, conditional.getVersion());
+        assertEquals(conditional.getVersion() + 1, last.getVersion());
+        assertEquals(stored.getVersion(), last.getVersion());
+        assertEquals(stored.getNombre(), last.getNombre());
+        assertEquals(stored.getEstadoEfectivo(), last.getEstadoEfectivo());
+        assertEquals(stored.getFechaCreacion(), last.getFechaCreacion());
+    }
+
+    @Test
+    void rolledBackChangeIsNotAudited() throws Exception {
+        CategoryResponse created = categoryService.create(category("Revertida"));
+        new TransactionTemplate(txManager).executeWithoutResult(status -> {
+            categoryService.update(created.getId(), category("Revertida 2"));
+            status.setRollbackOnly();
+        });
+        categoryService.update(created.getId(), category("Revertida"));   // sin cambios: no se audita
+
+        List<AuditResponse> rows = awaitRows(created.getId(), 1);
+        TimeUnit.MILLISECONDS.sleep(300);
+
+        assertEquals(1, auditService.findPage(null, 10, "categoria", created.getId(), null).items().size());
+        assertFalse(rows.get(0).getCambios().contains("Revertida 2"));
+    }
+
+    private List<AuditResponse> awaitRows(Long categoryId, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        List<AuditResponse> rows;
+        do {
+            rows = auditService.findPage(null, 10, "CATEGORIA", categoryId, null).items();
+        } while (rows.size() < expected && System.nanoTime() < deadline && sleep());
+        assertEquals(expected, rows.size());
+        return rows;
+    }
+
+    private static boolean sleep() throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(20);
+        return true;
+    }
+
+    private static CategoryRequest category(String nombre) {
+        CategoryRequest request = new CategoryRequest();
+        request.setNombre(nombre);
+        return request;
+    }
+}
@@ -0,0 +1,143 @@
+package com.mposglobal.backoffice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mposglobal.backoffice.config.AuditProperties;
+import com.mposglobal.backoffice.repository.AuditRepository;
+import com.mposglobal.backoffice.repository.AuditRepository.Entry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+class AuditWriterTest {
+
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final FakeRepository repo = new FakeRepository();
+    private AuditWriter writer;
+
+    @AfterEach
+    void shutdown() {
+        repo.release.countDown();
+        writer.shutdown();
+    }
+
+    @Test
+    void failedBatchIsSpilledAndReplayedWhenDatabaseRecovers() throws Exception {
+        writer = new AuditWriter(repo, new ObjectMapper(), properties(100), registry);
+        repo.failing = true;
+
+        for (int i = 1; i <= 3; i++) {
+            writer.submit(entry(i));
+        }
+        waitFor(() -> registry.counter("audit.spilled").count() == 3);
+        assertTrue(Files.exists(dir.resolve("audit.jsonl")));
+
+        repo.failing = false;
+        waitFor(() -> repo.inserted().size() == 3);
+
+        assertEquals(List.of(1L, 2L, 3L), repo.inserted().stream().map(Entry::entidadId).toList());
+        waitFor(() -> !Files.exists(dir.resolve("audit.jsonl.replay")));
+        assertFalse(Files.exists(dir.resolve("audit.jsonl")));
+    }
+
+    @Test
+    void fullQueueSpillsInsteadOfBlockingTheCaller() throws Exception {
+        writer = new AuditWriter(repo, new ObjectMapper(), properties(1), registry);
+        repo.blocking = true;
+
+        writer.submit(entry(1));
+        waitFor(() -> repo.entered.getCount() == 0); // el escritor quedó bloqueado en la base
+        writer.submit(entry(2));                      // ocupa la cola
+        long start = System.nanoTime();
+        writer.submit(entry(3));                      // cola llena: va al archivo
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1, registry.counter("audit.spilled").count());
+
+        repo.release.countDown();
+        waitFor(() -> repo.inserted().size() == 3);
+        assertEquals(3, repo.inserted().stream().map(Entry::entidadId).distinct().count());
+    }
+
+    private AuditProperties properties(int queueCapacity) {
+        AuditProperties properties = new AuditProperties();
+        properties.setQueueCapacity(queueCapacity);
+        properties.setOfferTimeout(Duration.ofMillis(10));
+        properties.setFlushInterval(Duration.ofMillis(10));
+        properties.setRetryDelay(Duration.ofMillis(50));
+        properties.setSpillFile(dir.resolve("audit.jsonl"));
+        return properties;
+    }
+
+    private static Entry entry(long id) {
+        return new Entry(AuditService.PRODUCTO, id, AuditService.ACTUALIZAR, "admin",
+                "{\"precio\":{\"antes\":1.00,\"despues\":2.00}}", System.currentTimeMillis());
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean(), "condición no cumplida en 5 s");
+    }
+
+    /**
+     * Repositorio en memoria que puede fallar o bloquearse como una base caída o lenta.
+     */
+    private static final class FakeRepository extends AuditRepository {
+
+        private final List<Entry> rows = new ArrayList<>();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean failing;
+        private volatile boolean blocking;
+
+        FakeRepository() {
+            super(null);
+        }
+
+        @Override
+        public void insertAll(List<Entry> entries) {
+            if (failing) {
+                throw new DataAccessResourceFailureException("base no disponible");
+            }
+            if (blocking) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            synchronized (rows) {
+                rows.addAll(entries);
+            }
+        }
+
+        List<Entry> inserted() {
+            synchronized (rows) {
+                return new ArrayList<>(rows);
+            }
+        }
+    }
+}
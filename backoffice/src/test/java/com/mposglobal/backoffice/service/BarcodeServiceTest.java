@@ -0,0 +1,89 @@
+package com.mposglobal.backoffice.service;
+
+import static com.mposglobal.backoffice.service.ProductRequests.product;
+import static com.mposglobal.backoffice.service.ProductRequests.withBarcodes;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.mposglobal.backoffice.dto.ProductResponse;
+import com.mposglobal.backoffice.util.BarcodeUtil;
+
+/**
+ * Verifica la normalización GTIN, el alta y reemplazo de códigos con su reflejo en el índice en
+ * memoria, el rechazo de códigos ajenos y la consulta de una canasta.
+ */
+@SpringBootTest
+@ActiveProfiles("embedded")
+class BarcodeServiceTest {
+
+    @Autowired
+    private BarcodeService barcodeService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private BarcodeIndex index;
+
+    @Test
+    void normalizesGtinFormats() {
+        // Un UPC-A y su EAN-13 con cero inicial son el mismo código
+        assertEquals("00036000291452", BarcodeUtil.normalize("036000291452"));
+        assertEquals("00036000291452", BarcodeUtil.normalize("0036000291452"));
+        assertEquals("00000096385074", BarcodeUtil.normalize("96385074"));
+        assertEquals("02000000000015", BarcodeUtil.storeCode(1));
+        assertThrows(IllegalArgumentException.class, () -> BarcodeUtil.normalize("036000291453"));
+        assertThrows(IllegalArgumentException.class, () -> BarcodeUtil.normalize("12345"));
+        assertThrows(IllegalArgumentException.class, () -> BarcodeUtil.normalize("03600029145A"));
+    }
+
+    @Test
+    void lookupFollowsWritesAndDeactivation() {
+        assertTrue(index.isReady());
+        ProductResponse created = productService.create(withBarcodes("Escaneo A", "4006381333931"));
+        assertEquals(created.getId(), barcodeService.find("4006381333931").getId());
+
+        Map<String, Object> patch = Map.of("codigosBarra", List.of("9780201379624", "036000291452"));
+        // Solo códigos: la versión del producto sube una vez
+        assertEquals(created.getVersion() + 1, productService.patch(created.getId(), patch, null).getVersion());
+        assertThrows(RuntimeException.class, () -> barcodeService.find("4006381333931"));
+        assertEquals(created.getId(), barcodeService.find("0036000291452").getId());
+        assertEquals(List.of("00036000291452", "09780201379624"), productService.findBarcodes(created.getId()));
+
+        ProductResponse other = productService.create(product("Escaneo B"));
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.patch(other.getId(), patch, null));
+        // El código liberado queda disponible para otro producto
+        productService.patch(other.getId(), Map.of("codigosBarra", List.of("4006381333931")), null);
+        assertEquals(other.getId(), barcodeService.find("4006381333931").getId());
+
+        productService.deactivate(created.getId());
+        assertThrows(RuntimeException.class, () -> barcodeService.find("9780201379624"));
+    }
+
+    @Test
+    void basketLookupKeepsOrderAndMarksUnknownCodes() {
+        ProductResponse created = productService.create(withBarcodes("Canasta", "5901234123457"));
+
+        Map<String, ProductResponse> basket = barcodeService.findAll(
+                Arrays.asList("5901234123457", "no-es-un-codigo", "96385074", "02000000000015"));
+        assertEquals(List.of("5901234123457", "no-es-un-codigo", "96385074", "02000000000015"),
+                List.copyOf(basket.keySet()));
+        assertEquals(created.getId(), basket.get("5901234123457").getId());
+        assertNull(basket.get("no-es-un-codigo"));
+        assertNull(basket.get("96385074"));
+        assertEquals(1L, basket.get("02000000000015").getId());
+        assertThrows(IllegalArgumentException.class, () -> barcodeService.findAll(List.of()));
+    }
+}
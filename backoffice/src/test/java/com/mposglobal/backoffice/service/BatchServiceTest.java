@@ -0,0 +1,97 @@
+package com.mposglobal.backoffice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.mposglobal.backoffice.dto.BatchOperation;
+import com.mposglobal.backoffice.dto.BatchRequest;
+import com.mposglobal.backoffice.dto.BatchResult;
+
+/**
+ * Verifica los dos modos de {@code POST /batch}: el atómico revierte todo ante la primera falla
+ * y reporta 424 en las demás operaciones; el no atómico confirma cada operación y reporta el
+ * código que daría el endpoint individual.
+ */
+@SpringBootTest
+@ActiveProfiles("embedded")
+class BatchServiceTest {
+
+    @Autowired
+    private BatchService batchService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void atomicBatchRollsBackEverythingOnFirstFailure() {
+        List<BatchResult> results = batchService.execute(batch(true,
+                op("categories", "create", null, null, Map.of("nombre", "Lote Atomico")),
+                op("products", "create", null, null, Map.of("nombre", "Lote Atomico P", "categoria", "$0",
+                        "costo", 1.0, "precio", 2.0)),
+                op("products", "patch", "$1", null, Map.of("estado", "DESACTIVADO")),
+                op("categories", "deactivate", "$0", null, null)));
+
+        assertEquals(List.of(424, 424, 400, 424), statuses(results));
+        assertEquals(0, count("Categorias", "Lote Atomico"));
+        assertEquals(0, count("Productos", "Lote Atomico P"));
+    }
+
+    @Test
+    void nonAtomicBatchReportsEachStatusAndKeepsSuccesses() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "usuario", null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        List<BatchResult> results = batchService.execute(batch(false,
+                op("categories", "create", null, null, Map.of("nombre", "Lote Suelto")),
+                op("categories", "update", "$0", 5L, Map.of("nombre", "Lote Suelto X")),
+                op("users", "create", null, null, Map.of("username", "lote")),
+                op("products", "deactivate", "abc", null, null),
+                op("categories", "patch", "$0", 0L, Map.of("nombre", "Lote Suelto 2"))));
+
+        assertEquals(List.of(200, 412, 401, 400, 200), statuses(results));
+        assertEquals(0, count("Categorias", "Lote Suelto"));
+        assertEquals(1, count("Categorias", "Lote Suelto 2"));
+    }
+
+    private int count(String table, String nombre) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE nombre = ?", Integer.class, nombre);
+    }
+
+    private static List<Integer> statuses(List<BatchResult> results) {
+        return results.stream().map(BatchResult::getStatus).toList();
+    }
+
+    private static BatchRequest batch(boolean atomic, BatchOperation... ops) {
+        BatchRequest request = new BatchRequest();
+        request.setAtomic(atomic);
+        request.setOperations(List.of(ops));
+        return request;
+    }
+
+    private static BatchOperation op(String resource, String action, String id, Long version, Map<String, Object> body) {
+        BatchOperation op = new BatchOperation();
+        op.setResource(resource);
+        op.setAction(action);
+        op.setId(id);
+        op.setVersion(version);
+        op.setBody(body);
+        return op;
+    }
+}
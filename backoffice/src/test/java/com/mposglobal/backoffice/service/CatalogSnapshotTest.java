@@ -0,0 +1,92 @@
+package com.mposglobal.backoffice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import com.mposglobal.backoffice.dto.ProductResponse;
+import com.mposglobal.backoffice.service.CatalogSnapshot.CategoryEntry;
+import com.mposglobal.backoffice.service.CatalogSnapshot.Checksum;
+import com.mposglobal.backoffice.service.CatalogSnapshot.ProductEntry;
+import com.mposglobal.backoffice.util.Constant;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class CatalogSnapshotTest {
+
+    private static final CategoryEntry ROPA = new CategoryEntry(1, "Ropa", Constant.ACTIVO, null, null, 0, null, Constant.ACTIVO);
+
+    @Test
+    void incrementalChangesMatchAFullBuild() {
+        List<ProductEntry> products = new ArrayList<>();
+        for (long id = 1; id <= 5000; id += 7) {
+            products.add(product(id, Constant.ACTIVO, 0));
+        }
+        CatalogSnapshot snapshot = CatalogSnapshot.of(products, List.of(ROPA), 1);
+
+        // alta en un fragmento nuevo, modificación, baja y desactivación
+        snapshot = snapshot.withProduct(9000, product(9000, Constant.ACTIVO, 0));
+        snapshot = snapshot.withProduct(8, product(8, Constant.ACTIVO, 3));
+        snapshot = snapshot.withProduct(15, null);
+        snapshot = snapshot.withProduct(22, product(22, Constant.DESACTIVADO, 1));
+
+        products.add(product(9000, Constant.ACTIVO, 0));
+        products.set(1, product(8, Constant.ACTIVO, 3));
+        products.removeIf(p -> p.id() == 15 || p.id() == 22);
+        CatalogSnapshot rebuilt = CatalogSnapshot.of(products, List.of(ROPA), 1);
+
+        assertEquals(rebuilt.productChecksum(), snapshot.productChecksum());
+        assertEquals(ids(rebuilt.activeProducts()), ids(snapshot.activeProducts()));
+        assertEquals(3L, snapshot.product(8).getVersion());
+        assertNull(snapshot.product(15));
+        assertNull(snapshot.product(22));
+    }
+
+    @Test
+    void categoryRenameIsVisibleWithoutTouchingProducts() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(product(1, Constant.ACTIVO, 0)), List.of(ROPA), 1);
+
+        CatalogSnapshot renamed = snapshot.withCategory(1, new CategoryEntry(1, "Vestimenta", Constant.ACTIVO, null, null, 1, null, Constant.ACTIVO));
+
+        assertEquals("Ropa", snapshot.product(1).getCategoria());
+        assertEquals("Vestimenta", renamed.product(1).getCategoria());
+        assertEquals(new Checksum(1, 1, 1), renamed.categoryChecksum());
+        assertEquals(2, renamed.generation());
+    }
+
+    @Test
+    void unchangedInactiveProductKeepsSnapshot() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(), List.of(ROPA), 1);
+
+        assertSame(snapshot, snapshot.withProduct(5, product(5, Constant.DESACTIVADO, 0)));
+        assertEquals(0, snapshot.activeProducts().size());
+    }
+
+    @Test
+    void categoryIndexFollowsProductMoves() {
+        CategoryEntry hogar = new CategoryEntry(2, "Hogar", Constant.ACTIVO, null, null, 0, null, Constant.ACTIVO);
+        CatalogSnapshot snapshot = CatalogSnapshot.of(
+                List.of(product(3, Constant.ACTIVO, 0), product(2000, Constant.ACTIVO, 0), product(1, Constant.ACTIVO, 0)),
+                List.of(ROPA, hogar), 1);
+        assertEquals(List.of(1L, 3L, 2000L), ids(snapshot.activeProducts(1)));
+
+        CatalogSnapshot moved = snapshot.withProduct(3,
+                new ProductEntry(3, "Producto 3", 2, 1000, 1250, "tag", Constant.ACTIVO, null, null, 1));
+
+        assertEquals(List.of(1L, 2000L), ids(moved.activeProducts(1)));
+        assertEquals(List.of(3L), ids(moved.activeProducts(2)));
+        assertEquals("Hogar", moved.activeProducts(2).get(0).getCategoria());
+        assertEquals(List.of(), moved.activeProducts(99));
+    }
+
+    private static ProductEntry product(long id, String estado, long version) {
+        return new ProductEntry(id, "Producto " + id, 1, 1000, 1250, "tag", estado, null, null, version);
+    }
+
+    private static List<Long> ids(List<ProductResponse> products) {
+        return products.stream().map(ProductResponse::getId).toList();
+    }
+}
@@ -0,0 +1,204 @@
+package com.mposglobal.backoffice.service;
+
+import static com.mposglobal.backoffice.service.ProductRequests.product;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mposglobal.backoffice.dto.CategoryRequest;
+import com.mposglobal.backoffice.dto.CategoryResponse;
+import com.mposglobal.backoffice.dto.ProductResponse;
+import com.mposglobal.backoffice.exceptions.ProductException;
+import com.mposglobal.backoffice.util.Constant;
+
+/**
+ * Verifica la tabla de clausura (subárbol y sus productos), la propagación del estado efectivo
+ * al desactivar, reactivar y mover, que un PUT sin {@code padre} conserva el actual, el rechazo de
+ * ciclos también entre movimientos concurrentes y que las escrituras toman el bloqueo de la
+ * jerarquía antes que su fila.
+ */
+@SpringBootTest
+@ActiveProfiles("embedded")
+class CategoryHierarchyTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Test
+    void subtreeProductsAndCascadingDeactivation() {
+        CategoryResponse departamento = categoryService.create(category("Departamento", null));
+        CategoryResponse pasillo = categoryService.create(category("Pasillo", departamento.getId()));
+        CategoryResponse estante = categoryService.create(category("Estante", pasillo.getId()));
+        ProductResponse a = productService.create(product("Arbol A", estante.getId()));
+        ProductResponse b = productService.create(product("Arbol B", pasillo.getId()));
+
+        assertEquals(List.of(departamento.getId(), pasillo.getId(), estante.getId()),
+                categoryService.findSubtree(departamento.getId()).stream().map(CategoryResponse::getId).toList());
+        ProductService.ProductPage first = productService.findActiveInSubtree(departamento.getId(), null, 1);
+        assertEquals(List.of(a.getId()), first.items().stream().map(ProductResponse::getId).toList());
+        ProductService.ProductPage second = productService.findActiveInSubtree(departamento.getId(), first.nextCursor(), 1);
+        assertEquals(List.of(b.getId()), second.items().stream().map(ProductResponse::getId).toList());
+        assertNull(second.nextCursor());
+
+        categoryService.deactivate(departamento.getId());
+        CategoryResponse hoja = categoryService.findById(estante.getId());
+        assertEquals(Constant.ACTIVO, hoja.getEstado());
+        assertEquals(Constant.DESACTIVADO, hoja.getEstadoEfectivo());
+        assertThrows(ProductException.class, () -> productService.create(product("Arbol C", estante.getId())));
+
+        categoryService.update(departamento.getId(), category("Departamento", null));
+        assertEquals(Constant.ACTIVO, categoryService.findById(estante.getId()).getEstadoEfectivo());
+    }
+
+    @Test
+    void moveRewritesPathsAndRejectsCycles() {
+        CategoryResponse raiz = categoryService.create(category("Raiz", null));
+        CategoryResponse hijo = categoryService.create(category("Hijo", raiz.getId()));
+        CategoryResponse otra = categoryService.create(category("Otra", null));
+        categoryService.deactivate(otra.getId());
+        categoryService.findById(hijo.getId());   // queda en la caché de segundo nivel
+
+        assertThrows(IllegalArgumentException.class,
+                () -> categoryService.patch(raiz.getId(), Map.of("padre", hijo.getId()), null));
+
+        CategoryResponse moved = categoryService.patch(hijo.getId(), Map.of("padre", otra.getId()), null);
+        assertEquals(otra.getId(), moved.getPadre());
+        assertEquals(Constant.DESACTIVADO, moved.getEstadoEfectivo());
+        assertEquals(1, categoryService.findSubtree(raiz.getId()).size());
+
+        Map<String, Object> toRoot = new HashMap<>();
+        toRoot.put("padre", null);
+        CategoryResponse root = categoryService.patch(hijo.getId(), toRoot, null);
+        assertNull(root.getPadre());
+        assertEquals(Constant.ACTIVO, root.getEstadoEfectivo());
+        assertEquals(1, categoryService.findSubtree(otra.getId()).size());
+    }
+
+    @Test
+    void putWithoutPadreKeepsTheCurrentParent() throws Exception {
+        CategoryResponse raiz = categoryService.create(category("Conserva Raiz", null));
+        CategoryResponse hija = categoryService.create(category("Conserva Hija", raiz.getId()));
+
+        CategoryRequest sinPadre = mapper.readValue("{\"nombre\":\"Conserva Hija 2\"}", CategoryRequest.class);
+        CategoryResponse renamed = categoryService.update(hija.getId(), sinPadre);
+        assertEquals(raiz.getId(), renamed.getPadre());
+        CategoryResponse conditional = categoryService.update(hija.getId(), sinPadre, renamed.getVersion());
+        assertEquals(raiz.getId(), conditional.getPadre());
+        assertEquals(2, categoryService.findSubtree(raiz.getId()).size());
+
+        CategoryRequest aRaiz = mapper.readValue("{\"nombre\":\"Conserva Hija 2\",\"padre\":null}", CategoryRequest.class);
+        assertNull(categoryService.update(hija.getId(), aRaiz, conditional.getVersion()).getPadre());
+        assertEquals(1, categoryService.findSubtree(raiz.getId()).size());
+    }
+
+    @Test
+    void concurrentCrossMovesCannotFormCycle() throws Exception {
+        CategoryResponse izquierda = categoryService.create(category("Cruce Izquierda", null));
+        CategoryResponse derecha = categoryService.create(category("Cruce Derecha", null));
+        CountDownLatch moved = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = pool.submit(() -> new TransactionTemplate(txManager).executeWithoutResult(status -> {
+                categoryService.patch(izquierda.getId(), Map.of("padre", derecha.getId()), null);
+                moved.countDown();
+                await(commit);
+            }));
+            assertTrue(moved.await(5, TimeUnit.SECONDS));
+            // El segundo movimiento espera el bloqueo y valida contra la jerarquía ya confirmada
+            Future<?> second = pool.submit(() -> categoryService.patch(derecha.getId(), Map.of("padre", izquierda.getId()), null));
+            TimeUnit.MILLISECONDS.sleep(200);
+            commit.countDown();
+
+            first.get(5, TimeUnit.SECONDS);
+            ExecutionException e = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, e.getCause());
+        } finally {
+            commit.countDown();
+            pool.shutdownNow();
+        }
+        assertEquals(List.of(derecha.getId(), izquierda.getId()),
+                categoryService.findSubtree(derecha.getId()).stream().map(CategoryResponse::getId).toList());
+        assertNull(categoryService.findById(derecha.getId()).getPadre());
+    }
+
+    @Test
+    void writesTakeTheHierarchyLockBeforeTheirRow() throws Exception {
+        CategoryResponse padre = categoryService.create(category("Orden Padre", null));
+        CategoryResponse hija = categoryService.create(category("Orden Hija", padre.getId()));
+        CategoryResponse suelta = categoryService.create(category("Orden Suelta", null));
+        CategoryResponse destino = categoryService.create(category("Orden Destino", null));
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = pool.submit(() -> new TransactionTemplate(txManager).executeWithoutResult(status -> {
+                // Un movimiento toma el bloqueo y, más tarde, escribe la fila de la hija al propagar
+                categoryService.patch(suelta.getId(), Map.of("padre", destino.getId()), null);
+                locked.countDown();
+                await(proceed);
+                categoryService.deactivate(padre.getId());
+            }));
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+            // Si escribiera la fila de la hija antes de pedir el bloqueo, las dos se esperarían
+            Future<?> second = pool.submit(() -> categoryService.deactivate(hija.getId()));
+            TimeUnit.MILLISECONDS.sleep(200);
+            proceed.countDown();
+
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+        } finally {
+            proceed.countDown();
+            pool.shutdownNow();
+        }
+        CategoryResponse after = categoryService.findById(hija.getId());
+        assertEquals(Constant.DESACTIVADO, after.getEstado());
+        assertEquals(Constant.DESACTIVADO, after.getEstadoEfectivo());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static CategoryRequest category(String nombre, Long padre) {
+        CategoryRequest request = new CategoryRequest();
+        request.setNombre(nombre);
+        request.setPadre(padre);
+        return request;
+    }
+}
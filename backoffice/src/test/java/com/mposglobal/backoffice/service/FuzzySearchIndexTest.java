@@ -0,0 +1,129 @@
+package com.mposglobal.backoffice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.mposglobal.backoffice.config.CatalogProperties;
+import com.mposglobal.backoffice.event.CatalogChangedEvent;
+import com.mposglobal.backoffice.repository.ProductTextRepository;
+import com.mposglobal.backoffice.repository.ProductTextRepository.ProductText;
+import com.mposglobal.backoffice.repository.ProductTextRepository.RowConsumer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Verifica que las listas de un término frecuente, partidas en bloques, sigan a las altas y bajas
+ * de productos (incluidas las que parten un bloque o vacían uno) igual que una carga completa, y
+ * que los cambios confirmados durante la primera carga se aplican al terminarla.
+ */
+class FuzzySearchIndexTest {
+
+    private final ProductTextRepository repo = mock(ProductTextRepository.class);
+    private final FuzzySearchIndex index = new FuzzySearchIndex(repo, new CatalogProperties(), new SimpleMeterRegistry());
+    private final TreeSet<Long> active = new TreeSet<>();
+
+    @Test
+    void blockedPostingsFollowChanges() {
+        for (long id = 1; id <= 1_500; id++) {
+            active.add(id);
+        }
+        when(repo.countActive()).thenAnswer(call -> (long) active.size());
+        doAnswer(call -> {
+            RowConsumer action = call.getArgument(0);
+            active.forEach(id -> action.accept(text(id)));
+            return null;
+        }).when(repo).forEachActive(any());
+        when(repo.findActive(anyLong())).thenAnswer(call -> {
+            long id = call.getArgument(0);
+            return active.contains(id) ? Optional.of(text(id)) : Optional.empty();
+        });
+        index.reload();
+        assertMatchesActive();
+
+        // Altas al final: el último bloque se parte
+        for (long id = 1_501; id <= 2_200; id++) {
+            change(id, true);
+        }
+        assertMatchesActive();
+        // Bajas en los bordes de los bloques y un bloque completo
+        for (long id : new long[] {1, 512, 513, 1_024, 1_025, 2_200}) {
+            change(id, false);
+        }
+        for (long id = 600; id <= 1_200; id++) {
+            change(id, false);
+        }
+        assertMatchesActive();
+        change(1_000, true);
+        change(1, true);
+        assertMatchesActive();
+        assertEquals(active.size(), index.size());
+    }
+
+    @Test
+    void changesCommittedDuringFirstLoadAreApplied() throws Exception {
+        for (long id = 1; id <= 10; id++) {
+            active.add(id);
+        }
+        when(repo.countActive()).thenAnswer(call -> (long) active.size());
+        when(repo.findActive(anyLong())).thenAnswer(call -> {
+            long id = call.getArgument(0);
+            return active.contains(id) ? Optional.of(text(id)) : Optional.empty();
+        });
+        doAnswer(call -> {
+            RowConsumer action = call.getArgument(0);
+            for (long id : List.copyOf(active)) {
+                action.accept(text(id));
+                if (id == 5) {
+                    // Otro hilo confirma cambios de filas ya leídas y de filas por leer
+                    CompletableFuture.runAsync(() -> {
+                        change(3, false);
+                        change(11, true);
+                    }).get(5, TimeUnit.SECONDS);
+                }
+            }
+            return null;
+        }).when(repo).forEachActive(any());
+
+        // Antes de la carga el cambio se descarta: la carga lo verá
+        change(2, false);
+        index.reload();
+
+        assertMatchesActive();
+        assertEquals(List.of(11L, 10L, 9L, 8L, 7L, 6L, 5L, 4L, 1L), ids(index.search("cafe", 20)));
+    }
+
+    private void change(long id, boolean activate) {
+        if (activate) {
+            active.add(id);
+        } else {
+            active.remove(id);
+        }
+        index.onCatalogChanged(CatalogChangedEvent.product(id));
+    }
+
+    private void assertMatchesActive() {
+        List<Long> expected = active.descendingSet().stream().toList();
+        assertEquals(expected, ids(index.search("cafe", 5_000)));
+        assertEquals(expected, ids(index.search("cafe molido", 5_000)));
+    }
+
+    private static List<Long> ids(List<FuzzySearchIndex.Hit> hits) {
+        return hits.stream().map(FuzzySearchIndex.Hit::id).toList();
+    }
+
+    private static ProductText text(long id) {
+        return new ProductText(id, "Cafe molido", null);
+    }
+}
@@ -0,0 +1,141 @@
+package com.mposglobal.backoffice.service;
+
+import static com.mposglobal.backoffice.service.ProductRequests.product;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.mposglobal.backoffice.dto.CategoryRequest;
+import com.mposglobal.backoffice.dto.CategoryResponse;
+import com.mposglobal.backoffice.dto.ProductResponse;
+import com.mposglobal.backoffice.dto.UserRequest;
+import com.mposglobal.backoffice.dto.UserResponse;
+import com.mposglobal.backoffice.service.GlobalSearchService.SearchPage;
+import com.mposglobal.backoffice.service.GlobalSearchService.SearchResults;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verifica que la búsqueda global agrupe por tipo, oculte los usuarios a quien no es ADMIN,
+ * pagine cada grupo con su cursor y siga las altas, los cambios y las desactivaciones.
+ */
+@SpringBootTest
+@ActiveProfiles("embedded")
+class GlobalSearchServiceTest {
+
+    @Autowired
+    private GlobalSearchService searchService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void groupsByTypeAndHidesUsersFromNonAdmins() {
+        authenticate("ROLE_ADMIN");
+        UserResponse user = userService.create(user("xochitl.admin", "Xochitl Moreno"));
+        CategoryResponse category = categoryService.create(category("Xochitles de Barro"));
+        ProductResponse product = productService.create(product("Figura Xochitl", category.getId()));
+
+        SearchResults admin = searchService.search("xochi", null, null, 10);
+        assertEquals(List.of(user.getId()), admin.usuarios().items().stream().map(UserResponse::getId).toList());
+        assertEquals(List.of(category.getId()), admin.categorias().items().stream().map(CategoryResponse::getId).toList());
+        assertEquals(List.of(product.getId()), admin.productos().items().stream().map(ProductResponse::getId).toList());
+
+        authenticate("ROLE_USER");
+        SearchResults plain = searchService.search("xochi", null, null, 10);
+        assertNull(plain.usuarios());
+        assertEquals(1, plain.productos().items().size());
+        assertThrows(AccessDeniedException.class, () -> searchService.search("xochi", "USUARIO", null, 10));
+        assertThrows(IllegalArgumentException.class, () -> searchService.search("xochi", null, 5L, 10));
+
+        authenticate("ROLE_ADMIN");
+        userService.patch(user.getId(), Map.of("username", "quirino.admin", "nombreCompleto", "Quirino Moreno"), null);
+        categoryService.deactivate(category.getId());
+        SearchResults changed = searchService.search("xochi", null, null, 10);
+        assertTrue(changed.usuarios().items().isEmpty());
+        assertTrue(changed.categorias().items().isEmpty());
+        assertEquals(1, searchService.search("quirino moreno", "usuario", null, 10).usuarios().items().size());
+    }
+
+    @Test
+    void pagesEachGroupWithStableCursors() {
+        ProductResponse first = productService.create(product("Tetera Oolong Roja", 1L));
+        ProductResponse second = productService.create(product("Tetera Oolong Azul", 1L));
+        ProductResponse third = productService.create(product("Tetera Oolong Verde", 1L));
+
+        SearchPage<ProductResponse> page = searchService.search("oolong tet", "PRODUCTO", null, 2).productos();
+        assertEquals(List.of(third.getId(), second.getId()), ids(page));
+        assertEquals(second.getId(), page.nextCursor());
+
+        // Un alta entre páginas no desplaza la página siguiente
+        productService.create(product("Tetera Oolong Negra", 1L));
+        SearchPage<ProductResponse> next = searchService.search("oolong tet", "PRODUCTO", page.nextCursor(), 2).productos();
+        assertEquals(List.of(first.getId()), ids(next));
+        assertNull(next.nextCursor());
+
+        productService.deactivate(first.getId());
+        assertTrue(searchService.search("oolong", "PRODUCTO", page.nextCursor(), 2).productos().items().isEmpty());
+    }
+
+    @Test
+    void hidesCategoriesUnderDeactivatedAncestors() {
+        CategoryResponse parent = categoryService.create(category("Ybirapitas Raiz"));
+        CategoryRequest request = category("Ybirapitas Hoja");
+        request.setPadre(parent.getId());
+        CategoryResponse child = categoryService.create(request);
+        assertEquals(2, searchService.search("ybirapitas", "CATEGORIA", null, 10).categorias().items().size());
+
+        // La hija sigue ACTIVO por sí misma, pero su estado efectivo es DESACTIVADO
+        categoryService.deactivate(parent.getId());
+        assertTrue(searchService.search("ybirapitas", "CATEGORIA", null, 10).categorias().items().isEmpty());
+        assertTrue(searchService.search("ybirapitas hoja", null, null, 10).categorias().items().isEmpty(),
+                "categoria " + child.getId());
+    }
+
+    private static List<Long> ids(SearchPage<ProductResponse> page) {
+        return page.items().stream().map(ProductResponse::getId).toList();
+    }
+
+    private static void authenticate(String role) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "buscador", null, List.of(new SimpleGrantedAuthority(role))));
+    }
+
+    private static UserRequest user(String username, String nombreCompleto) {
+        UserRequest request = new UserRequest();
+        request.setUsername(username);
+        request.setNombreCompleto(nombreCompleto);
+        request.setClave("Clave123!");
+        request.setNivelAcceso("USER");
+        return request;
+    }
+
+    private static CategoryRequest category(String nombre) {
+        CategoryRequest request = new CategoryRequest();
+        request.setNombre(nombre);
+        return request;
+    }
+}
@@ -0,0 +1,141 @@
+package com.mposglobal.backoffice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.mposglobal.backoffice.exceptions.LoginThrottledException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verifica el calendario de bloqueos, el decaimiento del puntaje y el límite de entradas en
+ * memoria de {@link LoginAttemptService}, con un reloj controlado por la prueba.
+ */
+class LoginAttemptServiceTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private LoginAttemptService service(int maxEntries) {
+        return new LoginAttemptService(3, 20, Duration.ofSeconds(1), Duration.ofSeconds(8), Duration.ofMinutes(10),
+                maxEntries, registry, now::get);
+    }
+
+    @Test
+    void lockoutDoublesAfterFreeFailuresUpToMax() {
+        LoginAttemptService service = service(100);
+        for (int i = 0; i < 3; i++) {
+            service.onFailure("Cajero", "10.0.0.1");
+            service.checkAllowed("cajero", "10.0.0.1");
+        }
+
+        // 4º fallo: 1 s; luego 2, 4, 8 y el máximo de 8 s
+        for (long expected : new long[] {1, 2, 4, 8, 8}) {
+            service.onFailure("cajero", "10.0.0.1");
+            assertEquals(expected, retryAfter(service, " CAJERO ", "10.0.0.2"));
+            advance(Duration.ofSeconds(expected));
+            service.checkAllowed("cajero", "10.0.0.2");
+        }
+
+        // Un ingreso correcto olvida los fallos del usuario
+        service.onFailure("cajero", "10.0.0.1");
+        service.onSuccess("cajero");
+        service.checkAllowed("cajero", "10.0.0.1");
+    }
+
+    @Test
+    void addressIsLockedIndependentlyOfUser() {
+        LoginAttemptService service = service(100);
+        for (int i = 0; i < 21; i++) {
+            service.onFailure("usuario" + i, "10.0.0.9");
+        }
+        assertEquals(1, retryAfter(service, "otro", "10.0.0.9"));
+        service.onSuccess("otro");
+        assertEquals(1, retryAfter(service, "otro", "10.0.0.9"));
+        service.checkAllowed("otro", "10.0.0.10");
+    }
+
+    @Test
+    void scoreDecaysWithHalfLifeAndEntriesAreSwept() {
+        LoginAttemptService service = service(100);
+        for (int i = 0; i < 4; i++) {
+            service.onFailure("decae", "10.0.1.1");
+        }
+        assertEquals(1, retryAfter(service, "decae", "10.0.1.1"));
+
+        // Una vida media deja el puntaje en 2: el siguiente fallo (3) sigue dentro de los libres
+        advance(Duration.ofMinutes(10));
+        service.checkAllowed("decae", "10.0.1.1");
+        service.onFailure("decae", "10.0.1.1");
+        service.checkAllowed("decae", "10.0.1.1");
+        service.onFailure("decae", "10.0.1.1");
+        assertEquals(1, retryAfter(service, "decae", "10.0.1.1"));
+
+        assertEquals(1.0, tracked("user"));
+        advance(Duration.ofHours(2));
+        service.evictDecayed();
+        assertEquals(0.0, tracked("user"));
+        assertEquals(0.0, tracked("address"));
+    }
+
+    @Test
+    void trackedEntriesStayBounded() {
+        LoginAttemptService service = service(50);
+        for (int i = 0; i < 1_000; i++) {
+            service.onFailure("bot" + i, "10.1." + (i / 250) + "." + (i % 250));
+            advance(Duration.ofMillis(1));
+        }
+        assertTrue(tracked("user") <= 50, "usuarios " + tracked("user"));
+        assertTrue(tracked("address") <= 50, "direcciones " + tracked("address"));
+        // La entrada más reciente sigue presente
+        service.onFailure("bot999", "10.1.3.249");
+        service.onFailure("bot999", "10.1.3.249");
+        service.onFailure("bot999", "10.1.3.249");
+        assertEquals(1, retryAfter(service, "bot999", "10.2.0.1"));
+    }
+
+    @Test
+    void sprayOfNewNamesNeverEvictsActiveLockouts() {
+        LoginAttemptService service = service(50);
+        for (int i = 0; i < 4; i++) {
+            service.onFailure("admin", "10.3.0.1");
+        }
+        service.onFailure("viejo", "10.3.0.2");
+        for (int i = 0; i < 1_000; i++) {
+            // Toda la ráfaga dura 100 ms: el bloqueo de 1 s de "admin" sigue vigente
+            advance(Duration.ofNanos(100_000));
+            service.onFailure("spray" + i, "10.4." + (i / 250) + "." + (i % 250));
+        }
+        assertTrue(retryAfter(service, "admin", "10.5.0.1") > 0);
+        assertTrue(tracked("user") <= 51, "usuarios " + tracked("user"));
+        // Se descartan las de fallo más antiguo: "viejo" ya no está y "spray999" sí
+        service.onFailure("viejo", "10.3.0.2");
+        service.onFailure("viejo", "10.3.0.2");
+        service.onFailure("viejo", "10.3.0.2");
+        service.checkAllowed("viejo", "10.5.0.1");
+        service.onFailure("spray999", "10.5.0.2");
+        service.onFailure("spray999", "10.5.0.2");
+        service.onFailure("spray999", "10.5.0.2");
+        assertEquals(1, retryAfter(service, "spray999", "10.5.0.1"));
+    }
+
+    private static long retryAfter(LoginAttemptService service, String username, String address) {
+        return assertThrows(LoginThrottledException.class, () -> service.checkAllowed(username, address))
+                .getRetryAfterSeconds();
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    private double tracked(String key) {
+        return registry.get("login.throttle.tracked").tag("key", key).gauge().value();
+    }
+}
@@ -0,0 +1,84 @@
+package com.mposglobal.backoffice.service;
+
+import static com.mposglobal.backoffice.service.ProductRequests.tagged;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.mposglobal.backoffice.dto.ProductResponse;
+import com.mposglobal.backoffice.exceptions.PreconditionFailedException;
+
+/**
+ * Verifica la semántica JSON Merge Patch de {@code PATCH /products/{id}}: solo cambian los campos
+ * presentes, {@code null} borra un campo opcional, los campos desconocidos u obligatorios en
+ * {@code null} se rechazan, cada cambio incrementa la versión una vez y la versión esperada se
+ * respeta.
+ */
+@SpringBootTest
+@ActiveProfiles("embedded")
+class MergePatchTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void presentFieldsChangeAndNullRemoves() {
+        ProductResponse created = productService.create(tagged("Parche A", "uno,dos"));
+
+        ProductResponse priced = productService.patch(created.getId(), Map.of("precio", 3.5), null);
+        assertEquals(3.5, priced.getPrecio());
+        assertEquals("Parche A", priced.getNombre());
+        assertEquals("uno,dos", priced.getTags());
+        assertEquals(created.getVersion() + 1, priced.getVersion());
+
+        Map<String, Object> removeTags = new HashMap<>();
+        removeTags.put("tags", null);
+        ProductResponse untagged = productService.patch(created.getId(), removeTags, priced.getVersion());
+        assertNull(untagged.getTags());
+        assertEquals(3.5, untagged.getPrecio());
+        assertEquals(priced.getVersion() + 1, untagged.getVersion());
+
+        // Un documento vacío no escribe nada ni cambia la versión
+        assertEquals(untagged.getVersion(), productService.patch(created.getId(), Map.of(), untagged.getVersion()).getVersion());
+    }
+
+    @Test
+    void invalidDocumentsAndStaleVersionsAreRejected() {
+        ProductResponse created = productService.create(tagged("Parche B", null));
+        Long id = created.getId();
+        Map<String, Object> removeName = new HashMap<>();
+        removeName.put("nombre", null);
+
+        assertThrows(IllegalArgumentException.class, () -> productService.patch(id, Map.of("estado", "ACTIVO"), null));
+        assertThrows(IllegalArgumentException.class, () -> productService.patch(id, removeName, null));
+        assertThrows(IllegalArgumentException.class, () -> productService.patch(id, Map.of("precio", "caro"), null));
+        // Sin conversiones silenciosas: ni números u objetos como texto ni IDs truncados
+        assertThrows(IllegalArgumentException.class, () -> productService.patch(id, Map.of("nombre", 123), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.patch(id, Map.of("nombre", Map.of("a", 1)), null));
+        assertThrows(IllegalArgumentException.class, () -> productService.patch(id, Map.of("tags", 5), null));
+        assertThrows(IllegalArgumentException.class, () -> productService.patch(id, Map.of("categoria", 1.9), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.patch(id, Map.of("codigosBarra", List.of(4006381333931L)), null));
+        assertEquals(created.getVersion(), productService.findById(id).getVersion());
+        assertThrows(PreconditionFailedException.class,
+                () -> productService.patch(id, Map.of("nombre", "Parche B2"), created.getVersion() + 1));
+        assertThrows(PreconditionFailedException.class, () -> productService.patch(id, Map.of(), created.getVersion() + 1));
+
+        ProductResponse renamed = productService.patch(id, Map.of("nombre", "Parche B2"), created.getVersion());
+        assertEquals("Parche B2", renamed.getNombre());
+        assertEquals(created.getVersion() + 1, renamed.getVersion());
+        assertThrows(PreconditionFailedException.class,
+                () -> productService.patch(id, Map.of("nombre", "Parche B3"), created.getVersion()));
+        assertEquals("Parche B2", productService.findById(id).getNombre());
+    }
+}
@@ -0,0 +1,72 @@
+package com.mposglobal.backoffice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mposglobal.backoffice.dto.ProductResponse;
+import com.mposglobal.backoffice.repository.ProductRepository;
+import com.mposglobal.backoffice.util.Constant;
+import com.mposglobal.backoffice.util.Money;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Verifica que el índice por categoría del almacén fuera del heap siga a cada cambio de producto
+ * (alta, cambio de categoría, desactivación y borrado) sin recargar la tabla.
+ */
+class OffHeapProductStoreTest {
+
+    private final ProductRepository repo = mock(ProductRepository.class);
+    private final OffHeapProductStore store = new OffHeapProductStore(repo, mock(PlatformTransactionManager.class),
+            new ObjectMapper(), new SimpleMeterRegistry());
+
+    @Test
+    void categoryIndexFollowsRefreshes() {
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= 6; id++) {
+            rows.add(row(id, id % 2 == 0 ? 20 : 10, Constant.ACTIVO, 0));
+        }
+        when(repo.count()).thenReturn((long) rows.size());
+        when(repo.streamCatalogRows()).thenReturn(rows.stream());
+        store.reload();
+        assertEquals(List.of(1L, 3L, 5L), ids(10));
+        assertEquals(List.of(2L, 4L, 6L), ids(20));
+
+        refresh(7, row(7, 10, Constant.ACTIVO, 0));
+        refresh(3, row(3, 20, Constant.ACTIVO, 1));
+        refresh(4, row(4, 20, Constant.DESACTIVADO, 1));
+        refresh(6, null);
+        refresh(2, row(2, 30, Constant.ACTIVO, 1));
+        assertEquals(List.of(1L, 5L, 7L), ids(10));
+        assertEquals(List.of(3L), ids(20));
+        assertEquals(List.of(2L), ids(30));
+
+        refresh(3, row(3, 30, Constant.ACTIVO, 2));
+        refresh(4, row(4, 30, Constant.ACTIVO, 2));
+        assertEquals(List.of(), ids(20));
+        assertEquals(List.of(2L, 3L, 4L), ids(30));
+        assertEquals(List.of(), ids(99));
+    }
+
+    private void refresh(long id, Object[] row) {
+        when(repo.findCatalogRow(id)).thenReturn(row == null ? List.of() : List.<Object[]>of(row));
+        store.refresh(id);
+    }
+
+    private List<Long> ids(long categoryId) {
+        return store.activeProducts(categoryId, c -> "Categoria " + c).stream().map(ProductResponse::getId).toList();
+    }
+
+    private static Object[] row(long id, long categoriaId, String estado, long version) {
+        return new Object[] {id, "Producto " + id, categoriaId, Money.ofCents(100), Money.ofCents(200), null, estado,
+                null, null, version};
+    }
+}
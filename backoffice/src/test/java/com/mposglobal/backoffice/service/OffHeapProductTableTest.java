@@ -0,0 +1,89 @@
+package com.mposglobal.backoffice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.mposglobal.backoffice.service.CatalogSnapshot.Checksum;
+import com.mposglobal.backoffice.service.CatalogSnapshot.ProductEntry;
+import com.mposglobal.backoffice.util.Constant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+class OffHeapProductTableTest {
+
+    @Test
+    void growsAndKeepsEveryRowReachable() {
+        OffHeapProductTable table = new OffHeapProductTable(4);
+        for (long id = 1; id <= 10_000; id++) {
+            table.upsert(product(id, "Producto " + id, "tag" + (id % 7), Constant.ACTIVO, 0));
+        }
+
+        OffHeapProductTable.Row row = new OffHeapProductTable.Row();
+        assertTrue(table.read(7_777, row));
+        assertEquals("Producto 7777", table.strings().get(row.nombre));
+        assertEquals("tag0", table.strings().get(row.tags));
+        assertEquals(new Checksum(10_000, 50_005_000, 0), table.checksum());
+
+        List<Long> ids = new ArrayList<>();
+        table.forEachActive(row, r -> ids.add(r.id));
+        assertEquals(10_000, ids.size());
+        assertEquals(1L, ids.get(0));
+    }
+
+    @Test
+    void updatesDeactivationsAndRemovalsAdjustChecksum() {
+        OffHeapProductTable table = new OffHeapProductTable(16);
+        table.upsert(product(1, "A", "x", Constant.ACTIVO, 0));
+        table.upsert(product(2, "B", null, Constant.ACTIVO, 0));
+        table.upsert(product(3, "C", "x", Constant.ACTIVO, 0));
+
+        table.upsert(product(1, "A2", "x", Constant.ACTIVO, 4));
+        table.upsert(product(2, "B", null, Constant.DESACTIVADO, 1));
+        table.remove(3);
+
+        OffHeapProductTable.Row row = new OffHeapProductTable.Row();
+        assertTrue(table.read(1, row));
+        assertEquals("A2", table.strings().get(row.nombre));
+        assertFalse(table.read(2, row));
+        assertFalse(table.read(3, row));
+        assertFalse(table.read(99, row));
+        assertEquals(new Checksum(1, 1, 4), table.checksum());
+        assertNull(table.strings().get(0));
+    }
+
+    @Test
+    void readersNeverSeeTornRows() throws InterruptedException {
+        OffHeapProductTable table = new OffHeapProductTable(16);
+        table.upsert(product(1, "v0", "t", Constant.ACTIVO, 0));
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<String> torn = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            OffHeapProductTable.Row row = new OffHeapProductTable.Row();
+            while (!stop.get()) {
+                if (table.read(1, row) && row.costo != row.version) {
+                    torn.set("costo " + row.costo + " version " + row.version);
+                }
+            }
+        });
+        reader.start();
+        for (long v = 1; v <= 200_000; v++) {
+            table.upsert(new ProductEntry(1, "v", 1, v, 100, "t", Constant.ACTIVO, null, null, v));
+        }
+        stop.set(true);
+        reader.join();
+
+        assertNull(torn.get());
+    }
+
+    private static ProductEntry product(long id, String nombre, String tags, String estado, long version) {
+        return new ProductEntry(id, nombre, 1, version, 200, tags, estado, 0L, null, version);
+    }
+}
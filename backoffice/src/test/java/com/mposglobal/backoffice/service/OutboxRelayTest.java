@@ -0,0 +1,156 @@
+package com.mposglobal.backoffice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import com.mposglobal.backoffice.config.OutboxProperties;
+import com.mposglobal.backoffice.event.OutboxMessage;
+import com.mposglobal.backoffice.event.OutboxSubscriber;
+import com.mposglobal.backoffice.repository.OutboxRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+class OutboxRelayTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final FakeRepository repo = new FakeRepository();
+    private final RecordingSubscriber subscriber = new RecordingSubscriber();
+
+    @Test
+    void failedBatchStaysPendingAndIsDeliveredAgain() {
+        OutboxRelay relay = relay(2);
+        for (long id = 1; id <= 5; id++) {
+            repo.add(id, System.currentTimeMillis() - 60_000);
+        }
+        subscriber.failAfter = 1;
+
+        assertEquals(2, relay.relay());
+        assertEquals(3, repo.pending().size());
+        assertTrue(registry.get("outbox.lag").gauge().value() >= 59, "el más antiguo pendiente tiene un minuto");
+
+        subscriber.failAfter = Integer.MAX_VALUE;
+        assertEquals(3, relay.relay());
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 3L, 4L, 5L), subscriber.received);
+        assertEquals(0, repo.pending().size());
+        assertEquals(0, registry.get("outbox.lag").gauge().value());
+        assertEquals(5, registry.counter("outbox.delivered").count());
+    }
+
+    @Test
+    void withoutSubscribersEventsStayPending() {
+        OutboxRelay relay = relay(2, new OutboxSubscriber[0]);
+        for (long id = 1; id <= 3; id++) {
+            repo.add(id, System.currentTimeMillis() - 60_000);
+        }
+
+        assertEquals(0, relay.relay());
+        assertEquals(0, relay.compact());
+        assertEquals(List.of(1L, 2L, 3L), repo.pending());
+        assertEquals(3, registry.get("outbox.pending").gauge().value());
+        assertEquals(0, registry.counter("outbox.delivered").count());
+    }
+
+    @Test
+    void compactionDeletesProcessedRowsInChunks() {
+        OutboxRelay relay = relay(100);
+        for (long id = 1; id <= 5; id++) {
+            repo.add(id, System.currentTimeMillis());
+        }
+        relay.relay();
+        repo.add(6, System.currentTimeMillis());   // pendiente: no se compacta
+
+        assertEquals(5, relay.compact());
+        assertEquals(List.of(6L), new ArrayList<>(repo.rows.keySet()));
+    }
+
+    private OutboxRelay relay(int batchSize) {
+        return relay(batchSize, subscriber);
+    }
+
+    private OutboxRelay relay(int batchSize, OutboxSubscriber... targets) {
+        OutboxProperties properties = new OutboxProperties();
+        properties.setBatchSize(batchSize);
+        properties.setCompactionChunk(2);
+        properties.setRetention(Duration.ZERO);
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        for (int i = 0; i < targets.length; i++) {
+            beans.addBean("subscriber" + i, targets[i]);
+        }
+        return new OutboxRelay(repo, properties, beans.getBeanProvider(OutboxSubscriber.class), registry);
+    }
+
+    /**
+     * Suscriptor que registra los IDs recibidos y falla a partir del lote indicado.
+     */
+    private static final class RecordingSubscriber implements OutboxSubscriber {
+
+        private final List<Long> received = new ArrayList<>();
+        private int failAfter = Integer.MAX_VALUE;
+        private int batches;
+
+        @Override
+        public void deliver(List<OutboxMessage> messages) {
+            messages.forEach(m -> received.add(m.id()));
+            if (++batches > failAfter) {
+                throw new IllegalStateException("destino no disponible");
+            }
+        }
+    }
+
+    /**
+     * Tabla del outbox en memoria.
+     */
+    private static final class FakeRepository extends OutboxRepository {
+
+        private final TreeMap<Long, long[]> rows = new TreeMap<>(); // id -> {fecha, fechaProcesado o 0}
+
+        FakeRepository() {
+            super(null);
+        }
+
+        void add(long id, long fecha) {
+            rows.put(id, new long[] {fecha, 0});
+        }
+
+        List<Long> pending() {
+            return rows.entrySet().stream().filter(e -> e.getValue()[1] == 0).map(e -> e.getKey()).toList();
+        }
+
+        @Override
+        public List<OutboxMessage> findPending(int limit) {
+            return pending().stream().limit(limit)
+                    .map(id -> new OutboxMessage(id, "PRODUCTO", id, "ACTUALIZAR", "{}", rows.get(id)[0]))
+                    .toList();
+        }
+
+        @Override
+        public void markProcessed(List<Long> ids, Timestamp now) {
+            ids.forEach(id -> rows.get(id)[1] = now.getTime());
+        }
+
+        @Override
+        public Backlog backlog() {
+            List<Long> pending = pending();
+            return new Backlog(pending.size(), pending.isEmpty() ? null : rows.get(pending.get(0))[0]);
+        }
+
+        @Override
+        public int compact(Timestamp before, int limit) {
+            List<Long> old = rows.entrySet().stream()
+                    .filter(e -> e.getValue()[1] != 0 && e.getValue()[1] <= before.getTime())
+                    .map(e -> e.getKey()).limit(limit).toList();
+            old.forEach(rows::remove);
+            return old.size();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.mposglobal.backoffice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mposglobal.backoffice.dto.ProductRequest;
+import com.mposglobal.backoffice.dto.ProductResponse;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verifica que cada cambio de producto deja su evento en el outbox con el estado nuevo y que
+ * un cambio revertido no deja ninguno.
+ */
+@SpringBootTest
+@ActiveProfiles("embedded")
+class OutboxServiceTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void committedChangesAreWrittenInOrder() {
+        ProductResponse created = productService.create(request("Outbox A", 8.00));
+        productService.update(created.getId(), request("Outbox A", 9.00));
+        productService.deactivate(created.getId());
+
+        List<Map<String, Object>> rows = events(created.getId());
+
+        assertEquals(List.of("CREAR", "ACTUALIZAR", "DESACTIVAR"), rows.stream().map(r -> r.get("accion")).toList());
+        assertTrue(((String) rows.get(1).get("datos")).contains("\"precio\":9.0"));
+        assertTrue(((String) rows.get(2).get("datos")).contains("\"estado\":\"DESACTIVADO\""));
+        assertTrue(((String) rows.get(2).get("datos")).contains("\"version\":2"), "versión ya incrementada");
+    }
+
+    @Test
+    void rolledBackChangeLeavesNoEvent() {
+        ProductResponse created = productService.create(request("Outbox B", 3.00));
+
+        new TransactionTemplate(txManager).executeWithoutResult(status -> {
+            productService.update(created.getId(), request("Outbox B", 4.00));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(List.of("CREAR"), events(created.getId()).stream().map(r -> r.get("accion")).toList());
+    }
+
+    private List<Map<String, Object>> events(Long productId) {
+        return jdbc.queryForList("SELECT accion, datos FROM Outbox WHERE tipo = 'PRODUCTO' AND entidadId = ? "
+                + "ORDER BY id", productId);
+    }
+
+    private static ProductRequest request(String nombre, double precio) {
+        ProductRequest request = new ProductRequest();
+        request.setNombre(nombre);
+        request.setCategoria(1L);
+        request.setCosto(1.00);
+        request.setPrecio(precio);
+        return request;
+    }
+}
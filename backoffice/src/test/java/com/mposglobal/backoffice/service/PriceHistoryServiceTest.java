@@ -0,0 +1,118 @@
+package com.mposglobal.backoffice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mposglobal.backoffice.dto.PriceHistoryResponse;
+import com.mposglobal.backoffice.dto.ProductRequest;
+import com.mposglobal.backoffice.dto.ProductResponse;
+import com.mposglobal.backoffice.exceptions.PreconditionFailedException;
+
+/**
+ * Verifica que los cambios de precio quedan en el historial al confirmar la transacción, que una
+ * escritura que reenvía los mismos importes no agrega entradas, que un rollback no deja filas, y
+ * las consultas por rango y por fecha de la categoría.
+ */
+@SpringBootTest
+@ActiveProfiles("embedded")
+class PriceHistoryServiceTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    @Test
+    void priceChangesAreRecordedInOrder() {
+        ProductResponse created = productService.create(request("Historial A", 1L, 5.00, 9.99));
+        productService.update(created.getId(), request("Historial A", 1L, 5.00, 11.49));
+        productService.update(created.getId(), request("Historial A renombrado", 1L, 5.00, 11.49));
+
+        List<PriceHistoryResponse> history = priceHistoryService.findRange(created.getId(), null, null);
+
+        assertEquals(2, history.size(), "renombrar no cambia el precio");
+        assertEquals(9.99, history.get(0).getPrecio());
+        assertEquals(11.49, history.get(1).getPrecio());
+    }
+
+    @Test
+    void conditionalWritesRecordOnlyActualChanges() {
+        ProductResponse created = productService.create(request("Historial D", 1L, 4.00, 6.00));
+        ProductResponse renamed = productService.update(created.getId(), request("Historial D2", 1L, 4.00, 6.00),
+                created.getVersion());
+        ProductResponse samePrice = productService.patch(created.getId(), Map.of("precio", 6.00, "costo", 4.00),
+                renamed.getVersion());
+        ProductResponse repriced = productService.patch(created.getId(), Map.of("categoria", 1L, "precio", 6.50),
+                samePrice.getVersion());
+
+        List<PriceHistoryResponse> history = priceHistoryService.findRange(created.getId(), null, null);
+
+        assertEquals(2, history.size(), "reenviar los mismos importes no es un cambio");
+        assertEquals(6.00, history.get(0).getPrecio());
+        assertEquals(6.50, history.get(1).getPrecio());
+
+        // Las respuestas se arman sin releer el producto: deben coincidir con lo guardado
+        ProductResponse stored = productService.findById(created.getId());
+        assertEquals(created.getVersion() + 3, repriced.getVersion());
+        assertEquals(stored.getVersion(), repriced.getVersion());
+        assertEquals(stored.getNombre(), repriced.getNombre());
+        assertEquals(stored.getCategoria(), repriced.getCategoria());
+        assertEquals(stored.getPrecio(), repriced.getPrecio());
+        assertEquals(stored.getCosto(), repriced.getCosto());
+        assertEquals("Historial D2", renamed.getNombre());
+        assertEquals(created.getVersion() + 1, renamed.getVersion());
+        assertThrows(PreconditionFailedException.class, () -> productService.update(created.getId(),
+                request("Historial D3", 1L, 4.00, 6.50), renamed.getVersion()));
+    }
+
+    @Test
+    void rolledBackChangeLeavesNoHistory() {
+        ProductResponse created = productService.create(request("Historial B", 1L, 2.00, 3.00));
+
+        new TransactionTemplate(txManager).executeWithoutResult(status -> {
+            productService.update(created.getId(), request("Historial B", 1L, 2.00, 4.00));
+            status.setRollbackOnly();
+        });
+
+        List<PriceHistoryResponse> history = priceHistoryService.findRange(created.getId(), null, null);
+        assertEquals(1, history.size());
+        assertEquals(3.00, history.get(0).getPrecio());
+    }
+
+    @Test
+    void categoryAtReturnsLatestPricePerProduct() {
+        ProductResponse created = productService.create(request("Historial C", 2L, 1.00, 1.50));
+        productService.update(created.getId(), request("Historial C", 2L, 1.00, 1.75));
+
+        PriceHistoryResponse current = priceHistoryService.findCategoryAt(2L, null).stream()
+                .filter(p -> p.getProductoId().equals(created.getId()))
+                .findFirst().orElseThrow();
+
+        assertEquals(1.75, current.getPrecio());
+        assertThrows(IllegalArgumentException.class,
+                () -> priceHistoryService.findRange(created.getId(), "ayer", null));
+    }
+
+    private static ProductRequest request(String nombre, Long categoria, double costo, double precio) {
+        ProductRequest request = new ProductRequest();
+        request.setNombre(nombre);
+        request.setCategoria(categoria);
+        request.setCosto(costo);
+        request.setPrecio(precio);
+        return request;
+    }
+}
@@ -0,0 +1,40 @@
+package com.mposglobal.backoffice.service;
+
+import java.util.List;
+
+import com.mposglobal.backoffice.dto.ProductRequest;
+
+/**
+ * Solicitudes de alta de producto para las pruebas: categoría 1 salvo que se indique otra,
+ * costo 1,00 y precio 2,00.
+ */
+final class ProductRequests {
+
+    private ProductRequests() {
+    }
+
+    static ProductRequest product(String nombre) {
+        return product(nombre, 1L);
+    }
+
+    static ProductRequest product(String nombre, Long categoria) {
+        ProductRequest request = new ProductRequest();
+        request.setNombre(nombre);
+        request.setCategoria(categoria);
+        request.setCosto(1.00);
+        request.setPrecio(2.00);
+        return request;
+    }
+
+    static ProductRequest tagged(String nombre, String tags) {
+        ProductRequest request = product(nombre);
+        request.setTags(tags);
+        return request;
+    }
+
+    static ProductRequest withBarcodes(String nombre, String... codigos) {
+        ProductRequest request = product(nombre);
+        request.setCodigosBarra(List.of(codigos));
+        return request;
+    }
+}
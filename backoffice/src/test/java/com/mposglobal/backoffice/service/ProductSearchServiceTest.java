@@ -0,0 +1,55 @@
+package com.mposglobal.backoffice.service;
+
+import static com.mposglobal.backoffice.service.ProductRequests.product;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.mposglobal.backoffice.dto.ProductResponse;
+
+/**
+ * Verifica que la búsqueda encuentre nombres mal escritos, prefiera las coincidencias exactas y
+ * siga las altas, los cambios de nombre y las desactivaciones.
+ */
+@SpringBootTest
+@ActiveProfiles("embedded")
+class ProductSearchServiceTest {
+
+    @Autowired
+    private ProductSearchService searchService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private FuzzySearchIndex index;
+
+    @Test
+    void findsMisspelledNamesAndFollowsChanges() {
+        assertTrue(index.isReady());
+        assertEquals(1L, searchService.search("Smartfone XYZ", 10).get(0).getId());
+
+        ProductResponse exacto = productService.create(product("Licuadora Ostrander"));
+        ProductResponse parecido = productService.create(product("Licuadora Ostrandez"));
+        assertEquals(List.of(exacto.getId(), parecido.getId()), ids(searchService.search("ostrander", 10)));
+        assertEquals(List.of(parecido.getId(), exacto.getId()), ids(searchService.search("óstrandez", 10)));
+
+        productService.patch(exacto.getId(), Map.of("nombre", "Batidora Wexford"), null);
+        assertEquals(List.of(parecido.getId()), ids(searchService.search("ostrander", 10)));
+        assertEquals(List.of(exacto.getId()), ids(searchService.search("wexfrd", 10)));
+
+        productService.deactivate(parecido.getId());
+        assertEquals(List.of(), ids(searchService.search("ostrandez", 10)));
+    }
+
+    private static List<Long> ids(List<ProductResponse> products) {
+        return products.stream().map(ProductResponse::getId).toList();
+    }
+}
@@ -0,0 +1,49 @@
+package com.mposglobal.backoffice.service;
+
+import static com.mposglobal.backoffice.service.ProductRequests.tagged;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.mposglobal.backoffice.dto.ProductResponse;
+
+/**
+ * Verifica que los productos relacionados salgan ordenados por parecido de tags y sigan los
+ * cambios de tags y las desactivaciones.
+ */
+@SpringBootTest
+@ActiveProfiles("embedded")
+class RelatedProductsServiceTest {
+
+    @Autowired
+    private RelatedProductsService relatedService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void relatedProductsFollowTagChanges() {
+        ProductResponse base = productService.create(tagged("Carpa Iglu", "camping,Montaña,impermeable"));
+        ProductResponse igual = productService.create(tagged("Carpa Domo", "montana, camping ,impermeable"));
+        ProductResponse parecido = productService.create(tagged("Bolsa de Dormir", "camping,montana,impermeable,invierno"));
+
+        assertEquals(List.of(igual.getId(), parecido.getId()), ids(relatedService.related(base.getId(), 10)));
+        assertEquals(List.of(igual.getId()), ids(relatedService.related(base.getId(), 1)));
+
+        productService.patch(igual.getId(), Map.of("tags", "cocina"), null);
+        productService.deactivate(parecido.getId());
+        assertEquals(List.of(), ids(relatedService.related(base.getId(), 10)));
+        assertThrows(RuntimeException.class, () -> relatedService.related(parecido.getId(), 10));
+    }
+
+    private static List<Long> ids(List<ProductResponse> products) {
+        return products.stream().map(ProductResponse::getId).toList();
+    }
+}
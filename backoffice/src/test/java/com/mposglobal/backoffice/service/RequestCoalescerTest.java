@@ -0,0 +1,113 @@
+package com.mposglobal.backoffice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.mposglobal.backoffice.config.CoalescingProperties;
+import com.mposglobal.backoffice.exceptions.CoalescingTimeoutException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+class RequestCoalescerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService pool = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void concurrentIdenticalCallsShareOneExecution() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer(new CoalescingProperties(), registry);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> result = List.of("a", "b");
+
+        List<Future<List<String>>> calls = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            calls.add(pool.submit(() -> coalescer.execute("products", () -> {
+                executions.incrementAndGet();
+                await(release);
+                return result;
+            })));
+        }
+        waitFor(() -> countOf("leader") + countOf("coalesced") == 8);
+        release.countDown();
+
+        for (Future<List<String>> call : calls) {
+            assertSame(result, call.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        assertEquals(7, countOf("coalesced"));
+    }
+
+    @Test
+    void differentParametersAreNotCoalesced() {
+        RequestCoalescer coalescer = new RequestCoalescer(new CoalescingProperties(), registry);
+
+        assertEquals("1", coalescer.execute("users", () -> "1", 1L, 50));
+        assertEquals("2", coalescer.execute("users", () -> "2", 2L, 50));
+        assertEquals(2, countOf("leader"));
+    }
+
+    @Test
+    void waitingCallerTimesOutAndFailureIsShared() throws Exception {
+        CoalescingProperties properties = new CoalescingProperties();
+        properties.getTimeouts().put("products", Duration.ofMillis(50));
+        RequestCoalescer coalescer = new RequestCoalescer(properties, registry);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Object> leader = pool.submit(() -> coalescer.execute("products", () -> {
+            await(release);
+            throw new IllegalStateException("db down");
+        }));
+        waitFor(() -> countOf("leader") == 1);
+
+        assertThrows(CoalescingTimeoutException.class, () -> coalescer.execute("products", () -> "x"));
+        assertEquals(1, countOf("timeout"));
+
+        Future<Object> follower = pool.submit(() -> coalescer.execute("products", () -> "x"));
+        waitFor(() -> countOf("coalesced") == 2);
+        release.countDown();
+        Exception failure = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertEquals("db down", failure.getCause().getMessage());
+        assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+    }
+
+    private double countOf(String result) {
+        var counter = registry.find("coalescing.requests").tag("result", result).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
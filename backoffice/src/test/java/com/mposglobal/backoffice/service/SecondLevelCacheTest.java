@@ -0,0 +1,74 @@
+package com.mposglobal.backoffice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.mposglobal.backoffice.dto.CategoryRequest;
+import com.mposglobal.backoffice.dto.ProductResponse;
+import com.mposglobal.backoffice.entity.Category;
+
+/**
+ * Verifica que, con la caché de segundo nivel caliente, leer productos no consulta la tabla
+ * de categorías, y que modificar una categoría invalida su entrada.
+ */
+@SpringBootTest
+@ActiveProfiles("embedded")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    private Statistics stats;
+
+    @BeforeEach
+    void setUp() {
+        stats = emf.unwrap(SessionFactory.class).getStatistics();
+        productService.findAllActive(); // calienta la caché
+        stats.clear();
+    }
+
+    @Test
+    void warmProductReadsDoNotSelectCategories() {
+        productService.findAllActive();
+
+        assertEquals(0, stats.getEntityStatistics(Category.class.getName()).getLoadCount());
+        assertEquals(1, stats.getPrepareStatementCount(), "solo la consulta de productos");
+        assertTrue(stats.getDomainDataRegionStatistics("categorias").getHitCount() > 0);
+    }
+
+    @Test
+    void categoryUpdateInvalidatesCachedEntry() {
+        ProductResponse before = productService.findAllActive().get(0);
+        Long categoriaId = categoryService.findAllActive().stream()
+                .filter(c -> c.getNombre().equals(before.getCategoria()))
+                .findFirst().orElseThrow().getId();
+
+        CategoryRequest rename = new CategoryRequest();
+        rename.setNombre(before.getCategoria() + " Renombrada");
+        categoryService.update(categoriaId, rename);
+
+        ProductResponse after = productService.findAllActive().stream()
+                .filter(p -> p.getId().equals(before.getId()))
+                .findFirst().orElseThrow();
+        assertEquals(rename.getNombre(), after.getCategoria());
+
+        rename.setNombre(before.getCategoria());
+        categoryService.update(categoriaId, rename);
+    }
+}
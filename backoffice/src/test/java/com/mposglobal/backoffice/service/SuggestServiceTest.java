@@ -0,0 +1,57 @@
+package com.mposglobal.backoffice.service;
+
+import static com.mposglobal.backoffice.service.ProductRequests.tagged;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.mposglobal.backoffice.dto.ProductResponse;
+
+/**
+ * Verifica que el autocompletado ignore acentos y mayúsculas, combine palabras, ordene por
+ * recencia y siga las altas, los cambios de nombre y las desactivaciones.
+ */
+@SpringBootTest
+@ActiveProfiles("embedded")
+class SuggestServiceTest {
+
+    @Autowired
+    private SuggestService suggestService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductSuggestIndex index;
+
+    @Test
+    void suggestionsFollowProductChanges() {
+        assertTrue(index.isReady());
+        ProductResponse vieja = productService.create(tagged("Cámara Quetzal Réflex", "fotografia"));
+        ProductResponse nueva = productService.create(tagged("Camaron Quetzalteco", "mariscos"));
+
+        assertEquals(List.of(nueva.getId(), vieja.getId()), ids(suggestService.suggest("QUETZ", 10)));
+        assertEquals(List.of(vieja.getId()), ids(suggestService.suggest("camara quetz", 10)));
+        assertEquals(List.of(vieja.getId()), ids(suggestService.suggest("quetzal foto", 10)));
+        assertEquals(List.of(nueva.getId()), ids(suggestService.suggest("quetz", 1)));
+
+        productService.patch(vieja.getId(), Map.of("nombre", "Lente Quiché"), null);
+        assertEquals(List.of(), ids(suggestService.suggest("camara quetz", 10)));
+        assertEquals(List.of(vieja.getId()), ids(suggestService.suggest("quiche", 10)));
+
+        productService.deactivate(nueva.getId());
+        assertEquals(List.of(), ids(suggestService.suggest("quetz", 10)));
+        assertEquals(List.of(), ids(suggestService.suggest("  ¿? ", 10)));
+    }
+
+    private static List<Long> ids(List<ProductResponse> products) {
+        return products.stream().map(ProductResponse::getId).toList();
+    }
+}
@@ -0,0 +1,142 @@
+package com.mposglobal.backoffice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mposglobal.backoffice.dto.UserRequest;
+import com.mposglobal.backoffice.dto.UserResponse;
+import com.mposglobal.backoffice.entity.User;
+import com.mposglobal.backoffice.repository.UserRepository;
+import com.mposglobal.backoffice.service.UserCredentialCache.Credentials;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Verifica que los logins concurrentes del mismo usuario compartan una sola carga, que una carga
+ * fallida no quede en caché y que un cambio del usuario invalide su entrada solo tras el commit.
+ */
+@SpringBootTest
+@ActiveProfiles("embedded")
+class UserCredentialCacheTest {
+
+    @Autowired
+    private UserCredentialCache credentialCache;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        UserRepository repo = mock(UserRepository.class);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        when(repo.findByUsername("caja")).thenAnswer(call -> {
+            loads.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(user(7L, "caja"));
+        });
+        UserCredentialCache cache = new UserCredentialCache(repo, 100, new SimpleMeterRegistry());
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Optional<Credentials>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> cache.find("caja")));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            Credentials first = results.get(0).get(5, TimeUnit.SECONDS).orElseThrow();
+            for (Future<Optional<Credentials>> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS).orElseThrow());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+        assertEquals(7L, cache.find("caja").orElseThrow().id());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void failedAndMissingLoadsAreNotCached() {
+        UserRepository repo = mock(UserRepository.class);
+        AtomicInteger loads = new AtomicInteger();
+        when(repo.findByUsername("inestable")).thenAnswer(call -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new IllegalStateException("base caída");
+            }
+            return Optional.of(user(8L, "inestable"));
+        });
+        when(repo.findByUsername("nadie")).thenReturn(Optional.empty());
+        UserCredentialCache cache = new UserCredentialCache(repo, 100, new SimpleMeterRegistry());
+
+        assertThrows(IllegalStateException.class, () -> cache.find("inestable"));
+        assertEquals(8L, cache.find("inestable").orElseThrow().id());
+        assertTrue(cache.find("nadie").isEmpty());
+        assertTrue(cache.find("nadie").isEmpty());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void userChangeInvalidatesEntryAfterCommit() {
+        UserResponse created = userService.create(request("cacheado"));
+        assertEquals("USER", credentialCache.find("cacheado").orElseThrow().nivelAcceso());
+
+        new TransactionTemplate(txManager).executeWithoutResult(status -> {
+            userService.patch(created.getId(), Map.of("nivelAcceso", "ADMIN"), null);
+            // Antes del commit la entrada sigue siendo la confirmada
+            assertEquals("USER", credentialCache.find("cacheado").orElseThrow().nivelAcceso());
+        });
+        assertEquals("ADMIN", credentialCache.find("cacheado").orElseThrow().nivelAcceso());
+
+        new TransactionTemplate(txManager).executeWithoutResult(status -> {
+            userService.patch(created.getId(), Map.of("nivelAcceso", "USER"), null);
+            status.setRollbackOnly();
+        });
+        assertEquals("ADMIN", credentialCache.find("cacheado").orElseThrow().nivelAcceso());
+    }
+
+    private static User user(Long id, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setClave("$2a$10$hash");
+        user.setNivelAcceso("USER");
+        user.setEstado("ACTIVO");
+        return user;
+    }
+
+    private static UserRequest request(String username) {
+        UserRequest request = new UserRequest();
+        request.setNombreCompleto("Usuario " + username);
+        request.setUsername(username);
+        request.setClave("clave123");
+        request.setNivelAcceso("USER");
+        return request;
+    }
+}
@@ -0,0 +1,70 @@
+package com.mposglobal.backoffice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.mposglobal.backoffice.dto.UserRequest;
+import com.mposglobal.backoffice.dto.UserResponse;
+import com.mposglobal.backoffice.service.UserService.UserPage;
+import com.mposglobal.backoffice.util.Constant;
+
+/**
+ * Verifica el listado paginado de usuarios: el cursor por keyset, los filtros opcionales de
+ * estado y nivel de acceso, y la búsqueda por prefijo sobre el username o el nombre completo
+ * sin repetir a quien coincide por ambos.
+ */
+@SpringBootTest
+@ActiveProfiles("embedded")
+class UserPageTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void filtersSearchAndCursorCombine() {
+        UserResponse byUsername = userService.create(request("paginaA", "Usuario Uno", "USER"));
+        UserResponse byName = userService.create(request("xq_dos", "Pagina Dos", "USER"));
+        UserResponse byBoth = userService.create(request("paginaC", "Paginacion Tres", "USER"));
+        UserResponse admin = userService.create(request("paginaD", "Usuario Cuatro", "ADMIN"));
+        UserResponse inactive = userService.create(request("paginaE", "Usuario Cinco", "USER"));
+        userService.softDeactivate(inactive.getId());
+
+        UserPage first = userService.findPage(null, 2, null, null, "PAGINA");
+        assertEquals(List.of(byUsername.getId(), byName.getId()), ids(first));
+        assertEquals(byName.getId(), first.nextCursor());
+        UserPage second = userService.findPage(first.nextCursor(), 2, null, null, "PAGINA");
+        assertEquals(List.of(byBoth.getId(), admin.getId()), ids(second));
+        assertNull(second.nextCursor());
+
+        assertEquals(List.of(admin.getId()), ids(userService.findPage(null, 10, null, "admin", "pagina")));
+        assertEquals(List.of(inactive.getId()), ids(userService.findPage(null, 10, Constant.DESACTIVADO, null, "pagina")));
+        // Los comodines de LIKE se buscan literalmente
+        assertEquals(List.of(byName.getId()), ids(userService.findPage(null, 10, null, null, "xq_")));
+        assertEquals(List.of(), ids(userService.findPage(null, 10, null, null, "pagina%")));
+
+        UserPage unfiltered = userService.findPage(byUsername.getId() - 1, 2, null, "USER", null);
+        assertEquals(List.of(byUsername.getId(), byName.getId()), ids(unfiltered));
+        assertEquals(byName.getId(), unfiltered.nextCursor());
+        assertEquals(List.of(byBoth.getId()), ids(userService.findPage(unfiltered.nextCursor(), 2, null, "USER", null)));
+    }
+
+    private static List<Long> ids(UserPage page) {
+        return page.items().stream().map(UserResponse::getId).toList();
+    }
+
+    private static UserRequest request(String username, String nombreCompleto, String nivelAcceso) {
+        UserRequest request = new UserRequest();
+        request.setNombreCompleto(nombreCompleto);
+        request.setUsername(username);
+        request.setClave("clave123");
+        request.setNivelAcceso(nivelAcceso);
+        return request;
+    }
+}
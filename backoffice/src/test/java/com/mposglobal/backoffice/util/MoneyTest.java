@@ -0,0 +1,56 @@
+package com.mposglobal.backoffice.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+class MoneyTest {
+
+    @Test
+    void convertsWithoutDoubleDrift() {
+        assertEquals(1999, Money.of(19.99).cents());
+        assertEquals(1000, Money.of(9.995).cents());
+        assertEquals(-1000, Money.of(new BigDecimal("-9.995")).cents());
+        assertEquals(new BigDecimal("0.30"), Money.of(0.1).plus(Money.of(0.2)).toBigDecimal());
+        assertNull(Money.of((Double) null));
+        assertNull(Money.toDouble(null));
+
+        // El double expuesto es el mismo que se obtendría leyendo el decimal como texto
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 10_000; i++) {
+            long cents = random.nextLong(100_000_000L);
+            assertEquals(Double.parseDouble(BigDecimal.valueOf(cents, 2).toPlainString()), Money.toDouble(cents));
+        }
+    }
+
+    @Test
+    void columnsMatchDecimalArithmetic() {
+        long[] costo = {1000, 2550, 99_999_999};
+        long[] precio = {1250, 2550, 100_000_000};
+        long[] margin = new long[3];
+        double[] marginRatio = new double[3];
+        double[] markupRatio = new double[3];
+        long[] taxed = new long[3];
+
+        PriceColumns.margin(costo, precio, margin, 3);
+        PriceColumns.marginRatio(costo, precio, marginRatio, 3);
+        PriceColumns.markupRatio(costo, precio, markupRatio, 3);
+        PriceColumns.withTax(precio, 700, taxed, 3);
+
+        assertArrayEquals(new long[] {250, 0, 1}, margin);
+        assertArrayEquals(new double[] {0.2, 0.0, 1e-8}, marginRatio, 1e-12);
+        assertArrayEquals(new double[] {0.25, 0.0, 1.00000001e-8}, markupRatio, 1e-12);
+        for (int i = 0; i < precio.length; i++) {
+            BigDecimal expected = BigDecimal.valueOf(precio[i], 2).multiply(new BigDecimal("1.07"))
+                    .setScale(2, RoundingMode.HALF_UP);
+            assertEquals(expected, Money.ofCents(taxed[i]).toBigDecimal());
+        }
+        assertEquals(251, PriceColumns.sum(margin, 3));
+    }
+}
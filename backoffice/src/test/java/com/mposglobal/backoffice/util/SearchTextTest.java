@@ -0,0 +1,57 @@
+package com.mposglobal.backoffice.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+class SearchTextTest {
+
+    @Test
+    void foldsAccentsAndSplitsWords() {
+        assertEquals("camara nino", SearchText.fold("Cámara NIÑO"));
+        assertEquals(List.of("smartphone", "xyz", "android", "5g"),
+                List.copyOf(SearchText.terms("Smartphone XYZ", "android,5G,xyz")));
+        assertArrayEquals(new String[] {"^ab", "abc", "bc$"}, SearchText.trigrams("abc"));
+        assertEquals(List.of("algodon organico", "rojo"), List.copyOf(SearchText.tags(" Algodón Orgánico,,ROJO,rojo ")));
+    }
+
+    @Test
+    void boundedEditDistanceMatchesFullMatrix() {
+        assertEquals(2, SearchText.editDistance("smartfone", "smartphone", 2));
+        assertEquals(2, SearchText.editDistance("smartfone", "smartphone", 1));
+
+        // Alfabeto chico para que abunden las coincidencias parciales
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < 20_000; i++) {
+            String a = word(random);
+            String b = word(random);
+            int max = random.nextInt(4);
+            int exact = levenshtein(a, b);
+            assertEquals(Math.min(exact, max + 1), SearchText.editDistance(a, b, max), a + "/" + b + "/" + max);
+        }
+    }
+
+    private static String word(SplittableRandom random) {
+        StringBuilder word = new StringBuilder();
+        for (int i = random.nextInt(9); i > 0; i--) {
+            word.append((char) ('a' + random.nextInt(3)));
+        }
+        return word.toString();
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                d[i][j] = i == 0 ? j : j == 0 ? i : Math.min(
+                        d[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1),
+                        Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}
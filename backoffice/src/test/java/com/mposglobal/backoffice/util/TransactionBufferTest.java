@@ -0,0 +1,60 @@
+package com.mposglobal.backoffice.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class TransactionBufferTest {
+
+    private final List<String> flushed = new ArrayList<>();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void deliversEachBufferOnceAtItsPhase() {
+        TransactionBuffer<String> before = new TransactionBuffer<>(TransactionBuffer.Phase.BEFORE_COMMIT,
+                items -> flushed.add("antes " + items));
+        TransactionBuffer<String> after = new TransactionBuffer<>(TransactionBuffer.Phase.AFTER_COMMIT,
+                items -> flushed.add("despues " + items));
+
+        TransactionSynchronizationManager.initSynchronization();
+        before.add("a");
+        after.add("x");
+        before.add("b");
+        assertEquals(2, TransactionSynchronizationManager.getSynchronizations().size());
+        assertEquals(List.of(), flushed);
+
+        List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+        syncs.forEach(s -> s.beforeCommit(false));
+        assertEquals(List.of("antes [a, b]"), flushed);
+        syncs.forEach(TransactionSynchronization::afterCommit);
+        assertEquals(List.of("antes [a, b]", "despues [x]"), flushed);
+    }
+
+    @Test
+    void rollbackDiscardsAndNoTransactionDeliversAtOnce() {
+        TransactionBuffer<String> buffer = new TransactionBuffer<>(TransactionBuffer.Phase.BEFORE_COMMIT,
+                items -> flushed.add(items.toString()));
+
+        TransactionSynchronizationManager.initSynchronization();
+        buffer.add("revertido");
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+        assertEquals(List.of(), flushed);
+
+        buffer.add("suelto");
+        assertEquals(List.of("[suelto]"), flushed);
+    }
+}
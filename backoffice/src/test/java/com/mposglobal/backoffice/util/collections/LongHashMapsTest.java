@@ -0,0 +1,87 @@
+package com.mposglobal.backoffice.util.collections;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+class LongHashMapsTest {
+
+    @Test
+    void randomOperationsMatchHashMap() {
+        SplittableRandom random = new SplittableRandom(7);
+        Map<Long, Long> expected = new HashMap<>();
+        LongLongHashMap longs = new LongLongHashMap(4);
+        LongObjectHashMap<String> objects = new LongObjectHashMap<>(4);
+
+        for (int i = 0; i < 200_000; i++) {
+            // Claves en un rango chico para forzar colisiones, borrados y reinserciones (incluida la 0)
+            long key = random.nextInt(2_000) - 5;
+            if (random.nextInt(3) == 0) {
+                Long removed = expected.remove(key);
+                assertEquals(removed != null, longs.containsKey(key));
+                longs.remove(key);
+                assertEquals(removed == null ? null : String.valueOf(removed), objects.remove(key));
+            } else {
+                long value = random.nextLong();
+                expected.put(key, value);
+                longs.put(key, value);
+                objects.put(key, String.valueOf(value));
+            }
+        }
+
+        assertEquals(expected.size(), longs.size());
+        assertEquals(expected.size(), objects.size());
+        expected.forEach((key, value) -> {
+            assertEquals(value, longs.getOrDefault(key, -1));
+            assertEquals(String.valueOf(value), objects.get(key));
+        });
+        Map<Long, Long> visited = new HashMap<>();
+        longs.forEach(visited::put);
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void copiesAreIndependentAndCountersStartAtZero() {
+        LongObjectHashMap<String> original = new LongObjectHashMap<>(2);
+        original.put(1, "a");
+        LongObjectHashMap<String> copy = original.copy();
+        copy.put(1, "b");
+        copy.put(2, "c");
+
+        assertEquals("a", original.get(1));
+        assertNull(original.get(2));
+        assertEquals(2, copy.size());
+
+        LongIntHashMap counts = new LongIntHashMap(0);
+        assertEquals(1, counts.addTo(10, 1));
+        assertEquals(3, counts.addTo(10, 2));
+        assertEquals(-1, counts.getOrDefault(11, -1));
+        assertTrue(counts.remove(10));
+        assertFalse(counts.remove(10));
+        assertTrue(counts.isEmpty());
+    }
+
+    @Test
+    void sortedArraysStaySortedAndUnique() {
+        SortedLongArray ids = SortedLongArray.of(5, 1, 3, 3);
+        assertArrayEquals(new long[] {1, 3, 5}, ids.toArray());
+        assertSame(ids, ids.with(3));
+        assertArrayEquals(new long[] {1, 2, 3, 5}, ids.with(2).toArray());
+        assertArrayEquals(new long[] {1, 5}, ids.without(3).toArray());
+        assertSame(SortedLongArray.EMPTY, SortedLongArray.of(4).without(4));
+
+        SortedLongArray built = new SortedLongArray.Builder(1).add(9).add(2).add(9).add(4).build();
+        assertArrayEquals(new long[] {2, 4, 9}, built.toArray());
+        assertTrue(built.contains(4));
+        assertFalse(built.contains(3));
+    }
+}
@@ -0,0 +1,73 @@
+package com.mposglobal.backoffice.util.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+class MinHashLshTest {
+
+    @Test
+    void ranksCandidatesByExactJaccardAndFollowsChanges() {
+        MinHashLsh lsh = new MinHashLsh(4);
+        lsh.put(1, MinHashLsh.hashes(List.of("ropa", "algodon", "rojo")));
+        lsh.put(2, MinHashLsh.hashes(List.of("ropa", "algodon", "rojo")));
+        lsh.put(3, MinHashLsh.hashes(List.of("ropa", "algodon", "rojo", "verano")));
+        lsh.put(4, MinHashLsh.hashes(List.of()));
+
+        List<MinHashLsh.Match> related = lsh.similar(1, 5, 100);
+        assertEquals(List.of(new MinHashLsh.Match(2, 1.0), new MinHashLsh.Match(3, 0.75)), related);
+        assertEquals(List.of(), lsh.similar(4, 5, 100));
+        assertEquals(4, lsh.size());
+
+        lsh.put(2, MinHashLsh.hashes(List.of("juguetes")));
+        assertEquals(List.of(3L), ids(lsh.similar(1, 5, 100)));
+        lsh.remove(3);
+        assertEquals(List.of(), lsh.similar(1, 5, 100));
+    }
+
+    @Test
+    void findsMostSimilarSetsWithoutScanningAll() {
+        SplittableRandom random = new SplittableRandom(3);
+        MinHashLsh lsh = new MinHashLsh(0);
+        List<long[]> sets = new ArrayList<>();
+        for (int id = 0; id < 3_000; id++) {
+            Set<String> tags = new TreeSet<>();
+            for (int n = 1 + random.nextInt(5); tags.size() < n; ) {
+                tags.add("t" + random.nextInt(60));
+            }
+            sets.add(MinHashLsh.hashes(tags));
+            lsh.put(id, sets.get(id));
+        }
+
+        // Los conjuntos con Jaccard >= 0.5 deben aparecer casi siempre entre los candidatos
+        int expected = 0;
+        int found = 0;
+        for (int id = 0; id < 300; id++) {
+            List<MinHashLsh.Match> related = lsh.similar(id, 3_000, 3_000);
+            for (MinHashLsh.Match match : related) {
+                assertEquals(MinHashLsh.jaccard(sets.get(id), sets.get((int) match.id())), match.similarity());
+            }
+            for (int other = 0; other < sets.size(); other++) {
+                if (other != id && MinHashLsh.jaccard(sets.get(id), sets.get(other)) >= 0.5) {
+                    expected++;
+                    found += ids(related).contains((long) other) ? 1 : 0;
+                }
+            }
+            for (int i = 1; i < related.size(); i++) {
+                assertTrue(related.get(i - 1).similarity() >= related.get(i).similarity());
+            }
+        }
+        assertTrue(found >= expected * 0.85, found + "/" + expected);
+    }
+
+    private static List<Long> ids(List<MinHashLsh.Match> matches) {
+        return matches.stream().map(MinHashLsh.Match::id).toList();
+    }
+}
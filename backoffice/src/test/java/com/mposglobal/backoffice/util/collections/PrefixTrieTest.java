@@ -0,0 +1,129 @@
+package com.mposglobal.backoffice.util.collections;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+class PrefixTrieTest {
+
+    private static final String[] PREFIXES = {"a", "ca", "cam", "cama", "camar", "x", "za", "zz", "c", "camara"};
+
+    @Test
+    void randomOperationsMatchBruteForce() {
+        SplittableRandom random = new SplittableRandom(11);
+        // Vocabulario chico con prefijos compartidos, para ejercitar los nodos con mejores resultados
+        String[] vocabulary = {"a", "ab", "abc", "ca", "cama", "camara", "camaron", "camion", "casa", "x",
+                               "xy", "zapato", "zarza", "zz"};
+        Map<String, Set<Long>> expected = new HashMap<>();
+        PrefixTrie trie = new PrefixTrie(4, 3, 5);
+
+        for (int i = 0; i < 20_000; i++) {
+            String term = vocabulary[random.nextInt(vocabulary.length)];
+            long id = random.nextInt(300);
+            Set<Long> ids = expected.computeIfAbsent(term, t -> new TreeSet<>());
+            if (random.nextInt(3) == 0) {
+                assertEquals(ids.remove(id), trie.remove(term, id));
+            } else {
+                assertEquals(ids.add(id), trie.add(term, id));
+            }
+            if (i % 97 == 0) {
+                for (String prefix : PREFIXES) {
+                    for (int k : new int[] {1, 5, 8}) {
+                        assertArrayEquals(bruteForce(expected, prefix, k), top(trie, prefix, k), prefix + "/" + k);
+                    }
+                    long before = random.nextInt(310);
+                    assertArrayEquals(bruteForceBefore(expected, prefix, before), before(trie, prefix, before),
+                            prefix + "<" + before);
+                }
+            }
+        }
+        assertEquals(expected.values().stream().mapToLong(Set::size).sum(), trie.postingCount());
+    }
+
+    @Test
+    void cachedTopSurvivesRemovingPastItsSlack() {
+        PrefixTrie trie = new PrefixTrie(4, 2, 3);
+        Map<String, Set<Long>> expected = new HashMap<>();
+        for (long id = 1; id <= 20; id++) {
+            add(trie, expected, "cama", id);
+            // Los IDs pares también están en otra palabra del mismo prefijo
+            if (id % 2 == 0) {
+                add(trie, expected, "casa", id);
+            }
+        }
+        for (long id = 20; id > 0; id--) {
+            trie.remove("cama", id);
+            expected.get("cama").remove(id);
+            if (id % 4 == 0) {
+                trie.remove("casa", id);
+                expected.get("casa").remove(id);
+            }
+            assertArrayEquals(bruteForce(expected, "ca", 3), top(trie, "ca", 3), "sin " + id);
+        }
+        for (long id = 11; id <= 13; id++) {
+            add(trie, expected, "cama", id);
+        }
+        assertArrayEquals(new long[] {18, 14, 13}, top(trie, "c", 3));
+    }
+
+    @Test
+    void nodesIdentifyTermsAndPrefixes() {
+        PrefixTrie trie = new PrefixTrie(4, 2, 3);
+        trie.add("camara", 1);
+        trie.add("casa", 2);
+
+        int camara = trie.nodeOf("camara");
+        assertEquals("camara", trie.termOf(camara));
+        assertTrue(trie.startsWith(camara, trie.nodeOf("cam")));
+        assertFalse(trie.startsWith(camara, trie.nodeOf("cas")));
+        assertEquals(PrefixTrie.NONE, trie.nodeOf("perro"));
+        assertEquals(0, top(trie, "", 3).length);
+
+        List<Long> visited = new ArrayList<>();
+        trie.forEachDescending("ca", id -> visited.add(id) && visited.size() < 1);
+        assertEquals(List.of(2L), visited);
+    }
+
+    private static void add(PrefixTrie trie, Map<String, Set<Long>> expected, String term, long id) {
+        trie.add(term, id);
+        expected.computeIfAbsent(term, t -> new TreeSet<>()).add(id);
+    }
+
+    private static long[] top(PrefixTrie trie, String prefix, int k) {
+        long[] out = new long[k];
+        return Arrays.copyOf(out, trie.top(prefix, out));
+    }
+
+    private static long[] before(PrefixTrie trie, String prefix, long before) {
+        List<Long> ids = new ArrayList<>();
+        trie.forEachDescending(prefix, before, ids::add);
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long[] bruteForceBefore(Map<String, Set<Long>> expected, String prefix, long before) {
+        return Arrays.stream(bruteForce(expected, prefix, Integer.MAX_VALUE)).filter(id -> id < before).toArray();
+    }
+
+    private static long[] bruteForce(Map<String, Set<Long>> expected, String prefix, int k) {
+        TreeSet<Long> ids = new TreeSet<>(Comparator.reverseOrder());
+        expected.forEach((term, termIds) -> {
+            if (term.startsWith(prefix)) {
+                ids.addAll(termIds);
+            }
+        });
+        return ids.stream().limit(k).mapToLong(Long::longValue).toArray();
+    }
+}
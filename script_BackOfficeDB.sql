@@ -1,7 +1,11 @@
 -- =====================================================
 -- CREACIÓN DE BASE DE DATOS
+-- El script se puede volver a ejecutar sobre una base creada con una versión anterior:
+-- solo crea las tablas e índices que faltan, agrega las columnas nuevas (secciones
+-- MIGRACIÓN) y completa sus valores; los datos de prueba se cargan solo en una base vacía.
 -- =====================================================
-CREATE DATABASE BackOfficeDB;
+IF DB_ID(N'BackOfficeDB') IS NULL
+    CREATE DATABASE BackOfficeDB;
 GO
 
 USE BackOfficeDB;
@@ -10,6 +14,7 @@ GO
 -- =====================================================
 -- TABLA: USUARIOS
 -- =====================================================
+IF OBJECT_ID(N'Usuarios', N'U') IS NULL
 CREATE TABLE Usuarios (
     id INT IDENTITY(1,1) PRIMARY KEY,
     nombreCompleto NVARCHAR(150) NOT NULL,
@@ -17,26 +22,106 @@ CREATE TABLE Usuarios (
     clave NVARCHAR(255) NOT NULL, -- encriptada (ej: BCrypt o SHA-256)
     fechaCreacion DATETIME DEFAULT GETDATE(),
     fechaUltimoIngreso DATETIME NULL,
+    fechaDesactivacion DATETIME NULL, -- desde cuándo está DESACTIVADO (archivado)
     nivelAcceso NVARCHAR(20) CHECK (nivelAcceso IN ('USER','ADMIN')) NOT NULL,
-    estado NVARCHAR(20) CHECK (estado IN ('ACTIVO','DESACTIVADO')) NOT NULL
+    estado NVARCHAR(20) CHECK (estado IN ('ACTIVO','DESACTIVADO')) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0, -- control de concurrencia optimista (ETag)
+    -- columnas calculadas en minusculas para la busqueda por prefijo (GET /users?q=)
+    usernameBusqueda AS LOWER(username) PERSISTED,
+    nombreBusqueda AS LOWER(nombreCompleto) PERSISTED
 );
 GO
 
+-- MIGRACIÓN: columnas agregadas después de la primera versión del script. Una columna
+-- NOT NULL con DEFAULT ... WITH VALUES deja el valor por defecto en las filas existentes.
+IF COL_LENGTH(N'Usuarios', N'fechaDesactivacion') IS NULL
+    ALTER TABLE Usuarios ADD fechaDesactivacion DATETIME NULL;
+IF COL_LENGTH(N'Usuarios', N'version') IS NULL
+    ALTER TABLE Usuarios ADD version BIGINT NOT NULL DEFAULT 0 WITH VALUES;
+IF COL_LENGTH(N'Usuarios', N'usernameBusqueda') IS NULL
+    ALTER TABLE Usuarios ADD usernameBusqueda AS LOWER(username) PERSISTED;
+IF COL_LENGTH(N'Usuarios', N'nombreBusqueda') IS NULL
+    ALTER TABLE Usuarios ADD nombreBusqueda AS LOWER(nombreCompleto) PERSISTED;
+GO
+
+-- Los usuarios que ya estaban desactivados empiezan a contar para el archivado desde la migración
+UPDATE Usuarios SET fechaDesactivacion = GETDATE() WHERE estado = 'DESACTIVADO' AND fechaDesactivacion IS NULL;
+GO
+
+-- Listado paginado por estado/nivel (keyset sobre id) y busqueda por prefijo
+IF INDEXPROPERTY(OBJECT_ID(N'Usuarios'), N'IX_Usuarios_estado_nivelAcceso', 'IndexID') IS NULL
+    CREATE INDEX IX_Usuarios_estado_nivelAcceso ON Usuarios (estado, nivelAcceso, id);
+IF INDEXPROPERTY(OBJECT_ID(N'Usuarios'), N'IX_Usuarios_usernameBusqueda', 'IndexID') IS NULL
+    CREATE INDEX IX_Usuarios_usernameBusqueda ON Usuarios (usernameBusqueda) INCLUDE (estado, nivelAcceso);
+IF INDEXPROPERTY(OBJECT_ID(N'Usuarios'), N'IX_Usuarios_nombreBusqueda', 'IndexID') IS NULL
+    CREATE INDEX IX_Usuarios_nombreBusqueda ON Usuarios (nombreBusqueda) INCLUDE (estado, nivelAcceso);
+GO
+
 -- =====================================================
 -- TABLA: CATEGORÍAS
 -- =====================================================
+IF OBJECT_ID(N'Categorias', N'U') IS NULL
 CREATE TABLE Categorias (
     id INT IDENTITY(1,1) PRIMARY KEY,
     nombre NVARCHAR(100) NOT NULL UNIQUE,
     fechaCreacion DATETIME DEFAULT GETDATE(),
     fechaActualizacion DATETIME DEFAULT GETDATE(),
-    estado NVARCHAR(20) CHECK (estado IN ('ACTIVO','DESACTIVADO')) NOT NULL
+    estado NVARCHAR(20) CHECK (estado IN ('ACTIVO','DESACTIVADO')) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0, -- control de concurrencia optimista (ETag)
+    padreId INT NULL,
+    -- DESACTIVADO si la categoría o alguno de sus ancestros lo está; se mantiene al desactivar,
+    -- reactivar o mover para no recorrer la jerarquía en cada validación
+    estadoEfectivo NVARCHAR(20) DEFAULT 'ACTIVO' NOT NULL CHECK (estadoEfectivo IN ('ACTIVO','DESACTIVADO')),
+    CONSTRAINT FK_Categorias_padre FOREIGN KEY (padreId) REFERENCES Categorias(id)
+);
+GO
+
+-- MIGRACIÓN: versión, padre y estado efectivo
+IF COL_LENGTH(N'Categorias', N'version') IS NULL
+    ALTER TABLE Categorias ADD version BIGINT NOT NULL DEFAULT 0 WITH VALUES;
+IF COL_LENGTH(N'Categorias', N'padreId') IS NULL
+    ALTER TABLE Categorias ADD padreId INT NULL;
+IF COL_LENGTH(N'Categorias', N'estadoEfectivo') IS NULL
+    ALTER TABLE Categorias ADD estadoEfectivo NVARCHAR(20) NOT NULL DEFAULT 'ACTIVO' WITH VALUES
+        CHECK (estadoEfectivo IN ('ACTIVO','DESACTIVADO'));
+GO
+
+IF OBJECT_ID(N'FK_Categorias_padre', N'F') IS NULL
+    ALTER TABLE Categorias ADD CONSTRAINT FK_Categorias_padre FOREIGN KEY (padreId) REFERENCES Categorias(id);
+-- Las categorías previas a la jerarquía son raíces: su estado efectivo es el propio
+UPDATE Categorias SET estadoEfectivo = estado WHERE padreId IS NULL AND estadoEfectivo <> estado;
+GO
+
+-- Tabla de clausura de la jerarquía departamento -> pasillo -> estante: una fila por cada par
+-- (ancestro, descendiente), incluida la de cada categoría consigo misma (profundidad 0).
+-- El subárbol de una categoría es un rango de la clave primaria.
+IF OBJECT_ID(N'CategoriasJerarquia', N'U') IS NULL
+CREATE TABLE CategoriasJerarquia (
+    ancestroId INT NOT NULL,
+    descendienteId INT NOT NULL,
+    profundidad INT NOT NULL,
+    PRIMARY KEY (ancestroId, descendienteId)
+);
+GO
+
+-- ancestros de una categoría (al mover o recalcular el estado efectivo)
+IF INDEXPROPERTY(OBJECT_ID(N'CategoriasJerarquia'), N'IX_CategoriasJerarquia_descendiente', 'IndexID') IS NULL
+    CREATE INDEX IX_CategoriasJerarquia_descendiente ON CategoriasJerarquia (descendienteId, ancestroId);
+GO
+
+-- Bloqueos de aplicación: una fila por recurso, actualizada al principio de la transacción que
+-- lo modifica para serializarlas entre instancias (p. ej. los movimientos de la jerarquía)
+IF OBJECT_ID(N'Bloqueos', N'U') IS NULL
+CREATE TABLE Bloqueos (
+    nombre NVARCHAR(50) PRIMARY KEY,
+    fecha DATETIME2 NULL
 );
 GO
 
 -- =====================================================
 -- TABLA: PRODUCTOS
 -- =====================================================
+IF OBJECT_ID(N'Productos', N'U') IS NULL
 CREATE TABLE Productos (
     id INT IDENTITY(1,1) PRIMARY KEY,
     nombre NVARCHAR(150) NOT NULL,
@@ -47,15 +132,188 @@ CREATE TABLE Productos (
     fechaCreacion DATETIME DEFAULT GETDATE(),
     fechaActualizacion DATETIME DEFAULT GETDATE(),
     estado NVARCHAR(20) CHECK (estado IN ('ACTIVO','DESACTIVADO')) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0, -- control de concurrencia optimista (ETag)
     CONSTRAINT FK_Productos_Categorias FOREIGN KEY (categoriaId) REFERENCES Categorias(id)
 );
 GO
 
+-- MIGRACIÓN: versión
+IF COL_LENGTH(N'Productos', N'version') IS NULL
+    ALTER TABLE Productos ADD version BIGINT NOT NULL DEFAULT 0 WITH VALUES;
+GO
+
+-- recorrido del archivado (desactivados por id), validación de la clave foránea al archivar
+-- categorías y productos activos de un subárbol (join con CategoriasJerarquia)
+IF INDEXPROPERTY(OBJECT_ID(N'Productos'), N'IX_Productos_estado', 'IndexID') IS NULL
+    CREATE INDEX IX_Productos_estado ON Productos (estado, id);
+IF INDEXPROPERTY(OBJECT_ID(N'Productos'), N'IX_Productos_categoria', 'IndexID') IS NULL
+    CREATE INDEX IX_Productos_categoria ON Productos (categoriaId, estado, id);
+GO
+
+-- =====================================================
+-- TABLA: CÓDIGOS DE BARRA
+-- Códigos GTIN (EAN-8, UPC-A, EAN-13, GTIN-14) de cada producto, guardados con 14 dígitos.
+-- Un código pertenece a un solo producto; al archivar el producto se borran sus códigos.
+-- =====================================================
+IF OBJECT_ID(N'CodigosBarra', N'U') IS NULL
+CREATE TABLE CodigosBarra (
+    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    codigo NVARCHAR(14) NOT NULL,
+    productoId INT NOT NULL,
+    CONSTRAINT FK_CodigosBarra_Productos FOREIGN KEY (productoId) REFERENCES Productos(id) ON DELETE CASCADE
+);
+GO
+
+IF INDEXPROPERTY(OBJECT_ID(N'CodigosBarra'), N'UX_CodigosBarra_codigo', 'IndexID') IS NULL
+    CREATE UNIQUE INDEX UX_CodigosBarra_codigo ON CodigosBarra (codigo);
+-- códigos de un producto al modificarlo
+IF INDEXPROPERTY(OBJECT_ID(N'CodigosBarra'), N'IX_CodigosBarra_producto', 'IndexID') IS NULL
+    CREATE INDEX IX_CodigosBarra_producto ON CodigosBarra (productoId, codigo);
+GO
+
+-- =====================================================
+-- TABLA: HISTORIAL DE PRECIOS (solo inserción)
+-- Una fila por cada cambio de costo, precio o categoría de un producto,
+-- escrita en la misma transacción que el cambio.
+-- =====================================================
+IF OBJECT_ID(N'PrecioHistorial', N'U') IS NULL
+CREATE TABLE PrecioHistorial (
+    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    productoId INT NOT NULL,
+    categoriaId INT NOT NULL,
+    costo DECIMAL(10,2) NOT NULL,
+    precio DECIMAL(10,2) NOT NULL,
+    vigenteDesde DATETIME2 NOT NULL,
+    usuario NVARCHAR(50) NULL -- sin clave foránea: el historial sobrevive al archivado del producto
+);
+GO
+
+-- rango de un producto: una sola búsqueda en el índice, sin volver a la tabla
+IF INDEXPROPERTY(OBJECT_ID(N'PrecioHistorial'), N'IX_PrecioHistorial_producto_vigencia', 'IndexID') IS NULL
+    CREATE INDEX IX_PrecioHistorial_producto_vigencia ON PrecioHistorial (productoId, vigenteDesde, id)
+        INCLUDE (categoriaId, costo, precio, usuario);
+-- productos que pasaron por una categoría, para la consulta a una fecha
+IF INDEXPROPERTY(OBJECT_ID(N'PrecioHistorial'), N'IX_PrecioHistorial_categoria', 'IndexID') IS NULL
+    CREATE INDEX IX_PrecioHistorial_categoria ON PrecioHistorial (categoriaId, productoId, vigenteDesde);
+GO
+
+-- =====================================================
+-- TABLA: AUDITORÍA (cambios de usuarios, categorías y productos)
+-- La escribe un hilo en segundo plano con inserciones por lotes, después del commit
+-- de cada cambio; cambios es un JSON {"campo": {"antes": ..., "despues": ...}}.
+-- =====================================================
+IF OBJECT_ID(N'Auditoria', N'U') IS NULL
+CREATE TABLE Auditoria (
+    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    entidad NVARCHAR(20) NOT NULL,
+    entidadId BIGINT NOT NULL,
+    accion NVARCHAR(20) NOT NULL,
+    usuario NVARCHAR(50) NULL,
+    cambios NVARCHAR(MAX) NOT NULL,
+    fecha DATETIME2 NOT NULL
+);
+GO
+
+-- historial de un registro y acciones de un usuario, de la más reciente a la más antigua
+IF INDEXPROPERTY(OBJECT_ID(N'Auditoria'), N'IX_Auditoria_entidad', 'IndexID') IS NULL
+    CREATE INDEX IX_Auditoria_entidad ON Auditoria (entidad, entidadId, id);
+IF INDEXPROPERTY(OBJECT_ID(N'Auditoria'), N'IX_Auditoria_usuario', 'IndexID') IS NULL
+    CREATE INDEX IX_Auditoria_usuario ON Auditoria (usuario, id);
+GO
+
+-- =====================================================
+-- TABLAS DE ARCHIVO
+-- Filas DESACTIVADO movidas por el archivado programado, con el mismo ID. Sin claves
+-- foráneas ni UNIQUE: un username archivado puede volver a usarse.
+-- =====================================================
+IF OBJECT_ID(N'Usuarios_Archivo', N'U') IS NULL
+CREATE TABLE Usuarios_Archivo (
+    id INT PRIMARY KEY,
+    nombreCompleto NVARCHAR(150) NOT NULL,
+    username NVARCHAR(50) NOT NULL,
+    clave NVARCHAR(255) NOT NULL,
+    fechaCreacion DATETIME NULL,
+    fechaUltimoIngreso DATETIME NULL,
+    fechaDesactivacion DATETIME NULL,
+    nivelAcceso NVARCHAR(20) NOT NULL,
+    estado NVARCHAR(20) NOT NULL,
+    version BIGINT NOT NULL,
+    fechaArchivo DATETIME2 NOT NULL
+);
+GO
+
+IF OBJECT_ID(N'Categorias_Archivo', N'U') IS NULL
+CREATE TABLE Categorias_Archivo (
+    id INT PRIMARY KEY,
+    nombre NVARCHAR(100) NOT NULL,
+    fechaCreacion DATETIME NULL,
+    fechaActualizacion DATETIME NULL,
+    estado NVARCHAR(20) NOT NULL,
+    version BIGINT NOT NULL,
+    padreId INT NULL,
+    estadoEfectivo NVARCHAR(20) NOT NULL,
+    fechaArchivo DATETIME2 NOT NULL
+);
+GO
+
+IF OBJECT_ID(N'Productos_Archivo', N'U') IS NULL
+CREATE TABLE Productos_Archivo (
+    id INT PRIMARY KEY,
+    nombre NVARCHAR(150) NOT NULL,
+    categoriaId INT NOT NULL,
+    costo DECIMAL(10,2) NOT NULL,
+    precio DECIMAL(10,2) NOT NULL,
+    tags NVARCHAR(255),
+    fechaCreacion DATETIME NULL,
+    fechaActualizacion DATETIME NULL,
+    estado NVARCHAR(20) NOT NULL,
+    version BIGINT NOT NULL,
+    fechaArchivo DATETIME2 NOT NULL
+);
+GO
+
+-- Avance del archivado por tabla: ultimoId es el último ID revisado de la pasada en curso
+-- (0 sin pasada en curso) y corte la fecha límite fijada al empezarla
+IF OBJECT_ID(N'ArchivoProgreso', N'U') IS NULL
+CREATE TABLE ArchivoProgreso (
+    tabla NVARCHAR(30) PRIMARY KEY,
+    ultimoId BIGINT NOT NULL,
+    corte DATETIME2 NULL,
+    filasMovidas BIGINT NOT NULL,
+    actualizado DATETIME2 NOT NULL
+);
+GO
+
+-- =====================================================
+-- TABLA: OUTBOX (eventos de cambio del catálogo)
+-- Se escribe en la misma transacción que cada cambio de producto o categoría; un relay la
+-- lee en orden de id, entrega los eventos y los marca procesados. Las filas procesadas
+-- se compactan después de un tiempo.
+-- =====================================================
+IF OBJECT_ID(N'Outbox', N'U') IS NULL
+CREATE TABLE Outbox (
+    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    tipo NVARCHAR(20) NOT NULL,
+    entidadId BIGINT NOT NULL,
+    accion NVARCHAR(20) NOT NULL,
+    datos NVARCHAR(MAX) NOT NULL,
+    fecha DATETIME2 NOT NULL,
+    procesado BIT NOT NULL DEFAULT 0,
+    fechaProcesado DATETIME2 NULL
+);
+GO
+
+-- pendientes en orden de id para el relay y procesadas para la compactación
+IF INDEXPROPERTY(OBJECT_ID(N'Outbox'), N'IX_Outbox_procesado', 'IndexID') IS NULL
+    CREATE INDEX IX_Outbox_procesado ON Outbox (procesado, id);
+GO
+
 -- =====================================================
 -- DATOS DE PRUEBA
 -- =====================================================
 
 -- Usuarios (ejemplo de claves encriptadas con BCrypt simuladas)
+IF NOT EXISTS (SELECT 1 FROM Usuarios)
 INSERT INTO Usuarios (nombreCompleto, username, clave, nivelAcceso, estado)
 VALUES
 ('Administrador General', 'admin', '$2a$10$zH/fqi850vx3kq9uj0RLLuTjUNfYu.ZSkqF9Q4gdXo0dRq7snHTfe', 'ADMIN', 'ACTIVO'), 
@@ -64,16 +322,39 @@ VALUES
 -- clave: user123
 
 -- Categorías
+IF NOT EXISTS (SELECT 1 FROM Categorias)
 INSERT INTO Categorias (nombre, estado)
 VALUES
 ('Electrónica', 'ACTIVO'),
 ('Ropa', 'ACTIVO'),
 ('Juguetes', 'ACTIVO');
 
--- Productos
+-- Productos y sus códigos de barras internos (prefijo 200)
+IF NOT EXISTS (SELECT 1 FROM Productos)
+BEGIN
 INSERT INTO Productos (nombre, categoriaId, costo, precio, tags, estado)
 VALUES
 ('Smartphone XYZ', 1, 300.00, 450.00, 'android,5G,128GB', 'ACTIVO'),
 ('Laptop ABC', 1, 800.00, 1200.00, 'intel,i7,16GB', 'ACTIVO'),
 ('Camiseta Roja', 2, 5.00, 12.00, 'ropa,algodon,rojo', 'ACTIVO'),
 ('Muñeco de Acción', 3, 10.00, 20.00, 'juguetes,coleccion', 'ACTIVO');
+
+INSERT INTO CodigosBarra (codigo, productoId)
+VALUES
+('02000000000015', 1),
+('02000000000022', 2),
+('02000000000039', 3),
+('02000000000046', 4);
+END
+
+-- MIGRACIÓN: fila propia en la jerarquía de cada categoría que no la tenga (las anteriores
+-- a la jerarquía son raíces, así que no tienen otros ancestros)
+INSERT INTO CategoriasJerarquia (ancestroId, descendienteId, profundidad)
+SELECT c.id, c.id, 0 FROM Categorias c
+WHERE NOT EXISTS (SELECT 1 FROM CategoriasJerarquia j WHERE j.ancestroId = c.id AND j.descendienteId = c.id);
+
+-- MIGRACIÓN: precio inicial en el historial de cada producto que no tenga ninguno
+INSERT INTO PrecioHistorial (productoId, categoriaId, costo, precio, vigenteDesde)
+SELECT p.id, p.categoriaId, p.costo, p.precio, p.fechaCreacion FROM Productos p
+WHERE NOT EXISTS (SELECT 1 FROM PrecioHistorial h WHERE h.productoId = p.id);
+GO